@@ -0,0 +1,481 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+
+import org.telosys.tools.commons.io.CopyHandler;
+import org.telosys.tools.commons.io.OverwriteChooser;
+import org.telosys.tools.generator.output.OutputSink;
+
+/**
+ * Bundle of templates packaged in a zip or jar file and used without extraction ( v 4.2.0 ) <br>
+ * The archive is opened with the NIO zip file system (only the central directory is read) : <br>
+ * . the resources ('resources' folder) are streamed from the zip entries to the destination <br>
+ * . the specific classes ('classes' folder and 'lib/*.jar' nested entries) are loaded from the archive <br>
+ * . the templates are copied on first use in a local folder (the Velocity engine loads the templates from a folder) 
+ *   without the resources and the libraries <br>
+ * The bundle root is the root of the archive or its single top level folder (eg 'basic-templates/...') <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class BundleArchive implements Closeable {
+
+	public static final String RESOURCES_FOLDER = "resources" ;
+	public static final String CLASSES_FOLDER   = "classes" ;
+	public static final String LIB_FOLDER       = "lib" ;
+
+	private final File       archiveFile ;
+	private final File       templatesFolder ;
+	private final FileSystem zipFileSystem ;
+	private final Path       root ;
+
+	private volatile boolean templatesExtracted = false ;
+	private volatile BundleArchiveClassLoader classLoader = null ;
+
+	/**
+	 * Constructor
+	 * @param archiveFile the bundle archive file (zip or jar)
+	 * @param templatesFolder the local folder where the templates are copied on first use
+	 * @throws GeneratorException if the archive cannot be opened
+	 */
+	public BundleArchive(File archiveFile, File templatesFolder) throws GeneratorException {
+		super();
+		if ( ! archiveFile.isFile() ) {
+			throw new GeneratorException("Bundle archive '" + archiveFile + "' not found");
+		}
+		this.archiveFile = archiveFile ;
+		this.templatesFolder = templatesFolder ;
+		try {
+			this.zipFileSystem = FileSystems.newFileSystem(archiveFile.toPath(), (ClassLoader) null);
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot open bundle archive '" + archiveFile + "'", e);
+		}
+		this.root = findRoot(zipFileSystem.getPath("/"));
+	}
+
+	/**
+	 * Returns the bundle root : the archive root or its single top level folder 
+	 * @param archiveRoot
+	 * @return
+	 */
+	private static Path findRoot(Path archiveRoot) {
+		Path single = null ;
+		try ( DirectoryStream<Path> stream = Files.newDirectoryStream(archiveRoot) ) {
+			for ( Path path : stream ) {
+				if ( single != null || ! Files.isDirectory(path) || isBundleFolder(path) ) {
+					return archiveRoot ;
+				}
+				single = path ;
+			}
+		} catch (IOException e) {
+			return archiveRoot ;
+		}
+		return single != null ? single : archiveRoot ;
+	}
+
+	private static boolean isBundleFolder(Path path) {
+		String name = getName(path);
+		return RESOURCES_FOLDER.equals(name) || CLASSES_FOLDER.equals(name) || LIB_FOLDER.equals(name) ;
+	}
+
+	private static String getName(Path path) {
+		Path fileName = path.getFileName();
+		if ( fileName == null ) {
+			return "" ;
+		}
+		String name = fileName.toString();
+		return name.endsWith("/") ? name.substring(0, name.length() - 1) : name ;
+	}
+
+	/**
+	 * Returns the archive file
+	 * @return
+	 */
+	public File getArchiveFile() {
+		return archiveFile;
+	}
+
+	/**
+	 * Returns the path of the given element in the bundle (in the zip file system)
+	 * @param name the file or folder name in the bundle (eg "foo.vm", "subdir/foo.vm" or "/subdir/foo.vm")
+	 * @return
+	 * @throws GeneratorException if the name is invalid
+	 */
+	public Path getPath(String name) throws GeneratorException {
+		String s = name.startsWith("/") ? name.substring(1) : name ;
+		if ( s.contains("..") ) {
+			throw new GeneratorException("Invalid bundle file name '" + name + "'");
+		}
+		return s.isEmpty() ? root : root.resolve(s) ;
+	}
+
+	/**
+	 * Returns true if the given file exists in the bundle
+	 * @param name the file name in the bundle
+	 * @return
+	 */
+	public boolean isFile(String name) {
+		try {
+			return Files.isRegularFile(getPath(name));
+		} catch (GeneratorException e) {
+			return false ;
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// Templates
+	//----------------------------------------------------------------------------------------------------
+	/**
+	 * Returns the local folder containing the bundle templates <br>
+	 * The templates are copied from the archive on the first call (without the resources and the libraries)
+	 * @return the folder absolute path 
+	 * @throws GeneratorException if the templates cannot be copied
+	 */
+	public String getTemplatesFolder() throws GeneratorException {
+		if ( ! templatesExtracted ) {
+			synchronized (this) {
+				if ( ! templatesExtracted ) {
+					extractTemplates();
+					templatesExtracted = true ;
+				}
+			}
+		}
+		return templatesFolder.getAbsolutePath();
+	}
+
+	private void extractTemplates() throws GeneratorException {
+		final Path destination = templatesFolder.toPath();
+		try {
+			Files.createDirectories(destination);
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					if ( ! dir.equals(root) && root.relativize(dir).getNameCount() == 1 && isBundleFolder(dir) ) {
+						return FileVisitResult.SKIP_SUBTREE ; // not a template
+					}
+					Files.createDirectories(resolve(destination, root.relativize(dir)));
+					return FileVisitResult.CONTINUE ;
+				}
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Path target = resolve(destination, root.relativize(file));
+					Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+					Files.setLastModifiedTime(target, attrs.lastModifiedTime());
+					return FileVisitResult.CONTINUE ;
+				}
+			});
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot copy the templates of bundle archive '" + archiveFile + "' in '" + templatesFolder + "'", e);
+		}
+	}
+
+	private static Path resolve(Path folder, Path relativePathInArchive) {
+		// different file systems : the relative path is resolved element by element
+		Path path = folder ;
+		for ( Path element : relativePathInArchive ) {
+			String name = getName(element);
+			if ( ! name.isEmpty() ) {
+				path = path.resolve(name);
+			}
+		}
+		return path ;
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// Resources
+	//----------------------------------------------------------------------------------------------------
+	private Path getResourcePath(String resourceName) throws GeneratorException {
+		Path path = getPath(RESOURCES_FOLDER + "/" + resourceName);
+		if ( ! Files.exists(path) ) {
+			throw new GeneratorException("Resource file or folder '" + resourceName + "' not found in bundle archive '" + archiveFile + "'");
+		}
+		return path ;
+	}
+
+	/**
+	 * Copies the given resource file or folder (recursively) in the file system <br>
+	 * As with a bundle folder, the overwrite chooser is called for each existing destination file 
+	 * and the copy handler is notified before and after each file copy
+	 * @param resourceName the file or folder name in the 'resources' folder
+	 * @param destination the destination file or folder
+	 * @param overwriteChooser the chooser for the existing files (or null to replace the existing files)
+	 * @param copyHandler handler for action 'before' and 'after' copy (can be null)
+	 * @return number of files copied or -1 if the copy has been canceled 
+	 * @throws GeneratorException
+	 */
+	public int copyResource(String resourceName, File destination, 
+			OverwriteChooser overwriteChooser, CopyHandler copyHandler) throws GeneratorException {
+		Path origin = getResourcePath(resourceName);
+		List<Path> files = new ArrayList<>();
+		int count = 0 ;
+		boolean overwriteAll = overwriteChooser == null ;
+		boolean keepAll = false ;
+		try {
+			collectFiles(origin, files);
+			for ( Path file : files ) {
+				File target = resolve(destination.toPath(), origin.relativize(file)).toFile();
+				if ( target.exists() && ! overwriteAll ) {
+					if ( keepAll ) {
+						continue ;
+					}
+					int choice = overwriteChooser.choose(target.getName(), target.getParent());
+					if ( choice == OverwriteChooser.CANCEL ) {
+						return -1 ;
+					}
+					else if ( choice == OverwriteChooser.NO_TO_ALL ) {
+						keepAll = true ;
+						continue ;
+					}
+					else if ( choice == OverwriteChooser.YES_TO_ALL ) {
+						overwriteAll = true ;
+					}
+					else if ( choice != OverwriteChooser.YES ) {
+						continue ; // 'NO' : existing file kept
+					}
+				}
+				copyFile(file, target, copyHandler);
+				count++ ;
+			}
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot copy resource '" + resourceName + "' in '" + destination + "'", e);
+		}
+		return count ;
+	}
+
+	private void copyFile(Path file, File target, CopyHandler copyHandler) throws IOException {
+		// origin as a file in the archive (eg '/foo/bundle.zip/resources/x.txt') for the copy handler 
+		File origin = resolve(archiveFile.toPath(), zipFileSystem.getPath("/").relativize(file)).toFile();
+		if ( copyHandler != null ) {
+			copyHandler.beforeFileCopy(origin, target);
+		}
+		File parent = target.getParentFile();
+		if ( parent != null ) {
+			Files.createDirectories(parent.toPath());
+		}
+		Files.copy(file, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		if ( copyHandler != null ) {
+			copyHandler.afterFileCopy(origin, target);
+		}
+	}
+
+	/**
+	 * Copies the given resource file or folder (recursively) in the given output sink
+	 * @param resourceName the file or folder name in the 'resources' folder
+	 * @param outputSink 
+	 * @param destinationName the file or folder name in the project
+	 * @return number of files copied
+	 * @throws GeneratorException
+	 */
+	public int copyResource(String resourceName, OutputSink outputSink, String destinationName) throws GeneratorException {
+		Path origin = getResourcePath(resourceName);
+		List<Path> files = new ArrayList<>();
+		try {
+			collectFiles(origin, files);
+			for ( Path file : files ) {
+				String name = destinationName ;
+				for ( Path element : origin.relativize(file) ) {
+					String s = getName(element);
+					if ( ! s.isEmpty() ) {
+						name = name + "/" + s ;
+					}
+				}
+				outputSink.writeFile(name, Files.readAllBytes(file));
+			}
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot read resource '" + resourceName + "' in bundle archive '" + archiveFile + "'", e);
+		}
+		return files.size() ;
+	}
+
+	private static void collectFiles(Path origin, final List<Path> files) throws IOException {
+		Files.walkFileTree(origin, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				files.add(file);
+				return FileVisitResult.CONTINUE ;
+			}
+		});
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// Specific classes
+	//----------------------------------------------------------------------------------------------------
+	/**
+	 * Returns the class loader for the specific classes located in the archive 
+	 * ('classes' folder and jar files in the 'lib' folder) 
+	 * @return
+	 */
+	public URLClassLoader getClassLoader() {
+		BundleArchiveClassLoader current = classLoader ;
+		if ( current == null ) {
+			synchronized (this) {
+				current = classLoader ;
+				if ( current == null ) {
+					current = new BundleArchiveClassLoader(this, BundleArchive.class.getClassLoader());
+					classLoader = current ;
+				}
+			}
+		}
+		return current ;
+	}
+
+	/**
+	 * Closes the zip file system
+	 */
+	@Override
+	public void close() throws IOException {
+		zipFileSystem.close();
+	}
+
+	/**
+	 * Class loader for the classes and the nested jar files of the archive <br>
+	 * The jar files in the 'lib' folder are read in memory on the first search (no extraction)
+	 */
+	private static final class BundleArchiveClassLoader extends URLClassLoader {
+
+		private final BundleArchive archive ;
+		private Map<String, byte[]> libEntries = null ; // 'lib/*.jar' entries (first jar wins)
+
+		private BundleArchiveClassLoader(BundleArchive archive, ClassLoader parent) {
+			super(new URL[0], parent);
+			this.archive = archive ;
+		}
+
+		@Override
+		public URL[] getURLs() {
+			try {
+				return new URL[] { archive.getArchiveFile().toURI().toURL() } ;
+			} catch (MalformedURLException e) {
+				return new URL[0];
+			}
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = findBytes(name.replace('.', '/') + ".class");
+			if ( bytes == null ) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+		@Override
+		public URL findResource(String name) {
+			try {
+				Path path = archive.getPath(CLASSES_FOLDER + "/" + name);
+				if ( Files.isRegularFile(path) ) {
+					return path.toUri().toURL();
+				}
+			} catch (GeneratorException | MalformedURLException e) {
+				// not found
+			}
+			return null ;
+		}
+
+		@Override
+		public InputStream getResourceAsStream(String name) {
+			InputStream inputStream = super.getResourceAsStream(name);
+			if ( inputStream == null ) {
+				byte[] bytes = getLibEntries().get(name);
+				if ( bytes != null ) {
+					inputStream = new ByteArrayInputStream(bytes);
+				}
+			}
+			return inputStream ;
+		}
+
+		private byte[] findBytes(String entryName) {
+			try {
+				Path path = archive.getPath(CLASSES_FOLDER + "/" + entryName);
+				if ( Files.isRegularFile(path) ) {
+					return Files.readAllBytes(path);
+				}
+			} catch (GeneratorException | IOException e) {
+				return null ;
+			}
+			return getLibEntries().get(entryName);
+		}
+
+		private synchronized Map<String, byte[]> getLibEntries() {
+			if ( libEntries == null ) {
+				Map<String, byte[]> map = new HashMap<>();
+				try {
+					Path lib = archive.getPath(LIB_FOLDER);
+					if ( Files.isDirectory(lib) ) {
+						List<Path> jars = new ArrayList<>();
+						try ( DirectoryStream<Path> stream = Files.newDirectoryStream(lib, "*.jar") ) {
+							for ( Path jar : stream ) {
+								jars.add(jar);
+							}
+						}
+						Collections.sort(jars);
+						for ( Path jar : jars ) {
+							readJar(jar, map);
+						}
+					}
+				} catch (GeneratorException | IOException e) {
+					// unreadable libraries : only the 'classes' folder is used
+				}
+				libEntries = map ;
+			}
+			return libEntries ;
+		}
+
+		private static void readJar(Path jar, Map<String, byte[]> map) throws IOException {
+			try ( JarInputStream jarInputStream = new JarInputStream(Files.newInputStream(jar)) ) {
+				byte[] buffer = new byte[8192];
+				JarEntry entry ;
+				while ( ( entry = jarInputStream.getNextJarEntry() ) != null ) {
+					if ( ! entry.isDirectory() && ! map.containsKey(entry.getName()) ) {
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						int n ;
+						while ( ( n = jarInputStream.read(buffer) ) > 0 ) {
+							out.write(buffer, 0, n);
+						}
+						map.put(entry.getName(), out.toByteArray());
+					}
+				}
+			}
+		}
+	}
+}
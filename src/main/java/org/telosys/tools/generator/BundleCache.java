@@ -0,0 +1,196 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.telosys.tools.generator.compiler.CompiledTemplates;
+import org.telosys.tools.generator.context.Loader;
+import org.telosys.tools.generator.context.tools.FileContentCache;
+
+/**
+ * Cache of the bundle elements reusable by several generations with the same bundle <br>
+ * . the templates already checked (template file existence) <br>
+ * . the specific class loader ( '$loader' ) <br>
+ * . the files read by the templates (with a maximum total size) <br>
+ * . the compiled templates (if templates compilation is enabled) <br>
+ * . the bundle archive (if the bundle is used without extraction) <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ * 
+ */
+public class BundleCache {
+
+	public static final long DEFAULT_MAX_CACHED_FILES_SIZE = 32L * 1024L * 1024L ; // 32 MB
+
+	private final FileContentCache  fileContentCache ;
+
+	private final Set<String> checkedTemplates = ConcurrentHashMap.newKeySet();
+
+	private final ConcurrentMap<String, Loader> loaders = new ConcurrentHashMap<>();
+
+	private volatile CompiledTemplates compiledTemplates = null ; // v 4.2.0 (null if compilation disabled)
+
+	private volatile BundleArchive bundleArchive = null ; // v 4.2.0 (null if bundle folder)
+
+	/**
+	 * Constructor with default maximum size for the cached files
+	 */
+	public BundleCache() {
+		this(DEFAULT_MAX_CACHED_FILES_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param maxCachedFilesSize maximum total size (in bytes) of the files kept in the cache
+	 */
+	public BundleCache(long maxCachedFilesSize) {
+		super();
+		this.fileContentCache = new FileContentCache(FileContentCache.DEFAULT_MAPPED_READ_THRESHOLD, maxCachedFilesSize);
+	}
+
+	/**
+	 * Returns the cache for the files read by the templates
+	 * @return
+	 */
+	public FileContentCache getFileContentCache() {
+		return fileContentCache;
+	}
+
+	/**
+	 * Returns true if the given template has already been checked
+	 * @param templateFileName
+	 * @return
+	 */
+	public boolean isCheckedTemplate(String templateFileName) {
+		return checkedTemplates.contains(templateFileName);
+	}
+
+	/**
+	 * Registers the given template as checked (existing template file)
+	 * @param templateFileName
+	 */
+	public void setCheckedTemplate(String templateFileName) {
+		checkedTemplates.add(templateFileName);
+	}
+
+	/**
+	 * Returns the number of templates already checked
+	 * @return
+	 */
+	public int getNumberOfCheckedTemplates() {
+		return checkedTemplates.size();
+	}
+
+	/**
+	 * Returns the loader for the given templates folder (created on first call) <br>
+	 * The same loader (and so the same class loader) is returned for all the generations
+	 * @param templatesFolderFullPath
+	 * @return
+	 */
+	public Loader getLoader(String templatesFolderFullPath) {
+		Loader loader = loaders.get(templatesFolderFullPath);
+		if ( loader == null ) {
+			BundleArchive archive = bundleArchive ;
+			// classes and libraries loaded from the archive if any ( v 4.2.0 )
+			loader = archive != null ? new Loader(templatesFolderFullPath, archive.getClassLoader()) : new Loader(templatesFolderFullPath);
+			Loader existing = loaders.putIfAbsent(templatesFolderFullPath, loader);
+			if ( existing != null ) {
+				loader = existing ;
+			}
+		}
+		return loader ;
+	}
+
+	/**
+	 * Returns the number of loaders currently in the cache
+	 * @return
+	 */
+	public int getNumberOfLoaders() {
+		return loaders.size();
+	}
+
+	/**
+	 * Enables or disables the compilation of the templates frequently used ( disabled by default ) <br>
+	 * Each template is compiled after a few generations if it only uses supported constructs, 
+	 * else it is always interpreted by the Velocity engine
+	 * @param enabled
+	 */
+	public void setTemplatesCompilation(boolean enabled) { // v 4.2.0
+		if ( enabled ) {
+			if ( compiledTemplates == null ) {
+				compiledTemplates = new CompiledTemplates();
+			}
+		}
+		else {
+			compiledTemplates = null ;
+		}
+	}
+
+	/**
+	 * Returns the compiled templates (or null if templates compilation is disabled)
+	 * @return
+	 */
+	public CompiledTemplates getCompiledTemplates() { // v 4.2.0
+		return compiledTemplates;
+	}
+
+	/**
+	 * Set the bundle archive used instead of the bundle folder (or null to use the bundle folder) <br>
+	 * All the elements of the cache are invalidated
+	 * @param bundleArchive
+	 */
+	public void setBundleArchive(BundleArchive bundleArchive) { // v 4.2.0
+		this.bundleArchive = bundleArchive ;
+		invalidate();
+	}
+
+	/**
+	 * Returns the bundle archive (or null if the bundle is used from its folder)
+	 * @return
+	 */
+	public BundleArchive getBundleArchive() { // v 4.2.0
+		return bundleArchive;
+	}
+
+	private void invalidateCompiledTemplates() {
+		CompiledTemplates current = compiledTemplates ;
+		if ( current != null ) {
+			current.invalidate();
+		}
+	}
+
+	/**
+	 * Invalidates the templates (to be called after a change in the bundle templates)
+	 */
+	public void invalidateTemplates() {
+		checkedTemplates.clear();
+		invalidateCompiledTemplates();
+	}
+
+	/**
+	 * Invalidates all the elements of the cache (templates, loaders and files)
+	 */
+	public void invalidate() {
+		checkedTemplates.clear();
+		loaders.clear();
+		fileContentCache.clear();
+		invalidateCompiledTemplates();
+	}
+}
@@ -16,6 +16,8 @@
 package org.telosys.tools.generator ;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -27,13 +29,19 @@ import org.telosys.tools.commons.io.CopyHandler;
 import org.telosys.tools.commons.io.OverwriteChooser;
 import org.telosys.tools.commons.io.ResourcesCopier;
 import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.output.FileSystemOutputSink;
+import org.telosys.tools.generator.output.OutputSink;
 
 
 public class BundleResourcesManager {
 
+	private static final String LOG_PREFIX = "BundleResourcesManager : " ;
+	
 	private final TelosysToolsCfg    telosysToolsCfg ;
 	private final String             bundleName ;
-	private final TelosysToolsLogger logger;
+	private final GeneratorLogger    logger; // v 4.2.0 (level checks and lazy messages)
+	private final OutputSink         outputSink ; // v 4.2.0 (can be null)
+	private final BundleArchive      bundleArchive ; // v 4.2.0 (can be null)
 	
 	//----------------------------------------------------------------------------------------------------
 	/**
@@ -43,17 +51,64 @@ public class BundleResourcesManager {
 	 * @param logger
 	 */
 	public BundleResourcesManager(TelosysToolsCfg projectCfg, String bundleName, TelosysToolsLogger logger) {
+		this(projectCfg, bundleName, logger, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param projectCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param outputSink the destination of the copied resources (or null for the project destination folder)
+	 */
+	public BundleResourcesManager(TelosysToolsCfg projectCfg, String bundleName, TelosysToolsLogger logger, OutputSink outputSink) { // v 4.2.0
+		this(projectCfg, bundleName, new GeneratorLogger(logger), outputSink);
+	}
+	
+	/**
+	 * Constructor
+	 * @param projectCfg
+	 * @param bundleName
+	 * @param logger the logging facade (the messages are logged only if the level is enabled)
+	 * @param outputSink the destination of the copied resources (or null for the project destination folder)
+	 */
+	public BundleResourcesManager(TelosysToolsCfg projectCfg, String bundleName, GeneratorLogger logger, OutputSink outputSink) { // v 4.2.0
+		this(projectCfg, bundleName, logger, outputSink, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param projectCfg
+	 * @param bundleName
+	 * @param logger the logging facade (the messages are logged only if the level is enabled)
+	 * @param outputSink the destination of the copied resources (or null for the project destination folder)
+	 * @param bundleArchive the archive containing the resources (or null to use the bundle folder)
+	 */
+	public BundleResourcesManager(TelosysToolsCfg projectCfg, String bundleName, GeneratorLogger logger, OutputSink outputSink, 
+			BundleArchive bundleArchive) { // v 4.2.0
 		super();
 		this.telosysToolsCfg  = projectCfg ;
 		this.bundleName       = bundleName ;
 		this.logger           = logger ;
+		this.outputSink       = outputSink ;
+		this.bundleArchive    = bundleArchive ;
 		log("created.");
 	}
 	
 	//----------------------------------------------------------------------------------------------------
 	private void log(String s) {
-		if (logger != null) {
-			logger.log( this.getClass().getSimpleName() + " : " + s);
+		if ( logger != null && logger.isDebugEnabled() ) {
+			logger.debug( LOG_PREFIX + s);
+		}
+	}
+	private void log(String pattern, Object arg) { // v 4.2.0
+		if ( logger != null && logger.isDebugEnabled() ) {
+			logger.debug( LOG_PREFIX + pattern, arg);
+		}
+	}
+	private void log(String pattern, Object arg1, Object arg2) { // v 4.2.0
+		if ( logger != null && logger.isDebugEnabled() ) {
+			logger.debug( LOG_PREFIX + pattern, arg1, arg2);
 		}
 	}
 	//----------------------------------------------------------------------------------------------------
@@ -72,7 +127,7 @@ public class BundleResourcesManager {
 				targets.add(target);
 			}
 		}
-		log("getResourcesTargets() : return " + targets.size() + " target(s)");
+		log("getResourcesTargets() : return {} target(s)", targets.size());
 		return targets ;
 	}
 	
@@ -114,27 +169,59 @@ public class BundleResourcesManager {
 	 * @throws Exception
 	 */
 	private int copyTargetResourcesInProject( Target target, OverwriteChooser overwriteChooser, CopyHandler copyHandler ) throws Exception {
-		log("copyTargetResourcesInProject() : target = " + target );
+		log("copyTargetResourcesInProject() : target = {}", target );
 
+		if ( bundleArchive != null ) {
+			// Resources streamed from the archive entries ( v 4.2.0 )
+			return copyFromArchive(target, overwriteChooser, copyHandler);
+		}
 		File origin = getOrigin(target); 
-		log("origin      : " + origin);
+		log("origin      : {}", origin);
+		if ( outputSink != null && ! ( outputSink instanceof FileSystemOutputSink ) ) {
+			// Specific output (archive, memory, etc) : nothing to overwrite => simple copy  ( v 4.2.0 )
+			int count = copyInOutputSink(origin, target.getOutputFileNameInProject());
+			log("{} file(s) copied in output sink", count);
+			return count ;
+		}
 		File destination = getDestination(target); 
-		log("destination : " + destination);
+		log("destination : {}", destination);
 		int count = copy(origin, destination, overwriteChooser, copyHandler);
-		log(count + "file(s) copied");
+		log("{} file(s) copied", count);
 		
 		return count ;
 	}
 	
+	//----------------------------------------------------------------------------------------------------
+	/**
+	 * Copy the resources of the given target directly from the bundle archive
+	 * @param target
+	 * @param overwriteChooser
+	 * @param copyHandler - handler for action 'before' and 'after' copy (can be null)
+	 * @return number of files copied (or -1 if canceled)
+	 * @throws GeneratorException
+	 */
+	private int copyFromArchive(Target target, OverwriteChooser overwriteChooser, CopyHandler copyHandler) throws GeneratorException { // v 4.2.0
+		String resourceName = target.getTemplate(); 
+		int count ;
+		if ( outputSink != null && ! ( outputSink instanceof FileSystemOutputSink ) ) {
+			count = bundleArchive.copyResource(resourceName, outputSink, target.getOutputFileNameInProject());
+		}
+		else {
+			count = bundleArchive.copyResource(resourceName, getDestination(target), overwriteChooser, copyHandler);
+		}
+		log("{} file(s) copied from bundle archive", count);
+		return count ;
+	}
+	
 	//----------------------------------------------------------------------------------------------------
 	private File getOrigin(Target target) throws Exception {
 		// "resources to be copied" = "template file" in .cfg file 
 		String resourceName = target.getTemplate(); 
-		log("resource name = " + resourceName );
+		log("resource name = {}", resourceName );
 		String bundleResourcesFolder = getBundleResourcesFolder() ;
-		log("bundle resources folder = " + bundleResourcesFolder );
+		log("bundle resources folder = {}", bundleResourcesFolder );
 		String originResourceFullPath = FileUtil.buildFilePath(bundleResourcesFolder, resourceName );
-		log("resource full path = " + originResourceFullPath );
+		log("resource full path = {}", originResourceFullPath );
 		File originResourceFile = new File(originResourceFullPath);
 		if ( ! originResourceFile.exists() ) {
 			throw new GeneratorException("Resource file or folder '" + originResourceFullPath + "' not found " );
@@ -144,19 +231,51 @@ public class BundleResourcesManager {
 	//----------------------------------------------------------------------------------------------------
 	private File getDestination(Target target) {
 		// "resources destination" = "project folder where to generate" in .cfg file 
+		if ( outputSink instanceof FileSystemOutputSink ) {
+			// specific destination folder ( v 4.2.0 )
+			return ((FileSystemOutputSink)outputSink).getFile(target.getOutputFileNameInProject());
+		}
 		String destinationFullPath = target.getOutputFileNameInFileSystem(telosysToolsCfg.getDestinationFolderAbsolutePath()) ; // v 3.0.0
 		return new File(destinationFullPath);
 	}
 	//----------------------------------------------------------------------------------------------------
+	/**
+	 * Copy the given file or folder (recursively) in the output sink
+	 * @param origin
+	 * @param destinationName the file or folder name in the project
+	 * @return number of files copied
+	 * @throws GeneratorException
+	 */
+	private int copyInOutputSink(File origin, String destinationName) throws GeneratorException { // v 4.2.0
+		if ( origin.isDirectory() ) {
+			int n = 0 ;
+			File[] files = origin.listFiles();
+			if ( files != null ) {
+				for ( File file : files ) {
+					n = n + copyInOutputSink(file, destinationName + "/" + file.getName() );
+				}
+			}
+			return n ;
+		}
+		else {
+			try {
+				outputSink.writeFile(destinationName, Files.readAllBytes(origin.toPath()));
+			} catch (IOException e) {
+				throw new GeneratorException("Cannot read resource file '" + origin + "'", e);
+			}
+			return 1 ;
+		}
+	}
+	//----------------------------------------------------------------------------------------------------
 	private int copy(File origin, File destination, OverwriteChooser overwriteChooser, CopyHandler copyHandler ) {
 		int n = 0 ;
-		log("copy from '" + origin + "' to '" + destination + "'...");
+		log("copy from '{}' to '{}'...", origin, destination);
 		ResourcesCopier copier = new ResourcesCopier(overwriteChooser, copyHandler );
 		try {
 			n = copier.copy(origin, destination);
-			log(n + " file(s) copied");
+			log("{} file(s) copied", n);
 		} catch (Exception e) {
-			log("Error : exception " + e);
+			log("Error : exception {}", e);
 		}
 		return n ;
 	}	
@@ -169,10 +288,10 @@ public class BundleResourcesManager {
 	 */
 	private String getBundleResourcesFolder() throws Exception {
 		String projectTemplatesFolder = telosysToolsCfg.getTemplatesFolderAbsolutePath();
-		log("project templates folder = " + projectTemplatesFolder );
+		log("project templates folder = {}", projectTemplatesFolder );
 		
 		String bundleResourcesFolder = FileUtil.buildFilePath(projectTemplatesFolder, bundleName + "/resources");
-		log("bundle resources folder = " + bundleResourcesFolder );
+		log("bundle resources folder = {}", bundleResourcesFolder );
 		
 		File file = new File(bundleResourcesFolder);
 		if ( file.exists() && file.isDirectory() ) {
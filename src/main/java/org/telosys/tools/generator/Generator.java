@@ -18,16 +18,21 @@ package org.telosys.tools.generator;
 import java.io.File;
 import java.util.List;
 
-import org.telosys.tools.commons.DirUtil;
 import org.telosys.tools.commons.FileUtil;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.generator.compiler.CompiledTemplate;
+import org.telosys.tools.generator.compiler.CompiledTemplates;
 import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+import org.telosys.tools.generator.context.tools.FileContentCache;
 import org.telosys.tools.generator.engine.GeneratorContext;
 import org.telosys.tools.generator.engine.GeneratorEngine;
 import org.telosys.tools.generator.engine.GeneratorTemplate;
 import org.telosys.tools.generator.engine.directive.CancelDirectiveException;
+import org.telosys.tools.generator.output.FileSystemOutputSink;
+import org.telosys.tools.generator.output.OutputSink;
 import org.telosys.tools.generic.model.Model;
 
 /**
@@ -44,6 +49,12 @@ public class Generator {
 	private final TelosysToolsCfg          telosysToolsCfg ;
 	private final String                   bundleName ;
 	private final TelosysToolsLogger       logger ;
+	private final GeneratorLogger          genLogger ; // v 4.2.0 (level checks and lazy messages)
+	private long                           timeBudget = 0 ; // v 4.2.0 (max render duration in ms, 0 for no limit)
+	private RenderWatchdog.CancelSignal    cancelSignal = null ; // v 4.2.0
+	private final FileContentCache         fileContentCache ; // v 4.2.0 (can be null)
+	private final OutputSink               outputSink ; // v 4.2.0 (file system by default)
+	private final BundleCache              bundleCache ; // v 4.2.0 (can be null)
 
 	/**
 	 * Constructor
@@ -52,7 +63,66 @@ public class Generator {
 	 * @param logger
 	 */
 	public Generator( TelosysToolsCfg telosysToolsCfg, String bundleName, TelosysToolsLogger logger) {
-		this.logger = logger; 
+		this(telosysToolsCfg, bundleName, logger, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param fileContentCache the file cache shared by all the targets of a task (or null if none)
+	 */
+	public Generator( TelosysToolsCfg telosysToolsCfg, String bundleName, TelosysToolsLogger logger, 
+			FileContentCache fileContentCache) {
+		this(telosysToolsCfg, bundleName, logger, fileContentCache, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param fileContentCache the file cache shared by all the targets of a task (or null if none)
+	 * @param outputSink the destination of the generated files (or null for the project destination folder)
+	 */
+	public Generator( TelosysToolsCfg telosysToolsCfg, String bundleName, TelosysToolsLogger logger, 
+			FileContentCache fileContentCache, OutputSink outputSink) { // v 4.2.0
+		this(telosysToolsCfg, bundleName, logger, fileContentCache, outputSink, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param fileContentCache the file cache shared by all the targets of a task (or null if none)
+	 * @param outputSink the destination of the generated files (or null for the project destination folder)
+	 * @param bundleCache the bundle cache shared by several generations (or null if none)
+	 */
+	public Generator( TelosysToolsCfg telosysToolsCfg, String bundleName, TelosysToolsLogger logger, 
+			FileContentCache fileContentCache, OutputSink outputSink, BundleCache bundleCache) { // v 4.2.0
+		this(telosysToolsCfg, bundleName, new GeneratorLogger(logger), fileContentCache, outputSink, bundleCache);
+	}
+	
+	/**
+	 * Constructor
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param genLogger the logging facade (the messages are logged only if the level is enabled)
+	 * @param fileContentCache the file cache shared by all the targets of a task (or null if none)
+	 * @param outputSink the destination of the generated files (or null for the project destination folder)
+	 * @param bundleCache the bundle cache shared by several generations (or null if none)
+	 */
+	public Generator( TelosysToolsCfg telosysToolsCfg, String bundleName, GeneratorLogger genLogger, 
+			FileContentCache fileContentCache, OutputSink outputSink, BundleCache bundleCache) { // v 4.2.0
+		if ( genLogger == null ) {
+			throw new IllegalArgumentException("GeneratorLogger parameter is null");
+		}
+		this.genLogger = genLogger ;
+		this.logger = genLogger.getLogger(); 
+		this.fileContentCache = fileContentCache ;
+		this.bundleCache = bundleCache ;
 		
 		if ( telosysToolsCfg == null ) {
 			throw new IllegalArgumentException("TelosysToolsCfg parameter is null");
@@ -63,12 +133,28 @@ public class Generator {
 			throw new IllegalArgumentException("Bundle name parameter is null");
 		}
 		this.bundleName = bundleName ; // v 3.0.0
+		
+		if ( outputSink != null ) {
+			this.outputSink = outputSink ;
+		}
+		else {
+			this.outputSink = new FileSystemOutputSink(telosysToolsCfg.getDestinationFolderAbsolutePath()) ; // v 4.2.0
+		}
 	}
 	
 	private void log(String s) {
-		if (logger != null) {
-			logger.log(s);
-		}
+		genLogger.debug(s);
+	}
+	
+	/**
+	 * Set the rendering limits : time budget for each template and cancellation signal <br>
+	 * When a limit is reached the rendering is aborted at the next watchdog checkpoint (see 'RenderWatchdog')
+	 * @param timeBudget the max duration in milliseconds (0 for no limit)
+	 * @param cancelSignal the cancellation signal checked during the rendering (or null if none)
+	 */
+	public void setRenderLimits(long timeBudget, RenderWatchdog.CancelSignal cancelSignal) { // v 4.2.0
+		this.timeBudget = timeBudget ;
+		this.cancelSignal = cancelSignal ;
 	}
 	
 	//========================================================================
@@ -78,10 +164,21 @@ public class Generator {
 		
 		String templateFileName  = target.getTemplate();
 		String templateDirectory = telosysToolsCfg.getTemplatesFolderAbsolutePath(); // v 3.0.0
+		BundleArchive bundleArchive = getBundleArchive(); // v 4.2.0
 
-		checkTemplate( templateDirectory, templateFileName);
+		if ( bundleCache == null || ! bundleCache.isCheckedTemplate(templateFileName) ) {
+			if ( bundleArchive != null ) {
+				checkTemplate( bundleArchive, templateFileName); // v 4.2.0
+			}
+			else {
+				checkTemplate( templateDirectory, templateFileName);
+			}
+			if ( bundleCache != null ) {
+				bundleCache.setCheckedTemplate(templateFileName); // v 4.2.0
+			}
+		}
 		
-		String bundleFolderAbsolutePath = telosysToolsCfg.getTemplatesFolderAbsolutePath(bundleName) ; 
+		String bundleFolderAbsolutePath = getBundleFolder() ; // v 4.2.0 
 		// Examples : 
 		//  "/foo/bar/TelosysTools/templates/basic-templates", "myfile.vm"
 		//  "/foo/bar/TelosysTools/templates/basic-templates", "subdir/myfile.vm"
@@ -89,6 +186,37 @@ public class Generator {
 		return new GeneratorTemplate(bundleFolderAbsolutePath, templateFileName) ;
 	}
 	
+	private BundleArchive getBundleArchive() { // v 4.2.0
+		return bundleCache != null ? bundleCache.getBundleArchive() : null ;
+	}
+	
+	/**
+	 * Returns the folder where the templates are loaded by the engine <br>
+	 * (the bundle folder or the local copy of the templates for a bundle archive) 
+	 * @return
+	 */
+	private String getBundleFolder() { // v 4.2.0
+		BundleArchive bundleArchive = getBundleArchive();
+		if ( bundleArchive != null ) {
+			try {
+				return bundleArchive.getTemplatesFolder();
+			} catch (GeneratorException e) {
+				throw new InvalidTemplateException(e.getMessage());
+			}
+		}
+		return telosysToolsCfg.getTemplatesFolderAbsolutePath(bundleName) ;
+	}
+	
+	private void checkTemplate(BundleArchive bundleArchive, String sTemplateFileName) { // v 4.2.0
+		if (sTemplateFileName == null) {
+			throw new InvalidTemplateException("Template file name is null !");
+		}
+		if ( ! bundleArchive.isFile(sTemplateFileName) ) {
+			throw new InvalidTemplateException("Template file '" + sTemplateFileName + "' doesn't exist in bundle archive '" 
+					+ bundleArchive.getArchiveFile() + "' !");
+		}
+	}
+	
 	private File checkTemplate(String sTemplateDirectory, String sTemplateFileName) {
 		if (sTemplateDirectory == null) {
 			throw new InvalidTemplateException("Template directory is null !");
@@ -125,6 +253,21 @@ public class Generator {
 		return file ;
 	}
 	
+	/**
+	 * Returns the compiled template for the given target if any
+	 * @param target
+	 * @return the compiled template or null if the template must be interpreted 
+	 */
+	private CompiledTemplate getCompiledTemplate(Target target) { // v 4.2.0
+		if ( bundleCache != null ) {
+			CompiledTemplates compiledTemplates = bundleCache.getCompiledTemplates();
+			if ( compiledTemplates != null ) {
+				return compiledTemplates.get(getBundleFolder(), target.getTemplate());
+			}
+		}
+		return null ;
+	}
+
 	/**
 	 * Generates in memory and returns the result
 	 * @param target
@@ -142,17 +285,29 @@ public class Generator {
 		ClassLoader originalClassLoader = currentThread.getContextClassLoader();
 		currentThread.setContextClassLoader(this.getClass().getClassLoader()); // Set the context ClassLoader for this Thread
 		String result = null ;
+		RenderWatchdog watchdog = null ;
 		try {
 			//------------------------------------------------------------------
 			//--- Load the TEMPLATE for the given TARGET
 			GeneratorTemplate generatorTemplate = loadTemplate(target) ;
-			//--- Create a new GENERATOR ENGINE
-			GeneratorEngine generatorEngine = new GeneratorEngine();
-			//--- GENERATION 
-			result = generatorEngine.generate(generatorTemplate, generatorContext );
+			CompiledTemplate compiledTemplate = getCompiledTemplate(target); // v 4.2.0
+			watchdog = RenderWatchdog.start(target.getTemplate(), timeBudget, cancelSignal); // v 4.2.0
+			if ( compiledTemplate != null ) {
+				//--- GENERATION with the COMPILED TEMPLATE
+				result = compiledTemplate.render(generatorContext);
+			}
+			else {
+				//--- Create a new GENERATOR ENGINE
+				GeneratorEngine generatorEngine = new GeneratorEngine();
+				//--- GENERATION 
+				result = generatorEngine.generate(generatorTemplate, generatorContext );
+			}
 			//------------------------------------------------------------------
 		}
 		finally {
+			if ( watchdog != null ) {
+				watchdog.stop(); // v 4.2.0
+			}
 			currentThread.setContextClassLoader(originalClassLoader); // Restore the original classLoader
 		}
 		//------------------------------------------------------------------
@@ -176,53 +331,77 @@ public class Generator {
 	public void generateTarget(Target target, Model model, 
 			List<String> selectedEntitiesNames,
 			List<Target> generatedTargets) throws GeneratorException
+	{
+		generateTarget(target, model, selectedEntitiesNames, generatedTargets, null);
+	}
+	
+	/**
+	 * Generates the given target and records the elements used by the template
+	 * @param target the target to be generated
+	 * @param model  the current 'model' with all the entities
+	 * @param selectedEntitiesNames list of names for all the selected entities (or null if none)
+	 * @param generatedTargets list of generated targets to be updated (or null if not useful)
+	 * @param dependencyRecorder recorder started just before the rendering (or null if none)
+	 * @throws GeneratorException
+	 */
+	public void generateTarget(Target target, Model model, 
+			List<String> selectedEntitiesNames,
+			List<Target> generatedTargets, DependencyRecorder dependencyRecorder) throws GeneratorException // v 4.2.0
 	{
 		String entityName = target.getEntityName() ;
 		if ( StrUtil.nullOrVoid(entityName) ) {
 			entityName = "(no entity)" ;
 		}
 		
-		logger.info("Gen : " + target.getTemplate() + " : " +  entityName  );
+		genLogger.info("Gen : {} : {}", target.getTemplate(), entityName );
 		
 		//--- Creation of a full context for the generator
-		GeneratorContextBuilder generatorContextBuilder = new GeneratorContextBuilder(telosysToolsCfg, logger);
+		GeneratorContextBuilder generatorContextBuilder = new GeneratorContextBuilder(telosysToolsCfg, logger, fileContentCache, outputSink, bundleCache);
 		GeneratorContext generatorContext = generatorContextBuilder.initFullContext(
 				model, 
 				//_databasesConfigurations, 
 				bundleName,
 				selectedEntitiesNames, 
 				target, 
-				generatedTargets);
+				generatedTargets,
+				dependencyRecorder); // v 4.2.0
 
 		//---------- ((( GENERATION ))) 
 		CancelDirectiveException cancelException = null ;
 		String result = null; // v 3.3.0
+		if ( dependencyRecorder != null ) {
+			dependencyRecorder.start(); // v 4.2.0 (record only the elements used by the template)
+		}
 		try {
 			result = generateInMemory(target, generatorContext); // v 3.3.0
-			logger.log("Generation OK (no exception)");
+			genLogger.debug("Generation OK (no exception)");
 		} catch (CancelDirectiveException e) {
 			// generation has been canceled with #cancel directive
-			logger.log("catch(CancelDirectiveException) ");
+			genLogger.debug("catch(CancelDirectiveException) ");
 			cancelException = e ;
 		} catch (Exception e) { // All exceptions 
-			logger.log("catch(Exception) ");
+			genLogger.debug("catch(Exception) ");
 			String msg = "Entity '" + target.getEntityName() + "' - Template '" + target.getTemplate() + "'" ;
-			logger.error(msg);
-			logger.error(e.getMessage());
+			genLogger.error(msg);
+			genLogger.error(e.getMessage());
 			throw new GeneratorException(msg + " : " + e.getMessage(), e);
 		} // Generate the target in memory
+		finally {
+			if ( dependencyRecorder != null ) {
+				dependencyRecorder.stop(); // v 4.2.0
+			}
+		}
 
 		if ( cancelException != null ) {
 			//--- GENERATION CANCELED 
-			logger.info("CANCELED : " + cancelException.getMessage() );
+			genLogger.info("CANCELED : {}", cancelException.getMessage() );
 		}
 		else {
-			//--- GENERATION OK : Save generation result in the destiantion file
-			String outputFileName = target.getOutputFileNameInFileSystem( 
-					telosysToolsCfg.getDestinationFolderAbsolutePath() ); // v 3.0.0
-			logger.log("Saving target file : " + outputFileName );
-			saveResultInFile(result, outputFileName, true); // v 3.0.0
-			logger.info("OK :  " + target.getOutputFileNameInProject() );
+			//--- GENERATION OK : Save generation result in the destination (file system, archive, memory, etc)
+			String outputFileName = target.getOutputFileNameInProject() ; // v 4.2.0
+			genLogger.debug("Saving target file : {}", outputFileName );
+			outputSink.writeFile(outputFileName, result); // v 4.2.0
+			genLogger.info("OK :  {}", outputFileName );
 			
 			//--- Add the generated target in the list if any
 			if ( generatedTargets != null ) {
@@ -231,31 +410,4 @@ public class Generator {
 		}
 	}
 	
-	private void saveResultInFile(String result, String fileName, boolean bCreateDir) throws GeneratorException
-	{
-		File file = new File(fileName);
-		
-		//--- Check if it's possible to write the file
-		if ( file.exists() ) {
-			if ( ! file.canWrite() ) {
-				throw new GeneratorException("Cannot write on existing target file '"+ file.toString() + "' !");
-			}
-		}
-		else {
-			File parentFile = file.getParentFile();
-			if ( ! parentFile.exists() ) {
-				if ( ! bCreateDir ) {
-					throw new GeneratorException("Target directory '"+ parentFile.toString() + "' not found !");
-				}
-				else {
-					// Create the target file directory(ies)
-					DirUtil.createDirectory(parentFile);
-				}
-			}
-		}
-		
-		//--- Write the file
-		GeneratorFileWriter.writeGenerationResult(result, file);
-	}
-	
-}
\ No newline at end of file
+}
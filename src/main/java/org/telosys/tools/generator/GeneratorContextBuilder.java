@@ -43,7 +43,10 @@ import org.telosys.tools.generator.context.ProjectInContext;
 import org.telosys.tools.generator.context.Target;
 import org.telosys.tools.generator.context.Today;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+import org.telosys.tools.generator.context.tools.FileContentCache;
 import org.telosys.tools.generator.engine.GeneratorContext;
+import org.telosys.tools.generator.output.OutputSink;
 import org.telosys.tools.generic.model.Model;
 
 /**
@@ -56,6 +59,9 @@ public class GeneratorContextBuilder {
 
 	private final TelosysToolsCfg     telosysToolsCfg ;
 	private final TelosysToolsLogger  logger ;
+	private final FileContentCache    fileContentCache ; // v 4.2.0 (can be null)
+	private final OutputSink          outputSink ; // v 4.2.0 (can be null)
+	private final BundleCache         bundleCache ; // v 4.2.0 (can be null)
 	
 	private Model                     model = null ;
 	private ModelInContext            modelInContext = null ;
@@ -72,12 +78,50 @@ public class GeneratorContextBuilder {
 	 * @param logger
 	 */
 	public GeneratorContextBuilder( TelosysToolsCfg telosysToolsCfg, TelosysToolsLogger logger)  {
+		this(telosysToolsCfg, logger, null);
+	}
+	
+	/**
+	 * Constructor <br>
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 */
+	public GeneratorContextBuilder( TelosysToolsCfg telosysToolsCfg, TelosysToolsLogger logger, FileContentCache fileContentCache)  {
+		this(telosysToolsCfg, logger, fileContentCache, null);
+	}
+	
+	/**
+	 * Constructor <br>
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 * @param outputSink the destination of the files generated by the embedded generator (or null if default)
+	 */
+	public GeneratorContextBuilder( TelosysToolsCfg telosysToolsCfg, TelosysToolsLogger logger, 
+			FileContentCache fileContentCache, OutputSink outputSink)  { // v 4.2.0
+		this(telosysToolsCfg, logger, fileContentCache, outputSink, null);
+	}
+	
+	/**
+	 * Constructor <br>
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 * @param outputSink the destination of the files generated by the embedded generator (or null if default)
+	 * @param bundleCache the bundle cache shared by several generations (or null if none)
+	 */
+	public GeneratorContextBuilder( TelosysToolsCfg telosysToolsCfg, TelosysToolsLogger logger, 
+			FileContentCache fileContentCache, OutputSink outputSink, BundleCache bundleCache)  { // v 4.2.0
 		this.logger = logger; 
 		
 		if ( telosysToolsCfg == null ) {
 			throw new IllegalArgumentException("TelosysToolsCfg parameter is null");
 		}
 		this.telosysToolsCfg = telosysToolsCfg;
+		this.fileContentCache = fileContentCache ;
+		this.outputSink = outputSink ;
+		this.bundleCache = bundleCache ;
 	}
 	
 	private void initProjectVariables(GeneratorContext generatorContext) {
@@ -98,9 +142,11 @@ public class GeneratorContextBuilder {
 	 * @param generatorContext
 	 * @param model
 	 * @param bundleName
+	 * @param dependencyRecorder (or null if none)
 	 * @return
 	 */
-	private void initBasicObjects(GeneratorContext generatorContext, Model model, String bundleName ) {
+	private void initBasicObjects(GeneratorContext generatorContext, Model model, String bundleName, 
+			DependencyRecorder dependencyRecorder ) {
 		
 		//--- Special Characters
 		generatorContext.put(ContextName.DOLLAR , "$"  );
@@ -124,7 +170,7 @@ public class GeneratorContextBuilder {
 		generatorContext.put(ContextName.TODAY,           new Today()); // Current date and time 
 		generatorContext.put(ContextName.NOW,             new NowInContext()); // Current date and time ( ver 3.3.0 )
 		generatorContext.put(ContextName.CONST,           new Const()); // Constants (static values)
-		generatorContext.put(ContextName.FN,              new FnInContext(generatorContext, env)); // Utility functions
+		generatorContext.put(ContextName.FN,              new FnInContext(generatorContext, env, fileContentCache, dependencyRecorder)); // Utility functions
 		generatorContext.put(ContextName.H2,              new H2InContext());  // JDBC factory ( ver 2.1.1 )
 		
 		generatorContext.put(ContextName.JAVA,            new Java());  // Java utility functions
@@ -136,8 +182,9 @@ public class GeneratorContextBuilder {
 		generatorContext.put(ContextName.CSHARP,          new CsharpInContext());  // C# utilities ( ver 4.1.0 )
 		
 
-		//--- Set the dynamic class loader 
-		Loader loader = new Loader( telosysToolsCfg.getTemplatesFolderAbsolutePath(bundleName) ); 
+		//--- Set the dynamic class loader (reused if bundle cache)
+		String templatesFolderFullPath = telosysToolsCfg.getTemplatesFolderAbsolutePath(bundleName) ;
+		Loader loader = bundleCache != null ? bundleCache.getLoader(templatesFolderFullPath) : new Loader(templatesFolderFullPath); // v 4.2.0
 		generatorContext.put(ContextName.LOADER, loader);
 		
 		//--- Set the "$project" variable in the context
@@ -146,7 +193,8 @@ public class GeneratorContextBuilder {
 		//--- Set "$model" object : full model with  all the entities 
 		this.model = model ;
 //		this.modelInContext = new ModelInContext(model, telosysToolsCfg, env ); 
-		this.modelInContext = new ModelInContext(model, telosysToolsCfg.getEntityPackage(), env ); // v 4.2.0 
+		// lazy model : only the entities used by the templates are built (v 4.2.0)
+		this.modelInContext = new ModelInContext(model, telosysToolsCfg.getEntityPackage(), env, true, dependencyRecorder ); // v 4.2.0 
 		generatorContext.put(ContextName.MODEL, modelInContext); 
 		
 		//--- Set "$bundle" object ( new in v 3.3.0 ) 
@@ -169,13 +217,30 @@ public class GeneratorContextBuilder {
 	 */
 	public GeneratorContext initFullContext( Model model, String bundleName,
 			List<String> selectedEntitiesNames, Target target, List<Target> generatedTargets ) throws GeneratorException {
+		return initFullContext(model, bundleName, selectedEntitiesNames, target, generatedTargets, null);
+	}
+	
+	/**
+	 * Initializes a "full generator context" usable by the generator <br>
+	 * @param model
+	 * @param bundleName
+	 * @param selectedEntitiesNames
+	 * @param target
+	 * @param generatedTargets
+	 * @param dependencyRecorder recorder for the entities and files used by the template (or null if none)
+	 * @return
+	 * @throws GeneratorException
+	 */
+	public GeneratorContext initFullContext( Model model, String bundleName,
+			List<String> selectedEntitiesNames, Target target, List<Target> generatedTargets, 
+			DependencyRecorder dependencyRecorder ) throws GeneratorException { // v 4.2.0
 
 		//--- New context 
 		GeneratorContext generatorContext = new GeneratorContext();
 		//--- Init with specific variables
 		initProjectVariables(generatorContext);
 		//--- Initialize with basic objects
-		initBasicObjects(generatorContext, model, bundleName);		
+		initBasicObjects(generatorContext, model, bundleName, dependencyRecorder);		
 		//--- Init with further elements
 		setEmbeddedGenerator(generatorContext, selectedEntitiesNames, bundleName, generatedTargets);
 		setSelectedEntities(generatorContext, selectedEntitiesNames);
@@ -213,7 +278,7 @@ public class GeneratorContextBuilder {
 	private void setEmbeddedGenerator(GeneratorContext generatorContext, List<String> selectedEntitiesNames, String bundleName, List<Target> generatedTargets) {
 		//--- Set the "$generator"  in the context ( "real" embedded generator )
 		EmbeddedGenerator embeddedGenerator = new EmbeddedGenerator( telosysToolsCfg, bundleName, logger,
-				this.model, selectedEntitiesNames, generatedTargets );
+				this.model, selectedEntitiesNames, generatedTargets, fileContentCache, outputSink, bundleCache );
 		generatorContext.put(ContextName.GENERATOR, embeddedGenerator );
 	}		
 }
\ No newline at end of file
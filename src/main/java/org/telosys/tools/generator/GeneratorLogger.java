@@ -0,0 +1,375 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.telosys.tools.commons.TelosysToolsLogger;
+
+/**
+ * Logging facade used on the generation path ( v 4.2.0 ) <br>
+ * . the messages are sent to the 'TelosysToolsLogger' only if the level is enabled <br>
+ * . the messages with arguments are formatted only if they are really logged ( '{}' replaced by each argument ) <br>
+ * . the messages can be logged asynchronously by a background thread (same order, formatting in the background thread) <br>
+ * 
+ * Levels : 'ERROR' ( logger.error ), 'INFO' ( logger.info ), 'DEBUG' ( logger.log, for 'debug' and 'log' methods ) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class GeneratorLogger {
+
+	/**
+	 * Logging levels (each level includes the previous ones)
+	 */
+	public enum Level {
+		OFF, ERROR, INFO, DEBUG
+	}
+
+	private static final int    QUEUE_CAPACITY = 8 * 1024 ;
+	private static final Object NO_ORIGIN = new Object();
+	
+	private final TelosysToolsLogger logger ;
+	private final Level              level ;
+	private final boolean            async ;
+
+	private final Object lock = new Object(); // async mode : worker thread and pending messages
+	private BlockingQueue<LogEntry> queue = null ; 
+	private Thread worker = null ;
+	private int pending = 0 ;
+	
+	/**
+	 * Constructor for a synchronous logger with all the levels enabled (same behavior as the given logger)
+	 * @param logger the logger to be used (or null for no log)
+	 */
+	public GeneratorLogger(TelosysToolsLogger logger) {
+		this(logger, Level.DEBUG, false);
+	}
+
+	/**
+	 * Constructor for a synchronous logger 
+	 * @param logger the logger to be used (or null for no log)
+	 * @param level the highest level to be logged
+	 */
+	public GeneratorLogger(TelosysToolsLogger logger, Level level) {
+		this(logger, level, false);
+	}
+
+	/**
+	 * Constructor
+	 * @param logger the logger to be used (or null for no log)
+	 * @param level the highest level to be logged
+	 * @param async true to log the messages in a background thread ( see 'flush' and 'close' )
+	 */
+	public GeneratorLogger(TelosysToolsLogger logger, Level level, boolean async) {
+		super();
+		this.logger = logger ;
+		this.level = ( logger != null && level != null ) ? level : Level.OFF ;
+		this.async = async ;
+	}
+
+	public TelosysToolsLogger getLogger() {
+		return logger;
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	public boolean isAsync() {
+		return async;
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// LEVEL CHECKS
+	//----------------------------------------------------------------------------------------------------
+	public boolean isEnabled(Level messageLevel) {
+		return messageLevel != Level.OFF && messageLevel.ordinal() <= level.ordinal() ;
+	}
+
+	public boolean isErrorEnabled() {
+		return isEnabled(Level.ERROR) ;
+	}
+
+	public boolean isInfoEnabled() {
+		return isEnabled(Level.INFO) ;
+	}
+
+	public boolean isDebugEnabled() {
+		return isEnabled(Level.DEBUG) ;
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// ERROR
+	//----------------------------------------------------------------------------------------------------
+	public void error(String message) {
+		if ( isErrorEnabled() ) {
+			submit(Level.ERROR, NO_ORIGIN, message, null);
+		}
+	}
+
+	public void error(String pattern, Object arg1) {
+		if ( isErrorEnabled() ) {
+			submit(Level.ERROR, NO_ORIGIN, pattern, new Object[] { arg1 });
+		}
+	}
+
+	public void error(String pattern, Object arg1, Object arg2) {
+		if ( isErrorEnabled() ) {
+			submit(Level.ERROR, NO_ORIGIN, pattern, new Object[] { arg1, arg2 });
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// INFO
+	//----------------------------------------------------------------------------------------------------
+	public void info(String message) {
+		if ( isInfoEnabled() ) {
+			submit(Level.INFO, NO_ORIGIN, message, null);
+		}
+	}
+
+	public void info(String pattern, Object arg1) {
+		if ( isInfoEnabled() ) {
+			submit(Level.INFO, NO_ORIGIN, pattern, new Object[] { arg1 });
+		}
+	}
+
+	public void info(String pattern, Object arg1, Object arg2) {
+		if ( isInfoEnabled() ) {
+			submit(Level.INFO, NO_ORIGIN, pattern, new Object[] { arg1, arg2 });
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// DEBUG ( 'log' in TelosysToolsLogger )
+	//----------------------------------------------------------------------------------------------------
+	public void debug(String message) {
+		if ( isDebugEnabled() ) {
+			submit(Level.DEBUG, NO_ORIGIN, message, null);
+		}
+	}
+
+	public void debug(String pattern, Object arg1) {
+		if ( isDebugEnabled() ) {
+			submit(Level.DEBUG, NO_ORIGIN, pattern, new Object[] { arg1 });
+		}
+	}
+
+	public void debug(String pattern, Object arg1, Object arg2) {
+		if ( isDebugEnabled() ) {
+			submit(Level.DEBUG, NO_ORIGIN, pattern, new Object[] { arg1, arg2 });
+		}
+	}
+
+	/**
+	 * Logs the given DEBUG message for the given object ( 'logger.log(object, message)' ) 
+	 * @param origin
+	 * @param message
+	 */
+	public void log(Object origin, String message) {
+		if ( isDebugEnabled() ) {
+			submit(Level.DEBUG, origin, message, null);
+		}
+	}
+
+	public void log(Object origin, String pattern, Object arg1) {
+		if ( isDebugEnabled() ) {
+			submit(Level.DEBUG, origin, pattern, new Object[] { arg1 });
+		}
+	}
+
+	public void log(Object origin, String pattern, Object arg1, Object arg2) {
+		if ( isDebugEnabled() ) {
+			submit(Level.DEBUG, origin, pattern, new Object[] { arg1, arg2 });
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	/**
+	 * Returns the message built from the given pattern : each '{}' is replaced by the next argument
+	 * @param pattern
+	 * @param args the arguments (or null if none)
+	 * @return
+	 */
+	protected static String format(String pattern, Object[] args) {
+		if ( args == null || pattern == null ) {
+			return pattern ;
+		}
+		StringBuilder sb = new StringBuilder(pattern.length() + 32 * args.length);
+		int start = 0 ;
+		int argIndex = 0 ;
+		while ( argIndex < args.length ) {
+			int i = pattern.indexOf("{}", start);
+			if ( i < 0 ) {
+				break ;
+			}
+			sb.append(pattern, start, i).append(args[argIndex]);
+			argIndex++ ;
+			start = i + 2 ;
+		}
+		sb.append(pattern, start, pattern.length());
+		return sb.toString();
+	}
+
+	private void submit(Level messageLevel, Object origin, String pattern, Object[] args) {
+		if ( async ) {
+			enqueue(new LogEntry(messageLevel, origin, pattern, args));
+		}
+		else {
+			print(messageLevel, origin, format(pattern, args));
+		}
+	}
+
+	private void print(Level messageLevel, Object origin, String message) {
+		switch ( messageLevel ) {
+		case ERROR :
+			logger.error(message);
+			break;
+		case INFO :
+			logger.info(message);
+			break;
+		default :
+			if ( origin != NO_ORIGIN ) {
+				logger.log(origin, message);
+			}
+			else {
+				logger.log(message);
+			}
+			break;
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------------
+	// ASYNC MODE
+	//----------------------------------------------------------------------------------------------------
+	private void enqueue(LogEntry entry) {
+		BlockingQueue<LogEntry> currentQueue ;
+		synchronized (lock) {
+			if ( worker == null ) {
+				// worker started on first message (or after 'close')
+				queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+				worker = new Thread(new Worker(queue), "telosys-generator-logger");
+				worker.setDaemon(true);
+				worker.start();
+			}
+			currentQueue = queue ;
+			pending++ ;
+		}
+		try {
+			currentQueue.put(entry); // waits if the queue is full (the messages are never lost)
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			// cannot wait : logged in the current thread
+			done();
+			print(entry.level, entry.origin, format(entry.pattern, entry.args));
+		}
+	}
+
+	private void done() {
+		synchronized (lock) {
+			pending-- ;
+			if ( pending == 0 ) {
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all the messages already submitted are logged (async mode only)
+	 */
+	public void flush() {
+		synchronized (lock) {
+			waitForPendingMessages();
+		}
+	}
+
+	/**
+	 * Logs all the pending messages and stops the background thread if any <br>
+	 * The logger can still be used after 'close' (a new thread is started if necessary)
+	 */
+	public void close() {
+		synchronized (lock) {
+			if ( ! waitForPendingMessages() ) {
+				return ; // interrupted : the background thread is kept to log the pending messages
+			}
+			// no pending message and lock held : nothing can be submitted to the current queue
+			if ( worker != null ) {
+				worker.interrupt();
+				worker = null ;
+				queue = null ;
+			}
+		}
+	}
+
+	/**
+	 * Waits until the number of pending messages is 0 (to be called with the lock held)
+	 * @return true if no more pending message, false if interrupted
+	 */
+	private boolean waitForPendingMessages() {
+		while ( pending > 0 ) {
+			try {
+				lock.wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	private class Worker implements Runnable {
+		private final BlockingQueue<LogEntry> workerQueue ;
+
+		private Worker(BlockingQueue<LogEntry> workerQueue) {
+			this.workerQueue = workerQueue ;
+		}
+
+		@Override
+		public void run() {
+			while ( true ) {
+				LogEntry entry ;
+				try {
+					entry = workerQueue.take();
+				} catch (InterruptedException e) {
+					return ; // closed (no pending message)
+				}
+				try {
+					print(entry.level, entry.origin, format(entry.pattern, entry.args));
+				} catch (RuntimeException e) {
+					// logger error : ignored (the worker must not stop)
+				} finally {
+					done();
+				}
+			}
+		}
+	}
+
+	private static final class LogEntry {
+		private final Level    level ;
+		private final Object   origin ;
+		private final String   pattern ;
+		private final Object[] args ;
+
+		private LogEntry(Level level, Object origin, String pattern, Object[] args) {
+			this.level = level ;
+			this.origin = origin ;
+			this.pattern = pattern ;
+			this.args = args ;
+		}
+	}
+}
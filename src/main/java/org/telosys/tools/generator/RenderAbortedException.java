@@ -0,0 +1,85 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator;
+
+/**
+ * Exception thrown when a template rendering is aborted by the render watchdog ( v 4.2.0 ) : <br>
+ * . time budget exceeded <br>
+ * . or generation task canceled during the rendering 
+ * 
+ * @author Laurent GUERIN
+ * 
+ */
+public class RenderAbortedException extends RuntimeException 
+{
+	private static final long serialVersionUID = 1L;
+	
+	private final String  templateName ;
+	private final int     lineNumber ;
+	private final boolean canceled ;
+	private final long    elapsedMillis ;
+
+	/**
+	 * Constructor
+	 * @param templateName
+	 * @param lineNumber the last line known in the template (or -1 if unknown)
+	 * @param canceled true if canceled, false if time budget exceeded
+	 * @param elapsedMillis
+	 */
+	public RenderAbortedException(String templateName, int lineNumber, boolean canceled, long elapsedMillis) {
+		super(buildMessage(templateName, lineNumber, canceled, elapsedMillis));
+		this.templateName = templateName ;
+		this.lineNumber = lineNumber ;
+		this.canceled = canceled ;
+		this.elapsedMillis = elapsedMillis ;
+	}
+
+	private static String buildMessage(String templateName, int lineNumber, boolean canceled, long elapsedMillis) {
+		StringBuilder sb = new StringBuilder();
+		sb.append( canceled ? "Generation canceled" : "Time budget exceeded" );
+		sb.append(" after ").append(elapsedMillis).append(" ms");
+		sb.append(" in template '").append(templateName).append("'");
+		if ( lineNumber > 0 ) {
+			sb.append(" [ line ").append(lineNumber).append(" ]");
+		}
+		return sb.toString();
+	}
+
+	public String getTemplateName() {
+		return templateName;
+	}
+
+	/**
+	 * Returns the last line known when the rendering was aborted (or -1 if unknown)
+	 * @return
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Returns true if the rendering was aborted by a cancellation request (false for a time budget exceeded)
+	 * @return
+	 */
+	public boolean isCanceled() {
+		return canceled;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+}
@@ -0,0 +1,161 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render watchdog : time budget and cancellation for the template being rendered by the current thread ( v 4.2.0 ) <br>
+ * The rendering is never stopped from the outside : the watchdog only marks the budget as exceeded 
+ * and the rendering stops at the next 'checkpoint' (compiled template loops, main context objects methods) <br>
+ * A checkpoint throws a 'RenderAbortedException' if the budget is exceeded or if the cancellation has been requested
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public final class RenderWatchdog {
+
+	/**
+	 * Cancellation request (typically the task monitor)
+	 */
+	public interface CancelSignal {
+		boolean isCanceled() ;
+	}
+
+	// cancellation signal checked only once for N checkpoints (it can be a UI component)
+	private static final int CANCEL_CHECK_INTERVAL = 256 ;
+
+	private static final ThreadLocal<RenderWatchdog> current = new ThreadLocal<>();
+
+	private static ScheduledExecutorService timer = null ;
+
+	private static synchronized ScheduledExecutorService getTimer() {
+		if ( timer == null ) {
+			timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "telosys-render-watchdog");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return timer ;
+	}
+
+	private final String          templateName ;
+	private final CancelSignal    cancelSignal ;
+	private final long            startTime ;
+	private final RenderWatchdog  previous ; // watchdog replaced in the current thread (embedded generator)
+	private final ScheduledFuture<?> timeout ;
+	private volatile boolean      budgetExceeded = false ;
+	private int                   checks = 0 ;
+	private int                   lastLine = -1 ;
+
+	private RenderWatchdog(String templateName, long budgetMillis, CancelSignal cancelSignal, RenderWatchdog previous) {
+		super();
+		this.templateName = templateName ;
+		this.cancelSignal = cancelSignal ;
+		this.startTime = System.currentTimeMillis();
+		this.previous = previous ;
+		if ( budgetMillis > 0 ) {
+			this.timeout = getTimer().schedule(new Runnable() {
+				@Override
+				public void run() {
+					budgetExceeded = true ;
+				}
+			}, budgetMillis, TimeUnit.MILLISECONDS);
+		}
+		else {
+			this.timeout = null ;
+		}
+	}
+
+	/**
+	 * Starts a watchdog for the rendering of the given template in the current thread 
+	 * @param templateName
+	 * @param budgetMillis the time budget in milliseconds (0 or less for no time limit)
+	 * @param cancelSignal the cancellation signal (or null if none)
+	 * @return the watchdog to be stopped at the end of the rendering (or null if no budget and no signal)
+	 */
+	public static RenderWatchdog start(String templateName, long budgetMillis, CancelSignal cancelSignal) {
+		if ( budgetMillis <= 0 && cancelSignal == null ) {
+			return null ;
+		}
+		RenderWatchdog watchdog = new RenderWatchdog(templateName, budgetMillis, cancelSignal, current.get());
+		current.set(watchdog);
+		return watchdog ;
+	}
+
+	/**
+	 * Stops the watchdog (the previous watchdog of the current thread is restored if any)
+	 */
+	public void stop() {
+		if ( timeout != null ) {
+			timeout.cancel(false);
+		}
+		if ( previous != null ) {
+			current.set(previous);
+		}
+		else {
+			current.remove();
+		}
+	}
+
+	/**
+	 * Cooperative check for the template being rendered by the current thread (if any)
+	 * @throws RenderAbortedException if the time budget is exceeded or if the cancellation has been requested
+	 */
+	public static void checkpoint() {
+		RenderWatchdog watchdog = current.get();
+		if ( watchdog != null ) {
+			watchdog.check(-1);
+		}
+	}
+
+	/**
+	 * Cooperative check with the current line in the template (if any)
+	 * @param line
+	 * @throws RenderAbortedException if the time budget is exceeded or if the cancellation has been requested
+	 */
+	public static void checkpoint(int line) {
+		RenderWatchdog watchdog = current.get();
+		if ( watchdog != null ) {
+			watchdog.check(line);
+		}
+	}
+
+	private void check(int line) {
+		if ( line > 0 ) {
+			lastLine = line ;
+		}
+		if ( budgetExceeded ) {
+			throw new RenderAbortedException(templateName, lastLine, false, System.currentTimeMillis() - startTime);
+		}
+		checks++ ;
+		if ( cancelSignal != null && ( checks % CANCEL_CHECK_INTERVAL ) == 0 && cancelSignal.isCanceled() ) {
+			throw new RenderAbortedException(templateName, lastLine, true, System.currentTimeMillis() - startTime);
+		}
+	}
+
+	public String getTemplateName() {
+		return templateName;
+	}
+}
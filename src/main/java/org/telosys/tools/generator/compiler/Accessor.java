@@ -0,0 +1,60 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import org.apache.velocity.exception.MethodInvocationException;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+
+/**
+ * Element of a reference applied to the previous value ( '.property' or '.method(args)' ) <br>
+ * The Velocity introspection result is kept for the last class used (inline cache)
+ * 
+ * @author Laurent Guerin
+ *
+ */
+abstract class Accessor {
+
+	protected final Uberspect uberspect ;
+	protected final Info      info ;
+
+	protected Accessor(Uberspect uberspect, Info info) {
+		super();
+		this.uberspect = uberspect;
+		this.info = info;
+	}
+
+	/**
+	 * Returns the value obtained from the given object
+	 * @param object the previous value (not null)
+	 * @param variables
+	 * @return the value (or null if not found)
+	 */
+	abstract Object execute(Object object, TemplateVariables variables) ;
+
+	/**
+	 * Builds the exception thrown when an invoked method throws an exception (same as Velocity)
+	 * @param methodName
+	 * @param object
+	 * @param cause
+	 * @return
+	 */
+	protected MethodInvocationException invocationException(String methodName, Object object, Throwable cause) {
+		return new MethodInvocationException("Invocation of method '" + methodName + "' in  " + object.getClass() 
+				+ " threw exception " + cause.toString(), cause, methodName, 
+				info.getTemplateName(), info.getLine(), info.getColumn());
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Sequence of nodes rendered one after the other ( template, block, included template )
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class BlockNode extends CompiledNode {
+
+	private final CompiledNode[] nodes ;
+
+	BlockNode(CompiledNode[] nodes) {
+		super();
+		this.nodes = nodes;
+	}
+
+	int getNumberOfNodes() {
+		return nodes.length;
+	}
+
+	@Override
+	void render(TemplateVariables variables, Writer writer) throws IOException {
+		for ( CompiledNode node : nodes ) {
+			node.render(variables, writer);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Node of a compiled template (same semantic as the Velocity 1.7 AST node it comes from) <br>
+ * A compiled node is immutable (except its introspection caches) and can be used by several threads
+ * 
+ * @author Laurent Guerin
+ *
+ */
+abstract class CompiledNode {
+
+	/**
+	 * Renders the node in the given writer (nothing by default)
+	 * @param variables
+	 * @param writer
+	 * @throws IOException
+	 */
+	void render(TemplateVariables variables, Writer writer) throws IOException {
+		// nothing to render by default
+	}
+
+	/**
+	 * Returns the value of the node (null by default)
+	 * @param variables
+	 * @return
+	 */
+	Object value(TemplateVariables variables) {
+		return null ;
+	}
+
+	/**
+	 * Evaluates the node as a condition ('false' by default, as in Velocity)
+	 * @param variables
+	 * @return
+	 */
+	boolean evaluate(TemplateVariables variables) {
+		return false ;
+	}
+}
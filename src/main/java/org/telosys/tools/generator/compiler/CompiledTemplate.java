@@ -0,0 +1,114 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+
+import org.telosys.tools.generator.engine.GeneratorContext;
+
+/**
+ * Compiled template, ready to be rendered with a generator context <br>
+ * Thread-safe : the same compiled template can be rendered concurrently with different contexts
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class CompiledTemplate {
+
+	private final String       templateName ;
+	private final CompiledNode root ;
+
+	/**
+	 * Constructor
+	 * @param templateName
+	 * @param root
+	 */
+	protected CompiledTemplate(String templateName, CompiledNode root) {
+		super();
+		this.templateName = templateName;
+		this.root = root;
+	}
+
+	/**
+	 * Returns the template name (template file name in the bundle)
+	 * @return
+	 */
+	public String getTemplateName() {
+		return templateName;
+	}
+
+	/**
+	 * Renders the template with the given generator context ( '#set' changes are applied in the context )
+	 * @param generatorContext
+	 * @return the generation result
+	 */
+	public String render(final GeneratorContext generatorContext) {
+		return render(new TemplateVariables() {
+			@Override
+			public Object get(String name) {
+				return generatorContext.get(name);
+			}
+			@Override
+			public void put(String name, Object value) {
+				generatorContext.put(name, value);
+			}
+			@Override
+			public void remove(String name) {
+				generatorContext.remove(name);
+			}
+		});
+	}
+
+	/**
+	 * Renders the template with the given variables ( '#set' changes are applied in the map )
+	 * @param variables
+	 * @return the generation result
+	 */
+	public String render(final Map<String, Object> variables) {
+		return render(new TemplateVariables() {
+			@Override
+			public Object get(String name) {
+				return variables.get(name);
+			}
+			@Override
+			public void put(String name, Object value) {
+				variables.put(name, value);
+			}
+			@Override
+			public void remove(String name) {
+				variables.remove(name);
+			}
+		});
+	}
+
+	private String render(TemplateVariables variables) {
+		StringWriter writer = new StringWriter();
+		try {
+			render(variables, writer);
+		} catch (IOException e) {
+			// not supposed to happen with a StringWriter
+			throw new IllegalStateException("Cannot render template '" + templateName + "'", e);
+		}
+		return writer.toString();
+	}
+
+	private void render(TemplateVariables variables, Writer writer) throws IOException {
+		root.render(variables, writer);
+	}
+}
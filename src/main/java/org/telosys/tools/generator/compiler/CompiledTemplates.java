@@ -0,0 +1,132 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiled templates for a bundle <br>
+ * A template is compiled only when it is "hot" (used a given number of times), before this threshold 
+ * or if it cannot be compiled the template must be interpreted by the standard Velocity engine. <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class CompiledTemplates {
+
+	public static final int DEFAULT_COMPILATION_THRESHOLD = 10 ;
+
+	private final int compilationThreshold ;
+
+	private TemplateCompiler templateCompiler = null ; // created on first compilation
+
+	private final ConcurrentMap<String, AtomicInteger>    usages = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, String>           compilationErrors = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor with the default compilation threshold
+	 */
+	public CompiledTemplates() {
+		this(DEFAULT_COMPILATION_THRESHOLD);
+	}
+
+	/**
+	 * Constructor
+	 * @param compilationThreshold number of usages before compilation (1 to compile on first usage)
+	 */
+	public CompiledTemplates(int compilationThreshold) {
+		super();
+		this.compilationThreshold = compilationThreshold < 1 ? 1 : compilationThreshold ;
+	}
+
+	private synchronized TemplateCompiler getTemplateCompiler() {
+		if ( templateCompiler == null ) {
+			templateCompiler = new TemplateCompiler();
+		}
+		return templateCompiler ;
+	}
+
+	private String getKey(String bundleFolder, String templateFileName) {
+		return new File(bundleFolder, templateFileName).getPath();
+	}
+
+	/**
+	 * Returns the compiled template for the given template file (registers a usage of this template) 
+	 * @param bundleFolder
+	 * @param templateFileName
+	 * @return the compiled template or null if the template must be interpreted 
+	 *  (threshold not reached, compilation in progress or template not supported by the compiler)
+	 */
+	public CompiledTemplate get(String bundleFolder, String templateFileName) {
+		String key = getKey(bundleFolder, templateFileName);
+		CompiledTemplate compiledTemplate = compiledTemplates.get(key);
+		if ( compiledTemplate != null ) {
+			return compiledTemplate ;
+		}
+		AtomicInteger usage = usages.get(key);
+		if ( usage == null ) {
+			usage = new AtomicInteger();
+			AtomicInteger existing = usages.putIfAbsent(key, usage);
+			if ( existing != null ) {
+				usage = existing ;
+			}
+		}
+		if ( usage.incrementAndGet() == compilationThreshold ) {
+			// only one thread compiles the template, the others continue with the interpreter
+			try {
+				compiledTemplate = getTemplateCompiler().compile(bundleFolder, templateFileName);
+				compiledTemplates.put(key, compiledTemplate);
+			} catch (TemplateCompilationException e) {
+				compilationErrors.put(key, e.getMessage());
+			}
+		}
+		return compiledTemplate ;
+	}
+
+	/**
+	 * Returns the number of compiled templates
+	 * @return
+	 */
+	public int getNumberOfCompiledTemplates() {
+		return compiledTemplates.size();
+	}
+
+	/**
+	 * Returns the templates that cannot be compiled with the reason (compilation error message)
+	 * @return
+	 */
+	public Map<String, String> getCompilationErrors() {
+		return new HashMap<>(compilationErrors);
+	}
+
+	/**
+	 * Invalidates all the compiled templates (to be called after a change in the bundle templates)
+	 */
+	public void invalidate() {
+		compiledTemplates.clear();
+		compilationErrors.clear();
+		usages.clear();
+	}
+}
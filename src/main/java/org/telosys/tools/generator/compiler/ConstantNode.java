@@ -0,0 +1,49 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+/**
+ * Constant value ( literal number, string without interpolation, true, false )
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class ConstantNode extends CompiledNode {
+
+	private final Object  value ;
+	private final boolean evaluation ;
+
+	/**
+	 * Constructor
+	 * @param value the constant value
+	 * @param evaluation the result when used as a condition (only 'true' is 'true' in Velocity)
+	 */
+	ConstantNode(Object value, boolean evaluation) {
+		super();
+		this.value = value;
+		this.evaluation = evaluation;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		return value;
+	}
+
+	@Override
+	boolean evaluate(TemplateVariables variables) {
+		return evaluation;
+	}
+}
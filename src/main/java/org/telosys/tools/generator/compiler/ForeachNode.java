@@ -0,0 +1,123 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.directive.Scope;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+import org.telosys.tools.generator.RenderWatchdog;
+
+/**
+ * '#foreach' directive <br>
+ * Same variables as Velocity 1.7 default configuration : '$velocityCount', '$velocityHasNext' and '$foreach'
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class ForeachNode extends CompiledNode {
+
+	static final String COUNTER_NAME  = "velocityCount" ;
+	static final String HAS_NEXT_NAME = "velocityHasNext" ;
+	static final String SCOPE_NAME    = "foreach" ;
+
+	private final Object       directive ; // Velocity directive (scope owner)
+	private final String       elementName ;
+	private final CompiledNode collection ;
+	private final CompiledNode body ;
+	private final Uberspect    uberspect ;
+	private final Info         info ;
+
+	/**
+	 * Constructor
+	 * @param directive the original Velocity directive 
+	 * @param elementName
+	 * @param collection
+	 * @param body
+	 * @param uberspect
+	 * @param info
+	 */
+	ForeachNode(Object directive, String elementName, CompiledNode collection, CompiledNode body, Uberspect uberspect, Info info) {
+		super();
+		this.directive = directive;
+		this.elementName = elementName;
+		this.collection = collection;
+		this.body = body;
+		this.uberspect = uberspect;
+		this.info = info;
+	}
+
+	private Iterator<?> getIterator(Object object) {
+		try {
+			return uberspect.getIterator(object, info);
+		} catch (RuntimeException e) {
+			throw e ;
+		} catch (Exception e) {
+			throw new VelocityException("Error getting iterator for #foreach at " + info, e);
+		}
+	}
+
+	private void restore(TemplateVariables variables, String name, Object savedValue) {
+		if ( savedValue != null ) {
+			variables.put(name, savedValue);
+		}
+		else {
+			variables.remove(name);
+		}
+	}
+
+	@Override
+	void render(TemplateVariables variables, Writer writer) throws IOException {
+		Object object = collection.value(variables);
+		if ( object == null ) {
+			return ;
+		}
+		Iterator<?> iterator = getIterator(object);
+		if ( iterator == null ) {
+			return ; // not iterable : skipped
+		}
+		Object savedElement = variables.get(elementName);
+		Object savedCounter = variables.get(COUNTER_NAME);
+		Object savedHasNext = variables.get(HAS_NEXT_NAME);
+		LoopScope scope = new LoopScope(directive, variables.get(SCOPE_NAME));
+		variables.put(SCOPE_NAME, scope);
+		int counter = 1 ;
+		while ( iterator.hasNext() ) {
+			RenderWatchdog.checkpoint(info.getLine()); // v 4.2.0 (time budget and cancellation)
+			variables.put(COUNTER_NAME, Integer.valueOf(counter));
+			Object element = iterator.next();
+			variables.put(HAS_NEXT_NAME, Boolean.valueOf(iterator.hasNext()));
+			variables.put(elementName, element);
+			scope.next(iterator.hasNext());
+			body.render(variables, writer);
+			counter++ ;
+		}
+		restore(variables, COUNTER_NAME, savedCounter);
+		restore(variables, elementName, savedElement);
+		restore(variables, HAS_NEXT_NAME, savedHasNext);
+		//--- previous scope (if the current value is still a scope)
+		Object current = variables.get(SCOPE_NAME);
+		if ( current instanceof Scope ) {
+			Scope currentScope = (Scope) current ;
+			Object previous = currentScope.getParent() != null ? currentScope.getParent() : currentScope.getReplaced() ;
+			restore(variables, SCOPE_NAME, previous);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * '#if / #elseif / #else' directive 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class IfNode extends CompiledNode {
+
+	private final CompiledNode[] conditions ;
+	private final CompiledNode[] blocks ;
+	private final CompiledNode   elseBlock ; // or null if no '#else'
+
+	/**
+	 * Constructor
+	 * @param conditions the '#if' and '#elseif' conditions
+	 * @param blocks the blocks for each condition
+	 * @param elseBlock the '#else' block (or null if none)
+	 */
+	IfNode(CompiledNode[] conditions, CompiledNode[] blocks, CompiledNode elseBlock) {
+		super();
+		this.conditions = conditions;
+		this.blocks = blocks;
+		this.elseBlock = elseBlock;
+	}
+
+	@Override
+	void render(TemplateVariables variables, Writer writer) throws IOException {
+		for ( int i = 0 ; i < conditions.length ; i++ ) {
+			if ( conditions[i].evaluate(variables) ) {
+				blocks[i].render(variables, writer);
+				return ;
+			}
+		}
+		if ( elseBlock != null ) {
+			elseBlock.render(variables, writer);
+		}
+	}
+}
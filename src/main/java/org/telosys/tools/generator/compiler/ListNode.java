@@ -0,0 +1,44 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List literal ( eg '[1, "a", $x]' ) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class ListNode extends CompiledNode {
+
+	private final CompiledNode[] elements ;
+
+	ListNode(CompiledNode[] elements) {
+		super();
+		this.elements = elements;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		List<Object> list = new ArrayList<>(elements.length);
+		for ( CompiledNode element : elements ) {
+			list.add(element.value(variables));
+		}
+		return list ;
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import org.apache.velocity.runtime.directive.ForeachScope;
+
+/**
+ * Loop scope ( '$foreach' ) of a '#foreach' in a compiled template <br>
+ * Same object as with the Velocity interpreter ( index, count, hasNext, first, last, parent, etc )
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class LoopScope extends ForeachScope {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 * @param owner the Velocity directive (used for '$foreach.info')
+	 * @param previous the previous '$foreach' value (parent scope or replaced object)
+	 */
+	LoopScope(Object owner, Object previous) {
+		super(owner, previous);
+	}
+
+	/**
+	 * Moves to the next element
+	 * @param hasNextElement
+	 */
+	void next(boolean hasNextElement) {
+		index++ ;
+		hasNext = hasNextElement ;
+	}
+}
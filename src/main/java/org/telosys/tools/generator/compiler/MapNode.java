@@ -0,0 +1,46 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map literal ( eg '{"a": 1, "b": $x}' ) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class MapNode extends CompiledNode {
+
+	private final CompiledNode[] keys ;
+	private final CompiledNode[] values ;
+
+	MapNode(CompiledNode[] keys, CompiledNode[] values) {
+		super();
+		this.keys = keys;
+		this.values = values;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		Map<Object, Object> map = new LinkedHashMap<>();
+		for ( int i = 0 ; i < keys.length ; i++ ) {
+			map.put(keys[i].value(variables), values[i].value(variables));
+		}
+		return map ;
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+import org.apache.velocity.util.introspection.VelMethod;
+
+/**
+ * Method call : '$x.method(arg1, arg2)' ( method resolved with the Velocity introspection )
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class MethodAccessor extends Accessor {
+
+	private static final Class<?>[] NO_TYPES = new Class<?>[0] ;
+
+	private final String         methodName ;
+	private final CompiledNode[] arguments ;
+
+	private volatile CachedMethod cachedMethod = null ; // last classes used
+
+	private static final class CachedMethod {
+		private final Class<?>   type ;
+		private final Class<?>[] argumentsTypes ;
+		private final VelMethod  method ;
+		private CachedMethod(Class<?> type, Class<?>[] argumentsTypes, VelMethod method) {
+			this.type = type;
+			this.argumentsTypes = argumentsTypes;
+			this.method = method;
+		}
+	}
+
+	MethodAccessor(String methodName, CompiledNode[] arguments, Uberspect uberspect, Info info) {
+		super(uberspect, info);
+		this.methodName = methodName;
+		this.arguments = arguments;
+	}
+
+	private VelMethod getMethod(Object object, Object[] values, Class<?>[] types) {
+		CachedMethod cached = cachedMethod ;
+		if ( cached != null && cached.type == object.getClass() && Arrays.equals(cached.argumentsTypes, types) ) {
+			return cached.method ;
+		}
+		VelMethod method ;
+		try {
+			method = uberspect.getMethod(object, methodName, values, info);
+		} catch (RuntimeException e) {
+			throw e ;
+		} catch (Exception e) {
+			throw new VelocityException("Cannot find method '" + methodName + "' in " + object.getClass(), e);
+		}
+		if ( method != null ) {
+			cachedMethod = new CachedMethod(object.getClass(), types, method);
+		}
+		return method ;
+	}
+
+	@Override
+	Object execute(Object object, TemplateVariables variables) {
+		Object[] values = new Object[arguments.length];
+		Class<?>[] types = arguments.length > 0 ? new Class<?>[arguments.length] : NO_TYPES ;
+		for ( int i = 0 ; i < arguments.length ; i++ ) {
+			values[i] = arguments[i].value(variables);
+			if ( values[i] != null ) {
+				types[i] = values[i].getClass();
+			}
+		}
+		VelMethod method = getMethod(object, values, types);
+		if ( method == null ) {
+			return null ;
+		}
+		try {
+			Object result = method.invoke(object, values);
+			if ( result == null && method.getReturnType() == Void.TYPE ) {
+				return "" ; // void method : nothing to render 
+			}
+			return result ;
+		} catch (InvocationTargetException e) {
+			throw invocationException(methodName, object, e.getTargetException());
+		} catch (IllegalArgumentException e) {
+			throw invocationException(methodName, object, e);
+		} catch (RuntimeException e) {
+			throw e ;
+		} catch (Exception e) {
+			throw new VelocityException("ASTMethod.execute() : exception invoking method '" 
+					+ methodName + "' in " + object.getClass(), e);
+		}
+	}
+}
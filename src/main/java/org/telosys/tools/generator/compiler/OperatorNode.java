@@ -0,0 +1,150 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import org.apache.velocity.runtime.parser.node.MathUtils;
+
+/**
+ * Operator : arithmetic ( + - * / % ), comparison ( == != < > <= >= ) or logical ( && || ! ) <br>
+ * Same rules as Velocity 1.7 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class OperatorNode extends CompiledNode {
+
+	enum Operator {
+		ADD, SUB, MUL, DIV, MOD, 
+		EQ, NE, LT, GT, LE, GE, 
+		AND, OR, NOT
+	}
+
+	private final Operator     operator ;
+	private final CompiledNode left ;
+	private final CompiledNode right ; // null for 'NOT'
+	private final String       leftLiteral ;  // text used for a null value in a concatenation
+	private final String       rightLiteral ;
+
+	/**
+	 * Constructor
+	 * @param operator
+	 * @param left
+	 * @param right
+	 * @param leftLiteral
+	 * @param rightLiteral
+	 */
+	OperatorNode(Operator operator, CompiledNode left, CompiledNode right, String leftLiteral, String rightLiteral) {
+		super();
+		this.operator = operator;
+		this.left = left;
+		this.right = right;
+		this.leftLiteral = leftLiteral;
+		this.rightLiteral = rightLiteral;
+	}
+
+	private boolean isArithmetic() {
+		return operator.ordinal() <= Operator.MOD.ordinal() ;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		if ( isArithmetic() ) {
+			return arithmetic(left.value(variables), right.value(variables));
+		}
+		else {
+			return Boolean.valueOf(evaluate(variables));
+		}
+	}
+
+	private Object arithmetic(Object l, Object r) {
+		if ( operator == Operator.ADD && ( l instanceof String || r instanceof String ) ) {
+			String s1 = l != null ? l.toString() : leftLiteral ;
+			String s2 = r != null ? r.toString() : rightLiteral ;
+			return s1.concat(s2);
+		}
+		if ( !( l instanceof Number ) || !( r instanceof Number ) ) {
+			return null ;
+		}
+		Number n1 = (Number) l ;
+		Number n2 = (Number) r ;
+		switch ( operator ) {
+		case ADD :
+			return MathUtils.add(n1, n2);
+		case SUB :
+			return MathUtils.subtract(n1, n2);
+		case MUL :
+			return MathUtils.multiply(n1, n2);
+		case DIV :
+			return MathUtils.isZero(n2) ? null : MathUtils.divide(n1, n2);
+		default : // MOD
+			return MathUtils.isZero(n2) ? null : MathUtils.modulo(n1, n2);
+		}
+	}
+
+	@Override
+	boolean evaluate(TemplateVariables variables) {
+		switch ( operator ) {
+		case AND :
+			return left.evaluate(variables) && right.evaluate(variables) ;
+		case OR :
+			return left.evaluate(variables) || right.evaluate(variables) ;
+		case NOT :
+			return !left.evaluate(variables) ;
+		case EQ :
+			return equal(left.value(variables), right.value(variables));
+		case NE :
+			return !equal(left.value(variables), right.value(variables));
+		case LT :
+		case GT :
+		case LE :
+		case GE :
+			return compare(left.value(variables), right.value(variables));
+		default : // arithmetic : not a condition
+			return false ;
+		}
+	}
+
+	private boolean equal(Object l, Object r) {
+		if ( l == null || r == null ) {
+			return l == r ;
+		}
+		if ( l instanceof Number && r instanceof Number ) {
+			return MathUtils.compare((Number) l, (Number) r) == 0 ;
+		}
+		if ( l.getClass().isAssignableFrom(r.getClass()) || r.getClass().isAssignableFrom(l.getClass()) ) {
+			return l.equals(r);
+		}
+		String s1 = l.toString();
+		return s1 != null && s1.equals(r.toString());
+	}
+
+	private boolean compare(Object l, Object r) {
+		if ( !( l instanceof Number ) || !( r instanceof Number ) ) {
+			return false ;
+		}
+		int c = MathUtils.compare((Number) l, (Number) r);
+		switch ( operator ) {
+		case LT :
+			return c < 0 ;
+		case GT :
+			return c > 0 ;
+		case LE :
+			return c <= 0 ;
+		default : // GE
+			return c >= 0 ;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+import org.apache.velocity.util.introspection.VelPropertyGet;
+
+/**
+ * Property access : '$x.name' ( 'getName()', 'get("name")', 'isName()', etc as defined by the Velocity introspection )
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class PropertyAccessor extends Accessor {
+
+	private final String identifier ;
+
+	private volatile CachedGetter cachedGetter = null ; // last class used
+
+	private static final class CachedGetter {
+		private final Class<?>       type ;
+		private final VelPropertyGet getter ;
+		private CachedGetter(Class<?> type, VelPropertyGet getter) {
+			this.type = type;
+			this.getter = getter;
+		}
+	}
+
+	PropertyAccessor(String identifier, Uberspect uberspect, Info info) {
+		super(uberspect, info);
+		this.identifier = identifier;
+	}
+
+	private VelPropertyGet getGetter(Object object) {
+		CachedGetter cached = cachedGetter ;
+		if ( cached != null && cached.type == object.getClass() ) {
+			return cached.getter ;
+		}
+		VelPropertyGet getter ;
+		try {
+			getter = uberspect.getPropertyGet(object, identifier, info);
+		} catch (RuntimeException e) {
+			throw e ;
+		} catch (Exception e) {
+			throw new VelocityException("Cannot find property '" + identifier + "' in " + object.getClass(), e);
+		}
+		if ( getter != null && getter.isCacheable() ) {
+			cachedGetter = new CachedGetter(object.getClass(), getter);
+		}
+		return getter ;
+	}
+
+	@Override
+	Object execute(Object object, TemplateVariables variables) {
+		VelPropertyGet getter = getGetter(object);
+		if ( getter == null ) {
+			return null ;
+		}
+		try {
+			return getter.invoke(object);
+		} catch (InvocationTargetException e) {
+			throw invocationException(getter.getMethodName(), object, e.getTargetException());
+		} catch (IllegalArgumentException e) {
+			return null ;
+		} catch (RuntimeException e) {
+			throw e ;
+		} catch (Exception e) {
+			throw new VelocityException("ASTIdentifier() : exception invoking method for identifier '" 
+					+ identifier + "' in " + object.getClass(), e);
+		}
+	}
+}
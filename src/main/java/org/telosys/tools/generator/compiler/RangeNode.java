@@ -0,0 +1,54 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Integer range ( eg '[1..$n]' ) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class RangeNode extends CompiledNode {
+
+	private final CompiledNode left ;
+	private final CompiledNode right ;
+
+	RangeNode(CompiledNode left, CompiledNode right) {
+		super();
+		this.left = left;
+		this.right = right;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		Object l = left.value(variables);
+		Object r = right.value(variables);
+		if ( !( l instanceof Number ) || !( r instanceof Number ) ) {
+			return null ;
+		}
+		int from = ((Number) l).intValue();
+		int to = ((Number) r).intValue();
+		int step = from <= to ? 1 : -1 ;
+		List<Integer> list = new ArrayList<>(Math.abs(to - from) + 1);
+		for ( int i = from ; i != to + step ; i += step ) {
+			list.add(Integer.valueOf(i));
+		}
+		return list ;
+	}
+}
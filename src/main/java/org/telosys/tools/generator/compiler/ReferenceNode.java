@@ -0,0 +1,167 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+
+import org.apache.velocity.exception.MethodInvocationException;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+import org.apache.velocity.util.introspection.VelPropertySet;
+import org.telosys.tools.generator.context.tools.RenderableText;
+
+/**
+ * Reference : '$x', '$!x', '${x.name}', '$x.method(args).name', '\$x', etc 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class ReferenceNode extends CompiledNode {
+
+	private final String     rootName ;
+	private final Accessor[] accessors ;
+	private final String     lastIdentifier ; // for '#set($x.name = ...)' (or null if the last element is not a property)
+	private final String     prefix ;      // text before the '$' (eg "#" for "#$x")
+	private final String     nullText ;    // text rendered if the value is null (reference literal or void if quiet)
+	private final String     escapedText ; // text rendered if the escaped reference has a value (or null if not escaped) 
+	private final Uberspect  uberspect ;
+	private final Info       info ;
+
+	/**
+	 * Constructor
+	 * @param rootName
+	 * @param accessors
+	 * @param lastIdentifier
+	 * @param prefix
+	 * @param nullText
+	 * @param escapedText
+	 * @param uberspect
+	 * @param info
+	 */
+	ReferenceNode(String rootName, Accessor[] accessors, String lastIdentifier, 
+			String prefix, String nullText, String escapedText, Uberspect uberspect, Info info) {
+		super();
+		this.rootName = rootName;
+		this.accessors = accessors;
+		this.lastIdentifier = lastIdentifier;
+		this.prefix = prefix;
+		this.nullText = nullText;
+		this.escapedText = escapedText;
+		this.uberspect = uberspect;
+		this.info = info;
+	}
+
+	String getRootName() {
+		return rootName;
+	}
+
+	boolean hasAccessors() {
+		return accessors.length > 0 ;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		Object result = variables.get(rootName);
+		if ( result == null ) {
+			return null ;
+		}
+		try {
+			for ( Accessor accessor : accessors ) {
+				result = accessor.execute(result, variables);
+				if ( result == null ) {
+					return null ;
+				}
+			}
+		} catch (MethodInvocationException e) {
+			e.setReferenceName(rootName);
+			throw e ;
+		}
+		return result ;
+	}
+
+	@Override
+	void render(TemplateVariables variables, Writer writer) throws IOException {
+		Object value = value(variables);
+		if ( escapedText != null ) {
+			writer.write( value != null ? escapedText : nullText );
+		}
+		else if ( value instanceof RenderableText ) {
+			((RenderableText) value).write(writer); // written without prefix (as a Velocity 'Renderable')
+		}
+		else {
+			String text = value != null ? value.toString() : null ;
+			if ( text != null ) {
+				writer.write(prefix);
+				writer.write(text);
+			}
+			else {
+				writer.write(nullText);
+			}
+		}
+	}
+
+	@Override
+	boolean evaluate(TemplateVariables variables) {
+		Object value = value(variables);
+		if ( value == null ) {
+			return false ;
+		}
+		else if ( value instanceof Boolean ) {
+			return ((Boolean) value).booleanValue();
+		}
+		else {
+			return value.toString() != null ;
+		}
+	}
+
+	/**
+	 * Sets the given value : '#set($x = value)' or '#set($x.name = value)'
+	 * @param variables
+	 * @param value
+	 */
+	void setValue(TemplateVariables variables, Object value) {
+		if ( accessors.length == 0 ) {
+			variables.put(rootName, value);
+			return ;
+		}
+		Object result = variables.get(rootName);
+		for ( int i = 0 ; i < accessors.length - 1 && result != null ; i++ ) {
+			result = accessors[i].execute(result, variables);
+		}
+		if ( result == null ) {
+			return ; // not a valid reference : nothing to set
+		}
+		VelPropertySet setter ;
+		try {
+			setter = uberspect.getPropertySet(result, lastIdentifier, value, info);
+			if ( setter != null ) {
+				setter.invoke(result, value);
+			}
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getTargetException();
+			throw new MethodInvocationException("ASTReference : Invocation of method '" + lastIdentifier + "' in  " 
+					+ result.getClass() + " threw exception " + cause.toString(), cause, lastIdentifier, 
+					info.getTemplateName(), info.getLine(), info.getColumn());
+		} catch (RuntimeException e) {
+			throw e ;
+		} catch (Exception e) {
+			throw new VelocityException("ASTReference setValue() : exception : " + e, e);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.Writer;
+
+/**
+ * '#set' directive 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SetNode extends CompiledNode {
+
+	private final ReferenceNode left ;
+	private final CompiledNode  right ;
+
+	SetNode(ReferenceNode left, CompiledNode right) {
+		super();
+		this.left = left;
+		this.right = right;
+	}
+
+	@Override
+	void render(TemplateVariables variables, Writer writer) {
+		Object value = right.value(variables);
+		if ( value != null ) { // 'directive.set.null.allowed' is 'false' : null value => unchanged variable
+			left.setValue(variables, value);
+		}
+	}
+}
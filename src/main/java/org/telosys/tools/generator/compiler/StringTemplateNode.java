@@ -0,0 +1,54 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.velocity.exception.VelocityException;
+
+/**
+ * Interpolated string literal ( eg "abc $x" ) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class StringTemplateNode extends CompiledNode {
+
+	private final CompiledNode body ;
+	private final boolean      removeLastChar ; // the Velocity parser adds a last char to the string
+
+	StringTemplateNode(CompiledNode body, boolean removeLastChar) {
+		super();
+		this.body = body;
+		this.removeLastChar = removeLastChar;
+	}
+
+	@Override
+	Object value(TemplateVariables variables) {
+		StringWriter writer = new StringWriter();
+		try {
+			body.render(variables, writer);
+		} catch (IOException e) {
+			throw new VelocityException("Error during string interpolation", e);
+		}
+		String s = writer.toString();
+		if ( removeLastChar && s.length() > 0 ) {
+			return s.substring(0, s.length() - 1);
+		}
+		return s ;
+	}
+}
@@ -0,0 +1,475 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.RuntimeInstance;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.apache.velocity.runtime.parser.ParseException;
+import org.apache.velocity.runtime.parser.node.ASTAddNode;
+import org.apache.velocity.runtime.parser.node.ASTAndNode;
+import org.apache.velocity.runtime.parser.node.ASTBlock;
+import org.apache.velocity.runtime.parser.node.ASTComment;
+import org.apache.velocity.runtime.parser.node.ASTDirective;
+import org.apache.velocity.runtime.parser.node.ASTDivNode;
+import org.apache.velocity.runtime.parser.node.ASTEQNode;
+import org.apache.velocity.runtime.parser.node.ASTElseIfStatement;
+import org.apache.velocity.runtime.parser.node.ASTElseStatement;
+import org.apache.velocity.runtime.parser.node.ASTEscape;
+import org.apache.velocity.runtime.parser.node.ASTEscapedDirective;
+import org.apache.velocity.runtime.parser.node.ASTExpression;
+import org.apache.velocity.runtime.parser.node.ASTFalse;
+import org.apache.velocity.runtime.parser.node.ASTFloatingPointLiteral;
+import org.apache.velocity.runtime.parser.node.ASTGENode;
+import org.apache.velocity.runtime.parser.node.ASTGTNode;
+import org.apache.velocity.runtime.parser.node.ASTIdentifier;
+import org.apache.velocity.runtime.parser.node.ASTIfStatement;
+import org.apache.velocity.runtime.parser.node.ASTIntegerLiteral;
+import org.apache.velocity.runtime.parser.node.ASTIntegerRange;
+import org.apache.velocity.runtime.parser.node.ASTLENode;
+import org.apache.velocity.runtime.parser.node.ASTLTNode;
+import org.apache.velocity.runtime.parser.node.ASTMap;
+import org.apache.velocity.runtime.parser.node.ASTMethod;
+import org.apache.velocity.runtime.parser.node.ASTModNode;
+import org.apache.velocity.runtime.parser.node.ASTMulNode;
+import org.apache.velocity.runtime.parser.node.ASTNENode;
+import org.apache.velocity.runtime.parser.node.ASTNotNode;
+import org.apache.velocity.runtime.parser.node.ASTObjectArray;
+import org.apache.velocity.runtime.parser.node.ASTOrNode;
+import org.apache.velocity.runtime.parser.node.ASTReference;
+import org.apache.velocity.runtime.parser.node.ASTSetDirective;
+import org.apache.velocity.runtime.parser.node.ASTStringLiteral;
+import org.apache.velocity.runtime.parser.node.ASTSubtractNode;
+import org.apache.velocity.runtime.parser.node.ASTText;
+import org.apache.velocity.runtime.parser.node.ASTTextblock;
+import org.apache.velocity.runtime.parser.node.ASTTrue;
+import org.apache.velocity.runtime.parser.node.ASTprocess;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+import org.telosys.tools.generator.compiler.OperatorNode.Operator;
+
+/**
+ * Template compiler : translates the Velocity AST of a template into a tree of compiled nodes <br>
+ * with the references, methods and properties resolved once and cached by each node. <br>
+ * The Velocity parser and introspector are reused, so the result is the same as with the Velocity interpreter. <br>
+ * Only the following constructs are supported : text, comments, references (properties and methods), literals, 
+ * operators, '#set', '#if/#elseif/#else', '#foreach' and '#parse' with a constant file name. <br>
+ * Any other construct ( '#macro', '#break', '#stop', '#include', '#evaluate', '#define', specific directives, 
+ * index notation '$x[0]', etc ) throws a TemplateCompilationException (the template must be interpreted) <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class TemplateCompiler {
+
+	private static final String ENCODING = "UTF-8" ;
+
+	private static final int MAX_PARSE_DEPTH = 10 ; // as 'directive.parse.max.depth' (Velocity default value)
+
+	private static final int RUNT_REFERENCE = 4 ; // 'ASTReference.RUNT' (eg '$' alone)
+
+	private final RuntimeInstance runtime ;
+
+	private final Uberspect uberspect ;
+
+	/**
+	 * Constructor
+	 */
+	public TemplateCompiler() {
+		super();
+		runtime = new RuntimeInstance();
+		runtime.setProperty(RuntimeConstants.INPUT_ENCODING, ENCODING);
+		runtime.setProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS, NullLogChute.class.getName());
+		runtime.init();
+		uberspect = runtime.getUberspect();
+	}
+
+	/**
+	 * Compiles the given template file
+	 * @param bundleFolder the bundle folder (as used by the generator)
+	 * @param templateFileName the template file name in the bundle folder (eg "foo.vm", "subdir/foo.vm" or "/subdir/foo.vm")
+	 * @return
+	 * @throws TemplateCompilationException if the template cannot be compiled (unsupported construct, parsing error, etc)
+	 */
+	public CompiledTemplate compile(String bundleFolder, String templateFileName) throws TemplateCompilationException {
+		String text = readTemplate(bundleFolder, templateFileName);
+		return new CompiledTemplate(templateFileName, compileTemplate(templateFileName, text, bundleFolder, 0));
+	}
+
+	/**
+	 * Compiles the given template text 
+	 * @param templateName the template name (used in error messages)
+	 * @param text the template content
+	 * @param bundleFolder the folder for the files included with '#parse' (can be null if no '#parse')
+	 * @return
+	 * @throws TemplateCompilationException
+	 */
+	public CompiledTemplate compileText(String templateName, String text, String bundleFolder) throws TemplateCompilationException {
+		return new CompiledTemplate(templateName, compileTemplate(templateName, text, bundleFolder, 0));
+	}
+
+	//------------------------------------------------------------------------------------
+	// Template parsing
+	//------------------------------------------------------------------------------------
+	private String readTemplate(String bundleFolder, String templateFileName) throws TemplateCompilationException {
+		if ( bundleFolder == null ) {
+			throw new TemplateCompilationException("No bundle folder for template '" + templateFileName + "'");
+		}
+		// leading '/' ignored as in the Velocity file resource loader 
+		String fileName = templateFileName.startsWith("/") ? templateFileName.substring(1) : templateFileName ;
+		if ( fileName.contains("..") ) {
+			throw new TemplateCompilationException("Invalid template file name '" + templateFileName + "'");
+		}
+		File file = new File(bundleFolder, fileName);
+		if ( ! file.isFile() ) {
+			throw new TemplateCompilationException("Template file '" + file + "' not found");
+		}
+		try {
+			return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new TemplateCompilationException("Cannot read template file '" + file + "'", e);
+		}
+	}
+
+	private CompiledNode compileTemplate(String templateName, String text, String bundleFolder, int depth) 
+			throws TemplateCompilationException {
+		SimpleNode root ;
+		try {
+			root = runtime.parse(new StringReader(text), templateName);
+		} catch (ParseException e) {
+			throw new TemplateCompilationException("Template '" + templateName + "' : parsing error : " + e.getMessage(), e);
+		}
+		// directives checked before the initialization ('#macro' or unknown directives initialization must be avoided)
+		checkDirectives(root);
+		InternalContextAdapterImpl ica = new InternalContextAdapterImpl(new VelocityContext());
+		ica.pushCurrentTemplateName(templateName);
+		try {
+			root.init(ica, runtime);
+		} catch (Exception e) {
+			throw new TemplateCompilationException("Template '" + templateName + "' : initialization error : " + e.getMessage(), e);
+		} finally {
+			ica.popCurrentTemplateName();
+		}
+		return new Compilation(bundleFolder, depth).compileBlock(root);
+	}
+
+	private void checkDirectives(Node node) throws TemplateCompilationException {
+		if ( node instanceof ASTDirective ) {
+			String name = ((ASTDirective) node).getDirectiveName();
+			if ( ! "foreach".equals(name) && ! "parse".equals(name) ) {
+				throw unsupported("directive '#" + name + "'", node);
+			}
+		}
+		for ( int i = 0 ; i < node.jjtGetNumChildren() ; i++ ) {
+			checkDirectives(node.jjtGetChild(i));
+		}
+	}
+
+	private static TemplateCompilationException unsupported(String element, Node node) {
+		return new TemplateCompilationException("Template '" + node.getTemplateName() + "' : unsupported " + element 
+				+ " [line " + node.getLine() + ", column " + node.getColumn() + "]");
+	}
+
+	//------------------------------------------------------------------------------------
+	// Velocity nodes private fields (no getter in Velocity 1.7)
+	//------------------------------------------------------------------------------------
+	private static Object getField(Object node, String fieldName) throws TemplateCompilationException {
+		try {
+			Field field = node.getClass().getDeclaredField(fieldName);
+			field.setAccessible(true);
+			return field.get(node);
+		} catch (Exception e) {
+			throw new TemplateCompilationException("Cannot get field '" + fieldName + "' in " + node.getClass().getSimpleName(), e);
+		}
+	}
+
+	//------------------------------------------------------------------------------------
+	// Compilation of a parsed template
+	//------------------------------------------------------------------------------------
+	private class Compilation {
+
+		private final String bundleFolder ;
+		private final int    depth ;
+		private final InternalContextAdapterImpl emptyContext = new InternalContextAdapterImpl(new VelocityContext());
+
+		private Compilation(String bundleFolder, int depth) {
+			super();
+			this.bundleFolder = bundleFolder;
+			this.depth = depth;
+		}
+
+		/**
+		 * Renders the given node with Velocity in the given context (for static elements)
+		 */
+		private String render(Node node, InternalContextAdapterImpl context) throws TemplateCompilationException {
+			StringWriter writer = new StringWriter();
+			try {
+				node.render(context, writer);
+			} catch (Exception e) {
+				throw new TemplateCompilationException("Cannot render " + node.getClass().getSimpleName(), e);
+			}
+			return writer.toString();
+		}
+
+		private Info getInfo(Node node) {
+			return new Info(node.getTemplateName(), node.getLine(), node.getColumn());
+		}
+
+		//--- Rendered nodes 
+		private CompiledNode compileBlock(Node node) throws TemplateCompilationException {
+			List<CompiledNode> list = new ArrayList<>();
+			StringBuilder text = new StringBuilder(); // consecutive static texts merged 
+			for ( int i = 0 ; i < node.jjtGetNumChildren() ; i++ ) {
+				CompiledNode compiledNode = compileElement(node.jjtGetChild(i));
+				if ( compiledNode instanceof TextNode ) {
+					text.append(((TextNode) compiledNode).getText());
+				}
+				else {
+					if ( text.length() > 0 ) {
+						list.add(new TextNode(text.toString()));
+						text.setLength(0);
+					}
+					list.add(compiledNode);
+				}
+			}
+			if ( text.length() > 0 ) {
+				list.add(new TextNode(text.toString()));
+			}
+			if ( list.size() == 1 ) {
+				return list.get(0);
+			}
+			return new BlockNode(list.toArray(new CompiledNode[list.size()]));
+		}
+
+		private CompiledNode compileElement(Node node) throws TemplateCompilationException {
+			if ( node instanceof ASTText || node instanceof ASTComment || node instanceof ASTTextblock 
+					|| node instanceof ASTEscape || node instanceof ASTEscapedDirective ) {
+				return new TextNode(render(node, emptyContext));
+			}
+			else if ( node instanceof ASTReference ) {
+				return compileRenderedReference((ASTReference) node);
+			}
+			else if ( node instanceof ASTSetDirective ) {
+				return new SetNode(compileReference((ASTReference) node.jjtGetChild(0)), compileValue(node.jjtGetChild(1)));
+			}
+			else if ( node instanceof ASTIfStatement ) {
+				return compileIf(node);
+			}
+			else if ( node instanceof ASTBlock || node instanceof ASTprocess ) {
+				return compileBlock(node);
+			}
+			else if ( node instanceof ASTDirective ) {
+				String name = ((ASTDirective) node).getDirectiveName();
+				if ( "foreach".equals(name) ) {
+					return compileForeach(node);
+				}
+				else if ( "parse".equals(name) ) {
+					return compileParse(node);
+				}
+			}
+			throw unsupported("element '" + node.getClass().getSimpleName() + "'", node);
+		}
+
+		private CompiledNode compileIf(Node node) throws TemplateCompilationException {
+			List<CompiledNode> conditions = new ArrayList<>();
+			List<CompiledNode> blocks = new ArrayList<>();
+			CompiledNode elseBlock = null ;
+			conditions.add(compileValue(node.jjtGetChild(0)));
+			blocks.add(compileBlock(node.jjtGetChild(1)));
+			for ( int i = 2 ; i < node.jjtGetNumChildren() ; i++ ) {
+				Node child = node.jjtGetChild(i);
+				if ( child instanceof ASTElseIfStatement ) {
+					conditions.add(compileValue(child.jjtGetChild(0)));
+					blocks.add(compileBlock(child.jjtGetChild(1)));
+				}
+				else if ( child instanceof ASTElseStatement ) {
+					elseBlock = compileBlock(child.jjtGetChild(0));
+				}
+			}
+			return new IfNode(conditions.toArray(new CompiledNode[conditions.size()]), 
+					blocks.toArray(new CompiledNode[blocks.size()]), elseBlock);
+		}
+
+		private CompiledNode compileForeach(Node node) throws TemplateCompilationException {
+			if ( node.jjtGetNumChildren() != 4 || ! ( node.jjtGetChild(0) instanceof ASTReference ) 
+					|| node.jjtGetChild(0).jjtGetNumChildren() > 0 ) {
+				throw unsupported("'#foreach' syntax", node);
+			}
+			String elementName = ((ASTReference) node.jjtGetChild(0)).getRootString();
+			return new ForeachNode(getField(node, "directive"), elementName, compileValue(node.jjtGetChild(2)), compileBlock(node.jjtGetChild(3)), 
+					uberspect, getInfo(node));
+		}
+
+		private CompiledNode compileParse(Node node) throws TemplateCompilationException {
+			if ( node.jjtGetNumChildren() != 1 || ! ( node.jjtGetChild(0) instanceof ASTStringLiteral ) 
+					|| ! ((ASTStringLiteral) node.jjtGetChild(0)).isConstant() ) {
+				throw unsupported("'#parse' argument (constant file name expected)", node);
+			}
+			if ( depth + 1 >= MAX_PARSE_DEPTH ) {
+				throw unsupported("'#parse' depth", node);
+			}
+			String fileName = (String) node.jjtGetChild(0).value(emptyContext);
+			String text = readTemplate(bundleFolder, fileName);
+			return compileTemplate(fileName, text, bundleFolder, depth + 1);
+		}
+
+		//--- References 
+		private CompiledNode compileRenderedReference(ASTReference node) throws TemplateCompilationException {
+			if ( ((Integer) getField(node, "referenceType")).intValue() == RUNT_REFERENCE ) {
+				return new TextNode(node.getRootString());
+			}
+			if ( Boolean.TRUE.equals(getField(node, "escaped")) ) {
+				// escaped reference ( eg '\$x' ) : the result only depends on the reference existence 
+				if ( node.jjtGetNumChildren() > 0 ) {
+					throw unsupported("escaped reference with properties or methods", node);
+				}
+				String nullText = render(node, emptyContext);
+				VelocityContext velocityContext = new VelocityContext();
+				velocityContext.put(node.getRootString(), Boolean.TRUE);
+				String escapedText = render(node, new InternalContextAdapterImpl(velocityContext));
+				return new ReferenceNode(node.getRootString(), new Accessor[0], null, "", nullText, escapedText, 
+						uberspect, getInfo(node));
+			}
+			return compileReference(node);
+		}
+
+		private ReferenceNode compileReference(ASTReference node) throws TemplateCompilationException {
+			if ( ((Integer) getField(node, "referenceType")).intValue() == RUNT_REFERENCE 
+					|| Boolean.TRUE.equals(getField(node, "escaped")) ) {
+				throw unsupported("reference '" + node.literal() + "'", node);
+			}
+			String rootName = node.getRootString();
+			int n = node.jjtGetNumChildren();
+			Accessor[] accessors = new Accessor[n];
+			for ( int i = 0 ; i < n ; i++ ) {
+				Node child = node.jjtGetChild(i);
+				if ( child instanceof ASTIdentifier ) {
+					accessors[i] = new PropertyAccessor(child.getFirstToken().image, uberspect, getInfo(child));
+				}
+				else if ( child instanceof ASTMethod ) {
+					String methodName = ((ASTMethod) child).getMethodName();
+					CompiledNode[] arguments = new CompiledNode[child.jjtGetNumChildren() - 1];
+					for ( int a = 0 ; a < arguments.length ; a++ ) {
+						arguments[a] = compileValue(child.jjtGetChild(a + 1));
+					}
+					accessors[i] = new MethodAccessor(methodName, arguments, uberspect, getInfo(child));
+				}
+				else {
+					throw unsupported("element '" + child.getClass().getSimpleName() + "' in reference", child);
+				}
+			}
+			String lastIdentifier = null ;
+			if ( n > 0 && node.jjtGetChild(n - 1) instanceof ASTIdentifier ) {
+				lastIdentifier = node.jjtGetChild(n - 1).getFirstToken().image ;
+			}
+			String prefix = (String) getField(node, "escPrefix") + (String) getField(node, "morePrefix") ;
+			String nullText = render(node, emptyContext); // same text for any null value 
+			return new ReferenceNode(rootName, accessors, lastIdentifier, prefix, nullText, null, uberspect, getInfo(node));
+		}
+
+		//--- Values 
+		private CompiledNode compileValue(Node node) throws TemplateCompilationException {
+			try {
+				if ( node instanceof ASTExpression ) {
+					return compileValue(node.jjtGetChild(0));
+				}
+				else if ( node instanceof ASTReference ) {
+					return compileReference((ASTReference) node);
+				}
+				else if ( node instanceof ASTStringLiteral ) {
+					return compileStringLiteral((ASTStringLiteral) node);
+				}
+				else if ( node instanceof ASTIntegerLiteral || node instanceof ASTFloatingPointLiteral 
+						|| node instanceof ASTTrue || node instanceof ASTFalse ) {
+					return new ConstantNode(node.value(emptyContext), node.evaluate(emptyContext));
+				}
+				else if ( node instanceof ASTObjectArray ) {
+					return new ListNode(compileValues(node, 0, 1));
+				}
+				else if ( node instanceof ASTMap ) {
+					return new MapNode(compileValues(node, 0, 2), compileValues(node, 1, 2));
+				}
+				else if ( node instanceof ASTIntegerRange ) {
+					return new RangeNode(compileValue(node.jjtGetChild(0)), compileValue(node.jjtGetChild(1)));
+				}
+				else if ( node instanceof ASTNotNode ) {
+					return new OperatorNode(Operator.NOT, compileValue(node.jjtGetChild(0)), null, null, null);
+				}
+				Operator operator = getOperator(node);
+				if ( operator != null ) {
+					Node left = node.jjtGetChild(0);
+					Node right = node.jjtGetChild(1);
+					return new OperatorNode(operator, compileValue(left), compileValue(right), left.literal(), right.literal());
+				}
+			} catch (TemplateCompilationException e) {
+				throw e ;
+			} catch (Exception e) {
+				throw new TemplateCompilationException("Cannot compile " + node.getClass().getSimpleName(), e);
+			}
+			throw unsupported("element '" + node.getClass().getSimpleName() + "'", node);
+		}
+
+		private CompiledNode[] compileValues(Node node, int first, int step) throws TemplateCompilationException {
+			List<CompiledNode> list = new ArrayList<>();
+			for ( int i = first ; i < node.jjtGetNumChildren() ; i += step ) {
+				list.add(compileValue(node.jjtGetChild(i)));
+			}
+			return list.toArray(new CompiledNode[list.size()]);
+		}
+
+		private CompiledNode compileStringLiteral(ASTStringLiteral node) throws TemplateCompilationException {
+			if ( node.isConstant() ) {
+				return new ConstantNode(node.value(emptyContext), false);
+			}
+			// interpolated string ( eg "abc $x" )
+			Node nodeTree = (Node) getField(node, "nodeTree");
+			boolean containsLineComment = ((Boolean) getField(node, "containsLineComment")).booleanValue();
+			return new StringTemplateNode(compileBlock(nodeTree), ! containsLineComment);
+		}
+
+		private Operator getOperator(Node node) {
+			if ( node instanceof ASTAddNode ) return Operator.ADD ;
+			if ( node instanceof ASTSubtractNode ) return Operator.SUB ;
+			if ( node instanceof ASTMulNode ) return Operator.MUL ;
+			if ( node instanceof ASTDivNode ) return Operator.DIV ;
+			if ( node instanceof ASTModNode ) return Operator.MOD ;
+			if ( node instanceof ASTEQNode ) return Operator.EQ ;
+			if ( node instanceof ASTNENode ) return Operator.NE ;
+			if ( node instanceof ASTLTNode ) return Operator.LT ;
+			if ( node instanceof ASTGTNode ) return Operator.GT ;
+			if ( node instanceof ASTLENode ) return Operator.LE ;
+			if ( node instanceof ASTGENode ) return Operator.GE ;
+			if ( node instanceof ASTAndNode ) return Operator.AND ;
+			if ( node instanceof ASTOrNode ) return Operator.OR ;
+			return null ;
+		}
+	}
+}
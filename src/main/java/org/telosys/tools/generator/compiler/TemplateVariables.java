@@ -0,0 +1,45 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+/**
+ * Variables used by a compiled template (same semantic as the Velocity context) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+interface TemplateVariables {
+
+	/**
+	 * Returns the value of the given variable (or null if not defined)
+	 * @param name
+	 * @return
+	 */
+	Object get(String name);
+
+	/**
+	 * Sets the value of the given variable
+	 * @param name
+	 * @param value
+	 */
+	void put(String name, Object value);
+
+	/**
+	 * Removes the given variable
+	 * @param name
+	 */
+	void remove(String name);
+}
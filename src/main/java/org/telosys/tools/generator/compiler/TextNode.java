@@ -0,0 +1,44 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Static text (text, comments, escaped directives, etc) 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class TextNode extends CompiledNode {
+
+	private final String text ;
+
+	TextNode(String text) {
+		super();
+		this.text = text;
+	}
+
+	String getText() {
+		return text;
+	}
+
+	@Override
+	void render(TemplateVariables variables, Writer writer) throws IOException {
+		writer.write(text);
+	}
+}
@@ -22,12 +22,15 @@ import java.util.List;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.GeneratorUtil;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.doc.VelocityReturnType;
 import org.telosys.tools.generator.context.exceptions.GeneratorSqlException;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.CompactList;
+import org.telosys.tools.generator.context.tools.StringPool;
 import org.telosys.tools.generator.languages.literals.LiteralValuesProvider;
 import org.telosys.tools.generator.languages.types.AttributeTypeInfo;
 import org.telosys.tools.generator.languages.types.AttributeTypeInfoImpl;
@@ -73,7 +76,26 @@ public class AttributeInContext {
     
 	private final ModelInContext   modelInContext ;  
 
-	private boolean       mustUseFullType = false ; 
+	private final Attribute        modelAttribute ; // v 4.2.0 (the original model attribute, used as key by the shared caches)
+
+	//--- Boolean characteristics stored as bits in a single int (v 4.2.0) 
+	private static final int MUST_USE_FULL_TYPE     = 1 ;
+	private static final int NOT_NULL               = 1 << 1 ;
+	private static final int LONG_TEXT              = 1 << 2 ;
+	private static final int NOT_EMPTY              = 1 << 3 ;
+	private static final int NOT_BLANK              = 1 << 4 ;
+	private static final int DATE_PAST              = 1 << 5 ;
+	private static final int DATE_FUTURE            = 1 << 6 ;
+	private static final int KEY_ELEMENT            = 1 << 7 ;
+	private static final int FK                     = 1 << 8 ;
+	private static final int FK_SIMPLE              = 1 << 9 ;
+	private static final int FK_COMPOSITE           = 1 << 10 ;
+	private static final int USED_IN_LINKS          = 1 << 11 ;
+	private static final int USED_IN_SELECTED_LINKS = 1 << 12 ;
+	private static final int TRANSIENT              = 1 << 13 ;
+	private static final int UNIQUE                 = 1 << 14 ;
+
+	private int           flags = 0 ; 
 
 //	private final boolean selected ; // removed in v 4.1.0
     
@@ -85,15 +107,11 @@ public class AttributeInContext {
 	private final String  defaultValue ; 
 
 	//--- Further info for ALL ---------------------------------------
-	private final boolean isNotNull ;
 	private final String  label ;
 	private final String  inputType ;
     private final String  size   ;  // Size with precision and scale if necessary (eg "6" or "6,2")
 
     //--- Further info for STRING ------------------------------------
-    private final boolean isLongText ;
-    private final boolean isNotEmpty ;
-    private final boolean isNotBlank ;
     private final String  minLength ;
     private final String  maxLength ;
     private final String  pattern ;
@@ -103,13 +121,10 @@ public class AttributeInContext {
     private final String  maxValue ;
 
     //--- Further info for DATE and TIME ---------------------------------
-    private final boolean  isDateInThePast ;
-    private final boolean  isDateInTheFuture ;
     private final String   dateBeforeValue  ;
     private final String   dateAfterValue   ;
 
 	//--- Database info -------------------------------------------------
-    private final boolean isKeyElement      ;  // True if primary key
     
     private final String  databaseName     ;  // Column name in the DB table
     private final String  databaseType      ;  // Column type in the DB table
@@ -124,11 +139,8 @@ public class AttributeInContext {
 //    private final String  jdbcTypeName    ;  // JDBC type name 
     
 	//--- FOREIGN KEYS  -------------------------------------------------
-    private final boolean isForeignKey          ; 
-    private final boolean isForeignKeySimple    ; 
-    private final boolean isForeignKeyComposite ; 
     private final String  referencedEntityClassName ; // v 3.0.0 (NOT RELIABLE!)
-    private final List<ForeignKeyPartInContext> fkParts = new LinkedList<>(); // v 3.3.0
+    private final List<ForeignKeyPartInContext> fkParts ; // v 3.3.0
 
     //--- Further info for BOOLEAN -----------------------------------
     private final String  booleanTrueValue  ; // eg "1", ""Yes"", ""true""
@@ -156,8 +168,6 @@ public class AttributeInContext {
 	private final String  tableGeneratorPkColumnName;
 	private final String  tableGeneratorValueColumnName;
 
-	private final boolean isUsedInLinks ; 
-	private final boolean isUsedInSelectedLinks ; 
 	
 	//--- TAGS (added in v 3.3.0)
 	private final TagContainer tagContainer ; // All tags defined for the attribute 
@@ -165,11 +175,9 @@ public class AttributeInContext {
     private final BooleanValue  insertable ; // Added in v 3.3.0
     private final BooleanValue  updatable  ; // Added in v 3.3.0
     
-    private final boolean isTransient ; // Added in v 3.3.0
 
     private final EnvInContext env; // Added in v 3.4.0
 	
-    private final boolean isUnique ;  // v 3.4.0
 
 	private final String scale;
 
@@ -190,61 +198,66 @@ public class AttributeInContext {
 	{
 		this.envInContext = env ; 
 		this.modelInContext = modelInContext ; 
+		this.modelAttribute = attribute ; // v 4.2.0
 		this.entityInContext = entity ;
 		this.env = env ;
+		// shared instances for equal strings (v 4.2.0)
+		final StringPool pool = modelInContext != null ? modelInContext.getStringPool() : null ;
 		
-		this.name   = attribute.getName(); 		
-		this.neutralType     = attribute.getNeutralType() ; 
+		this.name   = pooled( pool, attribute.getName() ) ; 		
+		this.neutralType     = pooled( pool, attribute.getNeutralType() ) ; 
 		this.attributeTypeInfo = new AttributeTypeInfoImpl(attribute) ; 
 		this.initialValue    = StrUtil.notNull( attribute.getInitialValue() ); 
 		this.defaultValue    = StrUtil.notNull( attribute.getDefaultValue() );
 		
 		//--- Further info for ALL
-        this.isNotNull   = attribute.isNotNull();
-        this.label     = StrUtil.notNull( attribute.getLabel() ) ;
-        this.inputType = StrUtil.notNull( attribute.getInputType() );
+        setFlag(NOT_NULL, attribute.isNotNull());
+        this.label     = pooled( pool, StrUtil.notNull( attribute.getLabel() ) ) ;
+        this.inputType = pooled( pool, StrUtil.notNull( attribute.getInputType() ) ) ;
         
 		//--- Further info for STRING 
-	    this.isLongText  = attribute.isLongText() ;
-	    this.isNotEmpty  = attribute.isNotEmpty();
-	    this.isNotBlank  = attribute.isNotBlank();
-	    this.maxLength = Util.integerToString(attribute.getMaxLength(), VOID_STRING);
-	    this.minLength = Util.integerToString(attribute.getMinLength(), VOID_STRING);
+	    setFlag(LONG_TEXT, attribute.isLongText());
+	    setFlag(NOT_EMPTY, attribute.isNotEmpty());
+	    setFlag(NOT_BLANK, attribute.isNotBlank());
+	    this.maxLength = pooled( pool, Util.integerToString(attribute.getMaxLength(), VOID_STRING) ) ;
+	    this.minLength = pooled( pool, Util.integerToString(attribute.getMinLength(), VOID_STRING) ) ;
 	    this.pattern   = StrUtil.notNull( attribute.getPattern() );
 	    
 		//--- Further info for NUMBER 
-		this.minValue = Util.bigDecimalToString(attribute.getMinValue(), VOID_STRING ) ;
-	    this.maxValue = Util.bigDecimalToString(attribute.getMaxValue(), VOID_STRING ) ;
+		this.minValue = pooled( pool, Util.bigDecimalToString(attribute.getMinValue(), VOID_STRING ) ) ;
+	    this.maxValue = pooled( pool, Util.bigDecimalToString(attribute.getMaxValue(), VOID_STRING ) ) ;
 	    
 		//--- Further info for DATE/TIME 
-	    this.isDateInThePast   = attribute.isDatePast();
-	    this.isDateInTheFuture = attribute.isDateFuture();
+	    setFlag(DATE_PAST, attribute.isDatePast());
+	    setFlag(DATE_FUTURE, attribute.isDateFuture());
 	    this.dateBeforeValue = StrUtil.notNull( attribute.getDateBeforeValue() );
 	    this.dateAfterValue  = StrUtil.notNull( attribute.getDateAfterValue() );
         
 		//--- Database info
-		this.databaseName     = StrUtil.notNull( attribute.getDatabaseName() ) ;
-        this.databaseType     = StrUtil.notNull( attribute.getDatabaseType() ) ;
-        this.isKeyElement     = attribute.isKeyElement();
+		this.databaseName     = pooled( pool, StrUtil.notNull( attribute.getDatabaseName() ) ) ;
+        this.databaseType     = pooled( pool, StrUtil.notNull( attribute.getDatabaseType() ) ) ;
+        setFlag(KEY_ELEMENT, attribute.isKeyElement());
 
 		//--- Foreign Keys / references
-        this.isForeignKey          = attribute.isFK() ;
-        this.isForeignKeySimple    = attribute.isFKSimple() ;
-        this.isForeignKeyComposite = attribute.isFKComposite() ;
-        this.referencedEntityClassName = attribute.getReferencedEntityClassName() ;
+        setFlag(FK, attribute.isFK());
+        setFlag(FK_SIMPLE, attribute.isFKSimple());
+        setFlag(FK_COMPOSITE, attribute.isFKComposite());
+        this.referencedEntityClassName = pooled( pool, attribute.getReferencedEntityClassName() ) ;
         // Build "Foreign Key Parts" if any
+        List<ForeignKeyPartInContext> parts = new LinkedList<>();
         for ( ForeignKeyPart fkPart : attribute.getFKParts() ) {
-        	this.fkParts.add(new ForeignKeyPartInContext(fkPart, modelInContext));
+        	parts.add(new ForeignKeyPartInContext(fkPart, modelInContext));
         }
+        this.fkParts = CompactList.copyOf(parts); // v 4.2.0
 
-        this.size     = attribute.getSize(); 
+        this.size     = pooled( pool, attribute.getSize() ) ; 
 
         this.databaseComment  = StrUtil.notNull( attribute.getDatabaseComment() ) ; 
-        this.databaseDefaultValue = StrUtil.notNull( attribute.getDatabaseDefaultValue() ) ; 
+        this.databaseDefaultValue = pooled( pool, StrUtil.notNull( attribute.getDatabaseDefaultValue() ) ) ; 
         
 		//--- Further info for BOOLEAN 
-        this.booleanTrueValue   = Util.trim(attribute.getBooleanTrueValue(), VOID_STRING) ; 
-        this.booleanFalseValue  = Util.trim(attribute.getBooleanFalseValue(), VOID_STRING) ;
+        this.booleanTrueValue   = pooled( pool, Util.trim(attribute.getBooleanTrueValue(), VOID_STRING) ) ; 
+        this.booleanFalseValue  = pooled( pool, Util.trim(attribute.getBooleanFalseValue(), VOID_STRING) ) ;
 		
         //--- Generated Value  
 		this.generatedValueStrategy = attribute.getGeneratedValueStrategy() ;
@@ -262,21 +275,21 @@ public class AttributeInContext {
 		this.tableGeneratorPkColumnName = ""; 
 		this.tableGeneratorValueColumnName = ""; 
 		
-		this.isUsedInLinks         = attribute.isUsedInLinks(); 
-		this.isUsedInSelectedLinks = attribute.isUsedInSelectedLinks();
+		setFlag(USED_IN_LINKS, attribute.isUsedInLinks()); 
+		setFlag(USED_IN_SELECTED_LINKS, attribute.isUsedInSelectedLinks());
 		
 		this.tagContainer = attribute.getTagContainer();
 		
 		this.insertable = attribute.getInsertable();
 		this.updatable  = attribute.getUpdatable();
 
-		this.isTransient  = attribute.isTransient();
+		setFlag(TRANSIENT, attribute.isTransient());
 		
-		this.isUnique = attribute.isUnique() ;
+		setFlag(UNIQUE, attribute.isUnique());
 
 
-		this.scale = Util.integerToString(attribute.getScale(), VOID_STRING);
-		this.precision = Util.integerToString(attribute.getPrecision(), VOID_STRING);
+		this.scale = pooled( pool, Util.integerToString(attribute.getScale(), VOID_STRING) ) ;
+		this.precision = pooled( pool, Util.integerToString(attribute.getPrecision(), VOID_STRING) ) ;
 	}
 
 	protected final LanguageType getLanguageType() {
@@ -290,10 +303,27 @@ public class AttributeInContext {
 		}
 	}
 	
+	private static String pooled(StringPool pool, String s) {
+		return pool != null ? pool.get(s) : s ;
+	}
+	
+	private void setFlag(int flag, boolean value) {
+		if ( value ) {
+			flags |= flag ;
+		}
+		else {
+			flags &= ~flag ;
+		}
+	}
+	
+	private boolean hasFlag(int flag) {
+		return ( flags & flag ) != 0 ;
+	}
+	
 	//-----------------------------------------------------------------------------------------------
 	/* package */ void useFullType()
 	{
-		mustUseFullType = true ;
+		setFlag(MUST_USE_FULL_TYPE, true);
 	}
 	
 	@VelocityMethod(
@@ -302,6 +332,7 @@ public class AttributeInContext {
 				}
 		)
 	public String getName() {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
 		return name;
 	}
 
@@ -359,7 +390,7 @@ public class AttributeInContext {
 	)
 	public String getType() {
 		LanguageType type = getLanguageType();
-		if ( mustUseFullType ) {
+		if ( hasFlag(MUST_USE_FULL_TYPE) ) {
 			return type.getFullType() ;
 		}
 		else {
@@ -728,7 +759,7 @@ public class AttributeInContext {
 		}
 	)
     public boolean isDatabaseNotNull() {
-        return isNotNull;
+        return hasFlag(NOT_NULL) ;
     }
     
 	//----------------------------------------------------------------------
@@ -742,7 +773,7 @@ public class AttributeInContext {
 		}
 	)
     public boolean isKeyElement() {
-        return isKeyElement;
+        return hasFlag(KEY_ELEMENT) ;
     }
 
 	//----------------------------------------------------------------------
@@ -752,7 +783,7 @@ public class AttributeInContext {
 	since="3.0.0"
 	)
     public boolean isFK() { 
-        return isForeignKey ;
+        return hasFlag(FK) ;
     }
 
 	//----------------------------------------------------------------------
@@ -762,7 +793,7 @@ public class AttributeInContext {
 	since="3.0.0"
 	)
     public boolean isFKSimple() { 
-        return isForeignKeySimple ;
+        return hasFlag(FK_SIMPLE) ;
     }
 
 	//----------------------------------------------------------------------
@@ -772,18 +803,28 @@ public class AttributeInContext {
 	since="3.0.0"
 	)
     public boolean isFKComposite() { 
-        return isForeignKeyComposite ;
+        return hasFlag(FK_COMPOSITE) ;
     }
 
 	//----------------------------------------------------------------------
+	@VelocityNoDoc  // internal usage	
+	public Attribute getModelAttribute() { // v 4.2.0
+		return modelAttribute ;
+	}
+
+	@VelocityNoDoc  // internal usage	
+	public String getEnvSettingsKey() { // v 4.2.0
+		return env.getSettingsKey() ;
+	}
+
 	@VelocityNoDoc  // internal usage	
 	public boolean isUsedInLinks() {
-		return isUsedInLinks ;
+		return hasFlag(USED_IN_LINKS) ;
 	}
 
 	@VelocityNoDoc  // internal usage	
 	public boolean isUsedInSelectedLinks() {
-		return isUsedInSelectedLinks ;
+		return hasFlag(USED_IN_SELECTED_LINKS) ;
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -840,7 +881,7 @@ public class AttributeInContext {
 		}
 	)
     public boolean isNotNull() {
-        return isNotNull;
+        return hasFlag(NOT_NULL) ;
     }
 
 	//----------------------------------------------------------------------
@@ -967,7 +1008,7 @@ public class AttributeInContext {
 			}
 	)
 	public boolean hasDatePastValidation() {
-		return isDateInThePast;
+		return hasFlag(DATE_PAST) ;
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -977,7 +1018,7 @@ public class AttributeInContext {
 			}
 	)
 	public boolean hasDateFutureValidation() {
-		return isDateInTheFuture;
+		return hasFlag(DATE_FUTURE) ;
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -1034,7 +1075,7 @@ public class AttributeInContext {
 		}
 	)
     public boolean isLongText() {
-        return isLongText;
+        return hasFlag(LONG_TEXT) ;
     }
 
 	@VelocityMethod(
@@ -1043,7 +1084,7 @@ public class AttributeInContext {
 		}
 	)
     public boolean isNotEmpty() {
-        return isNotEmpty;
+        return hasFlag(NOT_EMPTY) ;
     }
     
 	@VelocityMethod(
@@ -1052,7 +1093,7 @@ public class AttributeInContext {
 		}
 	)
     public boolean isNotBlank() {
-        return isNotBlank;
+        return hasFlag(NOT_BLANK) ;
     }
     
 	//-------------------------------------------------------------------------------------
@@ -1664,7 +1705,7 @@ public class AttributeInContext {
 		since="3.3.0"
 	)
 	public boolean isTransient() {
-		return this.isTransient  ; // v 3.3.0
+		return hasFlag(TRANSIENT) ; // v 3.3.0
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -1805,7 +1846,7 @@ public class AttributeInContext {
 	since="3.4.0"
 	)
 	public boolean isUnique() {
-		return this.isUnique  ; 
+		return hasFlag(UNIQUE) ; 
 	}
 
 }
\ No newline at end of file
@@ -15,10 +15,13 @@
  */
 package org.telosys.tools.generator.context;
 
+import java.util.concurrent.ConcurrentMap;
+
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
 import org.telosys.tools.generator.context.tools.AnnotationsForBeanValidation;
+import org.telosys.tools.generator.context.tools.ModelFragmentsCache;
 
 //-------------------------------------------------------------------------------------
 @VelocityObject(
@@ -50,8 +53,15 @@ public class BeanValidation {
 	)
 	public String annotations(int iLeftMargin, AttributeInContext attribute )
     {
-		AnnotationsForBeanValidation annotations = new AnnotationsForBeanValidation(attribute);
-		return annotations.getValidationAnnotations(iLeftMargin );
+		String key = buildKey("beanValidation", iLeftMargin, attribute); // v 4.2.0
+		ConcurrentMap<String, String> sharedAnnotations = ModelFragmentsCache.getFragments(attribute.getModelAttribute());
+		String s = sharedAnnotations.get(key);
+		if ( s == null ) {
+			AnnotationsForBeanValidation annotations = new AnnotationsForBeanValidation(attribute);
+			s = annotations.getValidationAnnotations(iLeftMargin );
+			sharedAnnotations.put(key, s);
+		}
+		return s ;
     }
 
 	//-------------------------------------------------------------------------------------------------------------
@@ -72,8 +82,23 @@ public class BeanValidation {
 	)
 	public String annotationsForWrapperType(int iLeftMargin, AttributeInContext attribute )
     {
-		AnnotationsForBeanValidation annotations = new AnnotationsForBeanValidation(attribute);
-		return annotations.getValidationAnnotationsForWrapperType(iLeftMargin );
+		String key = buildKey("beanValidationForWrapperType", iLeftMargin, attribute); // v 4.2.0
+		ConcurrentMap<String, String> sharedAnnotations = ModelFragmentsCache.getFragments(attribute.getModelAttribute());
+		String s = sharedAnnotations.get(key);
+		if ( s == null ) {
+			AnnotationsForBeanValidation annotations = new AnnotationsForBeanValidation(attribute);
+			s = annotations.getValidationAnnotationsForWrapperType(iLeftMargin );
+			sharedAnnotations.put(key, s);
+		}
+		return s ;
     }
 
+	//-------------------------------------------------------------------------------------------------------------
+	// The annotations built for a model attribute are shared by all the generations ( v 4.2.0 )
+	// (the key contains the left margin and the '$env' settings)
+	private String buildKey(String annotationsType, int leftMargin, AttributeInContext attribute) {
+		String entityName = attribute.getEntity() != null ? attribute.getEntity().getName() : "" ;
+		return annotationsType + "|" + leftMargin + "|" + attribute.getEnvSettingsKey() + "|" + entityName ;
+	}
+
 }
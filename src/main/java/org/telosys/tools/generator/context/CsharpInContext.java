@@ -15,6 +15,8 @@
  */
 package org.telosys.tools.generator.context;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 import org.telosys.tools.commons.StrUtil;
@@ -22,6 +24,7 @@ import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
 import org.telosys.tools.generator.context.tools.LinesBuilder;
+import org.telosys.tools.generator.context.tools.RenderableText;
 import org.telosys.tools.generator.languages.types.LanguageType;
 
 //-------------------------------------------------------------------------------------
@@ -155,6 +158,34 @@ public class CsharpInContext {
 	public String toStringMethod( EntityInContext entity, List<AttributeInContext> attributes, int indentationLevel, String indentationString ) {
 		return buildToStringMethod( entity, attributes, indentationLevel, new LinesBuilder(indentationString) ); 
 	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={	
+			"Writes all the code for a C# 'ToString()' method directly in the generated file",
+			"(same code as 'toStringMethod' without intermediate string, useful for large entities)",
+			"Indentation with spaces (1 'indentationString' for each indentation level)"
+			},
+		example={ 
+			"$csharp.writeToStringMethod( $entity, $entity.attributes, 1, '    ' )" },
+		parameters = { 
+			"entity : the entity for which to generate the 'ToString' method",
+			"attributes : list of attributes to be used in the 'ToString' method",
+			"indentationLevel : initial indentation level",
+			"indentationString : string to use for each indentation (usually N spaces) "},
+		since = "4.2.0"
+			)
+	public RenderableText writeToStringMethod( final EntityInContext entity, final List<AttributeInContext> attributes, 
+			final int indentationLevel, final String indentationString ) {
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				LinesBuilder lb = new LinesBuilder(writer, indentationString);
+				buildToStringMethod( entity, attributes, indentationLevel, lb ); 
+				lb.checkWriteError();
+			}
+		};
+	}
     
 	//-------------------------------------------------------------------------------------
 	/**
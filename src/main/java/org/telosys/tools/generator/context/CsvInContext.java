@@ -0,0 +1,377 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.telosys.tools.generator.context.doc.VelocityMethod;
+import org.telosys.tools.generator.context.doc.VelocityObject;
+import org.telosys.tools.generator.context.exceptions.GeneratorFileException;
+import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.CsvReader;
+
+/**
+ * Streaming access to the rows of a CSV file <br>
+ * The rows are parsed lazily during the iteration, by blocks of rows (only the current block is in memory) <br>
+ * The file is not kept open between two blocks (nothing to close if the iteration is stopped) <br>
+ * An optional index of the rows offsets can be built during the first full iteration
+ * in order to get the count or a given row without parsing the whole file again <br>
+ * Instances are created by '$file.csv(..)' <br>
+ *
+ * @author Laurent GUERIN
+ *
+ */
+//-------------------------------------------------------------------------------------
+@VelocityObject(
+		contextName = ContextName.CSV,
+		text = {
+				"This object allows to iterate over the rows of a CSV file without loading the whole file",
+				"The rows are parsed one by one during the iteration (RFC-4180 format : ",
+				"values can be quoted with '\"', a quoted value can contain separators and line breaks)",
+				"If the file has a header row, the values of each row can be retrieved by column name",
+				"Each instance is created with $file.csv(..) "
+		},
+		since = "4.2.0",
+		example= {
+				"#set( $csv = $file.csv(\";\", true) )",
+				"#foreach ( $row in $csv )",
+				" > $row.get(0) : $row.get('code') : $row.code ",
+				"#end",
+				"",
+				"## with an index of rows (to iterate several times or to get a given row)",
+				"#set( $csv = $file.csv(\";\", true).withIndex() )",
+				"count = $csv.count ",
+				"row 10 = $csv.getRow(10) "
+		}
+ )
+//-------------------------------------------------------------------------------------
+public class CsvInContext implements Iterable<CsvRowInContext> {
+
+	private static final String FUNCTION_NAME = "csv" ;
+	private static final int    BLOCK_SIZE = 256 ; // rows read each time the file is opened by the iterator
+
+	private final File    file ;
+	private final char    separator ;
+	private final boolean header ;
+
+	private boolean             initialized = false ;
+	private List<String>        columnNames = Collections.emptyList() ;
+	private Map<String,Integer> columnIndexes = Collections.emptyMap() ;
+	private long                firstRowPosition = 0 ; // after BOM and header row
+
+	private boolean indexEnabled = false ;
+	private long[]  rowsIndex = null ; // offsets of all the data rows (set only when complete)
+
+	/**
+	 * Constructor
+	 * @param file
+	 * @param separator
+	 * @param header true if the first row contains the columns names
+	 */
+	protected CsvInContext(File file, char separator, boolean header) {
+		this.file = file ;
+		this.separator = separator ;
+		this.header = header ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Enables the index of the rows offsets (built during the first full iteration)",
+		"The index allows to get the rows count or a given row without parsing the file again",
+		"Returns the same object (can be chained)"
+		},
+		example = {
+			"#set( $csv = $file.csv(\";\").withIndex() )"
+		},
+		since = "4.2.0"
+		)
+	public CsvInContext withIndex() {
+		this.indexEnabled = true ;
+		return this ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns true if the rows index is enabled"
+		},
+		since = "4.2.0"
+		)
+	public boolean isIndexed() {
+		return indexEnabled ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns the columns names defined in the header row",
+		"(or a void list if the file has no header)"
+		},
+		example = {
+			"#foreach ( $name in $csv.header )",
+			" > $name",
+			"#end"
+		},
+		since = "4.2.0"
+		)
+	public List<String> getHeader() {
+		init();
+		return columnNames ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns the number of rows (header excluded)",
+		"The rows are counted without building their values (or from the index if any)"
+		},
+		example = {
+			"$csv.count"
+		},
+		since = "4.2.0"
+		)
+	public int getCount() {
+		if ( indexEnabled ) {
+			return getIndex().length ;
+		}
+		init();
+		int count = 0 ;
+		try ( CsvReader reader = openReader() ) {
+			while ( reader.skipRecord() ) {
+				count++;
+			}
+		} catch (IOException e) {
+			throw newException(e);
+		}
+		return count ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns the row at the given position (header excluded)",
+		"With an index the row is read directly, without the index all the previous rows are skipped",
+		"Returns null if there's no row at this position"
+		},
+		parameters = {
+			"n : the row position (the first row is 0)"
+		},
+		example = {
+			"#set( $row = $csv.getRow(0) )"
+		},
+		since = "4.2.0"
+		)
+	public CsvRowInContext getRow(int n) {
+		if ( n < 0 ) {
+			return null ;
+		}
+		init();
+		long[] index = indexEnabled ? getIndex() : null ;
+		if ( index != null && n >= index.length ) {
+			return null ;
+		}
+		try ( CsvReader reader = openReader() ) {
+			if ( index != null ) {
+				reader.seek(index[n]);
+			}
+			else {
+				for ( int i = 0 ; i < n ; i++ ) {
+					if ( ! reader.skipRecord() ) {
+						return null ;
+					}
+				}
+			}
+			List<String> values = reader.readRecord();
+			return values != null ? new CsvRowInContext(values, columnIndexes) : null ;
+		} catch (IOException e) {
+			throw newException(e);
+		}
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns an iterator on the rows (header excluded)",
+		"This method is implicitly used by '#foreach'",
+		"The rows are read by blocks, the file is not kept open during the iteration"
+		},
+		example = {
+			"#foreach ( $row in $csv )",
+			"#end"
+		},
+		since = "4.2.0"
+		)
+	@Override
+	public Iterator<CsvRowInContext> iterator() {
+		init();
+		return new RowsIterator();
+	}
+
+	@Override
+	public String toString() {
+		return "CsvInContext [file=" + file.getName() + ", separator=" + separator + ", header=" + header + "]";
+	}
+
+	//----------------------------------------------------------------------------------------
+	// private methods
+	//----------------------------------------------------------------------------------------
+
+	/**
+	 * Reads the header row (if any) and keeps the position of the first data row
+	 */
+	private void init() {
+		if ( initialized ) {
+			return;
+		}
+		if ( ! file.isFile() ) {
+			throw new GeneratorFileException(FUNCTION_NAME, "Read file error (file not found) : " + file.getName());
+		}
+		try ( CsvReader reader = new CsvReader(file, separator) ) {
+			if ( header ) {
+				List<String> names = reader.readRecord();
+				if ( names != null ) {
+					Map<String,Integer> indexes = new HashMap<>();
+					for ( int i = 0 ; i < names.size() ; i++ ) {
+						String name = names.get(i).trim();
+						names.set(i, name);
+						if ( ! indexes.containsKey(name) ) { // first column wins if duplicated
+							indexes.put(name, i);
+						}
+					}
+					columnNames = Collections.unmodifiableList(names);
+					columnIndexes = indexes ;
+				}
+			}
+			firstRowPosition = reader.getPosition();
+		} catch (IOException e) {
+			throw newException(e);
+		}
+		initialized = true ;
+	}
+
+	private CsvReader openReader() throws IOException {
+		return openReader(firstRowPosition);
+	}
+
+	private CsvReader openReader(long position) throws IOException {
+		CsvReader reader = new CsvReader(file, separator);
+		reader.seek(position);
+		return reader ;
+	}
+
+	/**
+	 * Returns the rows index (builds it if not yet done)
+	 * @return
+	 */
+	private long[] getIndex() {
+		if ( rowsIndex == null ) {
+			init();
+			IndexBuilder indexBuilder = new IndexBuilder();
+			try ( CsvReader reader = openReader() ) {
+				long position = reader.getPosition();
+				while ( reader.skipRecord() ) {
+					indexBuilder.add(position);
+					position = reader.getPosition();
+				}
+			} catch (IOException e) {
+				throw newException(e);
+			}
+			rowsIndex = indexBuilder.toArray();
+		}
+		return rowsIndex ;
+	}
+
+	private GeneratorFileException newException(IOException e) {
+		return new GeneratorFileException(FUNCTION_NAME, "Read file error (IOException) : " + e.getMessage() + " : " + file.getName());
+	}
+
+	/**
+	 * Growable array of offsets
+	 */
+	private static class IndexBuilder {
+		private long[] offsets = new long[1024] ;
+		private int    size = 0 ;
+
+		void add(long offset) {
+			if ( size == offsets.length ) {
+				offsets = Arrays.copyOf(offsets, size * 2);
+			}
+			offsets[size++] = offset ;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(offsets, size);
+		}
+	}
+
+	/**
+	 * Iterator reading the rows by blocks (the file is opened and closed for each block) <br>
+	 * If the index is enabled and not yet built, it is built during the iteration
+	 */
+	private class RowsIterator implements Iterator<CsvRowInContext> {
+
+		private final Deque<CsvRowInContext> block = new ArrayDeque<>(BLOCK_SIZE);
+		private long            position = firstRowPosition ; // position of the next block
+		private boolean         finished = false ;
+		private IndexBuilder    indexBuilder = ( indexEnabled && rowsIndex == null ) ? new IndexBuilder() : null ;
+
+		@Override
+		public boolean hasNext() {
+			if ( block.isEmpty() && ! finished ) {
+				readNextBlock();
+			}
+			return ! block.isEmpty() ;
+		}
+
+		@Override
+		public CsvRowInContext next() {
+			if ( ! hasNext() ) {
+				throw new NoSuchElementException();
+			}
+			return block.removeFirst() ;
+		}
+
+		private void readNextBlock() {
+			try ( CsvReader reader = openReader(position) ) {
+				while ( block.size() < BLOCK_SIZE ) {
+					long rowPosition = reader.getPosition();
+					List<String> values = reader.readRecord();
+					if ( values == null ) {
+						// end of file
+						finished = true ;
+						if ( indexBuilder != null ) {
+							rowsIndex = indexBuilder.toArray();
+						}
+						break ;
+					}
+					if ( indexBuilder != null ) {
+						indexBuilder.add(rowPosition);
+					}
+					block.add(new CsvRowInContext(values, columnIndexes));
+				}
+				position = reader.getPosition();
+			} catch (IOException e) {
+				finished = true ;
+				throw newException(e);
+			}
+		}
+	}
+}
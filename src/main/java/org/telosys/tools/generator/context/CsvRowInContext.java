@@ -0,0 +1,149 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.telosys.tools.generator.context.doc.VelocityMethod;
+import org.telosys.tools.generator.context.doc.VelocityObject;
+import org.telosys.tools.generator.context.exceptions.GeneratorFileException;
+import org.telosys.tools.generator.context.names.ContextName;
+
+/**
+ * A row of a CSV file (returned by the '$csv' iterator)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+//-------------------------------------------------------------------------------------
+@VelocityObject(
+		contextName = ContextName.CSV_ROW,
+		text = {
+				"This object provides the values of a CSV row",
+				"The values can be retrieved by position or by column name (if the CSV file has a header)"
+		},
+		since = "4.2.0",
+		example= {
+				"#foreach ( $row in $file.csv(\";\", true) )",
+				" > $row.get(0) : $row.get('code') : $row.code ",
+				"#end"
+		}
+ )
+//-------------------------------------------------------------------------------------
+public class CsvRowInContext implements Iterable<String> {
+
+	private final List<String>        values ;
+	private final Map<String,Integer> columnIndexes ; // shared by all the rows
+
+	/**
+	 * Constructor
+	 * @param values
+	 * @param columnIndexes
+	 */
+	protected CsvRowInContext(List<String> values, Map<String,Integer> columnIndexes) {
+		this.values = Collections.unmodifiableList(values) ;
+		this.columnIndexes = columnIndexes ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns the number of values in the row"
+		},
+		since = "4.2.0"
+		)
+	public int size() {
+		return values.size();
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns all the values of the row"
+		},
+		since = "4.2.0"
+		)
+	public List<String> getValues() {
+		return values ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns the value at the given position ",
+		"(or a void string if the row has no value at this position)"
+		},
+		parameters = {
+			"i : the value position (the first value is 0)"
+		},
+		example = {
+			"$row.get(0)"
+		},
+		since = "4.2.0"
+		)
+	public String get(int i) {
+		if ( i >= 0 && i < values.size() ) {
+			return values.get(i);
+		}
+		return "" ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns the value for the given column name (as defined in the header row)",
+		"(or a void string if the row has no value for this column)",
+		"Can also be used as a property : $row.columnName "
+		},
+		parameters = {
+			"columnName : the column name"
+		},
+		example = {
+			"$row.get('code')",
+			"$row.code"
+		},
+		since = "4.2.0"
+		)
+	public String get(String columnName) {
+		Integer i = columnIndexes.get(columnName);
+		if ( i == null ) {
+			throw new GeneratorFileException("csv", "Unknown column '" + columnName + "'");
+		}
+		return get(i.intValue());
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns true if the given column name is defined in the header row"
+		},
+		parameters = {
+			"columnName : the column name"
+		},
+		since = "4.2.0"
+		)
+	public boolean hasColumn(String columnName) {
+		return columnIndexes.containsKey(columnName);
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return values.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return values.toString();
+	}
+}
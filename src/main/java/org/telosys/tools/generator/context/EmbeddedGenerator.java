@@ -20,6 +20,7 @@ import java.util.List;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.commons.bundles.TargetDefinition;
 import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.generator.BundleCache;
 import org.telosys.tools.generator.Generator;
 import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.GeneratorVersion;
@@ -27,6 +28,8 @@ import org.telosys.tools.generator.TargetBuilder;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.FileContentCache;
+import org.telosys.tools.generator.output.OutputSink;
 import org.telosys.tools.generic.model.Entity;
 import org.telosys.tools.generic.model.Model;
 
@@ -53,6 +56,9 @@ public class EmbeddedGenerator {
 	private final List<String>       selectedEntitiesNames;	
 	private final boolean            canGenerate ;
 	private final List<Target>       generatedTargets ;
+	private final FileContentCache   fileContentCache ; // v 4.2.0 (can be null)
+	private final OutputSink         outputSink ; // v 4.2.0 (can be null)
+	private final BundleCache        bundleCache ; // v 4.2.0 (can be null)
 	
 	/**
 	 * Constructor for limited embedded generator without generation capabilities
@@ -66,6 +72,9 @@ public class EmbeddedGenerator {
 		this.selectedEntitiesNames = null ;
 		this.canGenerate = false ;
 		this.generatedTargets = null ;
+		this.fileContentCache = null ;
+		this.outputSink = null ;
+		this.bundleCache = null ;
 	}
 
 	/**
@@ -85,6 +94,78 @@ public class EmbeddedGenerator {
 			Model model, 
 			List<String> selectedEntitiesNames,
 			List<Target> generatedTargets) {
+		this(telosysToolsCfg, bundleName, logger, model, selectedEntitiesNames, generatedTargets, null);
+	}
+
+	/**
+	 * Constructor for real embedded generator that can generate sub-targets from a template
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param model
+	 * @param selectedEntitiesNames
+	 * @param generatedTargets
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 */
+	public EmbeddedGenerator(	
+			TelosysToolsCfg telosysToolsCfg,
+			String bundleName,
+			TelosysToolsLogger logger, 
+			
+			Model model, 
+			List<String> selectedEntitiesNames,
+			List<Target> generatedTargets,
+			FileContentCache fileContentCache) {
+		this(telosysToolsCfg, bundleName, logger, model, selectedEntitiesNames, generatedTargets, fileContentCache, null);
+	}
+
+	/**
+	 * Constructor for real embedded generator that can generate sub-targets from a template
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param model
+	 * @param selectedEntitiesNames
+	 * @param generatedTargets
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 * @param outputSink the destination of the generated files (or null for the project destination folder)
+	 */
+	public EmbeddedGenerator(	
+			TelosysToolsCfg telosysToolsCfg,
+			String bundleName,
+			TelosysToolsLogger logger, 
+			
+			Model model, 
+			List<String> selectedEntitiesNames,
+			List<Target> generatedTargets,
+			FileContentCache fileContentCache,
+			OutputSink outputSink) { // v 4.2.0
+		this(telosysToolsCfg, bundleName, logger, model, selectedEntitiesNames, generatedTargets, fileContentCache, outputSink, null);
+	}
+
+	/**
+	 * Constructor for real embedded generator that can generate sub-targets from a template
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param model
+	 * @param selectedEntitiesNames
+	 * @param generatedTargets
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 * @param outputSink the destination of the generated files (or null for the project destination folder)
+	 * @param bundleCache the bundle cache shared by several generations (or null if none)
+	 */
+	public EmbeddedGenerator(	
+			TelosysToolsCfg telosysToolsCfg,
+			String bundleName,
+			TelosysToolsLogger logger, 
+			
+			Model model, 
+			List<String> selectedEntitiesNames,
+			List<Target> generatedTargets,
+			FileContentCache fileContentCache,
+			OutputSink outputSink,
+			BundleCache bundleCache) { // v 4.2.0
 		super();
 		// this.generatorConfig = generatorConfig; // v 3.0.0
 		this.telosysToolsCfg = telosysToolsCfg ; // v 3.0.0
@@ -94,6 +175,9 @@ public class EmbeddedGenerator {
 		this.model = model;
 		this.selectedEntitiesNames = selectedEntitiesNames ;
 		this.generatedTargets = generatedTargets ;
+		this.fileContentCache = fileContentCache ;
+		this.outputSink = outputSink ;
+		this.bundleCache = bundleCache ;
 
 		if ( this.model != null && this.telosysToolsCfg != null && this.bundleName != null && this.logger != null ) {
 			this.canGenerate = true ;
@@ -179,7 +263,7 @@ public class EmbeddedGenerator {
 		//Target target = new Target( telosysToolsCfg, targetDefinition, entity ); // v 3.3.0
 		Target target = TargetBuilder.buildTarget(telosysToolsCfg, targetDefinition, bundleName, model, entity); // v 4.2.0
 		
-		Generator generator = new Generator(this.telosysToolsCfg, this.bundleName, logger);
+		Generator generator = new Generator(this.telosysToolsCfg, this.bundleName, logger, this.fileContentCache, this.outputSink, this.bundleCache);
 		
 		generator.generateTarget(target, model, selectedEntitiesNames, this.generatedTargets);
 	}
@@ -16,20 +16,27 @@
 package org.telosys.tools.generator.context;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.telosys.tools.commons.ListUtil;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.doc.VelocityReturnType;
 import org.telosys.tools.generator.context.names.ContextName;
 import org.telosys.tools.generator.context.tools.AmbiguousTypesDetector;
+import org.telosys.tools.generator.context.tools.CompactList;
 import org.telosys.tools.generic.model.Attribute;
 import org.telosys.tools.generic.model.Entity;
 import org.telosys.tools.generic.model.ForeignKey;
@@ -58,12 +65,12 @@ import org.telosys.tools.generic.model.TagContainer;
 //-------------------------------------------------------------------------------------
 public class EntityInContext 
 {
-	//--- Static void lists
-	private static final List<AttributeInContext>  VOID_ATTRIBUTES_LIST    = new LinkedList<>();
-	private static final List<ForeignKeyInContext> VOID_FOREIGN_KEYS_LIST  = new LinkedList<>();
-	private static final List<LinkInContext>       VOID_LINKS_LIST         = new LinkedList<>();
-	private static final List<EntityInContext>     VOID_ENTITIES_LIST      = new LinkedList<>();
-	private static final List<ReferenceInContext>  VOID_REFERENCES_LIST    = new LinkedList<>();
+	//--- Static void lists (immutable, shared by all the entities)
+	private static final List<AttributeInContext>  VOID_ATTRIBUTES_LIST    = Collections.emptyList();
+	private static final List<ForeignKeyInContext> VOID_FOREIGN_KEYS_LIST  = Collections.emptyList();
+	private static final List<LinkInContext>       VOID_LINKS_LIST         = Collections.emptyList();
+	private static final List<EntityInContext>     VOID_ENTITIES_LIST      = Collections.emptyList();
+	private static final List<ReferenceInContext>  VOID_REFERENCES_LIST    = Collections.emptyList();
 	
 	private final String     className ;
 	private final String     packageName ;
@@ -99,6 +106,11 @@ public class EntityInContext
 	private final String  databaseTablespace; // v 3.4.0	
 
 	private final boolean isJoinEntity ; // v 4.1.0
+
+	private final Entity  modelEntity ; // v 4.2.0 (the original model entity, used as key by the shared caches)
+
+	// imports computed for this entity (key : language + '$env' settings) v 4.2.0
+	private final ConcurrentMap<String, List<String>> importsCache = new ConcurrentHashMap<>(4);
 	
 	//-----------------------------------------------------------------------------------------------
 	/**
@@ -114,6 +126,7 @@ public class EntityInContext
 		if ( entity == null ) {
 			throw new IllegalArgumentException("Entity is null");
 		}
+		this.modelEntity = entity ; // v 4.2.0
 		this.className = entity.getClassName();
 		
 		if ( nullOrVoid(entity.getPackageName()) ) {
@@ -146,24 +159,27 @@ public class EntityInContext
 		this.databaseComment = entity.getDatabaseComment();
 		
 		//--- Initialize all the ATTRIBUTES for the current entity
-		this.attributes = new LinkedList<>();
+		List<AttributeInContext> attributesList = new LinkedList<>();
 		for ( Attribute attribute : entity.getAttributes() ) { // v 3.0.0
 			AttributeInContext attributeInContext = new AttributeInContext(this, attribute, this.modelInContext, this.env);
-			this.attributes.add(attributeInContext);
+			attributesList.add(attributeInContext);
 		}
+		this.attributes = CompactList.copyOf(attributesList); // v 4.2.0
 
 		//--- Initialize all the LINKS for the current entity
-		this.links = new LinkedList<>();
+		List<LinkInContext> linksList = new LinkedList<>();
 		for ( Link link : entity.getLinks() ) { 
 			LinkInContext linkInContext = new LinkInContext(this, link, this.modelInContext, this.env ); 
-			this.links.add(linkInContext);
+			linksList.add(linkInContext);
 		}
+		this.links = CompactList.copyOf(linksList); // v 4.2.0
 		
 		//--- Init all the DATABASE FOREIGN KEYS 
-		this.foreignKeys = new LinkedList<>();
+		List<ForeignKeyInContext> foreignKeysList = new LinkedList<>();
 		for ( ForeignKey fk : entity.getForeignKeys() ) { 
-			this.foreignKeys.add( new ForeignKeyInContext(fk, modelInContext, env) );
+			foreignKeysList.add( new ForeignKeyInContext(fk, modelInContext, env) );
 		}
+		this.foreignKeys = CompactList.copyOf(foreignKeysList); // v 4.2.0
 		
 		//--- Build the list of the "KEY" attributes
 		this.keyAttributes = selectAttributesIfKeyElement(true);
@@ -200,7 +216,8 @@ public class EntityInContext
 		if ( attributes == null ) return ;
 		//--- Duplicated short types detection
 		AmbiguousTypesDetector duplicatedTypesDetector = new AmbiguousTypesDetector(attributes);
-		List<String> ambiguousTypes = duplicatedTypesDetector.getAmbiguousTypes();
+		Set<String> ambiguousTypes = new HashSet<>(duplicatedTypesDetector.getAmbiguousTypes()); // v 4.2.0 (hash set)
+		if ( ambiguousTypes.isEmpty() ) return ; // v 4.2.0
 		for ( AttributeInContext attribute : attributes ) {
 			//--- Is this attribute's type ambiguous ?
 			if ( ambiguousTypes.contains( attribute.getFullType() ) ) {
@@ -364,6 +381,7 @@ public class EntityInContext
 	)
 	@VelocityReturnType("List of 'attribute' objects")
 	public List<AttributeInContext> getAttributes() {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
 		if ( attributes != null ) {
 			return attributes ;
 		}
@@ -618,6 +636,57 @@ public class EntityInContext
 		return VOID_LINKS_LIST ;
 	}
 
+	/**
+	 * Returns the original model entity used to build this entity
+	 * @return
+	 */
+	@VelocityNoDoc
+	public Entity getModelEntity() { // v 4.2.0
+		return modelEntity ;
+	}
+
+	/**
+	 * Returns the key identifying the current SQL naming rules (see '$sql') 
+	 * @return
+	 */
+	@VelocityNoDoc
+	public String getSqlNamingKey() { // v 4.2.0
+		return this.env.getSql().getNamingKey();
+	}
+
+	/**
+	 * Returns the imports previously computed for this entity with the given key
+	 * @param key
+	 * @return the imports (unmodifiable list) or null if not yet computed 
+	 */
+	@VelocityNoDoc
+	public List<String> getCachedImports(String key) { // v 4.2.0
+		return importsCache.get(key);
+	}
+
+	/**
+	 * Keeps the imports computed for this entity with the given key
+	 * @param key
+	 * @param imports
+	 * @return the imports (unmodifiable list) 
+	 */
+	@VelocityNoDoc
+	public List<String> setCachedImports(String key, List<String> imports) { // v 4.2.0
+		List<String> list = Collections.unmodifiableList(imports);
+		importsCache.put(key, list);
+		return list ;
+	}
+
+	/**
+	 * Returns the key identifying the current '$env' settings 
+	 * @return
+	 */
+	@VelocityNoDoc
+	public String getEnvSettingsKey() { // v 4.2.0
+		return this.env.getSettingsKey();
+	}
+
+	//-------------------------------------------------------------------------------------
 	private void checkCriterion ( int criterion ) {
 		if ( criterion == Const.KEY || criterion == Const.NOT_KEY ) return ;
 		if ( criterion == Const.TEXT || criterion == Const.NOT_TEXT ) return ;
@@ -1483,7 +1552,7 @@ public class EntityInContext
                 }        		
             }
     	}
-		return attributesList ;
+		return CompactList.copyOf(attributesList) ; // v 4.2.0
 	}
 	
 	/**
@@ -51,6 +51,7 @@ public class EnvInContext {
 	private String database = "" ; // v 3.4.0
 	private File   databaseConvFile = null ;  // v 3.4.0
 	private SqlInContext sqlInContext = null;   // v 3.4.0
+	private TargetLanguage targetLanguage = null;   // v 4.2.0 (specific instance for this env)
 	
 	private boolean typeWithNullableMark = true ; // v 4.1.0 
 	
@@ -122,6 +123,7 @@ public class EnvInContext {
 	public void setLanguage( String language ) throws GeneratorException {
 		if ( TargetLanguageProvider.isDefinedLanguage(language) ) {
 			this.language = language ;
+			this.targetLanguage = null; // Reset (v 4.2.0)
 		}
 		else {
 			// Unknown language
@@ -219,6 +221,19 @@ public class EnvInContext {
 		this.typeWithNullableMark = v;
 	}
 	//-------------------------------------------------------------------------------------
+	//-------------------------------------------------------------------------------------
+	/**
+	 * Returns a key identifying all the current settings of this object <br>
+	 * (2 instances with the same key produce the same types, names, SQL conversions, etc)
+	 * @return
+	 */
+	@VelocityNoDoc
+	public String getSettingsKey() { // v 4.2.0
+		return entityClassNamePrefix + "|" + entityClassNameSuffix + "|" + language 
+				+ "|" + specificCollectionType + "|" + typeWithNullableMark
+				+ "|" + database + "|" + ( databaseConvFile != null ? databaseConvFile.getAbsolutePath() : "" ) ;
+	}
+
 	//-------------------------------------------------------------------------------------
 	/**
 	 * Returns the TargetLanguage for the current language defined in '$env'
@@ -226,7 +241,12 @@ public class EnvInContext {
 	 */
 	@VelocityNoDoc  // internal usage	
 	public TargetLanguage getTargetLanguage() { // v 4.1.0 
-		return TargetLanguageProvider.getTargetLanguage(this); // v 4.1.0
+		// the current target language is reset whenever the language changes (v 4.2.0)
+		// NB : not shared with other '$env' instances (thread-safe if '$env' is not shared) 
+		if ( this.targetLanguage == null ) {
+			this.targetLanguage = TargetLanguageProvider.getTargetLanguage(this); // v 4.1.0
+		}
+		return this.targetLanguage;
 	}
 
 	/**
@@ -18,6 +18,7 @@ package org.telosys.tools.generator.context;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -27,6 +28,7 @@ import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.exceptions.GeneratorFileException;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.FileContentCache;
 
 //-------------------------------------------------------------------------------------
 @VelocityObject(
@@ -59,12 +61,24 @@ public class FileInContext {
 
 	private final File file ;
 	
+	private final FileContentCache fileContentCache ; // v 4.2.0 (can be null)
+	
 	/**
 	 * Constructor
 	 * @param file
 	 */
 	public FileInContext(File file) {
+		this(file, null);
+	}
+
+	/**
+	 * Constructor with a cache for the file content
+	 * @param file
+	 * @param fileContentCache the cache shared by the generation task (or null if none)
+	 */
+	public FileInContext(File file, FileContentCache fileContentCache) {
 		this.file = file ;
+		this.fileContentCache = fileContentCache ;
 	}
 
 	protected File getFile() {
@@ -243,7 +257,8 @@ public class FileInContext {
 		since = "3.3.0"
 		)
 	public List<String> loadLines() {
-		return readAllLines();
+		// a copy is returned (the lines kept in cache are shared)
+		return new ArrayList<>(readAllLines());
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -284,7 +299,16 @@ public class FileInContext {
 		since = "3.3.0"
 		)
 	public String loadContent() {
-		return linesToString(loadLines());
+		if ( fileContentCache != null ) {
+			checkFile("loadContent");
+			try {
+				return fileContentCache.getContent(file);
+			} catch (IOException e) {
+				String msg = "Read file error (IOException) : " + e.getMessage() + " : " + file.getName();
+				throw new GeneratorFileException("loadContent", msg);
+			}
+		}
+		return linesToString(readAllLines());
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -322,7 +346,7 @@ public class FileInContext {
 		since = "3.3.0"
 		)
 	public List<List<String>> loadValues(String separator) {
-		List<String> lines = loadLines();
+		List<String> lines = readAllLines();
 		return splitLines(lines, separator);
 	}
 	
@@ -351,12 +375,57 @@ public class FileInContext {
 		return splitLines(lines, separator);
 	}
 	
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Returns a CSV object to iterate over the rows of the file without loading the whole file",
+		"The rows are parsed one by one during the iteration (RFC-4180 format)"
+		},
+		parameters = { 
+				"separator : character to use as separator" },			
+		example = {
+				"#foreach ( $row in $file.csv(\";\") )",
+				" > $row.get(0) $row.get(1) ",
+				"#end",
+				""		
+		},
+		since = "4.2.0"
+		)
+	public CsvInContext csv(String separator) {
+		return csv(separator, false);
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={
+		"Same as csv(separator) with a header row ",
+		"If the file has a header row the values can be retrieved by column name"
+		},
+		parameters = { 
+				"separator : character to use as separator",
+				"header : true if the first row contains the columns names" },			
+		example = {
+				"#foreach ( $row in $file.csv(\";\", true) )",
+				" > $row.code : $row.get('name') ",
+				"#end",
+				""		
+		},
+		since = "4.2.0"
+		)
+	public CsvInContext csv(String separator, boolean header) {
+		final String functionName = "csv";
+		checkFile(functionName);
+		// same rule as loadValues(..) : the first character is the separator
+		char sepChar = ( separator != null && separator.length() > 0 ) ? separator.charAt(0) : 0 ;
+		if ( sepChar == 0 || sepChar > 127 || sepChar == '"' || sepChar == '\n' || sepChar == '\r' ) {
+			throw new GeneratorFileException(functionName, "Invalid separator '" + separator + "'");
+		}
+		return new CsvInContext(file, sepChar, header);
+	}
+	
 	//----------------------------------------------------------------------------------------
 	// private methods
 	//----------------------------------------------------------------------------------------
 	
-	private List<String> readAllLines() {
-		final String functionName = "loadLines"; // called only by loadLines(..)
+	private void checkFile(String functionName) {
 		if ( ! file.exists() ) {
 			String msg = "Read file error (file not found) : " + file.getName();
 			throw new GeneratorFileException(functionName, msg);
@@ -365,7 +434,20 @@ public class FileInContext {
 			String msg = "Read file error (not a file) : " + file.getName();
 			throw new GeneratorFileException(functionName, msg);
 		}
+	}
+	
+	/**
+	 * Returns all the lines of the file (the returned list must not be modified)
+	 * @return
+	 */
+	private List<String> readAllLines() {
+		final String functionName = "loadLines"; // called only by loadLines(..)
+		checkFile(functionName);
 		try {
+			if ( fileContentCache != null ) {
+				// Lines decoded only once for all the targets of the task (v 4.2.0)
+				return fileContentCache.getLines(file);
+			}
 			// Read all lines from a file.  
 			// Bytes from the file are decoded into characters using the UTF-8 charset.
 			return Files.readAllLines(file.toPath());
@@ -21,6 +21,7 @@ import org.telosys.tools.commons.FileUtil;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generator.context.exceptions.GeneratorFunctionException;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.FileContentCache;
 import org.telosys.tools.generator.engine.GeneratorContext;
 
 /**
@@ -33,6 +34,7 @@ public class FnFileUtil {
 	
 	private final String functionName;
 	private final GeneratorContext generatorContext ;
+	private final FileContentCache fileContentCache ;
 	
 	/**
 	 * Constructor
@@ -40,9 +42,20 @@ public class FnFileUtil {
 	 * @param generatorContext
 	 */
 	public FnFileUtil(String functionName, GeneratorContext generatorContext) {
+		this(functionName, generatorContext, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param functionName  the "$fn" function name
+	 * @param generatorContext
+	 * @param fileContentCache the cache shared by the generation task (or null if none)
+	 */
+	public FnFileUtil(String functionName, GeneratorContext generatorContext, FileContentCache fileContentCache) {
 		super();
 		this.functionName = functionName ;
 		this.generatorContext = generatorContext ;
+		this.fileContentCache = fileContentCache ;
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -50,21 +63,21 @@ public class FnFileUtil {
 	//-------------------------------------------------------------------------------------
 	public FileInContext file (String filePath) {
 		File file = getFileFromPath(filePath) ;
-		return new FileInContext(file);
+		return new FileInContext(file, fileContentCache);
 	}
 	
 	public FileInContext fileFromBundle(String filePath) {
 		String dir = getBundleLocationFullPath();
 		String fullPath = FileUtil.buildFilePath(dir, filePath);
 		File file = new File(fullPath) ;
-		return new FileInContext(file);
+		return new FileInContext(file, fileContentCache);
 	}
 
 	public FileInContext fileFromModel(String filePath) {
 		String dir = getModelLocationFullPath();
 		String fullPath = FileUtil.buildFilePath(dir, filePath);
 		File file = new File(fullPath) ;
-		return new FileInContext(file);
+		return new FileInContext(file, fileContentCache);
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -26,12 +26,15 @@ import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.XmlUtil;
 import org.telosys.tools.generator.GenerationCancellationException;
 import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.doc.VelocityReturnType;
 import org.telosys.tools.generator.context.exceptions.GeneratorFunctionException;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+import org.telosys.tools.generator.context.tools.FileContentCache;
 import org.telosys.tools.generator.engine.GeneratorContext;
 
 /**
@@ -54,6 +57,8 @@ public class FnInContext {
 
 	private final GeneratorContext generatorContext ;
 	private final EnvInContext     env ;
+	private final FileContentCache fileContentCache ; // v 4.2.0 (can be null)
+	private final DependencyRecorder dependencyRecorder ; // v 4.2.0 (can be null)
 	
 	/**
 	 * Constructor
@@ -61,9 +66,40 @@ public class FnInContext {
 	 * @param env
 	 */
 	public FnInContext(GeneratorContext generatorContext, EnvInContext env ) {
+		this(generatorContext, env, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param generatorContext
+	 * @param env
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 */
+	public FnInContext(GeneratorContext generatorContext, EnvInContext env, FileContentCache fileContentCache ) {
+		this(generatorContext, env, fileContentCache, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param generatorContext
+	 * @param env
+	 * @param fileContentCache the file cache shared by the generation task (or null if none)
+	 * @param dependencyRecorder recorder for the files used by the template (or null if none)
+	 */
+	public FnInContext(GeneratorContext generatorContext, EnvInContext env, FileContentCache fileContentCache, 
+			DependencyRecorder dependencyRecorder ) {
 		super();
 		this.generatorContext = generatorContext;
 		this.env = env ;
+		this.fileContentCache = fileContentCache ;
+		this.dependencyRecorder = dependencyRecorder ;
+	}
+	
+	private FileInContext recordFile(FileInContext file) { // v 4.2.0
+		if ( dependencyRecorder != null ) {
+			dependencyRecorder.recordFile(file.getAbsolutePath());
+		}
+		return file ;
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -469,6 +505,7 @@ public class FnInContext {
 		since = "2.0.7"
 		)
 	public List<?> concatLists(List<?> list1, List<?> list2)  {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
 		List<Object> finalList = new LinkedList<>();
 		finalList.addAll(list1);
 		finalList.addAll(list2);
@@ -664,6 +701,50 @@ public class FnInContext {
 		return new ValuesInContext( attributes, step, env ) ;
 	}	
 	
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={	
+			"Builds N rows of literal values for all the attributes of the given entity.",
+			"The row 'i' (from 0 to N-1) has the same values as $fn.buildValues($entity.attributes, i+1) ",
+			"The values are stored by attribute and generated only when used.",
+			"The rows can be written directly as SQL INSERT statements or as a JSON array",
+			"Those values are typically used to populate a database or to build test data files"
+			},
+			parameters = { 
+				"entity : the entity ",
+				"n : the number of rows "
+			},
+			example = {
+			"#set( $table = $fn.buildValuesTable($entity, 10000) )",
+			"$table.toSqlInsert(500)",
+			"$table.toJsonArray()"
+			},
+			since = "4.2.0"
+			)
+	public ValuesTableInContext buildValuesTable(final EntityInContext entity, final int n) {
+		return new ValuesTableInContext( entity.getAttributes(), n, 1, entity.getSqlTableName(), env ) ;
+	}	
+	
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(text={	
+			"Builds N rows of literal values for the given attributes.",
+			"The row 'i' (from 0 to N-1) has the same values as $fn.buildValues(attributes, firstStep+i) ",
+			"The values are stored by attribute and generated only when used."
+			},
+			parameters = { 
+				"attributes : list of attributes requiring a literal value",
+				"n : the number of rows ",
+				"firstStep : the step used for the first row "
+			},
+			example = {
+			"#set( $table = $fn.buildValuesTable($entity.keyAttributes, 100, 1) )",
+			"$table.toFormattedJsonArray()"
+			},
+			since = "4.2.0"
+			)
+	public ValuesTableInContext buildValuesTable(final List<AttributeInContext> attributes, final int n, final int firstStep) {
+		return new ValuesTableInContext( attributes, n, firstStep, null, env ) ;
+	}	
+	
 	/*** ORIGINAL METHOD DEFINED IN SPECIFIC CLASS
 	public List<Object> randomKeyAttributesValues(EntityInContext entity) {
 		List<AttributeInContext> keys = entity.getKeyAttributes();
@@ -702,6 +783,7 @@ public class FnInContext {
 			since = "3.0.0"
 			)
 	public List<Integer> buildIntValues(final int n, final int firstValue) {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
 		List<Integer> values = new ArrayList<>();
 		int currentValue = firstValue ;
 		for ( int i = 0 ; i < n ; i++ ) {
@@ -953,8 +1035,8 @@ public class FnInContext {
 		since = "3.3.0"
 		)
 	public FileInContext file (String filePath) {
-		FnFileUtil f = new FnFileUtil("file", generatorContext);
-		return f.file(filePath);
+		FnFileUtil f = new FnFileUtil("file", generatorContext, fileContentCache);
+		return recordFile(f.file(filePath));
 	}
 	
 	@VelocityMethod(text={
@@ -970,8 +1052,8 @@ public class FnInContext {
 		since = "3.3.0"
 		)
 	public FileInContext fileFromBundle(String filePath) {
-		FnFileUtil f = new FnFileUtil("fileFromBundle", generatorContext);
-		return f.fileFromBundle(filePath);
+		FnFileUtil f = new FnFileUtil("fileFromBundle", generatorContext, fileContentCache);
+		return recordFile(f.fileFromBundle(filePath));
 	}
 
 	@VelocityMethod(text={
@@ -987,8 +1069,8 @@ public class FnInContext {
 		since = "3.3.0"
 		)
 	public FileInContext fileFromModel(String filePath) {
-		FnFileUtil f = new FnFileUtil("fileFromModel", generatorContext);
-		return f.fileFromModel(filePath);
+		FnFileUtil f = new FnFileUtil("fileFromModel", generatorContext, fileContentCache);
+		return recordFile(f.fileFromModel(filePath));
 	}
 
 	//-------------------------------------------------------------------------------------
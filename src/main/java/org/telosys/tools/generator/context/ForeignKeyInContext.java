@@ -20,10 +20,12 @@ import java.util.List;
 
 import org.telosys.tools.commons.ListUtil;
 import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.doc.VelocityReturnType;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.CompactList;
 import org.telosys.tools.generic.model.ForeignKey;
 import org.telosys.tools.generic.model.ForeignKeyAttribute;
 
@@ -79,10 +81,11 @@ public class ForeignKeyInContext {
 		this.originEntityName = foreignKey.getOriginEntityName();
 		this.referencedEntityName = foreignKey.getReferencedEntityName();
 		
-		this.fkAttributes = new LinkedList<>() ;
+		List<ForeignKeyAttributeInContext> fkAttributesList = new LinkedList<>() ;
 		for ( ForeignKeyAttribute fkAttribute : foreignKey.getAttributes() ) {
-			fkAttributes.add( new ForeignKeyAttributeInContext(foreignKey, fkAttribute, modelInContext) );
+			fkAttributesList.add( new ForeignKeyAttributeInContext(foreignKey, fkAttribute, modelInContext) );
 		}
+		this.fkAttributes = CompactList.copyOf(fkAttributesList) ; // v 4.2.0
 		
 		this.explicitFK = foreignKey.isExplicit();
 	}
@@ -206,6 +209,7 @@ public class ForeignKeyInContext {
 	since= "3.4.0")
 	@VelocityReturnType("List of 'Foreign Key Attribute' objects ( List of '$fkAttribute' )")
 	public List<ForeignKeyAttributeInContext> getAttributes() {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
 		return this.fkAttributes ;
 	}
 	
@@ -15,6 +15,9 @@
  */
 package org.telosys.tools.generator.context;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -22,6 +25,7 @@ import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
 import org.telosys.tools.generator.context.tools.LinesBuilder;
+import org.telosys.tools.generator.context.tools.RenderableText;
 
 //-------------------------------------------------------------------------------------
 @VelocityObject(
@@ -35,7 +39,7 @@ import org.telosys.tools.generator.context.tools.LinesBuilder;
 //-------------------------------------------------------------------------------------
 public class Java {
 
-	private static final List<String> VOID_STRINGS_LIST = new LinkedList<>();
+	private static final List<String> VOID_STRINGS_LIST = Collections.emptyList(); // immutable (v 4.2.0)
 
 	private String buildIndentationWithSpaces(int nSpaces) {
 		StringBuilder spaces = new StringBuilder();
@@ -101,6 +105,32 @@ public class Java {
 		return equalsMethod( className , attributes, new LinesBuilder(buildIndentationWithSpaces(indentSpaces)), false );
 	}
 	
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={	
+			"Writes all the code for a Java 'equals' method directly in the generated file",
+			"(same code as 'equalsMethod' without intermediate string, useful for large entities)",
+			"Spaces are used for code indentation"
+			},
+		example={ 
+			"$java.writeEqualsMethod( $entity.name, $entity.attributes, 4 )" },
+		parameters = { 
+			"className : the Java class name (simple name or full name)",
+			"attributes : list of attributes to be used in the equals method",
+			"indentSpaces : number of spaces to be used for each indentation level"},
+		since = "4.2.0"
+			)
+	public RenderableText writeEqualsMethod( final String className, final List<AttributeInContext> attributes, final int indentSpaces ) {
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				LinesBuilder lb = new LinesBuilder(writer, buildIndentationWithSpaces(indentSpaces));
+				equalsMethod( className , attributes, lb, false );
+				lb.checkWriteError();
+			}
+		};
+	}
+	
 	//-------------------------------------------------------------------------------------
 	private String equalsMethod( String className, List<AttributeInContext> fieldsList, LinesBuilder lb, boolean useDbName ) {
 
@@ -216,6 +246,32 @@ public class Java {
 		return hashCodeMethod(attributes, new LinesBuilder(buildIndentationWithSpaces(indentSpaces)) , false);
 	}
 	
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(
+			text={	
+				"Writes all the code for a Java 'hashCode' method directly in the generated file",
+				"(same code as 'hashCodeMethod' without intermediate string, useful for large entities)",
+				"Spaces are used for code indentation"
+				},
+			example={ 
+				"$java.writeHashCodeMethod( $entity.name, $entity.attributes, 4 )" },
+			parameters = { 
+				"className  : the Java class name (simple name or full name)",
+				"attributes : list of attributes to be used in the hashCode method",
+				"indentSpaces : number of spaces to be used for each indentation level"},
+			since = "4.2.0"
+				)
+	public RenderableText writeHashCodeMethod( String className, final List<AttributeInContext> attributes, final int indentSpaces ) {
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				LinesBuilder lb = new LinesBuilder(writer, buildIndentationWithSpaces(indentSpaces));
+				hashCodeMethod(attributes, lb, false);
+				lb.checkWriteError();
+			}
+		};
+	}
+	
 	//-------------------------------------------------------------------------------------
 	private String hashCodeMethod(List<AttributeInContext> fieldsList, LinesBuilder lb, boolean useDbName ) {
 
@@ -329,36 +385,46 @@ public class Java {
 				)
 	public List<String> imports( EntityInContext entity ) {
 		if ( entity != null ) {
-			JavaImportsList imports = new JavaImportsList();
-			//--- All the attributes
-			for ( AttributeInContext attribute : entity.getAttributes() ) {
-				// register the type to be imported if necessary
-				imports.declareType( attribute.getFullType() ); 
+			// computed once for each entity and each '$env' configuration (language, collection type, etc) v 4.2.0
+			String key = "java|" + entity.getEnvSettingsKey() ;
+			List<String> imports = entity.getCachedImports(key);
+			if ( imports == null ) {
+				imports = entity.setCachedImports(key, buildImports(entity));
 			}
-			//--- All the links 
-			for ( LinkInContext link : entity.getLinks() ) {
-				if ( link.isCardinalityOneToMany() || link.isCardinalityManyToMany() ) {
-					String type = link.getFieldType();
-					if ( type.contains("Set<") && type.contains(">") ) {
-						imports.declareType("java.util.Set");
-					} 
-					else if ( type.contains("Collection<") && type.contains(">") ) {
-						imports.declareType("java.util.Collection");
-					} 
-					else {
-						// by default "List" 
-						imports.declareType("java.util.List");
-					}
-				}
+			return new LinkedList<>(imports); // a copy (the list can be modified by the template)
+		}
+		return VOID_STRINGS_LIST ;
+	}
+
+	private List<String> buildImports( EntityInContext entity ) {
+		JavaImportsList imports = new JavaImportsList();
+		//--- All the attributes
+		for ( AttributeInContext attribute : entity.getAttributes() ) {
+			// register the type to be imported if necessary
+			imports.declareType( attribute.getFullType() ); 
+		}
+		//--- All the links 
+		for ( LinkInContext link : entity.getLinks() ) {
+			if ( link.isCardinalityOneToMany() || link.isCardinalityManyToMany() ) {
+				String type = link.getFieldType();
+				if ( type.contains("Set<") && type.contains(">") ) {
+					imports.declareType("java.util.Set");
+				} 
+				else if ( type.contains("Collection<") && type.contains(">") ) {
+					imports.declareType("java.util.Collection");
+				} 
 				else {
-					// ManyToOne or OneToOne => bean ( "Book", "Person", ... )
-					// Supposed to be in the same package
+					// by default "List" 
+					imports.declareType("java.util.List");
 				}
 			}
-			//--- Resulting list of imports
-			return imports.getFinalImportsList();
+			else {
+				// ManyToOne or OneToOne => bean ( "Book", "Person", ... )
+				// Supposed to be in the same package
+			}
 		}
-		return VOID_STRINGS_LIST ;
+		//--- Resulting list of imports
+		return imports.getFinalImportsList();
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -443,6 +509,34 @@ public class Java {
 		return buildToStringMethod( entity, attributes, indentationLevel, new LinesBuilder(indentationString) ); 
 	}
 
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={	
+			"Writes all the code for a Java 'toString()' method directly in the generated file",
+			"(same code as 'toStringMethod' without intermediate string, useful for large entities)",
+			"Indentation with spaces (1 'indentationString' for each indentation level)"
+			},
+		example={ 
+			"$java.writeToStringMethod( $entity, $entity.attributes, 1, '    ' )" },
+		parameters = { 
+			"entity : the entity for which to generate the 'toString' method",
+			"attributes : list of attributes to be used in the 'toString' method",
+			"indentationLevel : initial indentation level",
+			"indentationString : string to use for each indentation (usually N spaces) "},
+		since = "4.2.0"
+			)
+	public RenderableText writeToStringMethod( final EntityInContext entity, final List<AttributeInContext> attributes, 
+			final int indentationLevel, final String indentationString ) {
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				LinesBuilder lb = new LinesBuilder(writer, indentationString);
+				buildToStringMethod( entity, attributes, indentationLevel, lb ); 
+				lb.checkWriteError();
+			}
+		};
+	}
+
     /**
      * @param attribute
      * @return
@@ -28,6 +28,7 @@ import org.telosys.tools.generator.context.names.ContextName;
 import org.telosys.tools.generator.context.tools.AnnotationsBuilder;
 import org.telosys.tools.generator.context.tools.JpaAnnotations;
 import org.telosys.tools.generator.context.tools.ListBuilder;
+import org.telosys.tools.generator.context.tools.ModelFragmentsCache;
 import org.telosys.tools.generic.model.enums.BooleanValue;
 import org.telosys.tools.generic.model.enums.FetchType;
 
@@ -56,6 +57,8 @@ public class JpaInContext {
 	
 	private boolean  genColumnDefinition = false ; // v 3.4.0
 	
+	private String   settingsKey = null ; // v 4.2.0 (key for the shared annotations, reset when a setting changes)
+	
 	//-------------------------------------------------------------------------------------
 	// CONSTRUCTOR
 	//-------------------------------------------------------------------------------------
@@ -81,6 +84,7 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter for 'genTargetEntity'
 	public void setGenTargetEntity(boolean v) {
 		this.genTargetEntity = v;
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -101,6 +105,7 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter 
 	public void setGenColumnDefinition(boolean v) { // v 3.4.0
 		this.genColumnDefinition = v;
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -111,6 +116,7 @@ public class JpaInContext {
 	@VelocityNoDoc  // for future use ( currently $env.collectionType is used )
 	public void setCollectionType(String v) {
 		this.collectionType = v;
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -129,6 +135,7 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter 
 	public void setManyToOneFetchType(String s) {
 		this.linkManyToOneFetchType = getFetchType(s);
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -147,6 +154,7 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter 
 	public void setOneToOneFetchType(String s) {
 		this.linkOneToOneFetchType = getFetchType(s);
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -165,6 +173,7 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter 
 	public void setOneToManyFetchType(String s) {
 		this.linkOneToManyFetchType = getFetchType(s);
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -183,6 +192,7 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter 
 	public void setManyToManyFetchType(String s) {
 		this.linkManyToManyFetchType = getFetchType(s);
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -217,10 +227,12 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter
 	public void setJoinColumnInsertable(String s) {
 		this.joinColumnInsertable = getBooleanValue(s);
+		this.settingsKey = null; // v 4.2.0
 	}
 	@VelocityNoDoc // just the setter
 	public void setJoinColumnInsertable(boolean b) {
 		this.joinColumnInsertable = getBooleanValue(b);
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	//-------------------------------------------------------------------------------------
@@ -240,10 +252,12 @@ public class JpaInContext {
 	@VelocityNoDoc // just the setter
 	public void setJoinColumnUpdatable(String s) {
 		this.joinColumnUpdatable = getBooleanValue(s);
+		this.settingsKey = null; // v 4.2.0
 	}
 	@VelocityNoDoc // just the setter
 	public void setJoinColumnUpdatable(boolean b) {
 		this.joinColumnUpdatable = getBooleanValue(b);
+		this.settingsKey = null; // v 4.2.0
 	}
 
 	private BooleanValue getBooleanValue(String s) {
@@ -268,6 +282,52 @@ public class JpaInContext {
 		}
 	}
 
+	//-------------------------------------------------------------------------------------
+	// SHARED ANNOTATIONS ( v 4.2.0 )
+	//-------------------------------------------------------------------------------------
+	// The annotations built for a model element (entity, attribute, link) are kept in a cache 
+	// shared by all the generations, the key contains all the settings used to build them 
+	// ( left margin, '$jpa' settings and '$env' settings )
+	private String getSettingsKey() {
+		if ( settingsKey == null ) {
+			settingsKey = genTargetEntity + "|" + collectionType + "|" + genColumnDefinition 
+					+ "|" + linkManyToOneFetchType + "|" + linkOneToOneFetchType 
+					+ "|" + linkOneToManyFetchType + "|" + linkManyToManyFetchType 
+					+ "|" + joinColumnInsertable + "|" + joinColumnUpdatable ;
+		}
+		return settingsKey ;
+	}
+	
+	private String buildKey(String annotationsType, int leftMargin, String envSettingsKey) {
+		return annotationsType + "|" + leftMargin + "|" + getSettingsKey() + "|" + envSettingsKey ;
+	}
+	
+	private String buildKey(String annotationsType, int leftMargin, LinkInContext link, List<AttributeInContext> alreadyMappedFields) {
+		StringBuilder sb = new StringBuilder(buildKey(annotationsType, leftMargin, link.getEnvSettingsKey()));
+		if ( alreadyMappedFields != null ) {
+			sb.append("|mapped:");
+			for ( AttributeInContext attribute : alreadyMappedFields ) {
+				sb.append(attribute.getName()).append(",");
+			}
+		}
+		return sb.toString();
+	}
+	
+	private String buildKey(String annotationsType, int leftMargin, AttributeInContext attribute) {
+		// the same model attribute is supposed to be always in the same entity (entity name kept for safety)
+		String entityName = attribute.getEntity() != null ? attribute.getEntity().getName() : "" ;
+		return buildKey(annotationsType, leftMargin, attribute.getEnvSettingsKey()) + "|" + entityName ;
+	}
+	
+	private String getSharedAnnotations(Object modelElement, String key) {
+		return ModelFragmentsCache.getFragments(modelElement).get(key);
+	}
+	
+	private String setSharedAnnotations(Object modelElement, String key, String annotations) {
+		ModelFragmentsCache.getFragments(modelElement).put(key, annotations);
+		return annotations ;
+	}
+	
 	//-------------------------------------------------------------------------------------
 	// JPA IMPORTS
 	//-------------------------------------------------------------------------------------
@@ -311,6 +371,16 @@ public class JpaInContext {
 		since = "2.0.7"
 	)
 	public String entityAnnotations(int iLeftMargin, EntityInContext entity)
+    {
+		String key = buildKey("entity", iLeftMargin, entity.getEnvSettingsKey()); // v 4.2.0
+		String annotations = getSharedAnnotations(entity.getModelEntity(), key);
+		if ( annotations == null ) {
+			annotations = setSharedAnnotations(entity.getModelEntity(), key, buildEntityAnnotations(iLeftMargin, entity));
+		}
+		return annotations ;
+    }
+	
+	private String buildEntityAnnotations(int iLeftMargin, EntityInContext entity)
     {
 		AnnotationsBuilder b = new AnnotationsBuilder(iLeftMargin);
 		
@@ -349,10 +419,15 @@ public class JpaInContext {
 			)
 	public String linkAnnotations( int leftMargin, LinkInContext link, List<AttributeInContext> alreadyMappedFields )
 				throws GeneratorException {		
+		String key = buildKey("link", leftMargin, link, alreadyMappedFields); // v 4.2.0
+		String shared = getSharedAnnotations(link.getModelLink(), key);
+		if ( shared != null ) {
+			return shared ;
+		}
 		AnnotationsBuilder annotations = new AnnotationsBuilder(leftMargin);
 		processLinkCardinalityAnnotation(annotations, link) ;
 		processLinkJoinAnnotation(annotations, link, alreadyMappedFields );
-		return annotations.getAnnotations();
+		return setSharedAnnotations(link.getModelLink(), key, annotations.getAnnotations());
 	}
 	//-------------------------------------------------------------------------------------
 	@VelocityMethod(
@@ -370,10 +445,7 @@ public class JpaInContext {
 			)
 	public String linkAnnotations( int leftMargin, LinkInContext link )
 				throws GeneratorException {
-		AnnotationsBuilder annotations = new AnnotationsBuilder(leftMargin);
-		processLinkCardinalityAnnotation(annotations, link) ;
-		processLinkJoinAnnotation(annotations, link, null );
-		return annotations.getAnnotations();
+		return linkAnnotations(leftMargin, link, null); // v 4.2.0 (same annotations with no mapped fields)
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -389,9 +461,14 @@ public class JpaInContext {
 		since = "3.3.0"
 			)
 	public String linkCardinalityAnnotation(int leftMargin, LinkInContext link ) {
+		String key = buildKey("linkCardinality", leftMargin, link, null); // v 4.2.0
+		String shared = getSharedAnnotations(link.getModelLink(), key);
+		if ( shared != null ) {
+			return shared ;
+		}
 		AnnotationsBuilder annotations = new AnnotationsBuilder(leftMargin);
 		processLinkCardinalityAnnotation(annotations, link) ;
-		return annotations.getAnnotations();
+		return setSharedAnnotations(link.getModelLink(), key, annotations.getAnnotations());
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -410,9 +487,14 @@ public class JpaInContext {
 		since = "3.3.0"
 			)
 	public String linkJoinAnnotation(int leftMargin, LinkInContext link, List<AttributeInContext> alreadyMappedFields ) throws GeneratorException {
+		String key = buildKey("linkJoin", leftMargin, link, alreadyMappedFields); // v 4.2.0
+		String shared = getSharedAnnotations(link.getModelLink(), key);
+		if ( shared != null ) {
+			return shared ;
+		}
 		AnnotationsBuilder annotations = new AnnotationsBuilder(leftMargin);
 		processLinkJoinAnnotation(annotations, link, alreadyMappedFields );
-		return annotations.getAnnotations();
+		return setSharedAnnotations(link.getModelLink(), key, annotations.getAnnotations());
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -427,9 +509,7 @@ public class JpaInContext {
 		since = "3.3.0"
 			)
 	public String linkJoinAnnotation(int leftMargin, LinkInContext link ) throws GeneratorException {
-		AnnotationsBuilder annotations = new AnnotationsBuilder(leftMargin);
-		processLinkJoinAnnotation(annotations, link, null );
-		return annotations.getAnnotations();
+		return linkJoinAnnotation(leftMargin, link, null); // v 4.2.0 (same annotations with no mapped fields)
 	}
 	
 	private String buildCardinalityAnnotation( LinkInContext link ) {
@@ -965,8 +1045,14 @@ public class JpaInContext {
 	)
 	public String fieldAnnotations(int leftMargin, AttributeInContext attribute )
     {
-		JpaAnnotations annotationsJPA = new JpaAnnotations(attribute, genColumnDefinition); // v 3.4.0
-		return annotationsJPA.getJpaAnnotations(leftMargin, JpaAnnotations.EMBEDDED_ID_FALSE );
+		String key = buildKey("field", leftMargin, attribute); // v 4.2.0
+		String annotations = getSharedAnnotations(attribute.getModelAttribute(), key);
+		if ( annotations == null ) {
+			JpaAnnotations annotationsJPA = new JpaAnnotations(attribute, genColumnDefinition); // v 3.4.0
+			annotations = setSharedAnnotations(attribute.getModelAttribute(), key, 
+					annotationsJPA.getJpaAnnotations(leftMargin, JpaAnnotations.EMBEDDED_ID_FALSE ) );
+		}
+		return annotations ;
     }
 
 	//-------------------------------------------------------------------------------------------------------------
@@ -985,8 +1071,14 @@ public class JpaInContext {
 		)
 	public String embeddedIdAnnotations(int leftMargin, AttributeInContext attribute )
     {
-		JpaAnnotations annotationsJPA = new JpaAnnotations(attribute, genColumnDefinition); // v 3.4.0
-		return annotationsJPA.getJpaAnnotations(leftMargin, JpaAnnotations.EMBEDDED_ID_TRUE );
+		String key = buildKey("embeddedId", leftMargin, attribute); // v 4.2.0
+		String annotations = getSharedAnnotations(attribute.getModelAttribute(), key);
+		if ( annotations == null ) {
+			JpaAnnotations annotationsJPA = new JpaAnnotations(attribute, genColumnDefinition); // v 3.4.0
+			annotations = setSharedAnnotations(attribute.getModelAttribute(), key, 
+					annotationsJPA.getJpaAnnotations(leftMargin, JpaAnnotations.EMBEDDED_ID_TRUE ) );
+		}
+		return annotations ;
     }
 	//-------------------------------------------------------------------------------------------------------------
 	
@@ -21,10 +21,13 @@ import java.util.List;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.GeneratorUtil;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
+import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.doc.VelocityReturnType;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.CompactList;
 import org.telosys.tools.generator.languages.types.TypeConverter;
 import org.telosys.tools.generic.model.CascadeOptions;
 import org.telosys.tools.generic.model.Link;
@@ -64,6 +67,8 @@ public class LinkInContext {
 	private final ModelInContext   modelInContext ;  // v 3.0.0 (replaces EntitiesManager)
 	private final EnvInContext     envInContext ; // ver 3.3.0
 
+	private final Link             modelLink ; // v 4.2.0 (the original model link, used as key by the shared caches)
+
 //	private final List<JoinColumnInContext> joinColumns ;  // removed in v 3.4.0
 	private final List<LinkAttributeInContext> linkAttributes ; // added in v 3.4.0  (replaces joinColumns)
 	
@@ -110,16 +115,18 @@ public class LinkInContext {
 		this.entity = entity ;
 		this.modelInContext = modelInContext ; // v 3.0.0
 		this.envInContext = envInContext ; // v 3.3.0
+		this.modelLink = link ; // v 4.2.0
 		
-		this.linkAttributes = new LinkedList<>();
+		List<LinkAttributeInContext> linkAttributesList = new LinkedList<>();
 		if ( link.getAttributes() != null ) {
 			for ( LinkAttribute linkAttribute : link.getAttributes() ) {
-				this.linkAttributes.add( new LinkAttributeInContext(modelInContext, entity, 
+				linkAttributesList.add( new LinkAttributeInContext(modelInContext, entity, 
 						link, 
 						linkAttribute.getOriginAttributeName(),
 						linkAttribute.getReferencedAttributeName()));
 			}
 		}
+		this.linkAttributes = CompactList.copyOf(linkAttributesList); // v 4.2.0
 
 		//this.isBasedOnJoinEntity = link.isBasedOnJoinEntity() ; // added in v 4.1.0 // unused => removed
 		this.joinEntityName = link.getJoinEntityName(); // keep null if not defined  // added in v 3.4.0
@@ -177,6 +184,17 @@ public class LinkInContext {
 		return entity;
 	}
 	
+	//-------------------------------------------------------------------------------------
+	@VelocityNoDoc  // internal usage	
+	public Link getModelLink() { // v 4.2.0
+		return modelLink;
+	}
+
+	@VelocityNoDoc  // internal usage	
+	public String getEnvSettingsKey() { // v 4.2.0
+		return envInContext.getSettingsKey();
+	}
+	
 	//-------------------------------------------------------------------------------------
 	@VelocityMethod(
 		text={	
@@ -320,6 +338,7 @@ public class LinkInContext {
 	)
 	@VelocityReturnType("List of '$linkAttribute' (origin-target association) ")	
 	public List<LinkAttributeInContext> getAttributes() {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
 		return this.linkAttributes;
 	}
 
@@ -17,6 +17,7 @@ package org.telosys.tools.generator.context;
 
 import java.io.File;
 import java.net.URL;
+import java.net.URLClassLoader;
 
 import org.telosys.tools.commons.FileUtil;
 import org.telosys.tools.commons.classloader.SpecificClassLoader;
@@ -47,7 +48,7 @@ import org.telosys.tools.generator.context.names.ContextName;
 //-------------------------------------------------------------------------------------
 public class Loader {
 	
-    private final SpecificClassLoader    specificClassLoader ; // Specific Class Loader instance
+    private final URLClassLoader         specificClassLoader ; // Specific Class Loader instance
 
 	private final String                 templatesFolderFullPath ; // Full templates full path with bundle name
 	private final File                   classesFolder ; // "templates/(bundle)/classes"
@@ -66,6 +67,20 @@ public class Loader {
 		this.specificClassLoader = buildClassLoader() ;
 	}
 	
+	/**
+	 * Constructor with a given class loader ( v 4.2.0 ) <br>
+	 * Used when the specific classes are not located in the templates folder (eg bundle archive) 
+	 * @param templatesFolderFullPath
+	 * @param classLoader the class loader for the specific classes 
+	 */
+	public Loader(String templatesFolderFullPath, URLClassLoader classLoader) {
+		super();
+		this.templatesFolderFullPath = templatesFolderFullPath;
+		this.classesFolder = new File ( FileUtil.buildFilePath(this.templatesFolderFullPath, "classes" ) );
+		this.libFolder     = new File ( FileUtil.buildFilePath(this.templatesFolderFullPath, "lib"     ) );
+		this.specificClassLoader = classLoader ;
+	}
+	
 	private SpecificClassLoader buildClassLoader() {
 		SpecificClassPath specificClassPath = buildClassPath();
 		ClassLoader currentClassLoader = this.getClass().getClassLoader();
@@ -15,18 +15,25 @@
  */
 package org.telosys.tools.generator.context;
 
+import java.util.AbstractList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import org.telosys.tools.commons.NamingStyleConverter;
+import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.cfg.TelosysToolsCfg;
 import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.CompactList;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+import org.telosys.tools.generator.context.tools.StringPool;
 import org.telosys.tools.generic.model.Entity;
 import org.telosys.tools.generic.model.Model;
 import org.telosys.tools.generic.model.enums.ModelType;
@@ -46,7 +53,7 @@ import org.telosys.tools.generic.model.enums.ModelType;
 //-------------------------------------------------------------------------------------
 public class ModelInContext
 {
-	private static final NamingStyleConverter converter = new NamingStyleConverter(); // v 4.1.0 (from old class SqlTableNameProvider)
+	private final NamingStyleConverter converter = new NamingStyleConverter(); // v 4.1.0 (from old class SqlTableNameProvider) - not static since v 4.2.0 (no shared state between models)
 	
 	private final String    modelName ;
 	private final String    modelFolderName ;
@@ -60,9 +67,25 @@ public class ModelInContext
 	private final String   databaseName ; // v 3.4.0 (replaces productName )
 	private final String   databaseType ; // v 3.4.0
 	
-	private final List<EntityInContext>       allEntities ;
-	private final Map<String,EntityInContext> entitiesByTableName ; // Key = table name in upper case
-	private final Map<String,EntityInContext> entitiesByClassName ; // Key = entity name as is
+	private final String       defaultEntityPackage ; // v 4.2.0 (kept for lazy entities)
+	private final EnvInContext env ; // v 4.2.0 (kept for lazy entities)
+	private final boolean      lazy ; // v 4.2.0
+	private final DependencyRecorder dependencyRecorder ; // v 4.2.0 (can be null)
+
+	private final List<EntityHandle>       allEntitiesHandles ; // v 4.2.0
+	private final List<EntityInContext>    allEntities ;
+	private final Map<String,EntityHandle> entitiesByTableName ; // Key = table name in upper case
+	private final Map<String,EntityHandle> entitiesByClassName ; // Key = entity name as is
+
+	private final StringPool stringPool = new StringPool(); // v 4.2.0 (shared by all the entities/attributes)
+
+	/**
+	 * Returns the pool of strings shared by all the objects built for this model
+	 * @return
+	 */
+	protected StringPool getStringPool() { // v 4.2.0
+		return stringPool ;
+	}
 
 	private String notNull(String s) {
 		return s != null ? s : "" ;
@@ -77,6 +100,31 @@ public class ModelInContext
 //	 */
 //	public ModelInContext( Model model, TelosysToolsCfg telosysToolsCfg, EnvInContext env ) { // v 3.3.0
 	public ModelInContext( Model model, String defaultEntityPackage, EnvInContext env ) { // v 4.2.0
+		this(model, defaultEntityPackage, env, false);
+	}
+
+	/**
+	 * Constructor
+	 * @param model
+	 * @param defaultEntityPackage
+	 * @param env
+	 * @param lazy if true each entity is built on first access (useful for large models 
+	 * when only a few entities are used by the templates), else all the entities are built immediately
+	 */
+	public ModelInContext( Model model, String defaultEntityPackage, EnvInContext env, boolean lazy ) { // v 4.2.0
+		this(model, defaultEntityPackage, env, lazy, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param model
+	 * @param defaultEntityPackage
+	 * @param env
+	 * @param lazy if true each entity is built on first access
+	 * @param dependencyRecorder recorder for the entities read by the template (or null if none)
+	 */
+	public ModelInContext( Model model, String defaultEntityPackage, EnvInContext env, boolean lazy, 
+			DependencyRecorder dependencyRecorder ) { // v 4.2.0
 		super();
 		if ( model == null ) throw new IllegalArgumentException("Model is null");
 		if ( defaultEntityPackage == null ) throw new IllegalArgumentException("defaultEntityPackage is null");
@@ -95,29 +143,42 @@ public class ModelInContext
 		this.modelTitle = model.getTitle() != null ? model.getTitle() : "" ;
 		this.modelDescription = model.getDescription() != null ? model.getDescription() : "" ;
 		
+		this.defaultEntityPackage = defaultEntityPackage ;
+		this.env = env ;
+		this.lazy = lazy ;
+		this.dependencyRecorder = dependencyRecorder ;
+
 		//--- All the entities (the original model order is kept)
-		this.allEntities = new LinkedList<>(); // v 3.0.0
+		List<EntityHandle> handles = new LinkedList<>(); // v 4.2.0
 		for ( Entity entity : model.getEntities() ) { // v 3.0.0
-			//_allEntities.add( new EntityInContext(entity, entitiesPackage, this, env) );// v 3.0.0
-			this.allEntities.add( 
-					new EntityInContext(entity, 
-//							telosysToolsCfg.getEntityPackage(),  // v 3.3.0
-							defaultEntityPackage,  // v 4.2.0
-							this, env) );
+			handles.add( new EntityHandle(entity) ); // v 4.2.0
 		}
+		this.allEntitiesHandles = CompactList.copyOf(handles); // v 4.2.0
 		
 		//--- Entities by TABLE NAME
 		this.entitiesByTableName = new HashMap<>();
-		for ( EntityInContext entity : this.allEntities ) {
+		for ( EntityHandle handle : this.allEntitiesHandles ) {
 			// The table name is unique 
-			this.entitiesByTableName.put(getTableNameUpperCase(entity), entity); // v 4.1.0
+			this.entitiesByTableName.put(handle.getTableNameUpperCase(), handle); // v 4.1.0
 		}
 		
 		//--- Entities by CLASS NAME
 		this.entitiesByClassName = new HashMap<>();
-		for ( EntityInContext entity : this.allEntities ) {
+		for ( EntityHandle handle : this.allEntitiesHandles ) {
 			// The class name is supposed to be unique 
-			this.entitiesByClassName.put(entity.getName(), entity);
+			this.entitiesByClassName.put(handle.getName(), handle);
+		}
+		
+		if ( lazy ) {
+			// entities built on demand when the list elements are accessed
+			this.allEntities = new LazyEntitiesList(); // v 4.2.0
+		}
+		else {
+			List<EntityInContext> entities = new LinkedList<>(); 
+			for ( EntityHandle handle : this.allEntitiesHandles ) {
+				entities.add( handle.get() );
+			}
+			this.allEntities = CompactList.copyOf(entities); // v 4.2.0
 		}
 		
 		this.databaseId = notNull(model.getDatabaseId());
@@ -125,22 +186,170 @@ public class ModelInContext
 		this.databaseType = notNull(model.getDatabaseType());
 	}
 
+	//-------------------------------------------------------------------------------------
+	/**
+	 * Lightweight reference to an entity of the model <br>
+	 * The names used as keys are computed from the model entity, 
+	 * the 'EntityInContext' is built only once, on first access (thread-safe)
+	 */
+	private final class EntityHandle { // v 4.2.0
+		
+		private final Entity entity ;
+		private volatile EntityInContext entityInContext = null ;
+		
+		private EntityHandle(Entity entity) {
+			super();
+			this.entity = entity ;
+		}
+		
+		/**
+		 * Returns the entity name (same as 'EntityInContext.getName()')
+		 * @return
+		 */
+		private String getName() {
+			String className = entity.getClassName() != null ? entity.getClassName() : "" ;
+			if ( env != null ) {
+				return env.getEntityClassNamePrefix() + className + env.getEntityClassNameSuffix() ;
+			}
+			else {
+				return className ;
+			}
+		}
+		
+		/**
+		 * Returns the table name for the entity (always in upper case)
+		 * @return
+		 */
+		private String getTableNameUpperCase() { // v 4.1.0 (from old class SqlTableNameProvider)
+			String tableName = entity.getDatabaseTable();
+			if ( StrUtil.nullOrVoid(tableName) ) {
+				// No table name in the model => build default table name
+				// Convert entity name to 'ANACONDA_CASE'
+				tableName = converter.toAnacondaCase(getName());
+			}
+			return tableName.toUpperCase();
+		}
+		
+		/**
+		 * Returns the entity class name as defined in the model (without prefix/suffix)
+		 * @return
+		 */
+		private String getModelClassName() {
+			return entity.getClassName();
+		}
+		
+		private boolean isMaterialized() {
+			return entityInContext != null ;
+		}
+		
+		private EntityInContext get() {
+			EntityInContext result = entityInContext ;
+			if ( result == null ) {
+				synchronized (this) {
+					result = entityInContext ;
+					if ( result == null ) {
+						result = new EntityInContext(entity, defaultEntityPackage, ModelInContext.this, env);
+						entityInContext = result ;
+					}
+				}
+			}
+			return result ;
+		}
+	}
+	
+	/**
+	 * Immutable list of all the entities, each entity is built when accessed
+	 */
+	private final class LazyEntitiesList extends AbstractList<EntityInContext> implements RandomAccess { // v 4.2.0
+		@Override
+		public EntityInContext get(int index) {
+			return allEntitiesHandles.get(index).get();
+		}
+		@Override
+		public int size() {
+			return allEntitiesHandles.size();
+		}
+	}
+	
+	/**
+	 * Immutable list of entities recording each entity access (and the size access if required) <br>
+	 * For the selected entities any access is a dependency on the selection 
+	 */
+	private final class RecordingEntitiesList extends AbstractList<EntityInContext> implements RandomAccess { // v 4.2.0
+		private final List<EntityHandle> handles ;
+		private final boolean entitiesListDependency ;
+		private final boolean selectionDependency ;
+		private RecordingEntitiesList(List<EntityHandle> handles, boolean entitiesListDependency) {
+			this(handles, entitiesListDependency, false);
+		}
+		private RecordingEntitiesList(List<EntityHandle> handles, boolean entitiesListDependency, boolean selectionDependency) {
+			super();
+			this.handles = handles ;
+			this.entitiesListDependency = entitiesListDependency ;
+			this.selectionDependency = selectionDependency ;
+		}
+		@Override
+		public EntityInContext get(int index) {
+			EntityHandle handle = handles.get(index);
+			if ( selectionDependency ) {
+				dependencyRecorder.recordSelection();
+			}
+			dependencyRecorder.recordEntity(handle.getModelClassName());
+			return handle.get();
+		}
+		@Override
+		public int size() {
+			if ( entitiesListDependency ) {
+				dependencyRecorder.recordEntitiesList();
+			}
+			if ( selectionDependency ) {
+				dependencyRecorder.recordSelection();
+			}
+			return handles.size();
+		}
+	}
+	
+	private EntityInContext getAndRecord(EntityHandle handle) { // v 4.2.0
+		if ( dependencyRecorder != null ) {
+			dependencyRecorder.recordEntity(handle.getModelClassName());
+		}
+		return handle.get();
+	}
+	
+	private void recordEntity(EntityHandle handle) { // v 4.2.0 (no entity build)
+		if ( dependencyRecorder != null ) {
+			dependencyRecorder.recordEntity(handle.getModelClassName());
+		}
+	}
+	
+	private void recordEntitiesList() { // v 4.2.0
+		if ( dependencyRecorder != null ) {
+			dependencyRecorder.recordEntitiesList();
+		}
+	}
+	
+	/**
+	 * Returns true if the entities are built on first access
+	 * @return
+	 */
+	@VelocityNoDoc
+	public boolean isLazy() { // v 4.2.0
+		return lazy ;
+	}
+
 	/**
-	 * Returns the table name for the given entity (always in upper case)
-	 * @param entity
+	 * Returns the number of entities already built 
 	 * @return
 	 */
-	private String getTableNameUpperCase(EntityInContext entity) { // v 4.1.0 (from old class SqlTableNameProvider)
-		String tableName = "";
-		if (entity.hasDatabaseTable()) {
-			// The entity has a table name specified in the model => use it
-			tableName = entity.getDatabaseTable();
-		} else {
-			// No table name in the model => build default table name
-			// Convert entity name to 'ANACONDA_CASE'
-			tableName = converter.toAnacondaCase(entity.getName());
-		}
-		return tableName.toUpperCase();
+	@VelocityNoDoc
+	public int getNumberOfMaterializedEntities() { // v 4.2.0
+		int n = 0 ;
+		for ( EntityHandle handle : allEntitiesHandles ) {
+			if ( handle.isMaterialized() ) {
+				n++ ;
+			}
+		}
+		return n ;
 	}
 	
 	//-------------------------------------------------------------------------------------
@@ -230,7 +439,8 @@ public class ModelInContext
 	)
     public int getNumberOfEntities()
     {
-        return allEntities.size() ;
+		recordEntitiesList(); // v 4.2.0
+        return allEntitiesHandles.size() ;
     }
 
 	//-------------------------------------------------------------------------------------
@@ -259,6 +469,10 @@ public class ModelInContext
 		}		
 	)
     public List<EntityInContext> getAllEntities() {
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
+		if ( dependencyRecorder != null ) {
+			return new RecordingEntitiesList(allEntitiesHandles, true); // v 4.2.0
+		}
 		return allEntities ;
     }
 	
@@ -272,18 +486,27 @@ public class ModelInContext
 	@VelocityNoDoc
 	public List<EntityInContext> getEntities( List<String> entitiesNames ) throws GeneratorException
 	{
-		List<EntityInContext> selectedEntities = new LinkedList<>();
+		RenderWatchdog.checkpoint(); // v 4.2.0 (time budget and cancellation)
+		List<EntityHandle> selectedHandles = new LinkedList<>();
 		if ( entitiesNames != null ) {
 			for ( String entityName : entitiesNames ) {
-				EntityInContext entity = entitiesByClassName.get(entityName);
-				if ( entity != null ) {
-					selectedEntities.add(entity);
+				EntityHandle handle = entitiesByClassName.get(entityName);
+				if ( handle != null ) {
+					selectedHandles.add(handle);
 				}
 				else {
 					throw new GeneratorException("Unknown entity '" + entityName + "'");
 				}
 			}
 		}
+		if ( dependencyRecorder != null ) {
+			// each entity and the selection recorded when used by the template (v 4.2.0)
+			return new RecordingEntitiesList(CompactList.copyOf(selectedHandles), false, true);
+		}
+		List<EntityInContext> selectedEntities = new LinkedList<>();
+		for ( EntityHandle handle : selectedHandles ) {
+			selectedEntities.add(handle.get());
+		}
 		return selectedEntities ;
 	}
 
@@ -309,9 +532,9 @@ public class ModelInContext
 	)
     public EntityInContext getEntityByClassName( String entityClassName )
     {
-		EntityInContext entity = entitiesByClassName.get(entityClassName);
-		if ( entity != null ) {
-			return entity;
+		EntityHandle handle = entitiesByClassName.get(entityClassName);
+		if ( handle != null ) {
+			return getAndRecord(handle); // v 4.2.0
 		}
 		else {
 			throw new GeneratorContextException("Entity '" + entityClassName +"' not found in model");
@@ -335,7 +558,15 @@ public class ModelInContext
 	)
     public boolean hasEntityWithClassName( String name )
     {
-		return ( entitiesByClassName.get(name) != null ) ;
+		EntityHandle handle = entitiesByClassName.get(name);
+		if ( handle != null ) {
+			recordEntity(handle);
+			return true ;
+		}
+		else {
+			recordEntitiesList(); // v 4.2.0 (true if the entity is added later)
+			return false ;
+		}
     }
 
 	//-------------------------------------------------------------------------------------
@@ -368,7 +599,14 @@ public class ModelInContext
     }
     private EntityInContext searchEntityByTableName(String tableName) { // v 4.1.0
     	// Convert table name to upper case
-    	return entitiesByTableName.get(tableName.toUpperCase());
+    	EntityHandle handle = entitiesByTableName.get(tableName.toUpperCase());
+    	if ( handle != null ) {
+    		return getAndRecord(handle); // v 4.2.0
+    	}
+    	else {
+    		recordEntitiesList(); // v 4.2.0
+    		return null ;
+    	}
     }
 	//-------------------------------------------------------------------------------------
 	@VelocityMethod(
@@ -387,7 +625,15 @@ public class ModelInContext
 		}
 	)
     public boolean hasEntityWithTableName( String tableName ) {
-		return ( searchEntityByTableName(tableName) != null ) ; // v 4.1.0
+		EntityHandle handle = entitiesByTableName.get(tableName.toUpperCase()); // v 4.2.0 (no entity build)
+		if ( handle != null ) {
+			recordEntity(handle);
+			return true ;
+		}
+		else {
+			recordEntitiesList(); // v 4.2.0
+			return false ;
+		}
     }
 
 	//-------------------------------------------------------------------------------------
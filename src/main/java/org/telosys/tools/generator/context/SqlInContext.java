@@ -19,17 +19,30 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.telosys.tools.commons.NamingStyleConverter;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.context.doc.VelocityMethod;
+import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.exceptions.GeneratorSqlException;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.RenderableText;
 
 //-------------------------------------------------------------------------------------
 @VelocityObject(
@@ -74,8 +87,15 @@ public class SqlInContext {
 	private static final String CONV_PK_NAME     = "conv.pkName";
 	private static final String CONV_FK_NAME     = "conv.fkName";
 	
+	// standard configurations (embedded in .jar resources) loaded once and shared (read-only) ( v 4.2.0 )
+	private static final ConcurrentMap<String, Properties> standardConfigurations = new ConcurrentHashMap<>();
+
 	private final NamingStyleConverter converter = new NamingStyleConverter();
 
+	// conversions results (same names and types converted many times for a whole model) ( v 4.2.0 )
+	private final ConcurrentMap<String, String> convertedNames = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, String> convertedTypes = new ConcurrentHashMap<>();
+
 	private String targetDbName ;
 	private String targetDbConfigFile ;
 	private Properties targetDbConfig ;
@@ -139,6 +159,17 @@ public class SqlInContext {
 		return this.targetDbName;
     }
 
+	//-------------------------------------------------------------------------------------
+	/**
+	 * Returns a key identifying the naming rules used for tables and columns <br>
+	 * (2 instances with the same key give the same table and column names) 
+	 * @return
+	 */
+	@VelocityNoDoc
+	public String getNamingKey() { // v 4.2.0
+		return this.tableNameStyle + "|" + this.columnNameStyle ;
+	}
+
 	//-------------------------------------------------------------------------------------
 	@VelocityMethod ( 
 		text= { 
@@ -250,6 +281,16 @@ public class SqlInContext {
 		since = "3.4.0"
 	)
 	public String convertToColumnType(String neutralType, boolean autoInc, BigDecimal size) {
+		String key = neutralType + "|" + autoInc + "|" + size ; // v 4.2.0
+		String columnType = convertedTypes.get(key);
+		if ( columnType == null ) {
+			columnType = computeColumnType(neutralType, autoInc, size);
+			convertedTypes.put(key, columnType);
+		}
+		return columnType ;
+	}
+
+	private String computeColumnType(String neutralType, boolean autoInc, BigDecimal size) {
 		// get SQL type from database config
 		String sqlType = getConfigType(neutralType, autoInc);
 		
@@ -548,10 +589,231 @@ public class SqlInContext {
 		return buildColumns(fk, FK_REFERENCED_SIDE);
     }
 
+	//-------------------------------------------------------------------------------------
+	// Whole model DDL ( v 4.2.0 )
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod ( 
+		text= { 
+			"Returns the given entities sorted according to their foreign keys ",
+			"(each entity is placed after the entities it references)",
+			"The original order is kept when there's no dependency between entities",
+			"In case of cycle (eg 'A' references 'B' and 'B' references 'A') the first entity in the cycle is placed first",
+			""
+		},
+		example={	
+			"#foreach( $entity in $sql.sortByForeignKeys($model.allEntities) )"
+		},
+		parameters = { 
+			"entities : the entities to be sorted " 
+		},
+		since = "4.2.0"
+	)
+	public List<EntityInContext> sortByForeignKeys(List<EntityInContext> entities) {
+		int n = entities.size();
+		Map<String, Integer> indexes = new HashMap<>();
+		for ( int i = 0 ; i < n ; i++ ) {
+			indexes.put(entities.get(i).getName(), i);
+		}
+		//--- dependencies : number of referenced entities and referencing entities for each entity
+		int[] referencedCount = new int[n];
+		List<List<Integer>> referencingEntities = new ArrayList<>(n);
+		for ( int i = 0 ; i < n ; i++ ) {
+			referencingEntities.add(new ArrayList<Integer>());
+		}
+		for ( int i = 0 ; i < n ; i++ ) {
+			Set<Integer> referenced = new LinkedHashSet<>();
+			for ( ForeignKeyInContext fk : entities.get(i).getDatabaseForeignKeys() ) {
+				Integer r = indexes.get(fk.getReferencedEntityName());
+				if ( r != null && r.intValue() != i ) { // self reference ignored
+					referenced.add(r);
+				}
+			}
+			referencedCount[i] = referenced.size();
+			for ( Integer r : referenced ) {
+				referencingEntities.get(r).add(i);
+			}
+		}
+		//--- topological sort (lowest original index first)
+		List<EntityInContext> sortedEntities = new ArrayList<>(n);
+		boolean[] done = new boolean[n];
+		PriorityQueue<Integer> ready = new PriorityQueue<>();
+		for ( int i = 0 ; i < n ; i++ ) {
+			if ( referencedCount[i] == 0 ) {
+				ready.add(i);
+			}
+		}
+		int next = 0 ; // first entity not yet sorted (used to break a cycle)
+		while ( sortedEntities.size() < n ) {
+			if ( ready.isEmpty() ) {
+				// cycle : take the first remaining entity 
+				while ( done[next] ) {
+					next++ ;
+				}
+				ready.add(next);
+			}
+			int i = ready.poll();
+			if ( ! done[i] ) {
+				done[i] = true ;
+				sortedEntities.add(entities.get(i));
+				for ( Integer r : referencingEntities.get(i) ) {
+					referencedCount[r]-- ;
+					if ( referencedCount[r] == 0 && ! done[r] ) {
+						ready.add(r);
+					}
+				}
+			}
+		}
+		return sortedEntities ;
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod ( 
+		text= { 
+			"Returns the DDL script for all the entities of the model :",
+			"'CREATE TABLE' statements (with primary key) and 'ALTER TABLE ... ADD CONSTRAINT ... FOREIGN KEY' statements",
+			"The tables are created according to their foreign keys (referenced tables first)",
+			"The script is directly written in the generated file (no intermediate string)",
+			""
+		},
+		example={	
+			"$sql.ddlCreateTables($model)"
+		},
+		parameters = { 
+			"model : the model " 
+		},
+		since = "4.2.0"
+	)
+	public RenderableText ddlCreateTables(ModelInContext model) {
+		return ddlCreateTables(model.getAllEntities());
+	}
+
+	//-------------------------------------------------------------------------------------
+	@VelocityMethod ( 
+		text= { 
+			"Returns the DDL script for the given entities (see 'ddlCreateTables($model)')",
+			""
+		},
+		example={	
+			"$sql.ddlCreateTables($selectedEntities)"
+		},
+		parameters = { 
+			"entities : the entities " 
+		},
+		since = "4.2.0"
+	)
+	public RenderableText ddlCreateTables(List<EntityInContext> entities) {
+		final List<EntityInContext> sortedEntities = sortByForeignKeys(entities);
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				writeDdl(writer, sortedEntities);
+			}
+		};
+	}
+
+	private void writeDdl(Writer writer, List<EntityInContext> entities) throws IOException {
+		Set<String> entitiesNames = new HashSet<>();
+		for ( EntityInContext entity : entities ) {
+			entitiesNames.add(entity.getName());
+		}
+		Set<String> createdEntities = new HashSet<>();
+		List<ForeignKeyInContext> deferredForeignKeys = new ArrayList<>();
+		for ( EntityInContext entity : entities ) {
+			writeCreateTable(writer, entity);
+			createdEntities.add(entity.getName());
+			for ( ForeignKeyInContext fk : entity.getDatabaseForeignKeys() ) {
+				String referencedEntityName = fk.getReferencedEntityName();
+				if ( entitiesNames.contains(referencedEntityName) && ! createdEntities.contains(referencedEntityName) ) {
+					// referenced table not yet created (cycle) 
+					deferredForeignKeys.add(fk);
+				}
+				else {
+					writeForeignKey(writer, fk);
+				}
+			}
+		}
+		for ( ForeignKeyInContext fk : deferredForeignKeys ) {
+			writeForeignKey(writer, fk);
+		}
+	}
+
+	private void writeCreateTable(Writer writer, EntityInContext entity) throws IOException {
+		writer.write("CREATE TABLE ");
+		writer.write(tableName(entity));
+		writer.write(" (\n");
+		int c = 0 ;
+		for ( AttributeInContext attribute : entity.getAttributes() ) {
+			if ( c++ > 0 ) {
+				writer.write(",\n");
+			}
+			writer.write("  ");
+			writer.write(columnName(attribute));
+			writer.write(" ");
+			writer.write(columnType(attribute));
+			String constraints = columnConstraints(attribute);
+			if ( constraints.length() > 0 ) {
+				writer.write(" ");
+				writer.write(constraints);
+			}
+		}
+		if ( entity.hasPrimaryKey() ) {
+			writer.write(",\n  PRIMARY KEY (");
+			int k = 0 ;
+			for ( AttributeInContext attribute : entity.getKeyAttributes() ) {
+				if ( k++ > 0 ) {
+					writer.write(", ");
+				}
+				writer.write(columnName(attribute));
+			}
+			writer.write(")");
+		}
+		writer.write("\n);\n\n");
+	}
+
+	private void writeForeignKey(Writer writer, ForeignKeyInContext fk) throws IOException {
+		StringBuilder originColumns = new StringBuilder();
+		StringBuilder referencedColumns = new StringBuilder();
+		try {
+			for ( ForeignKeyAttributeInContext fkAttribute : fk.getAttributes() ) {
+				if ( originColumns.length() > 0 ) {
+					originColumns.append(", ");
+					referencedColumns.append(", ");
+				}
+				originColumns.append(columnName(fkAttribute.getOriginAttribute()));
+				referencedColumns.append(columnName(fkAttribute.getReferencedAttribute()));
+			}
+		} catch (GeneratorException e) {
+			throw new GeneratorSqlException("ddlCreateTables", "Foreign key '" + fk.getName() + "' : " + e.getMessage());
+		}
+		writer.write("ALTER TABLE ");
+		writer.write(tableName(fk.getOriginEntity()));
+		writer.write(" ADD CONSTRAINT ");
+		writer.write(fkName(fk));
+		writer.write(" FOREIGN KEY (");
+		writer.write(originColumns.toString());
+		writer.write(") REFERENCES ");
+		writer.write(tableName(fk.getReferencedEntity()));
+		writer.write(" (");
+		writer.write(referencedColumns.toString());
+		writer.write(");\n\n");
+	}
+
 	//-------------------------------------------------------------------------------------
 	//-------------------------------------------------------------------------------------
 	//-------------------------------------------------------------------------------------
 	private Properties loadStandardConfiguration(String propFileName) {
+		Properties properties = standardConfigurations.get(propFileName);
+		if ( properties == null ) {
+			properties = loadStandardConfigurationFromResource(propFileName);
+			Properties existing = standardConfigurations.putIfAbsent(propFileName, properties);
+			if ( existing != null ) {
+				properties = existing ;
+			}
+		}
+		return properties;
+	}
+	//-------------------------------------------------------------------------------------
+	private Properties loadStandardConfigurationFromResource(String propFileName) {
 		Properties properties = new Properties();
 		ClassLoader classLoader = this.getClass().getClassLoader();
 		try ( InputStream inputStream = classLoader.getResourceAsStream(propFileName)) {
@@ -596,6 +858,18 @@ public class SqlInContext {
 	 * @return
 	 */
 	protected String convertName(String originalName, String styleName) {
+		String key = styleName + ":" + originalName ; // v 4.2.0
+		String name = convertedNames.get(key);
+		if ( name == null ) {
+			name = computeName(originalName, styleName);
+			if ( name != null ) {
+				convertedNames.put(key, name);
+			}
+		}
+		return name ;
+	}
+
+	private String computeName(String originalName, String styleName) {
 		switch (styleName) {
 		case "snake_case" :
 			return converter.toSnakeCase(originalName);
@@ -27,6 +27,7 @@ import org.telosys.tools.generator.context.doc.VelocityMethod;
 import org.telosys.tools.generator.context.doc.VelocityNoDoc;
 import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.output.DestinationSnapshot;
 import org.telosys.tools.generic.model.Entity;
 
 /**
@@ -66,6 +67,7 @@ public class Target {
 	
 	private final String    entityName ;
 	private String forcedEntityName = null ; // can be changed dynamically in the template file
+	private volatile DestinationSnapshot destinationSnapshot = null ; // v 4.2.0 (file system checks in memory)
 
 	/**
 	 * Constructor
@@ -293,9 +295,22 @@ public class Target {
 		)
 	public boolean outputFileExists() {
 		File file = new File(getOutputFileFullPath());
+		DestinationSnapshot snapshot = destinationSnapshot ;
+		if ( snapshot != null && snapshot.covers(file) ) {
+			return snapshot.exists(file); // v 4.2.0
+		}
 		return file.exists();
 	}
 	
+	/**
+	 * Set the destination folder snapshot used to check if the output file exists (or null for the file system)
+	 * @param destinationSnapshot
+	 */
+	@VelocityNoDoc
+	public void setDestinationSnapshot(DestinationSnapshot destinationSnapshot) { // v 4.2.0
+		this.destinationSnapshot = destinationSnapshot ;
+	}
+	
 	//-------------------------------------------------------------------------------------
 	@VelocityMethod(
 		text = {	
@@ -26,6 +26,7 @@ import org.telosys.tools.generator.context.doc.VelocityObject;
 import org.telosys.tools.generator.context.names.ContextName;
 import org.telosys.tools.generator.languages.literals.LiteralValue;
 import org.telosys.tools.generator.languages.literals.LiteralValuesProvider;
+import org.telosys.tools.generator.languages.literals.LiteralValuesTable;
 import org.telosys.tools.generator.languages.types.LanguageType;
 
 /**
@@ -94,6 +95,29 @@ public class ValuesInContext {
 		this.nullLiteral = literalValuesProvider.getLiteralNull() ;
 	}
 	
+	//----------------------------------------------------------------------------------------
+	/**
+	 * Constructor for a row of a values table (values already generated)
+	 * @param table
+	 * @param names the attributes names (one for each table column)
+	 * @param row
+	 */
+	protected ValuesInContext( LiteralValuesTable table, List<String> names, int row ) { // v 4.2.0
+		
+		this.literalValuesProvider = table.getLiteralValuesProvider() ; 
+		
+		values = new HashMap<>();
+		attributeNames = new LinkedList<>();
+		
+		int column = 0 ;
+		for ( String name : names ) {
+			values.put ( name, table.getLiteralValue(row, column) ) ;
+			attributeNames.add( name );
+			column++ ;
+		}
+		this.nullLiteral = literalValuesProvider.getLiteralNull() ;
+	}
+	
 	//----------------------------------------------------------------------------------------
 	@VelocityMethod(
 		text={	
@@ -0,0 +1,390 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.generator.context.doc.VelocityMethod;
+import org.telosys.tools.generator.context.doc.VelocityObject;
+import org.telosys.tools.generator.context.exceptions.GeneratorFunctionException;
+import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.context.tools.RenderableText;
+import org.telosys.tools.generator.languages.literals.LiteralValue;
+import org.telosys.tools.generator.languages.literals.LiteralValuesTable;
+import org.telosys.tools.generator.languages.types.LanguageType;
+
+/**
+ * This object holds N rows of generated literal values for a set of attributes <br>
+ * The values are stored by attribute (column) and generated on first use <br>
+ * Instances are created by '$fn.buildValuesTable' <br>
+ * Example : <br>
+ *   #set( $table = $fn.buildValuesTable($entity, 1000) ) <br>
+ *   $table.toSqlInsert() <br>
+ *
+ * @author Laurent GUERIN
+ *
+ */
+//-------------------------------------------------------------------------------------
+@VelocityObject(
+		contextName = ContextName.VALUES_TABLE,
+		text = {
+				"This object provides N rows of literal values for a set of attributes",
+				"The row 'i' contains the same values as '$fn.buildValues(attributes, firstStep + i)' ",
+				"The values are generated only when used (attribute by attribute)",
+				"The SQL and JSON outputs are written directly in the generated file",
+				""
+		},
+		since = "4.2.0",
+		example= {
+				"",
+				"#set( $table = $fn.buildValuesTable($entity, 10000) )",
+				"$table.toSqlInsert(500)",
+				"$table.toFormattedJsonArray()",
+				"#foreach( $i in [0..9] )",
+				"  $table.getValue($i, 'id') ",
+				"#end"
+		}
+ )
+//-------------------------------------------------------------------------------------
+public class ValuesTableInContext {
+
+	private static final int    DEFAULT_BATCH_SIZE = 100 ;
+	private static final String NULL_VALUE = "null" ;
+
+	private final LiteralValuesTable table ;
+	private final List<String>       attributeNames ; // one name for each column
+	private final List<String>       columnNames ; // SQL column name for each column
+	private final String             tableName ; // SQL table name (or null if unknown)
+
+	//----------------------------------------------------------------------------------------
+	/**
+	 * Constructor
+	 * @param attributes
+	 * @param rowCount
+	 * @param firstStep
+	 * @param tableName the SQL table name (or null if none)
+	 * @param env
+	 */
+	protected ValuesTableInContext( List<AttributeInContext> attributes, int rowCount, int firstStep,
+			String tableName, EnvInContext env ) {
+		if ( rowCount < 0 ) {
+			throw new GeneratorFunctionException("buildValuesTable", "Invalid number of rows " + rowCount);
+		}
+		int n = attributes.size();
+		LanguageType[] languageTypes = new LanguageType[n];
+		int[] maxLengths = new int[n];
+		List<String> names = new ArrayList<>(n);
+		List<String> sqlNames = new ArrayList<>(n);
+		int i = 0 ;
+		for ( AttributeInContext attrib : attributes ) {
+			languageTypes[i] = attrib.getLanguageType() ;
+			maxLengths[i] = StrUtil.getInt(attrib.getMaxLength(), 1) ;
+			names.add(attrib.getName());
+			sqlNames.add(attrib.getSqlColumnName());
+			i++;
+		}
+		this.table = new LiteralValuesTable(env.getLiteralValuesProvider(), languageTypes, maxLengths, rowCount, firstStep);
+		this.attributeNames = Collections.unmodifiableList(names);
+		this.columnNames = Collections.unmodifiableList(sqlNames);
+		this.tableName = tableName ;
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns the number of rows"
+			},
+		since = "4.2.0"
+	)
+	public int getRowCount() {
+		return table.getRowCount();
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns the names of the attributes (one for each column)"
+			},
+		since = "4.2.0"
+	)
+	public List<String> getAttributeNames() {
+		return attributeNames;
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns the literal value (for the current target language) for the given row and attribute"
+			},
+		parameters = {
+			"row : the row index (from 0 to N-1)",
+			"attributeName : the name of the attribute  "
+			},
+		example = {
+			"$table.getValue(0, $attribute.name)"
+		},
+		since = "4.2.0"
+	)
+	public String getValue(int row, String attributeName) {
+		return table.getLiteralValue(row, getColumnIndex(attributeName)).getCurrentLanguageValue();
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns the values of the given row (same object as '$fn.buildValues') "
+			},
+		parameters = {
+			"row : the row index (from 0 to N-1)"
+			},
+		example = {
+			"#set( $values = $table.getRow(0) )",
+			"$values.allValues"
+		},
+		since = "4.2.0"
+	)
+	public ValuesInContext getRow(int row) {
+		if ( row < 0 || row >= table.getRowCount() ) {
+			throw new GeneratorFunctionException("getRow", "Invalid row index " + row);
+		}
+		return new ValuesInContext(table, attributeNames, row);
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns SQL INSERT statements for all the rows (for the entity table)",
+			"Each statement inserts 100 rows (multi-rows 'VALUES' clause)"
+			},
+		example = {
+			"$table.toSqlInsert()"
+		},
+		since = "4.2.0"
+	)
+	public RenderableText toSqlInsert() {
+		return toSqlInsert(DEFAULT_BATCH_SIZE);
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns SQL INSERT statements for all the rows (for the entity table)"
+			},
+		parameters = {
+			"batchSize : the number of rows inserted by each statement"
+			},
+		example = {
+			"$table.toSqlInsert(1000)"
+		},
+		since = "4.2.0"
+	)
+	public RenderableText toSqlInsert(int batchSize) {
+		if ( tableName == null ) {
+			throw new GeneratorFunctionException("toSqlInsert", "No table name (values not built for an entity)");
+		}
+		return toSqlInsert(tableName, batchSize);
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns SQL INSERT statements for all the rows in the given table"
+			},
+		parameters = {
+			"tableName : the SQL table name",
+			"batchSize : the number of rows inserted by each statement"
+			},
+		example = {
+			"$table.toSqlInsert('car', 1000)"
+		},
+		since = "4.2.0"
+	)
+	public RenderableText toSqlInsert(final String tableName, final int batchSize) {
+		if ( batchSize <= 0 ) {
+			throw new GeneratorFunctionException("toSqlInsert", "Invalid batch size " + batchSize);
+		}
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				writeSqlInsert(writer, tableName, batchSize);
+			}
+		};
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns a JSON array containing all the rows ",
+			"e.g. : '[{\"id\":1, \"name\":\"A\"}, {\"id\":2, \"name\":\"B\"}]' "
+			},
+		example = {
+			"$table.toJsonArray()"
+		},
+		since = "4.2.0"
+	)
+	public RenderableText toJsonArray() {
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				writeJsonArray(writer, false);
+			}
+		};
+	}
+
+	//----------------------------------------------------------------------------------------
+	@VelocityMethod(
+		text={
+			"Returns a JSON array containing all the rows ",
+			"The resulting JSON is formatted (one line for each row) "
+			},
+		example = {
+			"$table.toFormattedJsonArray()"
+		},
+		since = "4.2.0"
+	)
+	public RenderableText toFormattedJsonArray() {
+		return new RenderableText() {
+			@Override
+			public void write(Writer writer) throws IOException {
+				writeJsonArray(writer, true);
+			}
+		};
+	}
+
+	//----------------------------------------------------------------------------------------
+	// private methods
+	//----------------------------------------------------------------------------------------
+	private int getColumnIndex(String attributeName) {
+		int i = attributeNames.indexOf(attributeName);
+		if ( i < 0 ) {
+			throw new GeneratorFunctionException("getValue", "Unknown attribute '" + attributeName + "'");
+		}
+		return i ;
+	}
+
+	private LiteralValue[][] getAllColumns() {
+		LiteralValue[][] columns = new LiteralValue[table.getColumnCount()][] ;
+		for ( int c = 0 ; c < columns.length ; c++ ) {
+			columns[c] = table.getColumn(c);
+		}
+		return columns ;
+	}
+
+	private void writeSqlInsert(Writer writer, String sqlTableName, int batchSize) throws IOException {
+		LiteralValue[][] columns = getAllColumns();
+		String insertInto = buildInsertInto(sqlTableName);
+		int rowCount = table.getRowCount();
+		for ( int row = 0 ; row < rowCount ; row++ ) {
+			int rowInBatch = row % batchSize ;
+			if ( rowInBatch == 0 ) {
+				writer.write(insertInto);
+			}
+			writer.write("  (");
+			for ( int c = 0 ; c < columns.length ; c++ ) {
+				if ( c > 0 ) {
+					writer.write(", ");
+				}
+				writer.write(toSqlValue(columns[c][row].getBasicValue()));
+			}
+			writer.write(")");
+			if ( rowInBatch == batchSize - 1 || row == rowCount - 1 ) {
+				writer.write(";\n");
+			}
+			else {
+				writer.write(",\n");
+			}
+		}
+	}
+
+	private String buildInsertInto(String sqlTableName) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("INSERT INTO ").append(sqlTableName).append(" (");
+		int n = 0 ;
+		for ( String columnName : columnNames ) {
+			if ( n > 0 ) {
+				sb.append(", ");
+			}
+			sb.append(columnName);
+			n++;
+		}
+		sb.append(") VALUES\n");
+		return sb.toString();
+	}
+
+	private void writeJsonArray(Writer writer, boolean formatted) throws IOException {
+		LiteralValue[][] columns = getAllColumns();
+		String[] keys = new String[columns.length];
+		for ( int c = 0 ; c < columns.length ; c++ ) {
+			keys[c] = "\"" + attributeNames.get(c) + "\":" ;
+		}
+		int rowCount = table.getRowCount();
+		writer.write("[");
+		for ( int row = 0 ; row < rowCount ; row++ ) {
+			if ( row > 0 ) {
+				writer.write(", ");
+			}
+			if ( formatted ) {
+				writer.write("\n  ");
+			}
+			writer.write("{");
+			for ( int c = 0 ; c < columns.length ; c++ ) {
+				if ( c > 0 ) {
+					writer.write(", ");
+				}
+				writer.write(keys[c]);
+				writer.write(toJsonValue(columns[c][row].getBasicValue()));
+			}
+			writer.write("}");
+		}
+		if ( formatted && rowCount > 0 ) {
+			writer.write("\n");
+		}
+		writer.write("]");
+	}
+
+	private String toSqlValue(Object value) {
+		if ( value == null ) {
+			return "NULL" ;
+		}
+		else if ( value instanceof Number ) {
+			return value.toString();
+		}
+		else if ( value instanceof Boolean ) {
+			return ((Boolean) value).booleanValue() ? "TRUE" : "FALSE" ;
+		}
+		else {
+			// String, date, time, etc
+			return "'" + value.toString().replace("'", "''") + "'" ;
+		}
+	}
+
+	private String toJsonValue(Object value) {
+		if ( value == null || value instanceof java.util.Date ) {
+			return NULL_VALUE ; // same as $values.toJSON()
+		}
+		else if ( value instanceof Number || value instanceof Boolean ) {
+			return value.toString();
+		}
+		else {
+			return "\"" + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + "\"" ;
+		}
+	}
+}
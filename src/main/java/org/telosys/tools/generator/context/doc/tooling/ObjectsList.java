@@ -20,6 +20,8 @@ import org.telosys.tools.generator.context.BeanValidation;
 import org.telosys.tools.generator.context.BundleInContext;
 import org.telosys.tools.generator.context.Const;
 import org.telosys.tools.generator.context.CsharpInContext;
+import org.telosys.tools.generator.context.CsvInContext;
+import org.telosys.tools.generator.context.CsvRowInContext;
 import org.telosys.tools.generator.context.EmbeddedGenerator;
 import org.telosys.tools.generator.context.EntityInContext;
 import org.telosys.tools.generator.context.EnvInContext;
@@ -47,6 +49,7 @@ import org.telosys.tools.generator.context.SqlInContext;
 import org.telosys.tools.generator.context.Target;
 import org.telosys.tools.generator.context.Today;
 import org.telosys.tools.generator.context.ValuesInContext;
+import org.telosys.tools.generator.context.ValuesTableInContext;
 
 /**
  * Provides a list of classes for all objects defined in the generator context <br>
@@ -112,7 +115,11 @@ public class ObjectsList {
 		ReferenceInContext.class, // v3.4.0
 
 		PhpInContext.class,   // v 4.1.0
-		CsharpInContext.class // v 4.1.0
+		CsharpInContext.class, // v 4.1.0
+		
+		CsvInContext.class,   // v 4.2.0
+		CsvRowInContext.class, // v 4.2.0
+		ValuesTableInContext.class // v 4.2.0
 	};
 
 	public static final Class<?>[] getObjectsClasses() {
@@ -96,6 +96,9 @@ public class ContextName {
 	public static final String  SQL               = "sql" ;     // ver 3.4.0
 	public static final String  FACTORY           = "factory" ; // ver 3.4.0
 	public static final String  REFERENCE         = "reference" ; // ver 3.4.0
+	public static final String  CSV               = "csv" ;     // ver 4.2.0
+	public static final String  CSV_ROW           = "csvRow" ;  // ver 4.2.0
+	public static final String  VALUES_TABLE      = "valuesTable" ; // ver 4.2.0
 	
 	// NB : don't forget to also add :
 	//   - the name in "ContextNames" ("ContextNames" class with "s" at the end)
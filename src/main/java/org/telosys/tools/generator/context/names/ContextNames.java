@@ -131,6 +131,10 @@ public class ContextNames {
 		PREDEFINED_NAMES_LIST.add( ContextName.SQL );     // v 3.4.0
 		PREDEFINED_NAMES_LIST.add( ContextName.REFERENCE ); // v 3.4.0
 		
+		PREDEFINED_NAMES_LIST.add( ContextName.CSV );     // v 4.2.0
+		PREDEFINED_NAMES_LIST.add( ContextName.CSV_ROW ); // v 4.2.0
+		PREDEFINED_NAMES_LIST.add( ContextName.VALUES_TABLE ); // v 4.2.0
+		
 	}
 
 	private static final List<String> RESERVED_NAMES_LIST = new LinkedList<>();
@@ -0,0 +1,65 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list backed by an array of the exact size <br>
+ * Used to keep the lists of the generator context objects (attributes, links, etc)
+ * with a minimal memory footprint (a single array, no node per element)  <br>
+ * All the void lists are the same shared immutable instance.
+ *
+ * @author Laurent GUERIN
+ *
+ * @param <E>
+ */
+public final class CompactList<E> extends AbstractList<E> implements RandomAccess {
+
+	private final Object[] elements ;
+
+	private CompactList(Object[] elements) {
+		super();
+		this.elements = elements ;
+	}
+
+	/**
+	 * Returns an immutable copy of the given collection
+	 * @param collection
+	 * @return
+	 */
+	public static <E> List<E> copyOf(Collection<? extends E> collection) {
+		if ( collection == null || collection.isEmpty() ) {
+			return Collections.emptyList();
+		}
+		return new CompactList<>(collection.toArray());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		return (E) elements[index];
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+}
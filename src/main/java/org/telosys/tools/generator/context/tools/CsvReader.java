@@ -0,0 +1,282 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming CSV reader (RFC-4180) <br>
+ * Records are parsed one by one from a fixed size buffer (constant memory) : <br>
+ *  - a field can be quoted with '"' (a quote in a quoted field is escaped with '""') <br>
+ *  - a quoted field can contain separators and line breaks <br>
+ *  - a record is terminated by '\n', '\r' or '\r\n' <br>
+ *  - blank lines are ignored <br>
+ * The file is parsed at byte level (all the special characters are ASCII characters,
+ * so they cannot be part of a UTF-8 multi-byte sequence) and each field is decoded with UTF-8. <br>
+ * This allows to know the exact position (offset in bytes) of each record and
+ * to restart reading at a given position with 'seek'. <br>
+ * Not thread-safe.
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class CsvReader implements Closeable {
+
+	private static final int  BUFFER_SIZE = 8192 ;
+	private static final byte QUOTE = '"' ;
+	private static final byte CR    = '\r' ;
+	private static final byte LF    = '\n' ;
+
+	private final FileInputStream input ;
+	private final byte separator ;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE] ;
+	private int  bufferPos   = 0 ;
+	private int  bufferLimit = 0 ;
+	private long bufferStart = 0 ; // position of the buffer first byte in the file
+
+	private byte[] field = new byte[256] ; // current field (grows if necessary)
+	private int    fieldLength = 0 ;
+
+	/**
+	 * Constructor
+	 * @param file
+	 * @param separator the values separator (must be an ASCII character)
+	 * @throws IOException
+	 */
+	public CsvReader(File file, char separator) throws IOException {
+		if ( separator == 0 || separator > 127 || separator == QUOTE || separator == CR || separator == LF ) {
+			throw new IllegalArgumentException("Invalid CSV separator '" + separator + "'");
+		}
+		this.separator = (byte) separator ;
+		this.input = new FileInputStream(file);
+		skipByteOrderMark();
+	}
+
+	/**
+	 * Returns the current position (offset in bytes) in the file <br>
+	 * After 'readRecord' it's the position of the next record
+	 * @return
+	 */
+	public long getPosition() {
+		return bufferStart + bufferPos ;
+	}
+
+	/**
+	 * Moves to the given position (offset in bytes, typically a position previously returned by 'getPosition')
+	 * @param position
+	 * @throws IOException
+	 */
+	public void seek(long position) throws IOException {
+		if ( position >= bufferStart && position <= bufferStart + bufferLimit ) {
+			// still in the current buffer
+			bufferPos = (int) (position - bufferStart) ;
+		}
+		else {
+			input.getChannel().position(position);
+			bufferStart = position ;
+			bufferPos   = 0 ;
+			bufferLimit = 0 ;
+		}
+	}
+
+	/**
+	 * Reads the next record
+	 * @return the values of the record or null if the end of file is reached
+	 * @throws IOException
+	 */
+	public List<String> readRecord() throws IOException {
+		int b = skipBlankLines();
+		if ( b < 0 ) {
+			return null ; // end of file
+		}
+		List<String> values = new ArrayList<>();
+		boolean quoted = false ;
+		boolean fieldStart = true ;
+		fieldLength = 0 ;
+		while ( true ) {
+			if ( b < 0 ) {
+				// end of file => end of the last record (even in an unterminated quoted field)
+				values.add(fieldToString());
+				return values ;
+			}
+			if ( quoted ) {
+				if ( b == QUOTE ) {
+					if ( peek() == QUOTE ) {
+						read();
+						appendToField(QUOTE); // escaped quote
+					}
+					else {
+						quoted = false ; // end of quoted part
+					}
+				}
+				else {
+					appendToField(b);
+				}
+			}
+			else if ( b == QUOTE && fieldStart ) {
+				quoted = true ;
+			}
+			else if ( b == separator ) {
+				values.add(fieldToString());
+				fieldLength = 0 ;
+				fieldStart = true ;
+				b = read();
+				continue ;
+			}
+			else if ( b == LF ) {
+				values.add(fieldToString());
+				return values ;
+			}
+			else if ( b == CR ) {
+				if ( peek() == LF ) {
+					read();
+				}
+				values.add(fieldToString());
+				return values ;
+			}
+			else {
+				appendToField(b);
+			}
+			fieldStart = false ;
+			b = read();
+		}
+	}
+
+	/**
+	 * Skips the next record without building its values
+	 * @return true if a record has been skipped, false if the end of file is reached
+	 * @throws IOException
+	 */
+	public boolean skipRecord() throws IOException {
+		int b = skipBlankLines();
+		if ( b < 0 ) {
+			return false ;
+		}
+		boolean quoted = false ;
+		boolean fieldStart = true ;
+		while ( b >= 0 ) {
+			if ( quoted ) {
+				if ( b == QUOTE ) {
+					if ( peek() == QUOTE ) {
+						read(); // escaped quote
+					}
+					else {
+						quoted = false ;
+					}
+				}
+			}
+			else if ( b == QUOTE && fieldStart ) {
+				quoted = true ;
+			}
+			else if ( b == separator ) {
+				fieldStart = true ;
+				b = read();
+				continue ;
+			}
+			else if ( b == LF ) {
+				return true ;
+			}
+			else if ( b == CR ) {
+				if ( peek() == LF ) {
+					read();
+				}
+				return true ;
+			}
+			fieldStart = false ;
+			b = read();
+		}
+		return true ;
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+	//----------------------------------------------------------------------------------------
+	// private methods
+	//----------------------------------------------------------------------------------------
+
+	/**
+	 * Skips the blank lines and returns the first byte of the next record (or -1 if end of file)
+	 * @return
+	 * @throws IOException
+	 */
+	private int skipBlankLines() throws IOException {
+		int b = read();
+		while ( b == CR || b == LF ) {
+			b = read();
+		}
+		return b ;
+	}
+
+	private void skipByteOrderMark() throws IOException {
+		if ( peek() == 0xEF ) {
+			fill();
+			if ( bufferLimit >= 3 && ( buffer[1] & 0xFF ) == 0xBB && ( buffer[2] & 0xFF ) == 0xBF ) {
+				bufferPos = 3 ;
+			}
+		}
+	}
+
+	private boolean fill() throws IOException {
+		if ( bufferPos < bufferLimit ) {
+			return true ;
+		}
+		bufferStart = bufferStart + bufferLimit ;
+		bufferPos = 0 ;
+		bufferLimit = 0 ;
+		int n = input.read(buffer, 0, BUFFER_SIZE);
+		if ( n <= 0 ) {
+			return false ;
+		}
+		bufferLimit = n ;
+		return true ;
+	}
+
+	private int read() throws IOException {
+		if ( fill() ) {
+			return buffer[bufferPos++] & 0xFF ;
+		}
+		return -1 ;
+	}
+
+	private int peek() throws IOException {
+		if ( fill() ) {
+			return buffer[bufferPos] & 0xFF ;
+		}
+		return -1 ;
+	}
+
+	private void appendToField(int b) {
+		if ( fieldLength == field.length ) {
+			field = Arrays.copyOf(field, field.length * 2);
+		}
+		field[fieldLength++] = (byte) b ;
+	}
+
+	private String fieldToString() {
+		return new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Records the elements actually read by a template during a rendering : <br>
+ * . the model entities (original class name in the model) <br>
+ * . the list of entities (when the template depends on the entities set : size, iteration, etc) <br>
+ * . the entities selection (when the template uses the selected entities) <br>
+ * . the files (absolute path) <br>
+ * Nothing is recorded before the recorder is started (context initialization). <br>
+ * Thread-safe.
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class DependencyRecorder {
+
+	private final Set<String> entities = new ConcurrentSkipListSet<>();
+
+	private final Set<String> files = new ConcurrentSkipListSet<>();
+
+	private volatile boolean entitiesList = false ;
+
+	private volatile boolean selection = false ; // v 4.2.0
+
+	private volatile boolean active = false ;
+
+	/**
+	 * Starts the recording (to be called just before the rendering)
+	 */
+	public void start() {
+		active = true ;
+	}
+
+	/**
+	 * Stops the recording
+	 */
+	public void stop() {
+		active = false ;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Records an entity read by the template 
+	 * @param entityClassName the entity class name in the model
+	 */
+	public void recordEntity(String entityClassName) {
+		if ( active && entityClassName != null ) {
+			entities.add(entityClassName);
+		}
+	}
+
+	/**
+	 * Records a dependency on the list of entities (number of entities, entities names)
+	 */
+	public void recordEntitiesList() {
+		if ( active ) {
+			entitiesList = true ;
+		}
+	}
+
+	/**
+	 * Records a dependency on the entities selected for the generation (selected entities names and order)
+	 */
+	public void recordSelection() { // v 4.2.0
+		if ( active ) {
+			selection = true ;
+		}
+	}
+
+	/**
+	 * Records a file used by the template
+	 * @param fileAbsolutePath
+	 */
+	public void recordFile(String fileAbsolutePath) {
+		if ( active && fileAbsolutePath != null ) {
+			files.add(fileAbsolutePath);
+		}
+	}
+
+	/**
+	 * Returns the entities recorded (sorted names)
+	 * @return
+	 */
+	public Set<String> getEntities() {
+		return Collections.unmodifiableSet(entities);
+	}
+
+	/**
+	 * Returns the files recorded (sorted absolute paths)
+	 * @return
+	 */
+	public Set<String> getFiles() {
+		return Collections.unmodifiableSet(files);
+	}
+
+	/**
+	 * Returns true if a dependency on the list of entities has been recorded
+	 * @return
+	 */
+	public boolean isEntitiesListRecorded() {
+		return entitiesList;
+	}
+
+	/**
+	 * Returns true if a dependency on the entities selection has been recorded
+	 * @return
+	 */
+	public boolean isSelectionRecorded() { // v 4.2.0
+		return selection;
+	}
+}
@@ -0,0 +1,275 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of decoded file contents shared by all the targets of a generation task <br>
+ * Each entry is keyed by the file canonical path and is reused as long as
+ * the file last modification time and length are unchanged. <br>
+ * Files larger than the "mapped read threshold" are decoded from a memory-mapped buffer
+ * (no intermediate stream copy). <br>
+ * The total size of the cached files can be limited ("max cached size"), 
+ * in this case other files are evicted when a new file is loaded and files larger than the limit are never cached. <br>
+ * Thread-safe.
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class FileContentCache {
+
+	public static final long DEFAULT_MAPPED_READ_THRESHOLD = 1024L * 1024L ; // 1 MB
+
+	public static final long NO_SIZE_LIMIT = Long.MAX_VALUE ;
+
+	private final long mappedReadThreshold ;
+
+	private final long maxCachedSize ;
+
+	private final ConcurrentMap<String, CachedFile> cache = new ConcurrentHashMap<>();
+
+	private final AtomicLong cachedSize = new AtomicLong(0);
+
+	/**
+	 * Constructor with default mapped read threshold
+	 */
+	public FileContentCache() {
+		this(DEFAULT_MAPPED_READ_THRESHOLD);
+	}
+
+	/**
+	 * Constructor
+	 * @param mappedReadThreshold file size (in bytes) from which a memory-mapped read is used
+	 */
+	public FileContentCache(long mappedReadThreshold) {
+		this(mappedReadThreshold, NO_SIZE_LIMIT);
+	}
+
+	/**
+	 * Constructor
+	 * @param mappedReadThreshold file size (in bytes) from which a memory-mapped read is used
+	 * @param maxCachedSize maximum total size (in bytes) of the files kept in the cache
+	 */
+	public FileContentCache(long mappedReadThreshold, long maxCachedSize) {
+		super();
+		this.mappedReadThreshold = mappedReadThreshold ;
+		this.maxCachedSize = maxCachedSize ;
+	}
+
+	/**
+	 * Returns all the lines of the given file (from cache if the file is unchanged) <br>
+	 * Bytes are decoded using the UTF-8 charset (as with 'Files.readAllLines')
+	 * @param file
+	 * @return an unmodifiable list of lines
+	 * @throws IOException
+	 */
+	public List<String> getLines(File file) throws IOException {
+		return getCachedFile(file).getLines();
+	}
+
+	/**
+	 * Returns the content of the given file (all the lines, each line terminated by '\n')
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public String getContent(File file) throws IOException {
+		return getCachedFile(file).getContent();
+	}
+
+	/**
+	 * Returns the number of files currently in the cache
+	 * @return
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Returns the total size (in bytes) of the files currently in the cache
+	 * @return
+	 */
+	public long getCachedSize() {
+		return cachedSize.get();
+	}
+
+	/**
+	 * Returns the maximum total size (in bytes) of the files kept in the cache
+	 * @return
+	 */
+	public long getMaxCachedSize() {
+		return maxCachedSize;
+	}
+
+	/**
+	 * Removes all the files from the cache
+	 */
+	public void clear() {
+		for ( Map.Entry<String, CachedFile> entry : cache.entrySet() ) {
+			remove(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private CachedFile getCachedFile(File file) throws IOException {
+		String key = file.getCanonicalPath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		CachedFile cachedFile = cache.get(key);
+		if ( cachedFile != null && cachedFile.isUpToDate(lastModified, length) ) {
+			return cachedFile ;
+		}
+		// Not in cache or file changed => (re)load
+		cachedFile = new CachedFile(lastModified, length, readLines(file, length));
+		if ( length > maxCachedSize ) {
+			// too large to be kept in the cache 
+			return cachedFile ;
+		}
+		CachedFile previous = cache.put(key, cachedFile);
+		cachedSize.addAndGet(previous != null ? length - previous.length : length);
+		evictIfNecessary(key);
+		return cachedFile ;
+	}
+
+	private void remove(String key, CachedFile cachedFile) {
+		if ( cache.remove(key, cachedFile) ) {
+			cachedSize.addAndGet(-cachedFile.length);
+		}
+	}
+
+	/**
+	 * Evicts other files until the cached size is under the limit
+	 * @param keptKey the key of the file to be kept in the cache
+	 */
+	private void evictIfNecessary(String keptKey) {
+		if ( cachedSize.get() <= maxCachedSize ) {
+			return ;
+		}
+		for ( Map.Entry<String, CachedFile> entry : cache.entrySet() ) {
+			if ( cachedSize.get() <= maxCachedSize ) {
+				return ;
+			}
+			if ( ! entry.getKey().equals(keptKey) ) {
+				remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private List<String> readLines(File file, long length) throws IOException {
+		if ( length >= mappedReadThreshold && length <= Integer.MAX_VALUE ) {
+			return readLinesWithMappedBuffer(file, length);
+		}
+		else {
+			return Collections.unmodifiableList(Files.readAllLines(file.toPath()));
+		}
+	}
+
+	/**
+	 * Reads the file through a memory-mapped buffer and splits the decoded characters in lines
+	 * @param file
+	 * @param length
+	 * @return
+	 * @throws IOException
+	 */
+	protected static List<String> readLinesWithMappedBuffer(File file, long length) throws IOException {
+		CharBuffer chars ;
+		try ( FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			// NB : the default decoder action is 'REPORT' (error if malformed input, as 'Files.readAllLines')
+			chars = StandardCharsets.UTF_8.newDecoder().decode(buffer);
+		}
+		return Collections.unmodifiableList(splitLines(chars));
+	}
+
+	/**
+	 * Splits the given characters in lines ( '\n', '\r' or '\r\n' as line terminator )
+	 * @param chars
+	 * @return
+	 */
+	protected static List<String> splitLines(CharSequence chars) {
+		List<String> lines = new ArrayList<>();
+		int length = chars.length();
+		int start = 0 ;
+		int i = 0 ;
+		while ( i < length ) {
+			char c = chars.charAt(i);
+			if ( c == '\n' || c == '\r' ) {
+				lines.add(chars.subSequence(start, i).toString());
+				if ( c == '\r' && i + 1 < length && chars.charAt(i + 1) == '\n' ) {
+					i++;
+				}
+				start = i + 1 ;
+			}
+			i++;
+		}
+		if ( start < length ) {
+			lines.add(chars.subSequence(start, length).toString());
+		}
+		return lines;
+	}
+
+	/**
+	 * Cache entry
+	 */
+	private static class CachedFile {
+		private final long         lastModified ;
+		private final long         length ;
+		private final List<String> lines ;
+		private volatile String    content = null ; // built on first use
+
+		CachedFile(long lastModified, long length, List<String> lines) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.lines = lines;
+		}
+
+		boolean isUpToDate(long lastModified, long length) {
+			return this.lastModified == lastModified && this.length == length ;
+		}
+
+		List<String> getLines() {
+			return lines;
+		}
+
+		String getContent() {
+			String s = content ;
+			if ( s == null ) {
+				StringBuilder sb = new StringBuilder((int) Math.min(length + lines.size(), Integer.MAX_VALUE - 8));
+				for ( String line : lines ) {
+					sb.append(line);
+					sb.append("\n");
+				}
+				s = sb.toString();
+				content = s ;
+			}
+			return s ;
+		}
+	}
+}
@@ -17,6 +17,7 @@ package org.telosys.tools.generator.context.tools;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import org.telosys.tools.generator.context.AttributeInContext;
 import org.telosys.tools.generator.context.EntityInContext;
@@ -29,123 +30,127 @@ import org.telosys.tools.generator.context.EntityInContext;
  */
 public class JdbcRequests {
 	
+	//--- Statements names (keys in the shared cache) v 4.2.0
+	private static final String SELECT                 = "jdbc.select" ;
+	private static final String SELECT_WHERE_PK        = "jdbc.selectWherePK" ;
+	private static final String SELECT_COUNT           = "jdbc.selectCount" ;
+	private static final String SELECT_COUNT_WHERE_PK  = "jdbc.selectCountWherePK" ;
+	private static final String INSERT                 = "jdbc.insert" ;
+	private static final String UPDATE                 = "jdbc.update" ;
+	private static final String DELETE                 = "jdbc.delete" ;
+
     private final EntityInContext          entity;
-    private final List<AttributeInContext> attributesForPrimaryKey ;
-    private final List<AttributeInContext> attributesForSelect ;
-    private final List<AttributeInContext> attributesForInsert ;
-    private final List<AttributeInContext> attributesForUpdate ;
-    		
-    //--- SQL
-    private final String table  ;
-    private final String sqlSelect ;
-    private final String sqlSelectWherePK ;
-    private final String sqlSelectCount ;
-    private final String sqlSelectCountWherePK ;
-    private final String sqlInsert ;
-    private final String sqlUpdate ;
-    private final String sqlDelete ;
+    private final String                   keyPrefix ; // v 4.2.0 (useSchema + naming rules)
+    private final ConcurrentMap<String, String> statements ; // v 4.2.0 (shared by all the generations)
 
+    //--- Attributes (built on first use) v 4.2.0
+    private volatile List<AttributeInContext> attributesForInsert = null ;
+    private volatile List<AttributeInContext> attributesForUpdate = null ;
+    private volatile String table = null ;
+    		
 	/**
-	 * Constructor
+	 * Constructor <br>
+	 * Each SQL request is built on first use and kept in a cache shared by all the generations 
+	 * for the same model entity, the same 'useSchema' flag and the same SQL naming rules ( v 4.2.0 )
 	 * @param entity
 	 * @param useSchema
 	 */
 	public JdbcRequests(EntityInContext entity, boolean useSchema) {
 		super();
 		this.entity = entity ;
-		
-		this.table = entity.getSqlTableName() ; // v 4.1.0
-		this.attributesForPrimaryKey = buildAttributesForPrimaryKey();
-		this.attributesForSelect = buildAttributesForSelect();
-		this.attributesForInsert = buildAttributesForInsert();
-		this.attributesForUpdate = buildAttributesForUpdate();
-				
-        //--- Build the Select requests
-		this.sqlSelect             = buildSqlSelect();
-		this.sqlSelectWherePK      = buildSqlSelectWherePK();
-		this.sqlSelectCount        = buildSqlSelectCount();
-		this.sqlSelectCountWherePK = buildSqlSelectCountWherePK();
-        //--- Build the Insert/Update/Delete requests
-		this.sqlInsert = buildSqlInsert();
-		this.sqlUpdate = buildSqlUpdate();
-		this.sqlDelete = buildSqlDelete();
+		this.keyPrefix = useSchema + "|" + entity.getSqlNamingKey() + "|" ; // v 4.2.0
+		this.statements = ModelFragmentsCache.getFragments(entity.getModelEntity()); // v 4.2.0
+	}
+	
+	private String getStatement(String statementName) { // v 4.2.0
+		String key = keyPrefix + statementName ;
+		String sql = statements.get(key);
+		if ( sql == null ) {
+			sql = buildStatement(statementName);
+			statements.put(key, sql);
+		}
+		return sql ;
 	}
 	
+	private String buildStatement(String statementName) { // v 4.2.0
+		switch ( statementName ) {
+		case SELECT :                return buildSqlSelect();
+		case SELECT_WHERE_PK :       return buildSqlSelectWherePK();
+		case SELECT_COUNT :          return buildSqlSelectCount();
+		case SELECT_COUNT_WHERE_PK : return buildSqlSelectCountWherePK();
+		case INSERT :                return buildSqlInsert();
+		case UPDATE :                return buildSqlUpdate();
+		case DELETE :                return buildSqlDelete();
+		default : 
+			throw new IllegalArgumentException("Unknown statement '" + statementName + "'");
+		}
+	}
 	
     public List<AttributeInContext> getAttributesForPrimaryKey() {
-		return attributesForPrimaryKey;
+		return entity.getKeyAttributes(); // v 4.2.0 (same attributes, no copy)
 	}
 
 
 	public List<AttributeInContext> getAttributesForSelect() {
-		return attributesForSelect;
+		return entity.getAttributes(); // v 4.2.0 (same attributes, no copy)
 	}
 
 
 	public List<AttributeInContext> getAttributesForInsert() {
+		if ( attributesForInsert == null ) {
+			attributesForInsert = buildAttributesForInsert(); // v 4.2.0
+		}
 		return attributesForInsert;
 	}
 
 
 	public List<AttributeInContext> getAttributesForUpdate() {
+		if ( attributesForUpdate == null ) {
+			attributesForUpdate = buildAttributesForUpdate(); // v 4.2.0
+		}
 		return attributesForUpdate;
 	}
 
 
 	public String getTable() {
+		if ( table == null ) {
+			table = entity.getSqlTableName() ; // v 4.2.0
+		}
 		return table;
 	}
 
 
 	public String getSqlSelect() {
-		return sqlSelect;
+		return getStatement(SELECT);
 	}
 
 	public String getSqlSelectWherePK() {
-		return sqlSelectWherePK;
+		return getStatement(SELECT_WHERE_PK);
 	}
 
 	public String getSqlSelectCount() {
-		return sqlSelectCount ;
+		return getStatement(SELECT_COUNT);
 	}
 
 	public String getSqlSelectCountWherePK() {
-		return sqlSelectCountWherePK ;
+		return getStatement(SELECT_COUNT_WHERE_PK);
 	}
 
 	public String getSqlInsert() {
-		return sqlInsert;
+		return getStatement(INSERT);
 	}
 
 
 	public String getSqlUpdate() {
-		return sqlUpdate;
+		return getStatement(UPDATE);
 	}
 
 
 	public String getSqlDelete() {
-		return sqlDelete;
+		return getStatement(DELETE);
 	}
 
 
-	private List<AttributeInContext> buildAttributesForPrimaryKey() {
-        List<AttributeInContext> list = new LinkedList<>();
-        for ( AttributeInContext attribute : entity.getAttributes() ) {
-        	if ( attribute.isKeyElement() ) {
-            	list.add(attribute);
-        	}
-        }
-        return list ;
-    }
-    
-    private List<AttributeInContext> buildAttributesForSelect() {
-        List<AttributeInContext> list = new LinkedList<>();
-        for ( AttributeInContext attribute : entity.getAttributes() ) {
-        	list.add(attribute);
-        }
-        return list ;
-    }
-
     private List<AttributeInContext> buildAttributesForInsert() {
         List<AttributeInContext> list = new LinkedList<>();
         for ( AttributeInContext attribute : entity.getAttributes() ) {
@@ -178,7 +183,7 @@ public class JdbcRequests {
                 sb.append(", ");
             }
             if (bPrefix) {
-                sb.append(this.table + ".");
+                sb.append(getTable() + ".");
             }
             sb.append( attribute.getSqlColumnName() ); // v 4.1.0
             n++;
@@ -201,7 +206,7 @@ public class JdbcRequests {
                 sb.append(" and ");
             }
             if (bPrefix) {
-                sb.append(this.table + ".");
+                sb.append(getTable() + ".");
             }
             sb.append( attribute.getSqlColumnName() + " = ?" ); // v 4.1.0
             n++;
@@ -241,7 +246,7 @@ public class JdbcRequests {
                 sb.append(", ");
             }
             if (bPrefix) {
-                sb.append(this.table + ".");
+                sb.append(getTable() + ".");
             }
             sb.append( attribute.getSqlColumnName() + " = ?" ); // v 4.1.0
             n++;
@@ -257,8 +262,8 @@ public class JdbcRequests {
      * @return
      */
     private String buildSqlSelect() {
-        return "select " + buildColumnsList(this.attributesForSelect, false) 
-        		+ " from " + this.table ;
+        return "select " + buildColumnsList(getAttributesForSelect(), false) 
+        		+ " from " + getTable() ;
     }
 
     /**
@@ -266,9 +271,9 @@ public class JdbcRequests {
      * @return
      */
     private String buildSqlSelectWherePK() {
-        return "select " + buildColumnsList(this.attributesForSelect, false) 
-        		+ " from " + this.table 
-        		+ " where " + whereCriteria(this.attributesForPrimaryKey, false);
+        return "select " + buildColumnsList(getAttributesForSelect(), false) 
+        		+ " from " + getTable() 
+        		+ " where " + whereCriteria(getAttributesForPrimaryKey(), false);
     }
 
     /**
@@ -276,7 +281,7 @@ public class JdbcRequests {
      * @return
      */
     private String buildSqlSelectCount() {
-        return "select count(*) from " + this.table ;
+        return "select count(*) from " + getTable() ;
     }
 
     /**
@@ -284,8 +289,8 @@ public class JdbcRequests {
      * @return
      */
     private String buildSqlSelectCountWherePK() {
-        return "select count(*) from " + this.table 
-        		+ " where " + whereCriteria(this.attributesForPrimaryKey, false);
+        return "select count(*) from " + getTable() 
+        		+ " where " + whereCriteria(getAttributesForPrimaryKey(), false);
     }
 
     //------------------------------------------------------------------------------------
@@ -296,9 +301,9 @@ public class JdbcRequests {
      * @return
      */
     private String buildSqlInsert() {
-        return "insert into " + this.table 
-        		+ " ( " + buildColumnsList(this.attributesForInsert, false)  + " )"
-        		+ " values ( " + buildQuestionMarsks(this.attributesForInsert) + " )";
+        return "insert into " + getTable() 
+        		+ " ( " + buildColumnsList(getAttributesForInsert(), false)  + " )"
+        		+ " values ( " + buildQuestionMarsks(getAttributesForInsert()) + " )";
     }
 
     /**
@@ -307,9 +312,9 @@ public class JdbcRequests {
      */
     private String buildSqlUpdate()
     {
-        return "update " + this.table 
-        		+ " set " + buildSetValuesForUpdate(this.attributesForUpdate, false) 
-        		+ " where " + whereCriteria(this.attributesForPrimaryKey, false);
+        return "update " + getTable() 
+        		+ " set " + buildSetValuesForUpdate(getAttributesForUpdate(), false) 
+        		+ " where " + whereCriteria(getAttributesForPrimaryKey(), false);
     }
 
     /**
@@ -318,8 +323,8 @@ public class JdbcRequests {
      */
     private String buildSqlDelete()
     {
-        return "delete from " + this.table 
-        		+ " where " + whereCriteria(this.attributesForPrimaryKey, false);
+        return "delete from " + getTable() 
+        		+ " where " + whereCriteria(getAttributesForPrimaryKey(), false);
     }
 
 }
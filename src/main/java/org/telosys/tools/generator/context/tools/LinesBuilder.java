@@ -15,10 +15,45 @@
  */
 package org.telosys.tools.generator.context.tools;
 
+import java.io.IOException;
+import java.io.Writer;
+
 public class LinesBuilder {
 	
-	private final StringBuilder sb ;	
+	// Buffer reused by the successive builders of the same thread ( v 4.2.0 )
+	// (a single buffer per thread : a builder created while the buffer is used gets a new buffer)
+	private static final int MAX_POOLED_CAPACITY = 64 * 1024 ;
+	private static final ThreadLocal<StringBuilder[]> pooledBuffer = new ThreadLocal<StringBuilder[]>() {
+		@Override
+		protected StringBuilder[] initialValue() {
+			return new StringBuilder[1];
+		}
+	};
+	
+	private static StringBuilder acquireBuffer() {
+		StringBuilder[] slot = pooledBuffer.get();
+		StringBuilder buffer = slot[0];
+		if ( buffer != null ) {
+			slot[0] = null ; // in use
+			return buffer ;
+		}
+		return new StringBuilder(256);
+	}
+	
+	private static void releaseBuffer(StringBuilder buffer) {
+		if ( buffer.capacity() <= MAX_POOLED_CAPACITY ) {
+			buffer.setLength(0);
+			pooledBuffer.get()[0] = buffer ;
+		}
+	}
+	
+	private StringBuilder sb ; // null when released or in 'writer' mode
+	private String result = null ; // v 4.2.0 (result kept after the release of the buffer)
+	private final Writer writer ; // v 4.2.0 (lines written directly if not null)
+	private IOException writeError = null ; // v 4.2.0
+	private boolean pendingNewLine = false ; // v 4.2.0 ('writer' mode : no '\n' after the last line)
 	private final String indentationValue ;
+	private String[] indentations = new String[8] ; // v 4.2.0 (indentation for each level, built once)
 	
 	/**
 	 * Default constructor (use TABS indentation)
@@ -33,19 +68,63 @@ public class LinesBuilder {
 	 */
 	public LinesBuilder(String indentationValue) {
 		super();
-		this.sb = new StringBuilder() ;
+		this.sb = acquireBuffer() ; // v 4.2.0
+		this.writer = null ;
 		this.indentationValue = indentationValue ;
 	}
 
+	/**
+	 * Constructor for a builder writing the lines directly in the given writer (no intermediate string) <br>
+	 * The last line is written without '\n' (as in 'toString()') <br>
+	 * The writing errors are reported by 'checkWriteError()'
+	 * @param writer
+	 * @param indentationValue
+	 */
+	public LinesBuilder(Writer writer, String indentationValue) { // v 4.2.0
+		super();
+		this.sb = null ;
+		this.writer = writer ;
+		this.indentationValue = indentationValue ;
+	}
+
+	private StringBuilder getBuffer() {
+		if ( sb == null ) {
+			// appending after 'toString()' : continue with the current result
+			sb = new StringBuilder(result != null ? result : "");
+			result = null ;
+		}
+		return sb ;
+	}
+
+	private void write(String indentation, String line) {
+		if ( writeError == null ) {
+			try {
+				if ( pendingNewLine ) {
+					writer.write('\n');
+				}
+				writer.write(indentation);
+				writer.write(line);
+				pendingNewLine = true ;
+			} catch (IOException e) {
+				writeError = e ;
+			}
+		}
+	}
+
 	/**
 	 * Appends the given line after the given indentation string
 	 * @param indentationString  a string to be put before the given line 
 	 * @param line
 	 */
 	public void append(String indentationString, String line) {
-		sb.append( indentationString );
-		sb.append( line );
-		sb.append( "\n" );
+		if ( writer != null ) {
+			write(indentationString, line);
+			return ;
+		}
+		StringBuilder buffer = getBuffer();
+		buffer.append( indentationString );
+		buffer.append( line );
+		buffer.append( "\n" );
 	}
 
 	/**
@@ -54,9 +133,7 @@ public class LinesBuilder {
 	 * @param line
 	 */
 	public void append(int indentationLevel, String line) {
-		sb.append( getIndentationForLevel(indentationLevel) );
-		sb.append( line );
-		sb.append( "\n" );
+		append( getIndentationForLevel(indentationLevel), line );
 	}
 	
 	/**
@@ -65,23 +142,59 @@ public class LinesBuilder {
 	 * @return
 	 */
 	private String getIndentationForLevel(int indentLevel) {
-		StringBuilder sbIndent = new StringBuilder();
-		for ( int level = 0 ; level < indentLevel ; level++ ) {
-			sbIndent.append(this.indentationValue);
+		if ( indentLevel <= 0 ) {
+			return "" ;
+		}
+		if ( indentLevel >= indentations.length ) {
+			String[] array = new String[indentLevel + 8];
+			System.arraycopy(indentations, 0, array, 0, indentations.length);
+			indentations = array ;
+		}
+		String indentation = indentations[indentLevel];
+		if ( indentation == null ) {
+			StringBuilder sbIndent = new StringBuilder();
+			for ( int level = 0 ; level < indentLevel ; level++ ) {
+				sbIndent.append(this.indentationValue);
+			}
+			indentation = sbIndent.toString();
+			indentations[indentLevel] = indentation ;
 		}
-		return sbIndent.toString();
+		return indentation ;
 	}
 
+	/**
+	 * Throws the first error that occurred when writing the lines (if any) 
+	 * @throws IOException
+	 */
+	public void checkWriteError() throws IOException { // v 4.2.0
+		if ( writeError != null ) {
+			throw writeError ;
+		}
+	}
+
+	/**
+	 * Returns the lines (without the last '\n') <br>
+	 * The internal buffer is released (reused by the next builder of the current thread) <br>
+	 * Returns a void string if the lines are written in a writer
+	 */
 	@Override
 	public String toString() {
-		if ( sb.length() > 0 ) {
-			// remove last "\n" if any
-			int last = sb.length() - 1;
-			if ( sb.charAt(last) == '\n' ) {
-				sb.setLength(last);
+		if ( writer != null ) {
+			return "" ;
+		}
+		if ( sb != null ) {
+			if ( sb.length() > 0 ) {
+				// remove last "\n" if any
+				int last = sb.length() - 1;
+				if ( sb.charAt(last) == '\n' ) {
+					sb.setLength(last);
+				}
 			}
+			result = sb.toString();
+			releaseBuffer(sb); // v 4.2.0
+			sb = null ;
 		}
-		return sb.toString();
+		return result;
 	}
 
 }
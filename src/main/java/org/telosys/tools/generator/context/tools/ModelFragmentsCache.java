@@ -0,0 +1,68 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Text fragments (SQL statements, annotations, etc) computed for the elements of a model 
+ * (entities, attributes, links), shared by all the generations using the same model 
+ * (each target has its own context, but the model elements are the same) <br>
+ * The fragments are kept as long as the model element is referenced (weak keys) <br>
+ * The caller is responsible for the fragment keys (they must include all the settings 
+ * used to build the fragment)
+ * 
+ * @author Laurent GUERIN
+ * @since 4.2.0
+ */
+public class ModelFragmentsCache {
+
+	// Key : model element (identity : the model elements do not override 'equals') 
+	private static final Map<Object, ConcurrentMap<String, String>> fragmentsByElement = new WeakHashMap<>();
+
+	private ModelFragmentsCache() {
+		super();
+	}
+
+	/**
+	 * Returns the fragments shared for the given model element (created if not yet existing)
+	 * @param modelElement
+	 * @return
+	 */
+	public static ConcurrentMap<String, String> getFragments(Object modelElement) {
+		synchronized (fragmentsByElement) {
+			ConcurrentMap<String, String> fragments = fragmentsByElement.get(modelElement);
+			if ( fragments == null ) {
+				fragments = new ConcurrentHashMap<>();
+				fragmentsByElement.put(modelElement, fragments);
+			}
+			return fragments ;
+		}
+	}
+
+	/**
+	 * Returns the number of model elements currently in the cache
+	 * @return
+	 */
+	public static int size() {
+		synchronized (fragmentsByElement) {
+			return fragmentsByElement.size();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.runtime.Renderable;
+
+/**
+ * Text written directly in the template output when it is rendered by Velocity <br>
+ * (no intermediate string, useful for large generated blocks) <br>
+ * 'toString()' builds the full text for the other usages
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public abstract class RenderableText implements Renderable {
+
+	/**
+	 * Writes the text in the given writer
+	 * @param writer
+	 * @throws IOException
+	 */
+	public abstract void write(Writer writer) throws IOException ;
+
+	@Override
+	public boolean render(InternalContextAdapter context, Writer writer) throws IOException {
+		write(writer);
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringWriter writer = new StringWriter();
+		try {
+			write(writer);
+		} catch (IOException e) {
+			// not supposed to happen with a StringWriter
+			throw new IllegalStateException("Cannot write text", e);
+		}
+		return writer.toString();
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.context.tools;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of strings used to share a single instance for all the equal strings
+ * (names, types, sizes, etc) of a model in the generator context <br>
+ * Unlike 'String.intern()' the pool is released with the model. <br>
+ * Thread-safe.
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class StringPool {
+
+	private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the pooled instance equal to the given string
+	 * @param s the string (can be null)
+	 * @return the shared instance (or null if the given string is null)
+	 */
+	public String get(String s) {
+		if ( s == null ) {
+			return null ;
+		}
+		if ( s.isEmpty() ) {
+			return "" ;
+		}
+		String pooled = pool.putIfAbsent(s, s);
+		return pooled != null ? pooled : s ;
+	}
+
+	/**
+	 * Returns the number of distinct strings in the pool
+	 * @return
+	 */
+	public int size() {
+		return pool.size();
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.languages;
+
+/**
+ * Factory for a target language ( v 4.2.0 ) <br>
+ * Specific languages can be added by declaring an implementation of this interface 
+ * in a 'META-INF/services/org.telosys.tools.generator.languages.TargetLanguageFactory' file (see 'ServiceLoader') <br>
+ * The factory is created once, it must be lightweight (the language elements are created by 'createTargetLanguage')
+ *  
+ * @author Laurent GUERIN
+ *
+ */
+public interface TargetLanguageFactory {
+
+	/**
+	 * Returns the language name (eg 'JAVA', 'C#', etc), not case sensitive
+	 * @return
+	 */
+	String getLanguageName() ;
+
+	/**
+	 * Creates a new instance of the target language (called for each '$env')
+	 * @return
+	 */
+	TargetLanguage createTargetLanguage() ;
+}
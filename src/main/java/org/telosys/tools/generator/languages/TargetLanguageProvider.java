@@ -15,31 +15,54 @@
  */
 package org.telosys.tools.generator.languages;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 import org.telosys.tools.commons.exception.TelosysRuntimeException;
 import org.telosys.tools.generator.context.EnvInContext;
 
 /**
+ * Target languages provider <br>
+ * Since v 4.2.0 a new instance is created for each '$env' <br>
+ * (no more shared instances with the current '$env' injected => thread-safe) <br>
+ * Since v 4.2.0 the languages are registered in a registry built on first use : 
+ * the Telosys languages and the specific languages found with 'ServiceLoader' (see 'TargetLanguageFactory'). 
+ * The elements of a language (types converter, literal values provider) are created only when the language is used.
  *  
  * @author Laurent GUERIN
  *
  */
 public final class TargetLanguageProvider {
 	
-	private static final HashMap<String, TargetLanguage> languages = new HashMap<>();
+	private static final String CPLUSPLUS  = "C++" ;
+	private static final String CSHARP     = "C#" ;
+	private static final String GO         = "GO" ;
+	private static final String JAVA       = "JAVA" ;
+	private static final String JAVASCRIPT = "JAVASCRIPT" ;
+	private static final String KOTLIN     = "KOTLIN" ;
+	private static final String PHP        = "PHP" ;
+	private static final String PYTHON     = "PYTHON" ;
+	private static final String SCALA      = "SCALA" ;
+	private static final String TYPESCRIPT = "TYPESCRIPT" ;
 	
-	static {
-		languages.put("C++",        new TargetLanguageForCPlusPlus() );
-		languages.put("C#",         new TargetLanguageForCSharp() );
-		languages.put("GO",         new TargetLanguageForGo() );
-		languages.put("JAVA",       new TargetLanguageForJava() );
-		languages.put("JAVASCRIPT", new TargetLanguageForJavaScript() );
-		languages.put("KOTLIN",     new TargetLanguageForKotlin() );
-		languages.put("PHP",        new TargetLanguageForPHP() );
-		languages.put("PYTHON",     new TargetLanguageForPython() );
-		languages.put("SCALA",      new TargetLanguageForScala() );
-		languages.put("TYPESCRIPT", new TargetLanguageForTypeScript() );
+	private static final int MAX_SERVICE_ERRORS = 100 ;
+	
+	private static final String[] TELOSYS_LANGUAGES = { 
+			CPLUSPLUS, CSHARP, GO, JAVA, JAVASCRIPT, KOTLIN, PHP, PYTHON, SCALA, TYPESCRIPT } ;
+	
+	/**
+	 * Registry holder : the registry is built on first use only ( v 4.2.0 )
+	 */
+	private static final class Registry {
+		private static final Map<String, TargetLanguageFactory> factories = buildRegistry();
+		private Registry() {
+		}
 	}
 	
 	/**
@@ -48,6 +71,71 @@ public final class TargetLanguageProvider {
 	private TargetLanguageProvider() {
 	}
 
+	/**
+	 * Factory for a language defined in Telosys 
+	 */
+	private static final class TelosysLanguageFactory implements TargetLanguageFactory { // v 4.2.0
+		private final String languageKey ;
+		private TelosysLanguageFactory(String languageKey) {
+			this.languageKey = languageKey ;
+		}
+		@Override
+		public String getLanguageName() {
+			return languageKey ;
+		}
+		@Override
+		public TargetLanguage createTargetLanguage() {
+			return createTelosysTargetLanguage(languageKey);
+		}
+	}
+	
+	/**
+	 * Builds the registry with the Telosys languages and the specific languages 
+	 * @return
+	 */
+	private static Map<String, TargetLanguageFactory> buildRegistry() { // v 4.2.0
+		Map<String, TargetLanguageFactory> map = new LinkedHashMap<>();
+		for ( String languageKey : TELOSYS_LANGUAGES ) {
+			map.put(languageKey, new TelosysLanguageFactory(languageKey));
+		}
+		ClassLoader classLoader = TargetLanguageProvider.class.getClassLoader();
+		registerSpecificLanguages(map, classLoader);
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		if ( contextClassLoader != null && contextClassLoader != classLoader ) {
+			registerSpecificLanguages(map, contextClassLoader);
+		}
+		return Collections.unmodifiableMap(map);
+	}
+	
+	/**
+	 * Registers the specific languages found by 'ServiceLoader' (the Telosys languages cannot be replaced)
+	 * @param map
+	 * @param classLoader
+	 */
+	private static void registerSpecificLanguages(Map<String, TargetLanguageFactory> map, ClassLoader classLoader) { // v 4.2.0
+		Iterator<TargetLanguageFactory> iterator = ServiceLoader.load(TargetLanguageFactory.class, classLoader).iterator();
+		int errors = 0 ;
+		while ( errors < MAX_SERVICE_ERRORS ) {
+			TargetLanguageFactory factory ;
+			try {
+				if ( ! iterator.hasNext() ) {
+					break ;
+				}
+				factory = iterator.next();
+			} catch (ServiceConfigurationError e) {
+				errors++ ; // invalid declaration or factory : ignored
+				continue ; 
+			}
+			String languageName = factory.getLanguageName();
+			if ( languageName != null ) {
+				String languageKey = getLanguageKey(languageName);
+				if ( languageKey.length() > 0 && ! map.containsKey(languageKey) ) {
+					map.put(languageKey, factory);
+				}
+			}
+		}
+	}
+
 	/** 
 	 * Return the unique key for the given langauge name
 	 * @param languageName
@@ -63,13 +151,21 @@ public final class TargetLanguageProvider {
 	 * @return
 	 */
 	public static boolean isDefinedLanguage(String languageName) {
-		return languages.get(getLanguageKey(languageName)) != null ;
+		return Registry.factories.containsKey(getLanguageKey(languageName)) ;
+	}
+	
+	/**
+	 * Returns the names of all the languages (Telosys languages and specific languages)
+	 * @return
+	 */
+	public static List<String> getLanguageNames() { // v 4.2.0
+		return new ArrayList<>(Registry.factories.keySet());
 	}
 	
 	/**
-	 * Returns the TargetLanguage for the language define in the given environment 
+	 * Returns a new TargetLanguage instance for the language define in the given environment 
 	 * Java TargetLanguage is the default language if the given name is unknown 
-	 * @param languageName
+	 * @param env
 	 * @return
 	 */
 	public static TargetLanguage getTargetLanguage(EnvInContext env) {
@@ -84,7 +180,7 @@ public final class TargetLanguageProvider {
 	}
 
 	/**
-	 * Returns the TargetLanguage for the given language name 
+	 * Returns a new TargetLanguage for the given language name 
 	 * Java is the default language if the given name is null or void
 	 * @param languageName
 	 * @return the target language (never null, exception if unknown language)
@@ -93,33 +189,55 @@ public final class TargetLanguageProvider {
 		if (languageName != null) {
 			String languageKey = getLanguageKey(languageName);
 			if ( languageKey.length() > 0 ) {
-				TargetLanguage targetLanguage = languages.get( languageKey );
-				if ( targetLanguage != null ) {
-					// Target language found 
-					return targetLanguage ;
-				}
-				else {
-					throw new TelosysRuntimeException("Unknown target language : '" + languageKey + "'") ;
-				}
+				return createTargetLanguage( languageKey );
 			}
 			else {
 				// Language is blanc or void 
-				return getDefaultTargetLanguage();
+				return createTelosysTargetLanguage( JAVA );
 			}
 		}
 		else {
 			// Language is null 
-			return getDefaultTargetLanguage();
+			return createTelosysTargetLanguage( JAVA );
 		}
 	}
 	
-	private static TargetLanguage getDefaultTargetLanguage() {
-		TargetLanguage targetLanguage = languages.get( "JAVA" );
-		if ( targetLanguage != null ) {
-			return targetLanguage;
+	private static TargetLanguage createTargetLanguage(String languageKey) { // v 4.2.0
+		TargetLanguageFactory factory = Registry.factories.get(languageKey);
+		if ( factory == null ) {
+			throw new TelosysRuntimeException("Unknown target language : '" + languageKey + "'") ;
 		}
-		else {
-			throw new TelosysRuntimeException("Cannot get default target language (JAVA)") ;
+		TargetLanguage targetLanguage = factory.createTargetLanguage();
+		if ( targetLanguage == null ) {
+			throw new TelosysRuntimeException("No target language created for '" + languageKey + "'") ;
+		}
+		return targetLanguage ;
+	}
+	
+	private static TargetLanguage createTelosysTargetLanguage(String languageKey) { // v 4.2.0
+		switch ( languageKey ) {
+		case CPLUSPLUS :
+			return new TargetLanguageForCPlusPlus();
+		case CSHARP :
+			return new TargetLanguageForCSharp();
+		case GO :
+			return new TargetLanguageForGo();
+		case JAVA :
+			return new TargetLanguageForJava();
+		case JAVASCRIPT :
+			return new TargetLanguageForJavaScript();
+		case KOTLIN :
+			return new TargetLanguageForKotlin();
+		case PHP :
+			return new TargetLanguageForPHP();
+		case PYTHON :
+			return new TargetLanguageForPython();
+		case SCALA :
+			return new TargetLanguageForScala();
+		case TYPESCRIPT :
+			return new TargetLanguageForTypeScript();
+		default :
+			throw new TelosysRuntimeException("Unknown target language : '" + languageKey + "'") ;
 		}
 	}
 //	/**
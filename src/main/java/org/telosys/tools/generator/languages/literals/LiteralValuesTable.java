@@ -0,0 +1,121 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.languages.literals;
+
+import org.telosys.tools.generator.languages.types.LanguageType;
+
+/**
+ * Table of N rows of literal values for a set of columns (attributes) <br>
+ * The values are stored by column (one array of values for each column) <br>
+ * and each column is generated only when it is used for the first time. <br>
+ * The row 'i' is generated with the step 'firstStep + i' (same values as with 'generateLiteralValue')
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class LiteralValuesTable {
+
+	private final LiteralValuesProvider literalValuesProvider ;
+	private final LanguageType[]        languageTypes ;
+	private final int[]                 maxLengths ;
+	private final int                   rowCount ;
+	private final int                   firstStep ;
+
+	private final LiteralValue[][]      columns ; // each column is built on first use
+
+	/**
+	 * Constructor
+	 * @param literalValuesProvider
+	 * @param languageTypes language type for each column
+	 * @param maxLengths max length for each column
+	 * @param rowCount number of rows
+	 * @param firstStep step used for the first row
+	 */
+	public LiteralValuesTable(LiteralValuesProvider literalValuesProvider,
+			LanguageType[] languageTypes, int[] maxLengths, int rowCount, int firstStep) {
+		super();
+		if ( languageTypes.length != maxLengths.length ) {
+			throw new IllegalArgumentException("Inconsistent columns definition");
+		}
+		if ( rowCount < 0 ) {
+			throw new IllegalArgumentException("Invalid rows count " + rowCount);
+		}
+		this.literalValuesProvider = literalValuesProvider;
+		this.languageTypes = languageTypes;
+		this.maxLengths = maxLengths;
+		this.rowCount = rowCount;
+		this.firstStep = firstStep;
+		this.columns = new LiteralValue[languageTypes.length][] ;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public int getFirstStep() {
+		return firstStep;
+	}
+
+	public LiteralValuesProvider getLiteralValuesProvider() {
+		return literalValuesProvider;
+	}
+
+	/**
+	 * Returns the literal value for the given row and column
+	 * @param row row index (0 to N-1)
+	 * @param column column index
+	 * @return
+	 */
+	public LiteralValue getLiteralValue(int row, int column) {
+		if ( row < 0 || row >= rowCount ) {
+			throw new IndexOutOfBoundsException("Invalid row index " + row);
+		}
+		return getColumn(column)[row];
+	}
+
+	/**
+	 * Returns all the values of the given column (generated on first call)
+	 * @param column column index
+	 * @return
+	 */
+	public LiteralValue[] getColumn(int column) {
+		LiteralValue[] values = columns[column] ;
+		if ( values == null ) {
+			values = new LiteralValue[rowCount];
+			LanguageType languageType = languageTypes[column];
+			int maxLength = maxLengths[column];
+			for ( int i = 0 ; i < rowCount ; i++ ) {
+				values[i] = literalValuesProvider.generateLiteralValue(languageType, maxLength, firstStep + i);
+			}
+			// NB : concurrent calls can build the same column twice (same values)
+			columns[column] = values ;
+		}
+		return values ;
+	}
+
+	/**
+	 * Returns true if the given column has already been generated
+	 * @param column
+	 * @return
+	 */
+	public boolean isColumnGenerated(int column) {
+		return columns[column] != null ;
+	}
+}
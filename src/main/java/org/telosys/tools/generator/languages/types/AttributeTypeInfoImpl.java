@@ -48,6 +48,25 @@ public class AttributeTypeInfoImpl implements AttributeTypeInfo {
 		this.unsignedTypeExpected  = attribute.isUnsignedTypeExpected();
 	}
 
+	/**
+	 * Constructor
+	 * 
+	 * @param neutralType
+	 * @param notNull
+	 * @param primitiveTypeExpected
+	 * @param objectTypeExpected
+	 * @param unsignedTypeExpected
+	 */
+	public AttributeTypeInfoImpl(String neutralType, boolean notNull, 
+			boolean primitiveTypeExpected, boolean objectTypeExpected, boolean unsignedTypeExpected) { // v 4.2.0
+		super();
+		this.neutralType           = neutralType;
+		this.notNull               = notNull;
+		this.primitiveTypeExpected = primitiveTypeExpected;
+		this.objectTypeExpected    = objectTypeExpected;
+		this.unsignedTypeExpected  = unsignedTypeExpected;
+	}
+
 	@Override
 	public String getNeutralType() {
 		return neutralType;
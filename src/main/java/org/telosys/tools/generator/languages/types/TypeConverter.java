@@ -17,11 +17,15 @@ package org.telosys.tools.generator.languages.types;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.logger.ConsoleLogger;
 import org.telosys.tools.generator.context.EnvInContext;
 import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.types.NeutralType;
 
 /**
  * Abstract type converter <br>
@@ -51,6 +55,109 @@ public abstract class TypeConverter {
 //	private String specificCollectionFullType   = null ;
 //	private String specificCollectionSimpleType = null ;
 	
+	//--------------------------------------------------------------------------------------------
+	// Precomputed types table ( v 4.2.0 )
+	//--------------------------------------------------------------------------------------------
+	// All the known neutral types (the position in this array is the 'neutral type index')
+	private static final String[] NEUTRAL_TYPES = { 
+			NeutralType.STRING, NeutralType.BOOLEAN, NeutralType.BYTE, NeutralType.SHORT, NeutralType.INTEGER, 
+			NeutralType.LONG, NeutralType.FLOAT, NeutralType.DOUBLE, NeutralType.DECIMAL, 
+			NeutralType.DATE, NeutralType.TIME, NeutralType.TIMESTAMP, NeutralType.TIMESTAMPZ, NeutralType.BINARY } ;
+	// Neutral type index for each neutral type (read-only after class initialization)
+	private static final Map<String, Integer> NEUTRAL_TYPES_INDEX = new HashMap<>();
+	static {
+		for ( int i = 0 ; i < NEUTRAL_TYPES.length ; i++ ) {
+			NEUTRAL_TYPES_INDEX.put(NEUTRAL_TYPES[i], i);
+		}
+	}
+	
+	private static final int NOT_NULL      = 1 ;
+	private static final int PRIMITIVE     = 2 ;
+	private static final int OBJECT        = 4 ;
+	private static final int UNSIGNED      = 8 ;
+	private static final int NULLABLE_MARK = 16 ; // '$env.typeWithNullableMark'
+	private static final int FLAGS_COMBINATIONS = 32 ;
+	
+	// Types for each neutral type and each flags combination ( index = neutralTypeIndex * 32 + flags )
+	private volatile LanguageType[] typesTable = null ;
+	// Tables shared by all the instances of the same converter class (the types depend only on the class)
+	private static final ConcurrentMap<Class<?>, LanguageType[]> sharedTypesTables = new ConcurrentHashMap<>();
+	// Forced 'nullable mark' value used only when the table is built 
+	private Boolean nullableMarkForTable = null ;
+	
+	/**
+	 * Returns the index of the given neutral type (or -1 if unknown)
+	 * @param neutralType
+	 * @return
+	 */
+	protected static int getNeutralTypeIndex(String neutralType) {
+		if ( neutralType != null ) {
+			Integer index = NEUTRAL_TYPES_INDEX.get(neutralType);
+			if ( index != null ) {
+				return index ;
+			}
+		}
+		return -1 ;
+	}
+	
+	/**
+	 * Returns all the known neutral types 
+	 * @return
+	 */
+	public static String[] getNeutralTypes() {
+		return NEUTRAL_TYPES.clone();
+	}
+	
+	private static int getFlags(AttributeTypeInfo attributeTypeInfo, boolean nullableMark) {
+		int flags = 0 ;
+		if ( attributeTypeInfo.isNotNull() ) flags |= NOT_NULL ;
+		if ( attributeTypeInfo.isPrimitiveTypeExpected() ) flags |= PRIMITIVE ;
+		if ( attributeTypeInfo.isObjectTypeExpected() ) flags |= OBJECT ;
+		if ( attributeTypeInfo.isUnsignedTypeExpected() ) flags |= UNSIGNED ;
+		if ( nullableMark ) flags |= NULLABLE_MARK ;
+		return flags ;
+	}
+	
+	private boolean isNullableMarkActive() {
+		if ( nullableMarkForTable != null ) {
+			return nullableMarkForTable.booleanValue() ;
+		}
+		return env != null && env.getTypeWithNullableMark() ;
+	}
+	
+	/**
+	 * Builds the types table by computing the type for each neutral type and each flags combination <br>
+	 * Must be called at the end of the constructor (when all the types are declared)
+	 */
+	protected final void buildTypesTable() {
+		LanguageType[] sharedTable = sharedTypesTables.get(this.getClass());
+		if ( sharedTable != null ) {
+			// already built for another instance 
+			typesTable = sharedTable ;
+			return ;
+		}
+		LanguageType[] table = new LanguageType[NEUTRAL_TYPES.length * FLAGS_COMBINATIONS];
+		try {
+			for ( int i = 0 ; i < NEUTRAL_TYPES.length ; i++ ) {
+				for ( int flags = 0 ; flags < FLAGS_COMBINATIONS ; flags++ ) {
+					nullableMarkForTable = ( flags & NULLABLE_MARK ) != 0 ;
+					AttributeTypeInfo typeInfo = new AttributeTypeInfoImpl(NEUTRAL_TYPES[i], 
+							( flags & NOT_NULL ) != 0, ( flags & PRIMITIVE ) != 0, 
+							( flags & OBJECT ) != 0, ( flags & UNSIGNED ) != 0 );
+					try {
+						table[ i * FLAGS_COMBINATIONS + flags ] = computeType(typeInfo);
+					} catch (TelosysTypeNotFoundException e) {
+						// no type => keep null (computed again and error raised when used)
+					}
+				}
+			}
+		} finally {
+			nullableMarkForTable = null ;
+		}
+		sharedTable = sharedTypesTables.putIfAbsent(this.getClass(), table);
+		typesTable = sharedTable != null ? sharedTable : table ;
+	}
+	
 	/**
 	 * Constructor
 	 * @param languageName
@@ -187,11 +294,34 @@ public abstract class TypeConverter {
 	// Get type for attribute or attribute info 
 	//--------------------------------------------------------------------------------------------
 	/**
-	 * Returns the LanguageType that suits as well as possible with the given type information
+	 * Returns the LanguageType that suits as well as possible with the given type information <br>
+	 * Uses the precomputed types table if possible (a single array access)
+	 * @param attributeTypeInfo
+	 * @return 
+	 */
+	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+		LanguageType[] table = typesTable ;
+		if ( table != null ) {
+			int neutralTypeIndex = getNeutralTypeIndex(attributeTypeInfo.getNeutralType());
+			if ( neutralTypeIndex >= 0 ) {
+				int flags = getFlags(attributeTypeInfo, isNullableMarkActive());
+				LanguageType lt = table[ neutralTypeIndex * FLAGS_COMBINATIONS + flags ];
+				if ( lt != null ) {
+					return lt ;
+				}
+			}
+		}
+		// not in table (unknown neutral type, no type or error) 
+		return computeType(attributeTypeInfo);
+	}
+	
+	/**
+	 * Computes the LanguageType that suits as well as possible with the given type information <br>
+	 * (implementation of the type conversion rules for each language) 
 	 * @param attributeTypeInfo
 	 * @return 
 	 */
-	public abstract LanguageType getType(AttributeTypeInfo attributeTypeInfo) ;
+	protected abstract LanguageType computeType(AttributeTypeInfo attributeTypeInfo) ;
 	
 	/**
 	 * Returns the LanguageType that suits as well as possible with the given attribute's characteristics
@@ -266,7 +396,8 @@ public abstract class TypeConverter {
 	 */
 	protected boolean nullableMarkCanBeUsed(AttributeTypeInfo attributeTypeInfo) {
 		// If attribute is nullable and 'typeWithNullableMark' env property is TRUE
-		if ( ( ! attributeTypeInfo.isNotNull() ) && ( getEnv().getTypeWithNullableMark() == true ) ) {
+		boolean typeWithNullableMark = nullableMarkForTable != null ? nullableMarkForTable.booleanValue() : getEnv().getTypeWithNullableMark() ; // v 4.2.0
+		if ( ( ! attributeTypeInfo.isNotNull() ) && typeWithNullableMark ) {
 			// Nullable => nullable type with '?' at the end
 			return true;
 		}
@@ -57,6 +57,9 @@ public class TypeConverterForCPlusPlus extends TypeConverter {
 		declarePrimitiveUnsignedType( buildPrimitiveType(NeutralType.INTEGER, "unsigned int",    "unsigned int"   ) );
 		declarePrimitiveUnsignedType( buildPrimitiveType(NeutralType.LONG,    "unsigned long",   "unsigned long"  ) );
 
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildPrimitiveType(String neutralType, String primitiveType, String wrapperType) {
@@ -75,7 +78,7 @@ public class TypeConverterForCPlusPlus extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		
 		String neutralType = attributeTypeInfo.getNeutralType() ;
 		// Search a "primitive type" first 
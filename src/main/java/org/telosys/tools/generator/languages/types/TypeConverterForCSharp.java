@@ -104,6 +104,9 @@ public class TypeConverterForCSharp extends TypeConverter {
 		unsignedTypes.put( "Int16", buildObjectType(NeutralType.SHORT,   "UInt16",  "System.UInt16" ) );
 		unsignedTypes.put( "Int32", buildObjectType(NeutralType.INTEGER, "UInt32",  "System.UInt32" ) );
 		unsignedTypes.put( "Int64", buildObjectType(NeutralType.LONG,    "UInt64",  "System.UInt64" ) );
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildPrimitiveType(String neutralType, String primitiveType, String wrapperType) {
@@ -126,7 +129,7 @@ public class TypeConverterForCSharp extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {		
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {		
 		// Get the standard type 
 		LanguageType languageType = getStandardType(attributeTypeInfo);
 		
@@ -56,6 +56,9 @@ public class TypeConverterForGo extends TypeConverter {
 		declareObjectType( buildObjectType(NeutralType.DATE,      "time.Time" ) );
 		declareObjectType( buildObjectType(NeutralType.TIME,      "time.Time" ) );
 		declareObjectType( buildObjectType(NeutralType.TIMESTAMP, "time.Time" ) );
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildPrimitiveType(String neutralType, String type) {
@@ -78,7 +81,7 @@ public class TypeConverterForGo extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		
 		String neutralType = attributeTypeInfo.getNeutralType() ;
 		// Search a "primitive type" first 
@@ -75,6 +75,9 @@ public class TypeConverterForJava extends TypeConverter {
 		declarePrimitiveType( buildJavaType(NeutralType.BINARY,  byte[].class) );
 		
 		//--- Unsigned primitive types : No unsigned primitive types in Java
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildJavaType(String neutralType, Class<?> clazz) {
@@ -139,7 +142,7 @@ public class TypeConverterForJava extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		
 		log("type info : " + attributeTypeInfo );
 		
@@ -84,6 +84,9 @@ public class TypeConverterForKotlin extends TypeConverter {
 		unsignedTypes.put( KOTLIN_SHORT, buildPrimitiveType(NeutralType.SHORT,   KOTLIN_USHORT ) );
 		unsignedTypes.put( KOTLIN_INT,   buildPrimitiveType(NeutralType.INTEGER, KOTLIN_UINT   ) );
 		unsignedTypes.put( KOTLIN_LONG,  buildPrimitiveType(NeutralType.LONG,    KOTLIN_ULONG  ) );
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildPrimitiveType(String neutralType, String primitiveType)  {
@@ -114,7 +117,7 @@ public class TypeConverterForKotlin extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		
 //		// Search first in primitive types (with optionally "unsigned option" )
 //		LanguageType lt = getPrimitiveType(attributeTypeInfo.getNeutralType(), attributeTypeInfo.isUnsignedTypeExpected() ) ; 
@@ -51,6 +51,9 @@ public class TypeConverterForPHP extends TypeConverter {
 		declareObjectType( buildObjectType(NeutralType.TIMESTAMP, "DateTime", "DateTime" ) );  
 		
 		declareObjectType( buildObjectType(NeutralType.BINARY,    "", "" ) ); 		
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 	
 	private LanguageType buildPrimitiveType(String neutralType, String primitiveType)  {
@@ -78,7 +81,7 @@ public class TypeConverterForPHP extends TypeConverter {
 	}
 	
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		// Get the standard type 
 		LanguageType languageType = getStandardType(attributeTypeInfo);
 		
@@ -45,6 +45,9 @@ public class TypeConverterForPython extends TypeConverter {
 		declarePrimitiveType( buildType(NeutralType.TIME ) );
 		declarePrimitiveType( buildType(NeutralType.TIMESTAMP ) );
 		declarePrimitiveType( buildType(NeutralType.BINARY ) ); 		
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 	private LanguageType buildType(String neutralType) {
 		return new LanguageType(neutralType, 
@@ -63,7 +66,7 @@ public class TypeConverterForPython extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		log("type info : " + attributeTypeInfo );		
 		// Return always the same "void" type
 //		return new LanguageType(attributeTypeInfo.getNeutralType(),
@@ -57,6 +57,9 @@ public class TypeConverterForScala extends TypeConverter {
 		declareObjectType( buildObjectType(NeutralType.DATE,      "LocalDate",     "java.time.LocalDate" ) );
 		declareObjectType( buildObjectType(NeutralType.TIME,      "LocalTime",     "java.time.LocalTime" ) );
 		declareObjectType( buildObjectType(NeutralType.TIMESTAMP, "LocalDateTime", "java.time.LocalDateTime" ) );
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildPrimitiveType(String neutralType, String primitiveType) {
@@ -79,7 +82,7 @@ public class TypeConverterForScala extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		
 		String neutralType = attributeTypeInfo.getNeutralType() ;
 		// Search a "primitive type" first 
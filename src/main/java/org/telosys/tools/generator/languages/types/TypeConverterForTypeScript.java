@@ -77,6 +77,9 @@ public class TypeConverterForTypeScript extends TypeConverter {
 		// No unsigned types
 //		declarePrimitiveUnsignedType(NeutralType.SHORT,   buildPrimitiveType("ushort", "System.UInt16" ) );
 		
+		
+		//--- Precomputed types table (v 4.2.0)
+		buildTypesTable();
 	}
 
 	private LanguageType buildPrimitiveType(String neutralType, String primitiveType, String wrapperType) {
@@ -130,7 +133,7 @@ public class TypeConverterForTypeScript extends TypeConverter {
 	}
 
 	@Override
-	public LanguageType getType(AttributeTypeInfo attributeTypeInfo) {
+	protected LanguageType computeType(AttributeTypeInfo attributeTypeInfo) {
 		log("type info : " + attributeTypeInfo );
 		
 		LanguageType lt ;
@@ -0,0 +1,223 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Snapshot of the destination folder tree ( v 4.2.0 ) <br>
+ * All the files and folders are read with a single walk in the file system (path, size, last modified time) <br>
+ * then the existence checks are answered from memory and the snapshot is updated for each file written <br>
+ * Useful when each file system access is expensive (e.g. network file system) <br>
+ * 
+ * NB : the files written by other processes after the snapshot are not seen, 
+ * and the existing files are supposed to be writable (a write error is still reported by the write operation)
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class DestinationSnapshot {
+
+	private static final long UNKNOWN = -1 ;
+
+	/**
+	 * File or folder in the snapshot
+	 */
+	public static final class Entry {
+		private final boolean directory ;
+		private final long    size ;
+		private final long    lastModified ;
+
+		private Entry(boolean directory, long size, long lastModified) {
+			this.directory = directory;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+		public boolean isDirectory() {
+			return directory;
+		}
+		/**
+		 * Returns the file size in bytes (or -1 if unknown)
+		 * @return
+		 */
+		public long getSize() {
+			return size;
+		}
+		/**
+		 * Returns the last modified time in milliseconds (or -1 if unknown)
+		 * @return
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+	}
+
+	private static final Entry DIRECTORY = new Entry(true, UNKNOWN, UNKNOWN);
+
+	private final Path root ;
+	private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+
+	private DestinationSnapshot(Path root) {
+		super();
+		this.root = root ;
+	}
+
+	/**
+	 * Takes a snapshot of the given destination folder (single walk in the folder tree)
+	 * @param destinationFolder the destination folder absolute path 
+	 * @return
+	 * @throws IOException
+	 */
+	public static DestinationSnapshot take(String destinationFolder) throws IOException {
+		final DestinationSnapshot snapshot = new DestinationSnapshot(normalize(Paths.get(destinationFolder)));
+		if ( Files.isDirectory(snapshot.root) ) {
+			Files.walkFileTree(snapshot.root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+					snapshot.entries.put(dir, DIRECTORY);
+					return FileVisitResult.CONTINUE;
+				}
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+					snapshot.entries.put(file, new Entry(attributes.isDirectory(), attributes.size(), 
+							attributes.lastModifiedTime().toMillis()));
+					return FileVisitResult.CONTINUE;
+				}
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					return FileVisitResult.CONTINUE; // not readable : ignored
+				}
+			});
+		}
+		return snapshot ;
+	}
+
+	private static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Returns the destination folder of the snapshot
+	 * @return
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Returns the number of files and folders in the snapshot
+	 * @return
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns true if the given file is in the destination folder (the snapshot can answer for this file)
+	 * @param file
+	 * @return
+	 */
+	public boolean covers(File file) {
+		return normalize(file.toPath()).startsWith(root);
+	}
+
+	/**
+	 * Returns the snapshot entry for the given file or folder (or null if not found)
+	 * @param file
+	 * @return
+	 */
+	public Entry getEntry(File file) {
+		return entries.get(normalize(file.toPath()));
+	}
+
+	/**
+	 * Returns true if the given file or folder exists 
+	 * @param file
+	 * @return
+	 */
+	public boolean exists(File file) {
+		return getEntry(file) != null ;
+	}
+
+	/**
+	 * Returns true if the given folder exists 
+	 * @param file
+	 * @return
+	 */
+	public boolean isDirectory(File file) {
+		Entry entry = getEntry(file);
+		return entry != null && entry.isDirectory() ;
+	}
+
+	/**
+	 * Records a new folder and all its parents in the destination folder
+	 * @param directory
+	 */
+	public void directoryCreated(File directory) {
+		Path path = normalize(directory.toPath());
+		while ( path != null && path.startsWith(root) ) {
+			if ( entries.putIfAbsent(path, DIRECTORY) != null ) {
+				break ; // parents already known
+			}
+			path = path.getParent();
+		}
+	}
+
+	/**
+	 * Records a file written (the parent folders are supposed to exist)
+	 * @param file
+	 * @param size the file size in bytes (or -1 if unknown)
+	 */
+	public void fileWritten(File file, long size) {
+		entries.put(normalize(file.toPath()), new Entry(false, size, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Returns the number of bytes of the given string encoded in UTF-8 (without encoding it)
+	 * @param s
+	 * @return
+	 */
+	protected static long utf8Length(String s) {
+		long n = 0 ;
+		int length = s.length();
+		for ( int i = 0 ; i < length ; i++ ) {
+			char c = s.charAt(i);
+			if ( c < 0x80 ) {
+				n++ ;
+			}
+			else if ( c < 0x800 ) {
+				n = n + 2 ;
+			}
+			else if ( Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1)) ) {
+				n = n + 4 ;
+				i++ ;
+			}
+			else {
+				n = n + 3 ;
+			}
+		}
+		return n ;
+	}
+}
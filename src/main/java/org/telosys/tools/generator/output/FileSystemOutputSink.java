@@ -0,0 +1,141 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.telosys.tools.commons.DirUtil;
+import org.telosys.tools.commons.FileUtil;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.GeneratorFileWriter;
+
+/**
+ * Output sink writing the files in the file system (standard behavior) 
+ * 
+ * @author Laurent Guerin
+ *  
+ */
+public class FileSystemOutputSink implements OutputSink {
+
+	private final String destinationFolder ;
+	private final DestinationSnapshot snapshot ; // v 4.2.0 (null if none)
+	
+	/**
+	 * Constructor
+	 * @param destinationFolder the destination folder absolute path (eg "/foo/bar/myproject")
+	 */
+	public FileSystemOutputSink(String destinationFolder) {
+		this(destinationFolder, null);
+	}
+
+	/**
+	 * Constructor with a snapshot of the destination folder (file system checks answered by the snapshot)
+	 * @param destinationFolder the destination folder absolute path (eg "/foo/bar/myproject")
+	 * @param snapshot the destination folder snapshot, updated for each file written (or null if none)
+	 */
+	public FileSystemOutputSink(String destinationFolder, DestinationSnapshot snapshot) { // v 4.2.0
+		super();
+		if ( destinationFolder == null ) {
+			throw new IllegalArgumentException("Destination folder is null");
+		}
+		this.destinationFolder = destinationFolder;
+		this.snapshot = snapshot ;
+	}
+
+	/**
+	 * Returns the destination folder absolute path 
+	 * @return
+	 */
+	public String getDestinationFolder() {
+		return destinationFolder;
+	}
+
+	/**
+	 * Returns the destination folder snapshot (or null if none)
+	 * @return
+	 */
+	public DestinationSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Returns the file in the file system for the given file name
+	 * @param fileName
+	 * @return
+	 */
+	public File getFile(String fileName) {
+		return new File(FileUtil.buildFilePath(destinationFolder, fileName));
+	}
+	
+	private File prepareFile(String fileName) throws GeneratorException {
+		File file = getFile(fileName);
+		if ( snapshot != null && snapshot.covers(file) ) {
+			return prepareFileWithSnapshot(file); // v 4.2.0
+		}
+		//--- Check if it's possible to write the file
+		if ( file.exists() ) {
+			if ( ! file.canWrite() ) {
+				throw new GeneratorException("Cannot write on existing target file '"+ file.toString() + "' !");
+			}
+		}
+		else {
+			File parentFile = file.getParentFile();
+			if ( ! parentFile.exists() ) {
+				// Create the target file directory(ies)
+				DirUtil.createDirectory(parentFile);
+			}
+		}
+		return file ;
+	}
+	
+	private File prepareFileWithSnapshot(File file) throws GeneratorException { // v 4.2.0
+		if ( ! snapshot.exists(file) ) {
+			// existing file supposed to be writable (write error reported by the write operation)
+			File parentFile = file.getParentFile();
+			if ( ! snapshot.isDirectory(parentFile) ) {
+				// Create the target file directory(ies)
+				DirUtil.createDirectory(parentFile);
+				snapshot.directoryCreated(parentFile);
+			}
+		}
+		return file ;
+	}
+	
+	@Override
+	public void writeFile(String fileName, String content) throws GeneratorException {
+		File file = prepareFile(fileName);
+		GeneratorFileWriter.writeGenerationResult(content, file);
+		if ( snapshot != null ) {
+			snapshot.fileWritten(file, DestinationSnapshot.utf8Length(content)); // v 4.2.0
+		}
+	}
+
+	@Override
+	public void writeFile(String fileName, byte[] content) throws GeneratorException {
+		File file = prepareFile(fileName);
+		try {
+			Files.write(file.toPath(), content);
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot write file '"+ file.toString() +"'", e);
+		}
+		if ( snapshot != null ) {
+			snapshot.fileWritten(file, content.length); // v 4.2.0
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.output;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Output sink keeping all the files in memory (useful for tests or services) <br>
+ * A file written twice is replaced. Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *  
+ */
+public class InMemoryOutputSink implements OutputSink {
+
+	private final Map<String, byte[]> files = new LinkedHashMap<>();
+	
+	@Override
+	public synchronized void writeFile(String fileName, String content) {
+		files.put(fileName, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public synchronized void writeFile(String fileName, byte[] content) {
+		files.put(fileName, content.clone());
+	}
+
+	/**
+	 * Returns the names of all the files (in the order of creation)
+	 * @return
+	 */
+	public synchronized List<String> getFileNames() {
+		return new ArrayList<>(files.keySet());
+	}
+
+	/**
+	 * Returns the number of files 
+	 * @return
+	 */
+	public synchronized int getNumberOfFiles() {
+		return files.size();
+	}
+
+	/**
+	 * Returns true if the given file exists
+	 * @param fileName
+	 * @return
+	 */
+	public synchronized boolean hasFile(String fileName) {
+		return files.containsKey(fileName);
+	}
+
+	/**
+	 * Returns the content of the given file (or null if not found)
+	 * @param fileName
+	 * @return
+	 */
+	public synchronized byte[] getFileBytes(String fileName) {
+		byte[] content = files.get(fileName);
+		return content != null ? content.clone() : null ;
+	}
+
+	/**
+	 * Returns the content of the given file as a UTF-8 text (or null if not found)
+	 * @param fileName
+	 * @return
+	 */
+	public synchronized String getFileContent(String fileName) {
+		byte[] content = files.get(fileName);
+		return content != null ? new String(content, StandardCharsets.UTF_8) : null ;
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.output;
+
+import org.telosys.tools.generator.GeneratorException;
+
+/**
+ * Destination of the files produced by the generator (generated files and copied resources) <br>
+ * Each file is identified by its path in the project (eg "src/main/java/org/demo/Car.java") <br>
+ * The implementations must be thread-safe if they are shared by concurrent generations.
+ * 
+ * @author Laurent Guerin
+ *  
+ */
+public interface OutputSink {
+
+	/**
+	 * Writes the given text content (UTF-8) in the given file
+	 * @param fileName the file path in the project ( '/' separator, never starting with '/' )
+	 * @param content
+	 * @throws GeneratorException
+	 */
+	public void writeFile(String fileName, String content) throws GeneratorException ;
+
+	/**
+	 * Writes the given binary content in the given file
+	 * @param fileName the file path in the project ( '/' separator, never starting with '/' )
+	 * @param content
+	 * @throws GeneratorException
+	 */
+	public void writeFile(String fileName, byte[] content) throws GeneratorException ;
+
+}
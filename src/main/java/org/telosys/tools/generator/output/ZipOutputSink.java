@@ -0,0 +1,132 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.output;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.telosys.tools.generator.GeneratorException;
+
+/**
+ * Output sink writing all the files in a single ZIP (or JAR) archive <br>
+ * The archive is written sequentially in a single pass (one entry per file) <br>
+ * As the archive cannot be updated, writing the same file twice is an error. <br>
+ * The archive must be closed at the end of the generation. Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *  
+ */
+public class ZipOutputSink implements OutputSink, Closeable {
+
+	private final ZipOutputStream zipOutputStream ;
+	private final Set<String>     entries = new HashSet<>();
+	private boolean closed = false ;
+	
+	/**
+	 * Constructor for a ZIP archive written in the given stream
+	 * @param outputStream
+	 */
+	public ZipOutputSink(OutputStream outputStream) {
+		this(outputStream, false);
+	}
+
+	/**
+	 * Constructor for a ZIP or JAR archive written in the given stream
+	 * @param outputStream
+	 * @param jar true to write a JAR archive (with a default manifest)
+	 */
+	public ZipOutputSink(OutputStream outputStream, boolean jar) {
+		super();
+		if ( outputStream == null ) {
+			throw new IllegalArgumentException("Output stream is null");
+		}
+		this.zipOutputStream = jar ? buildJarOutputStream(outputStream) : new ZipOutputStream(outputStream) ;
+	}
+
+	/**
+	 * Constructor for a ZIP or JAR archive written in the given file
+	 * @param file
+	 * @param jar true to write a JAR archive (with a default manifest)
+	 * @throws IOException
+	 */
+	public ZipOutputSink(File file, boolean jar) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(file)), jar);
+	}
+
+	private static JarOutputStream buildJarOutputStream(OutputStream outputStream) {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		try {
+			return new JarOutputStream(outputStream, manifest);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot create JAR output stream", e);
+		}
+	}
+	
+	@Override
+	public void writeFile(String fileName, String content) throws GeneratorException {
+		writeFile(fileName, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public synchronized void writeFile(String fileName, byte[] content) throws GeneratorException {
+		if ( closed ) {
+			throw new GeneratorException("Cannot write file '" + fileName + "' : archive closed");
+		}
+		String entryName = fileName.replace('\\', '/');
+		if ( ! entries.add(entryName) ) {
+			throw new GeneratorException("Cannot write file '" + fileName + "' twice in the archive");
+		}
+		try {
+			zipOutputStream.putNextEntry(new ZipEntry(entryName));
+			zipOutputStream.write(content);
+			zipOutputStream.closeEntry();
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot write file '" + fileName + "' in the archive", e);
+		}
+	}
+
+	/**
+	 * Returns the number of files written in the archive 
+	 * @return
+	 */
+	public synchronized int getNumberOfFiles() {
+		return entries.size();
+	}
+
+	/**
+	 * Finishes the archive and closes the underlying stream
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if ( ! closed ) {
+			closed = true ;
+			zipOutputStream.close();
+		}
+	}
+}
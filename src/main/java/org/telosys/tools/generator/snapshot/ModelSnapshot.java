@@ -0,0 +1,235 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.GeneratorVersion;
+import org.telosys.tools.generator.task.ModelFingerprints;
+import org.telosys.tools.generic.model.Model;
+import org.telosys.tools.generic.model.enums.BooleanValue;
+import org.telosys.tools.generic.model.enums.Cardinality;
+import org.telosys.tools.generic.model.enums.DateType;
+import org.telosys.tools.generic.model.enums.FetchType;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
+import org.telosys.tools.generic.model.enums.ModelType;
+import org.telosys.tools.generic.model.enums.Optional;
+
+/**
+ * Binary snapshot of a model ( v 4.2.0 ) <br>
+ * Keeps the model loaded from the model folder in a compact file in order to avoid 
+ * the model parsing for the next generations if the model files are unchanged. <br>
+ * The snapshot stores the values exposed by the generic model interfaces 
+ * (model, entities, attributes, foreign keys, links and tags) 
+ * and the loaded model is made of plain value objects. <br>
+ * 
+ * File format (version 2) : <br>
+ * . header : magic number, format version, generator version, fingerprint of the model folder, body length and checksum <br>
+ * . strings table (each string is stored once), enum values table and tag containers table <br>
+ * . model values and entities index (class name, table name, block length) <br>
+ * . a block for each entity (entity values, attributes, foreign keys and links) <br>
+ * 
+ * The file is memory-mapped and fully validated when loaded, then each entity block is decoded on first use. <br>
+ * The snapshot is ignored if the model files have changed (files list, size or last modified date) 
+ * or if it has been written by another version.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class ModelSnapshot {
+
+	public static final String FILE_SUFFIX = ".snapshot" ;
+
+	static final int MAGIC_NUMBER   = 0x544D5331 ; // "TMS1"
+	static final int FORMAT_VERSION = 2 ;
+
+	//--- Enum types stored in the snapshot (the index is the type stored in the file)
+	private static final Class<?>[] ENUM_TYPES = { 
+			BooleanValue.class, Cardinality.class, DateType.class, FetchType.class, 
+			GeneratedValueStrategy.class, ModelType.class, Optional.class } ;
+
+	/**
+	 * Model parser used when the snapshot cannot be used
+	 */
+	public interface ModelParser {
+		/**
+		 * Parses the model files and returns the model
+		 * @return
+		 * @throws GeneratorException
+		 */
+		Model parseModel() throws GeneratorException ;
+	}
+
+	/**
+	 * Private constructor
+	 */
+	private ModelSnapshot() {
+	}
+
+	/**
+	 * Returns the version written in the snapshot header (format and generator version)
+	 * @return
+	 */
+	static String getSnapshotVersion() {
+		return FORMAT_VERSION + "/" + GeneratorVersion.getVersionWithBuilId() ;
+	}
+
+	static int getEnumType(Class<?> enumClass) {
+		for ( int i = 0 ; i < ENUM_TYPES.length ; i++ ) {
+			if ( ENUM_TYPES[i] == enumClass ) {
+				return i ;
+			}
+		}
+		return -1 ;
+	}
+
+	@SuppressWarnings("unchecked")
+	static Class<? extends Enum<?>> getEnumClass(int enumType) {
+		if ( enumType < 0 || enumType >= ENUM_TYPES.length ) {
+			throw new IllegalArgumentException("Invalid enum type " + enumType);
+		}
+		return (Class<? extends Enum<?>>) ENUM_TYPES[enumType];
+	}
+
+	/**
+	 * Returns the default snapshot file for the given model folder <br>
+	 * (hidden file located in the parent folder : '.model-name.snapshot') 
+	 * @param modelFolder
+	 * @return
+	 */
+	public static File getDefaultFile(File modelFolder) {
+		File folder = modelFolder.getAbsoluteFile();
+		return new File(folder.getParentFile(), "." + folder.getName() + FILE_SUFFIX);
+	}
+
+	/**
+	 * Writes the snapshot of the given model 
+	 * @param model the model loaded from the model folder 
+	 * @param modelFolder the folder containing the model files (used to check if the snapshot is up to date)
+	 * @param snapshotFile the snapshot file to be written 
+	 * @throws GeneratorException if the model cannot be stored or if the file cannot be written
+	 */
+	public static void save(Model model, File modelFolder, File snapshotFile) throws GeneratorException {
+		ModelSnapshotWriter writer = new ModelSnapshotWriter();
+		writer.write(model, getModelFolderFingerprint(modelFolder, snapshotFile), snapshotFile);
+	}
+
+	/**
+	 * Loads the model from the given snapshot file if it is up to date 
+	 * @param snapshotFile
+	 * @param modelFolder the folder containing the model files
+	 * @return the model (entities decoded on first use) or null if no snapshot or obsolete snapshot
+	 * @throws GeneratorException if the file cannot be read or is invalid
+	 */
+	public static Model load(File snapshotFile, File modelFolder) throws GeneratorException {
+		if ( ! snapshotFile.isFile() ) {
+			return null ;
+		}
+		return ModelSnapshotReader.read(snapshotFile, getModelFolderFingerprint(modelFolder, snapshotFile));
+	}
+
+	/**
+	 * Returns the model from the default snapshot file if it is up to date, 
+	 * else parses the model and writes a new snapshot 
+	 * @param modelFolder the folder containing the model files
+	 * @param modelParser the parser used if the snapshot cannot be used
+	 * @return
+	 * @throws GeneratorException if the model cannot be parsed
+	 */
+	public static Model loadOrParse(File modelFolder, ModelParser modelParser) throws GeneratorException {
+		return loadOrParse(getDefaultFile(modelFolder), modelFolder, modelParser);
+	}
+
+	/**
+	 * Returns the model from the snapshot if it is up to date, else parses the model and writes a new snapshot <br>
+	 * After a parsing the model is returned as loaded from the new snapshot (same objects for all the generations) 
+	 * @param snapshotFile
+	 * @param modelFolder the folder containing the model files
+	 * @param modelParser the parser used if the snapshot cannot be used
+	 * @return
+	 * @throws GeneratorException if the model cannot be parsed
+	 */
+	public static Model loadOrParse(File snapshotFile, File modelFolder, ModelParser modelParser) throws GeneratorException {
+		Model model = loadIfValid(snapshotFile, modelFolder);
+		if ( model == null ) {
+			Model parsedModel = modelParser.parseModel();
+			try {
+				save(parsedModel, modelFolder, snapshotFile);
+				model = loadIfValid(snapshotFile, modelFolder);
+			} catch (GeneratorException e) {
+				// snapshot not written : the model will be parsed again for the next generation
+				model = null ;
+			}
+			if ( model == null ) {
+				snapshotFile.delete();
+				model = parsedModel ;
+			}
+		}
+		return model ;
+	}
+
+	private static Model loadIfValid(File snapshotFile, File modelFolder) {
+		try {
+			return load(snapshotFile, modelFolder);
+		} catch (GeneratorException e) {
+			return null ; // invalid snapshot => parsing
+		}
+	}
+
+	/**
+	 * Returns the number of entities already decoded in the given model 
+	 * @param model
+	 * @return the number of decoded entities or -1 if the model has not been loaded from a snapshot
+	 */
+	public static int getNumberOfDecodedEntities(Model model) {
+		if ( model instanceof SnapshotModel ) {
+			return ((SnapshotModel) model).getNumberOfDecodedEntities();
+		}
+		return -1 ;
+	}
+
+	/**
+	 * Returns the fingerprint of all the files located in the given model folder (name, size and last modified date)
+	 * @param modelFolder
+	 * @return
+	 */
+	public static String getModelFolderFingerprint(File modelFolder) {
+		return getModelFolderFingerprint(modelFolder, null);
+	}
+
+	private static String getModelFolderFingerprint(File modelFolder, File excludedFile) {
+		StringBuilder sb = new StringBuilder();
+		appendFiles(sb, modelFolder, "", excludedFile != null ? excludedFile.getAbsoluteFile() : null);
+		return ModelFingerprints.hash(sb.toString());
+	}
+
+	private static void appendFiles(StringBuilder sb, File folder, String path, File excludedFile) {
+		File[] files = folder.listFiles();
+		if ( files != null ) {
+			Arrays.sort(files);
+			for ( File file : files ) {
+				if ( file.isDirectory() ) {
+					appendFiles(sb, file, path + file.getName() + "/", excludedFile);
+				}
+				else if ( ! file.getAbsoluteFile().equals(excludedFile) ) {
+					sb.append(path).append(file.getName()).append('=').append(file.lastModified()).append(':').append(file.length()).append('\n');
+				}
+			}
+		}
+	}
+}
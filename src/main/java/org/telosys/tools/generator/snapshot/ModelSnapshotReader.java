@@ -0,0 +1,399 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.ForeignKeyAttribute;
+import org.telosys.tools.generic.model.ForeignKeyPart;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.LinkAttribute;
+import org.telosys.tools.generic.model.TagContainer;
+import org.telosys.tools.generic.model.enums.BooleanValue;
+import org.telosys.tools.generic.model.enums.Cardinality;
+import org.telosys.tools.generic.model.enums.DateType;
+import org.telosys.tools.generic.model.enums.FetchType;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
+import org.telosys.tools.generic.model.enums.ModelType;
+import org.telosys.tools.generic.model.enums.Optional;
+
+/**
+ * Model snapshot reader ( v 4.2.0 ) <br>
+ * The snapshot file is memory-mapped and fully validated when loaded : 
+ * checksum, strings, enum values, tag containers, model values and entities index. <br>
+ * Each entity block is decoded on first use. <br>
+ * Thread-safe after creation.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class ModelSnapshotReader {
+
+	private final ByteBuffer     buffer ;  // mapped file (never modified, only duplicated)
+	private final String[]       strings ;
+	private final Enum<?>[]      enums ;
+	private final TagContainer[] tagContainers ;
+
+	private ModelSnapshotReader(ByteBuffer buffer, String[] strings, Enum<?>[] enums, TagContainer[] tagContainers) {
+		super();
+		this.buffer = buffer ;
+		this.strings = strings ;
+		this.enums = enums ;
+		this.tagContainers = tagContainers ;
+	}
+
+	/**
+	 * Reads the given snapshot file 
+	 * @param file
+	 * @param fingerprint the current fingerprint of the model folder
+	 * @return the model or null if the snapshot is obsolete (other version or model files changed)
+	 * @throws GeneratorException if the file cannot be read or is invalid
+	 */
+	protected static SnapshotModel read(File file, String fingerprint) throws GeneratorException {
+		ByteBuffer buffer ;
+		try ( FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+			// the mapping remains valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot read model snapshot '" + file + "'", e);
+		}
+		try {
+			if ( buffer.getInt() != ModelSnapshot.MAGIC_NUMBER ) {
+				throw new GeneratorException("Invalid model snapshot '" + file + "' (not a snapshot)");
+			}
+			if ( buffer.getInt() != ModelSnapshot.FORMAT_VERSION 
+					|| ! ModelSnapshot.getSnapshotVersion().equals(readHeaderString(buffer)) 
+					|| ! fingerprint.equals(readHeaderString(buffer)) ) {
+				return null ; // obsolete 
+			}
+			int bodyLength = buffer.getInt();
+			long checksum = buffer.getLong();
+			if ( bodyLength != buffer.remaining() ) {
+				throw new GeneratorException("Invalid model snapshot '" + file + "' (invalid length)");
+			}
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if ( crc.getValue() != checksum ) {
+				throw new GeneratorException("Invalid model snapshot '" + file + "' (invalid checksum)");
+			}
+			//--- Tables 
+			String[] strings = readStrings(buffer);
+			Enum<?>[] enums = readEnums(buffer, strings);
+			TagContainer[] tagContainers = readTagContainers(buffer, strings);
+			ModelSnapshotReader reader = new ModelSnapshotReader(buffer, strings, enums, tagContainers);
+			//--- Model and entities index
+			return reader.readModel(buffer);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException 
+				| ClassCastException e) {
+			throw new GeneratorException("Invalid model snapshot '" + file + "'", e);
+		}
+	}
+
+	private static String readHeaderString(ByteBuffer b) {
+		byte[] bytes = new byte[b.getInt()];
+		b.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static String[] readStrings(ByteBuffer b) {
+		String[] strings = new String[b.getInt()];
+		for ( int i = 0 ; i < strings.length ; i++ ) {
+			byte[] bytes = new byte[b.getInt()];
+			b.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return strings ;
+	}
+
+	private static Enum<?>[] readEnums(ByteBuffer b, String[] strings) {
+		Enum<?>[] enums = new Enum<?>[b.getInt()];
+		for ( int i = 0 ; i < enums.length ; i++ ) {
+			Class<? extends Enum<?>> enumClass = ModelSnapshot.getEnumClass(b.get());
+			enums[i] = toEnum(enumClass, strings[b.getInt()]);
+		}
+		return enums ;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Enum<?> toEnum(Class<? extends Enum<?>> enumClass, String name) {
+		return Enum.valueOf((Class) enumClass, name); // IllegalArgumentException if unknown
+	}
+
+	private static TagContainer[] readTagContainers(ByteBuffer b, String[] strings) {
+		TagContainer[] tagContainers = new TagContainer[b.getInt()];
+		for ( int i = 0 ; i < tagContainers.length ; i++ ) {
+			Map<String, String> tags = new LinkedHashMap<>();
+			int count = b.getInt();
+			for ( int t = 0 ; t < count ; t++ ) {
+				String name = strings[b.getInt()];
+				String value = strings[b.getInt()];
+				tags.put(name, value);
+			}
+			tagContainers[i] = new SnapshotTags(tags);
+		}
+		return tagContainers ;
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Values 
+	//-------------------------------------------------------------------------------------------------
+	private String readString(ByteBuffer b) {
+		int index = b.getInt();
+		return index >= 0 ? strings[index] : null ;
+	}
+
+	private static Integer readInteger(ByteBuffer b) {
+		return b.get() != 0 ? Integer.valueOf(b.getInt()) : null ;
+	}
+
+	private BigDecimal readDecimal(ByteBuffer b) {
+		String s = readString(b);
+		return s != null ? new BigDecimal(s) : null ;
+	}
+
+	private <T extends Enum<T>> T readEnum(ByteBuffer b, Class<T> enumClass) {
+		int index = b.getInt();
+		return index >= 0 ? enumClass.cast(enums[index]) : null ;
+	}
+
+	private TagContainer readTags(ByteBuffer b) {
+		int index = b.getInt();
+		return index >= 0 ? tagContainers[index] : null ;
+	}
+
+	private static boolean flag(int flags, int i) {
+		return ( flags & ( 1 << i ) ) != 0 ;
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Model and entities
+	//-------------------------------------------------------------------------------------------------
+	private SnapshotModel readModel(ByteBuffer b) throws GeneratorException {
+		String name         = readString(b);
+		String folderName   = readString(b);
+		String title        = readString(b);
+		String description  = readString(b);
+		String version      = readString(b);
+		ModelType type      = readEnum(b, ModelType.class);
+		String databaseId   = readString(b);
+		String databaseName = readString(b);
+		String databaseType = readString(b);
+		//--- Entities index : class name, table name and block length
+		int count = b.getInt();
+		String[] classNames = new String[count];
+		String[] tableNames = new String[count];
+		int[] lengths = new int[count];
+		long total = 0 ;
+		for ( int i = 0 ; i < count ; i++ ) {
+			classNames[i] = readString(b);
+			tableNames[i] = readString(b);
+			lengths[i] = b.getInt();
+			if ( classNames[i] == null || lengths[i] < 0 ) {
+				throw new GeneratorException("Invalid model snapshot (entities index)");
+			}
+			total = total + lengths[i] ;
+		}
+		if ( total != b.remaining() ) {
+			throw new GeneratorException("Invalid model snapshot (entities blocks)");
+		}
+		List<SnapshotEntity> entities = new ArrayList<>(count);
+		int position = b.position();
+		for ( int i = 0 ; i < count ; i++ ) {
+			entities.add(new SnapshotEntity(classNames[i], tableNames[i], this, position));
+			position = position + lengths[i] ;
+		}
+		SnapshotModel model = new SnapshotModel(entities);
+		model.name = name ;
+		model.folderName = folderName ;
+		model.title = title ;
+		model.description = description ;
+		model.version = version ;
+		model.type = type ;
+		model.databaseId = databaseId ;
+		model.databaseName = databaseName ;
+		model.databaseType = databaseType ;
+		return model ;
+	}
+
+	/**
+	 * Decodes the entity block located at the given position (called once for each entity)
+	 * @param entity
+	 * @param position
+	 */
+	protected void readEntityBlock(SnapshotEntity entity, int position) {
+		ByteBuffer b = buffer.duplicate();
+		b.position(position);
+		entity.context            = readString(b);
+		entity.databaseCatalog    = readString(b);
+		entity.databaseComment    = readString(b);
+		entity.databaseSchema     = readString(b);
+		entity.databaseTablespace = readString(b);
+		entity.databaseType       = readString(b);
+		entity.domain             = readString(b);
+		entity.packageName        = readString(b);
+		entity.superClass         = readString(b);
+		int flags = b.getInt();
+		entity.abstractEntity     = flag(flags, 0);
+		entity.aggregateRoot      = flag(flags, 1);
+		entity.databaseView       = flag(flags, 2);
+		entity.inMemoryRepository = flag(flags, 3);
+		entity.joinEntity         = flag(flags, 4);
+		entity.readOnly           = flag(flags, 5);
+		entity.tagContainer       = readTags(b);
+		List<Attribute> attributes = new ArrayList<>();
+		for ( int n = b.getInt() ; n > 0 ; n-- ) {
+			attributes.add(readAttribute(b));
+		}
+		entity.attributes = Collections.unmodifiableList(attributes);
+		List<ForeignKey> foreignKeys = new ArrayList<>();
+		for ( int n = b.getInt() ; n > 0 ; n-- ) {
+			foreignKeys.add(readForeignKey(b));
+		}
+		entity.foreignKeys = Collections.unmodifiableList(foreignKeys);
+		List<Link> links = new ArrayList<>();
+		for ( int n = b.getInt() ; n > 0 ; n-- ) {
+			links.add(readLink(b));
+		}
+		entity.links = Collections.unmodifiableList(links);
+	}
+
+	private SnapshotAttribute readAttribute(ByteBuffer b) {
+		SnapshotAttribute attribute = new SnapshotAttribute();
+		attribute.name                 = readString(b);
+		attribute.neutralType          = readString(b);
+		attribute.label                = readString(b);
+		attribute.inputType            = readString(b);
+		attribute.databaseName         = readString(b);
+		attribute.databaseType         = readString(b);
+		attribute.databaseComment      = readString(b);
+		attribute.databaseDefaultValue = readString(b);
+		attribute.defaultValue         = readString(b);
+		attribute.initialValue         = readString(b);
+		attribute.pattern              = readString(b);
+		attribute.size                 = readString(b);
+		attribute.dateAfterValue       = readString(b);
+		attribute.dateBeforeValue      = readString(b);
+		attribute.booleanTrueValue     = readString(b);
+		attribute.booleanFalseValue    = readString(b);
+		attribute.generatedValueSequenceName       = readString(b);
+		attribute.generatedValueTablePkColumnValue = readString(b);
+		attribute.referencedEntityClassName        = readString(b);
+		attribute.maxLength  = readInteger(b);
+		attribute.minLength  = readInteger(b);
+		attribute.precision  = readInteger(b);
+		attribute.scale      = readInteger(b);
+		attribute.generatedValueAllocationSize = readInteger(b);
+		attribute.generatedValueInitialValue   = readInteger(b);
+		attribute.minValue   = readDecimal(b);
+		attribute.maxValue   = readDecimal(b);
+		attribute.dateType   = readEnum(b, DateType.class);
+		attribute.generatedValueStrategy = readEnum(b, GeneratedValueStrategy.class);
+		attribute.insertable = readEnum(b, BooleanValue.class);
+		attribute.updatable  = readEnum(b, BooleanValue.class);
+		int flags = b.getInt();
+		attribute.dateFuture            = flag(flags, 0);
+		attribute.datePast              = flag(flags, 1);
+		attribute.fk                    = flag(flags, 2);
+		attribute.fkComposite           = flag(flags, 3);
+		attribute.fkSimple              = flag(flags, 4);
+		attribute.keyElement            = flag(flags, 5);
+		attribute.longText              = flag(flags, 6);
+		attribute.notBlank              = flag(flags, 7);
+		attribute.notEmpty              = flag(flags, 8);
+		attribute.notNull               = flag(flags, 9);
+		attribute.objectTypeExpected    = flag(flags, 10);
+		attribute.primitiveTypeExpected = flag(flags, 11);
+		attribute.transientAttribute    = flag(flags, 12);
+		attribute.unique                = flag(flags, 13);
+		attribute.unsignedTypeExpected  = flag(flags, 14);
+		attribute.usedInLinks           = flag(flags, 15);
+		attribute.usedInSelectedLinks   = flag(flags, 16);
+		List<ForeignKeyPart> fkParts = new ArrayList<>();
+		for ( int n = b.getInt() ; n > 0 ; n-- ) {
+			String fkName = readString(b);
+			String referencedEntityName = readString(b);
+			String referencedAttributeName = readString(b);
+			fkParts.add(new ForeignKeyPart(fkName, referencedEntityName, referencedAttributeName));
+		}
+		attribute.fkParts = Collections.unmodifiableList(fkParts);
+		attribute.tagContainer = readTags(b);
+		return attribute ;
+	}
+
+	private SnapshotForeignKey readForeignKey(ByteBuffer b) {
+		String name = readString(b);
+		String originEntityName = readString(b);
+		String referencedEntityName = readString(b);
+		boolean explicit = flag(b.getInt(), 0);
+		List<ForeignKeyAttribute> attributes = new ArrayList<>();
+		for ( int n = b.getInt() ; n > 0 ; n-- ) {
+			int ordinal = b.getInt();
+			String originAttributeName = readString(b);
+			String referencedAttributeName = readString(b);
+			attributes.add(new SnapshotForeignKeyAttribute(ordinal, originAttributeName, referencedAttributeName));
+		}
+		return new SnapshotForeignKey(name, originEntityName, referencedEntityName, explicit, 
+				Collections.unmodifiableList(attributes));
+	}
+
+	private SnapshotLink readLink(ByteBuffer b) {
+		SnapshotLink link = new SnapshotLink();
+		link.fieldName            = readString(b);
+		link.joinEntityName       = readString(b);
+		link.mappedBy             = readString(b);
+		link.referencedEntityName = readString(b);
+		link.cardinality          = readEnum(b, Cardinality.class);
+		link.fetchType            = readEnum(b, FetchType.class);
+		link.optional             = readEnum(b, Optional.class);
+		link.insertable           = readEnum(b, BooleanValue.class);
+		link.updatable            = readEnum(b, BooleanValue.class);
+		int flags = b.getInt();
+		link.embedded      = flag(flags, 0);
+		link.orphanRemoval = flag(flags, 1);
+		link.selected      = flag(flags, 2);
+		link.transientLink = flag(flags, 3);
+		if ( b.get() != 0 ) {
+			int cascade = b.getInt();
+			link.cascadeOptions = new SnapshotCascadeOptions(flag(cascade, 0), flag(cascade, 1), flag(cascade, 2), 
+					flag(cascade, 3), flag(cascade, 4), readString(b));
+		}
+		link.tagContainer = readTags(b);
+		List<LinkAttribute> attributes = new ArrayList<>();
+		for ( int n = b.getInt() ; n > 0 ; n-- ) {
+			String originAttributeName = readString(b);
+			String referencedAttributeName = readString(b);
+			attributes.add(new SnapshotLinkAttribute(originAttributeName, referencedAttributeName));
+		}
+		link.attributes = Collections.unmodifiableList(attributes);
+		return link ;
+	}
+}
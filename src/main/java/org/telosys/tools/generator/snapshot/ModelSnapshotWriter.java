@@ -0,0 +1,416 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.CascadeOptions;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.ForeignKeyAttribute;
+import org.telosys.tools.generic.model.ForeignKeyPart;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.LinkAttribute;
+import org.telosys.tools.generic.model.Model;
+import org.telosys.tools.generic.model.TagContainer;
+
+/**
+ * Model snapshot writer ( v 4.2.0 ) <br>
+ * Writes the values exposed by the generic model interfaces with the schema defined in 'ModelSnapshot'. <br>
+ * Not thread-safe (one instance for each snapshot).
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class ModelSnapshotWriter {
+
+	private final Map<String, Integer>       strings = new LinkedHashMap<>();
+	private final Map<Enum<?>, Integer>      enums = new LinkedHashMap<>();
+	private final Map<List<String>, Integer> tagContainers = new LinkedHashMap<>();
+
+	/**
+	 * Writes the snapshot of the given model in the given file (replaced atomically if it exists)
+	 * @param model
+	 * @param fingerprint the fingerprint of the model folder 
+	 * @param file
+	 * @throws GeneratorException if the model cannot be stored or if the file cannot be written
+	 */
+	protected void write(Model model, String fingerprint, File file) throws GeneratorException {
+		try {
+			//--- Model and entities blocks (the tables are filled during the encoding)
+			byte[] modelBlock = encodeModel(model);
+			List<Entity> entities = model.getEntities() != null ? model.getEntities() : new ArrayList<Entity>();
+			List<byte[]> entitiesBlocks = new ArrayList<>();
+			for ( Entity entity : entities ) {
+				entitiesBlocks.add(encodeEntity(entity));
+			}
+			//--- Index 
+			ByteArrayOutputStream index = new ByteArrayOutputStream();
+			DataOutputStream indexOut = new DataOutputStream(index);
+			indexOut.writeInt(entities.size());
+			for ( int i = 0 ; i < entities.size() ; i++ ) {
+				indexOut.writeInt(stringIndex(entities.get(i).getClassName()));
+				indexOut.writeInt(stringIndex(entities.get(i).getDatabaseTable()));
+				indexOut.writeInt(entitiesBlocks.get(i).length);
+			}
+			//--- Body : tables, model, index and entities 
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			DataOutputStream bodyOut = new DataOutputStream(body);
+			writeTables(bodyOut);
+			bodyOut.write(modelBlock);
+			bodyOut.write(index.toByteArray());
+			for ( byte[] block : entitiesBlocks ) {
+				bodyOut.write(block);
+			}
+			bodyOut.flush();
+			writeFile(file, fingerprint, body.toByteArray());
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot write model snapshot '" + file + "'", e);
+		}
+	}
+
+	private void writeTables(DataOutputStream out) throws IOException {
+		//--- Strings
+		out.writeInt(strings.size());
+		for ( String s : strings.keySet() ) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		//--- Enum values : type and name (strings already registered)
+		out.writeInt(enums.size());
+		for ( Enum<?> value : enums.keySet() ) {
+			out.writeByte(ModelSnapshot.getEnumType(value.getDeclaringClass()));
+			out.writeInt(strings.get(value.name()));
+		}
+		//--- Tag containers : number of tags, then name and value of each tag
+		out.writeInt(tagContainers.size());
+		for ( List<String> tags : tagContainers.keySet() ) {
+			out.writeInt(tags.size() / 2);
+			for ( String s : tags ) {
+				out.writeInt(strings.get(s));
+			}
+		}
+	}
+
+	private void writeFile(File file, String fingerprint, byte[] body) throws IOException {
+		File folder = file.getAbsoluteFile().getParentFile();
+		if ( folder != null ) {
+			Files.createDirectories(folder.toPath());
+		}
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		Path tmp = new File(file.getAbsolutePath() + ".tmp").toPath();
+		try ( OutputStream outputStream = Files.newOutputStream(tmp) ; 
+			  DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream)) ) {
+			out.writeInt(ModelSnapshot.MAGIC_NUMBER);
+			out.writeInt(ModelSnapshot.FORMAT_VERSION);
+			writeHeaderString(out, ModelSnapshot.getSnapshotVersion());
+			writeHeaderString(out, fingerprint);
+			out.writeInt(body.length);
+			out.writeLong(crc.getValue());
+			out.write(body);
+		}
+		Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void writeHeaderString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Tables
+	//-------------------------------------------------------------------------------------------------
+	private int stringIndex(String s) {
+		if ( s == null ) {
+			return -1 ;
+		}
+		Integer index = strings.get(s);
+		if ( index == null ) {
+			index = strings.size();
+			strings.put(s, index);
+		}
+		return index ;
+	}
+
+	private int enumIndex(Enum<?> value) throws GeneratorException {
+		if ( value == null ) {
+			return -1 ;
+		}
+		Integer index = enums.get(value);
+		if ( index == null ) {
+			if ( ModelSnapshot.getEnumType(value.getDeclaringClass()) < 0 ) {
+				throw new GeneratorException("Model snapshot : unsupported enum '" + value.getDeclaringClass().getName() + "'");
+			}
+			stringIndex(value.name());
+			index = enums.size();
+			enums.put(value, index);
+		}
+		return index ;
+	}
+
+	private int tagContainerIndex(TagContainer tagContainer) throws GeneratorException {
+		if ( tagContainer == null ) {
+			return -1 ;
+		}
+		List<String> tags = new ArrayList<>();
+		for ( String name : getTagNames(tagContainer) ) {
+			if ( ! tagContainer.containsTag(name) ) {
+				throw new GeneratorException("Model snapshot : cannot read tag '" + name + "'");
+			}
+			String value = tagContainer.getTagValue(name);
+			tags.add(name);
+			tags.add(value != null ? value : "");
+		}
+		Integer index = tagContainers.get(tags);
+		if ( index == null ) {
+			for ( String s : tags ) {
+				stringIndex(s);
+			}
+			index = tagContainers.size();
+			tagContainers.put(tags, index);
+		}
+		return index ;
+	}
+
+	/**
+	 * Returns the names of the tags held by the given container <br>
+	 * The generic model API has no method listing the tags : the names are the keys of the map held by the container
+	 * @param tagContainer
+	 * @return
+	 * @throws GeneratorException if the tags cannot be listed (no snapshot for this model)
+	 */
+	private static List<String> getTagNames(TagContainer tagContainer) throws GeneratorException {
+		for ( Class<?> clazz = tagContainer.getClass() ; clazz != null && clazz != Object.class ; clazz = clazz.getSuperclass() ) {
+			for ( Field field : clazz.getDeclaredFields() ) {
+				if ( ! Modifier.isStatic(field.getModifiers()) && Map.class.isAssignableFrom(field.getType()) ) {
+					List<String> names = new ArrayList<>();
+					try {
+						field.setAccessible(true);
+						Map<?, ?> map = (Map<?, ?>) field.get(tagContainer);
+						if ( map != null ) {
+							for ( Object key : map.keySet() ) {
+								names.add(String.valueOf(key));
+							}
+						}
+					} catch (ReflectiveOperationException | RuntimeException e) {
+						throw new GeneratorException("Model snapshot : cannot list the tags of '" 
+								+ tagContainer.getClass().getName() + "'", e);
+					}
+					return names ;
+				}
+			}
+		}
+		throw new GeneratorException("Model snapshot : cannot list the tags of '" + tagContainer.getClass().getName() + "'");
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Blocks 
+	//-------------------------------------------------------------------------------------------------
+	private void writeString(DataOutputStream out, String s) throws IOException {
+		out.writeInt(stringIndex(s));
+	}
+
+	private void writeInteger(DataOutputStream out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if ( value != null ) {
+			out.writeInt(value);
+		}
+	}
+
+	private void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+		out.writeInt(stringIndex(value != null ? value.toString() : null));
+	}
+
+	private void writeEnum(DataOutputStream out, Enum<?> value) throws IOException, GeneratorException {
+		out.writeInt(enumIndex(value));
+	}
+
+	private void writeTags(DataOutputStream out, TagContainer tagContainer) throws IOException, GeneratorException {
+		out.writeInt(tagContainerIndex(tagContainer));
+	}
+
+	private static void writeFlags(DataOutputStream out, boolean... flags) throws IOException {
+		int bits = 0 ;
+		for ( int i = 0 ; i < flags.length ; i++ ) {
+			if ( flags[i] ) {
+				bits = bits | ( 1 << i ) ;
+			}
+		}
+		out.writeInt(bits);
+	}
+
+	private static int size(List<?> list) {
+		return list != null ? list.size() : 0 ;
+	}
+
+	private byte[] encodeModel(Model model) throws IOException, GeneratorException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeString(out, model.getName());
+		writeString(out, model.getFolderName());
+		writeString(out, model.getTitle());
+		writeString(out, model.getDescription());
+		writeString(out, model.getVersion());
+		writeEnum(out, model.getType());
+		writeString(out, model.getDatabaseId());
+		writeString(out, model.getDatabaseName());
+		writeString(out, model.getDatabaseType());
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private byte[] encodeEntity(Entity entity) throws IOException, GeneratorException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeString(out, entity.getContext());
+		writeString(out, entity.getDatabaseCatalog());
+		writeString(out, entity.getDatabaseComment());
+		writeString(out, entity.getDatabaseSchema());
+		writeString(out, entity.getDatabaseTablespace());
+		writeString(out, entity.getDatabaseType());
+		writeString(out, entity.getDomain());
+		writeString(out, entity.getPackageName());
+		writeString(out, entity.getSuperClass());
+		writeFlags(out, entity.isAbstract(), entity.isAggregateRoot(), entity.isDatabaseView(), 
+				entity.isInMemoryRepository(), entity.isJoinEntity(), entity.isReadOnly());
+		writeTags(out, entity.getTagContainer());
+		out.writeInt(size(entity.getAttributes()));
+		for ( int i = 0 ; i < size(entity.getAttributes()) ; i++ ) {
+			writeAttribute(out, entity.getAttributes().get(i));
+		}
+		out.writeInt(size(entity.getForeignKeys()));
+		for ( int i = 0 ; i < size(entity.getForeignKeys()) ; i++ ) {
+			writeForeignKey(out, entity.getForeignKeys().get(i));
+		}
+		out.writeInt(size(entity.getLinks()));
+		for ( int i = 0 ; i < size(entity.getLinks()) ; i++ ) {
+			writeLink(out, entity.getLinks().get(i));
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private void writeAttribute(DataOutputStream out, Attribute attribute) throws IOException, GeneratorException {
+		writeString(out, attribute.getName());
+		writeString(out, attribute.getNeutralType());
+		writeString(out, attribute.getLabel());
+		writeString(out, attribute.getInputType());
+		writeString(out, attribute.getDatabaseName());
+		writeString(out, attribute.getDatabaseType());
+		writeString(out, attribute.getDatabaseComment());
+		writeString(out, attribute.getDatabaseDefaultValue());
+		writeString(out, attribute.getDefaultValue());
+		writeString(out, attribute.getInitialValue());
+		writeString(out, attribute.getPattern());
+		writeString(out, attribute.getSize());
+		writeString(out, attribute.getDateAfterValue());
+		writeString(out, attribute.getDateBeforeValue());
+		writeString(out, attribute.getBooleanTrueValue());
+		writeString(out, attribute.getBooleanFalseValue());
+		writeString(out, attribute.getGeneratedValueSequenceName());
+		writeString(out, attribute.getGeneratedValueTablePkColumnValue());
+		writeString(out, attribute.getReferencedEntityClassName());
+		writeInteger(out, attribute.getMaxLength());
+		writeInteger(out, attribute.getMinLength());
+		writeInteger(out, attribute.getPrecision());
+		writeInteger(out, attribute.getScale());
+		writeInteger(out, attribute.getGeneratedValueAllocationSize());
+		writeInteger(out, attribute.getGeneratedValueInitialValue());
+		writeDecimal(out, attribute.getMinValue());
+		writeDecimal(out, attribute.getMaxValue());
+		writeEnum(out, attribute.getDateType());
+		writeEnum(out, attribute.getGeneratedValueStrategy());
+		writeEnum(out, attribute.getInsertable());
+		writeEnum(out, attribute.getUpdatable());
+		writeFlags(out, attribute.isDateFuture(), attribute.isDatePast(), attribute.isFK(), 
+				attribute.isFKComposite(), attribute.isFKSimple(), attribute.isKeyElement(), 
+				attribute.isLongText(), attribute.isNotBlank(), attribute.isNotEmpty(), attribute.isNotNull(), 
+				attribute.isObjectTypeExpected(), attribute.isPrimitiveTypeExpected(), attribute.isTransient(), 
+				attribute.isUnique(), attribute.isUnsignedTypeExpected(), attribute.isUsedInLinks(), 
+				attribute.isUsedInSelectedLinks());
+		List<ForeignKeyPart> fkParts = attribute.getFKParts();
+		out.writeInt(size(fkParts));
+		for ( int i = 0 ; i < size(fkParts) ; i++ ) {
+			writeString(out, fkParts.get(i).getFkName());
+			writeString(out, fkParts.get(i).getReferencedEntityName());
+			writeString(out, fkParts.get(i).getReferencedAttributeName());
+		}
+		writeTags(out, attribute.getTagContainer());
+	}
+
+	private void writeForeignKey(DataOutputStream out, ForeignKey foreignKey) throws IOException {
+		writeString(out, foreignKey.getName());
+		writeString(out, foreignKey.getOriginEntityName());
+		writeString(out, foreignKey.getReferencedEntityName());
+		writeFlags(out, foreignKey.isExplicit());
+		List<ForeignKeyAttribute> attributes = foreignKey.getAttributes();
+		out.writeInt(size(attributes));
+		for ( int i = 0 ; i < size(attributes) ; i++ ) {
+			out.writeInt(attributes.get(i).getOrdinal());
+			writeString(out, attributes.get(i).getOriginAttributeName());
+			writeString(out, attributes.get(i).getReferencedAttributeName());
+		}
+	}
+
+	private void writeLink(DataOutputStream out, Link link) throws IOException, GeneratorException {
+		writeString(out, link.getFieldName());
+		writeString(out, link.getJoinEntityName());
+		writeString(out, link.getMappedBy());
+		writeString(out, link.getReferencedEntityName());
+		writeEnum(out, link.getCardinality());
+		writeEnum(out, link.getFetchType());
+		writeEnum(out, link.getOptional());
+		writeEnum(out, link.getInsertable());
+		writeEnum(out, link.getUpdatable());
+		writeFlags(out, link.isEmbedded(), link.isOrphanRemoval(), link.isSelected(), link.isTransient());
+		CascadeOptions cascadeOptions = link.getCascadeOptions();
+		out.writeBoolean(cascadeOptions != null);
+		if ( cascadeOptions != null ) {
+			writeFlags(out, cascadeOptions.isCascadeAll(), cascadeOptions.isCascadeMerge(), cascadeOptions.isCascadePersist(), 
+					cascadeOptions.isCascadeRefresh(), cascadeOptions.isCascadeRemove());
+			writeString(out, cascadeOptions.toString());
+		}
+		writeTags(out, link.getTagContainer());
+		List<LinkAttribute> attributes = link.getAttributes();
+		out.writeInt(size(attributes));
+		for ( int i = 0 ; i < size(attributes) ; i++ ) {
+			writeString(out, attributes.get(i).getOriginAttributeName());
+			writeString(out, attributes.get(i).getReferencedAttributeName());
+		}
+	}
+}
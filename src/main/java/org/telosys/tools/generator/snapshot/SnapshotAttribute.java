@@ -0,0 +1,342 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.ForeignKeyPart;
+import org.telosys.tools.generic.model.TagContainer;
+import org.telosys.tools.generic.model.enums.BooleanValue;
+import org.telosys.tools.generic.model.enums.DateType;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
+
+/**
+ * Attribute loaded from a snapshot ( v 4.2.0 ) <br>
+ * Plain values read from the snapshot file. Immutable after loading.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotAttribute implements Attribute {
+
+	String                 name ;
+	String                 neutralType ;
+	String                 label ;
+	String                 inputType ;
+	String                 databaseName ;
+	String                 databaseType ;
+	String                 databaseComment ;
+	String                 databaseDefaultValue ;
+	String                 defaultValue ;
+	String                 initialValue ;
+	String                 pattern ;
+	String                 size ;
+	String                 dateAfterValue ;
+	String                 dateBeforeValue ;
+	String                 booleanTrueValue ;
+	String                 booleanFalseValue ;
+	String                 generatedValueSequenceName ;
+	String                 generatedValueTablePkColumnValue ;
+	String                 referencedEntityClassName ;
+	Integer                maxLength ;
+	Integer                minLength ;
+	Integer                precision ;
+	Integer                scale ;
+	Integer                generatedValueAllocationSize ;
+	Integer                generatedValueInitialValue ;
+	BigDecimal             minValue ;
+	BigDecimal             maxValue ;
+	DateType               dateType ;
+	GeneratedValueStrategy generatedValueStrategy ;
+	BooleanValue           insertable ;
+	BooleanValue           updatable ;
+	boolean                dateFuture ;
+	boolean                datePast ;
+	boolean                fk ;
+	boolean                fkComposite ;
+	boolean                fkSimple ;
+	boolean                keyElement ;
+	boolean                longText ;
+	boolean                notBlank ;
+	boolean                notEmpty ;
+	boolean                notNull ;
+	boolean                objectTypeExpected ;
+	boolean                primitiveTypeExpected ;
+	boolean                transientAttribute ;
+	boolean                unique ;
+	boolean                unsignedTypeExpected ;
+	boolean                usedInLinks ;
+	boolean                usedInSelectedLinks ;
+	List<ForeignKeyPart>   fkParts ;
+	TagContainer           tagContainer ;
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getNeutralType() {
+		return neutralType;
+	}
+
+	@Override
+	public String getLabel() {
+		return label;
+	}
+
+	@Override
+	public String getInputType() {
+		return inputType;
+	}
+
+	@Override
+	public String getDatabaseName() {
+		return databaseName;
+	}
+
+	@Override
+	public String getDatabaseType() {
+		return databaseType;
+	}
+
+	@Override
+	public String getDatabaseComment() {
+		return databaseComment;
+	}
+
+	@Override
+	public String getDatabaseDefaultValue() {
+		return databaseDefaultValue;
+	}
+
+	@Override
+	public String getDefaultValue() {
+		return defaultValue;
+	}
+
+	@Override
+	public String getInitialValue() {
+		return initialValue;
+	}
+
+	@Override
+	public String getPattern() {
+		return pattern;
+	}
+
+	@Override
+	public String getSize() {
+		return size;
+	}
+
+	@Override
+	public String getDateAfterValue() {
+		return dateAfterValue;
+	}
+
+	@Override
+	public String getDateBeforeValue() {
+		return dateBeforeValue;
+	}
+
+	@Override
+	public String getBooleanTrueValue() {
+		return booleanTrueValue;
+	}
+
+	@Override
+	public String getBooleanFalseValue() {
+		return booleanFalseValue;
+	}
+
+	@Override
+	public String getGeneratedValueSequenceName() {
+		return generatedValueSequenceName;
+	}
+
+	@Override
+	public String getGeneratedValueTablePkColumnValue() {
+		return generatedValueTablePkColumnValue;
+	}
+
+	@Override
+	public String getReferencedEntityClassName() {
+		return referencedEntityClassName;
+	}
+
+	@Override
+	public Integer getMaxLength() {
+		return maxLength;
+	}
+
+	@Override
+	public Integer getMinLength() {
+		return minLength;
+	}
+
+	@Override
+	public Integer getPrecision() {
+		return precision;
+	}
+
+	@Override
+	public Integer getScale() {
+		return scale;
+	}
+
+	@Override
+	public Integer getGeneratedValueAllocationSize() {
+		return generatedValueAllocationSize;
+	}
+
+	@Override
+	public Integer getGeneratedValueInitialValue() {
+		return generatedValueInitialValue;
+	}
+
+	@Override
+	public BigDecimal getMinValue() {
+		return minValue;
+	}
+
+	@Override
+	public BigDecimal getMaxValue() {
+		return maxValue;
+	}
+
+	@Override
+	public DateType getDateType() {
+		return dateType;
+	}
+
+	@Override
+	public GeneratedValueStrategy getGeneratedValueStrategy() {
+		return generatedValueStrategy;
+	}
+
+	@Override
+	public BooleanValue getInsertable() {
+		return insertable;
+	}
+
+	@Override
+	public BooleanValue getUpdatable() {
+		return updatable;
+	}
+
+	@Override
+	public boolean isDateFuture() {
+		return dateFuture;
+	}
+
+	@Override
+	public boolean isDatePast() {
+		return datePast;
+	}
+
+	@Override
+	public boolean isFK() {
+		return fk;
+	}
+
+	@Override
+	public boolean isFKComposite() {
+		return fkComposite;
+	}
+
+	@Override
+	public boolean isFKSimple() {
+		return fkSimple;
+	}
+
+	@Override
+	public boolean isKeyElement() {
+		return keyElement;
+	}
+
+	@Override
+	public boolean isLongText() {
+		return longText;
+	}
+
+	@Override
+	public boolean isNotBlank() {
+		return notBlank;
+	}
+
+	@Override
+	public boolean isNotEmpty() {
+		return notEmpty;
+	}
+
+	@Override
+	public boolean isNotNull() {
+		return notNull;
+	}
+
+	@Override
+	public boolean isObjectTypeExpected() {
+		return objectTypeExpected;
+	}
+
+	@Override
+	public boolean isPrimitiveTypeExpected() {
+		return primitiveTypeExpected;
+	}
+
+	@Override
+	public boolean isTransient() {
+		return transientAttribute;
+	}
+
+	@Override
+	public boolean isUnique() {
+		return unique;
+	}
+
+	@Override
+	public boolean isUnsignedTypeExpected() {
+		return unsignedTypeExpected;
+	}
+
+	@Override
+	public boolean isUsedInLinks() {
+		return usedInLinks;
+	}
+
+	@Override
+	public boolean isUsedInSelectedLinks() {
+		return usedInSelectedLinks;
+	}
+
+	@Override
+	public List<ForeignKeyPart> getFKParts() {
+		return fkParts;
+	}
+
+	@Override
+	public TagContainer getTagContainer() {
+		return tagContainer;
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotAttribute(" + name + ")" ;
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import org.telosys.tools.generic.model.CascadeOptions;
+
+/**
+ * Cascade options loaded from a snapshot ( v 4.2.0 ) <br>
+ * Immutable.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotCascadeOptions extends CascadeOptions {
+
+	private final boolean cascadeAll ;
+	private final boolean cascadeMerge ;
+	private final boolean cascadePersist ;
+	private final boolean cascadeRefresh ;
+	private final boolean cascadeRemove ;
+	private final String  text ;
+
+	SnapshotCascadeOptions(boolean cascadeAll, boolean cascadeMerge, boolean cascadePersist, 
+			boolean cascadeRefresh, boolean cascadeRemove, String text) {
+		super();
+		this.cascadeAll = cascadeAll;
+		this.cascadeMerge = cascadeMerge;
+		this.cascadePersist = cascadePersist;
+		this.cascadeRefresh = cascadeRefresh;
+		this.cascadeRemove = cascadeRemove;
+		this.text = text;
+	}
+
+	@Override
+	public boolean isCascadeAll() {
+		return cascadeAll;
+	}
+
+	@Override
+	public boolean isCascadeMerge() {
+		return cascadeMerge;
+	}
+
+	@Override
+	public boolean isCascadePersist() {
+		return cascadePersist;
+	}
+
+	@Override
+	public boolean isCascadeRefresh() {
+		return cascadeRefresh;
+	}
+
+	@Override
+	public boolean isCascadeRemove() {
+		return cascadeRemove;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+}
@@ -0,0 +1,222 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.util.List;
+
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.TagContainer;
+
+/**
+ * Entity loaded from a snapshot ( v 4.2.0 ) <br>
+ * The class name and the table name are read with the entities index, 
+ * the other values are decoded on first use (from the snapshot file already validated). <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotEntity implements Entity {
+
+	private final String className ;
+	private final String databaseTable ;
+	private final ModelSnapshotReader reader ;
+	private final int    blockPosition ;
+	private volatile boolean decoded = false ;
+
+	//--- Values decoded on first use
+	String  context ;
+	String  databaseCatalog ;
+	String  databaseComment ;
+	String  databaseSchema ;
+	String  databaseTablespace ;
+	String  databaseType ;
+	String  domain ;
+	String  packageName ;
+	String  superClass ;
+	boolean abstractEntity ;
+	boolean aggregateRoot ;
+	boolean databaseView ;
+	boolean inMemoryRepository ;
+	boolean joinEntity ;
+	boolean readOnly ;
+	TagContainer     tagContainer ;
+	List<Attribute>  attributes ;
+	List<ForeignKey> foreignKeys ;
+	List<Link>       links ;
+
+	/**
+	 * Constructor
+	 * @param className
+	 * @param databaseTable
+	 * @param reader the reader used to decode the entity
+	 * @param blockPosition the position of the entity block in the snapshot file
+	 */
+	SnapshotEntity(String className, String databaseTable, ModelSnapshotReader reader, int blockPosition) {
+		super();
+		this.className = className;
+		this.databaseTable = databaseTable;
+		this.reader = reader;
+		this.blockPosition = blockPosition;
+	}
+
+	boolean isDecoded() {
+		return decoded;
+	}
+
+	private void decode() {
+		if ( ! decoded ) {
+			synchronized (this) {
+				if ( ! decoded ) {
+					reader.readEntityBlock(this, blockPosition);
+					decoded = true ;
+				}
+			}
+		}
+	}
+
+	@Override
+	public String getClassName() {
+		return className;
+	}
+
+	@Override
+	public String getDatabaseTable() {
+		return databaseTable;
+	}
+
+	@Override
+	public String getContext() {
+		decode();
+		return context;
+	}
+
+	@Override
+	public String getDatabaseCatalog() {
+		decode();
+		return databaseCatalog;
+	}
+
+	@Override
+	public String getDatabaseComment() {
+		decode();
+		return databaseComment;
+	}
+
+	@Override
+	public String getDatabaseSchema() {
+		decode();
+		return databaseSchema;
+	}
+
+	@Override
+	public String getDatabaseTablespace() {
+		decode();
+		return databaseTablespace;
+	}
+
+	@Override
+	public String getDatabaseType() {
+		decode();
+		return databaseType;
+	}
+
+	@Override
+	public String getDomain() {
+		decode();
+		return domain;
+	}
+
+	@Override
+	public String getPackageName() {
+		decode();
+		return packageName;
+	}
+
+	@Override
+	public String getSuperClass() {
+		decode();
+		return superClass;
+	}
+
+	@Override
+	public boolean isAbstract() {
+		decode();
+		return abstractEntity;
+	}
+
+	@Override
+	public boolean isAggregateRoot() {
+		decode();
+		return aggregateRoot;
+	}
+
+	@Override
+	public boolean isDatabaseView() {
+		decode();
+		return databaseView;
+	}
+
+	@Override
+	public boolean isInMemoryRepository() {
+		decode();
+		return inMemoryRepository;
+	}
+
+	@Override
+	public boolean isJoinEntity() {
+		decode();
+		return joinEntity;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		decode();
+		return readOnly;
+	}
+
+	@Override
+	public TagContainer getTagContainer() {
+		decode();
+		return tagContainer;
+	}
+
+	@Override
+	public List<Attribute> getAttributes() {
+		decode();
+		return attributes;
+	}
+
+	@Override
+	public List<ForeignKey> getForeignKeys() {
+		decode();
+		return foreignKeys;
+	}
+
+	@Override
+	public List<Link> getLinks() {
+		decode();
+		return links;
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotEntity(" + className + ")" ;
+	}
+}
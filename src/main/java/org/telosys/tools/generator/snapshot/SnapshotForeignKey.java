@@ -0,0 +1,77 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.util.List;
+
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.ForeignKeyAttribute;
+
+/**
+ * Foreign key loaded from a snapshot ( v 4.2.0 ) <br>
+ * Immutable.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotForeignKey implements ForeignKey {
+
+	private final String  name ;
+	private final String  originEntityName ;
+	private final String  referencedEntityName ;
+	private final boolean explicit ;
+	private final List<ForeignKeyAttribute> attributes ;
+
+	SnapshotForeignKey(String name, String originEntityName, String referencedEntityName, boolean explicit,
+			List<ForeignKeyAttribute> attributes) {
+		super();
+		this.name = name;
+		this.originEntityName = originEntityName;
+		this.referencedEntityName = referencedEntityName;
+		this.explicit = explicit;
+		this.attributes = attributes;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getOriginEntityName() {
+		return originEntityName;
+	}
+
+	@Override
+	public String getReferencedEntityName() {
+		return referencedEntityName;
+	}
+
+	@Override
+	public boolean isExplicit() {
+		return explicit;
+	}
+
+	@Override
+	public List<ForeignKeyAttribute> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotForeignKey(" + name + ")" ;
+	}
+}
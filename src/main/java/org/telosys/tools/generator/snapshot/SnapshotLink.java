@@ -0,0 +1,139 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.util.List;
+
+import org.telosys.tools.generic.model.CascadeOptions;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.LinkAttribute;
+import org.telosys.tools.generic.model.TagContainer;
+import org.telosys.tools.generic.model.enums.BooleanValue;
+import org.telosys.tools.generic.model.enums.Cardinality;
+import org.telosys.tools.generic.model.enums.FetchType;
+import org.telosys.tools.generic.model.enums.Optional;
+
+/**
+ * Link loaded from a snapshot ( v 4.2.0 ) <br>
+ * Plain values read from the snapshot file. Immutable after loading.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotLink implements Link {
+
+	String              fieldName ;
+	String              joinEntityName ;
+	String              mappedBy ;
+	String              referencedEntityName ;
+	Cardinality         cardinality ;
+	FetchType           fetchType ;
+	Optional            optional ;
+	BooleanValue        insertable ;
+	BooleanValue        updatable ;
+	boolean             embedded ;
+	boolean             orphanRemoval ;
+	boolean             selected ;
+	boolean             transientLink ;
+	CascadeOptions      cascadeOptions ;
+	TagContainer        tagContainer ;
+	List<LinkAttribute> attributes ;
+
+	@Override
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	@Override
+	public String getJoinEntityName() {
+		return joinEntityName;
+	}
+
+	@Override
+	public String getMappedBy() {
+		return mappedBy;
+	}
+
+	@Override
+	public String getReferencedEntityName() {
+		return referencedEntityName;
+	}
+
+	@Override
+	public Cardinality getCardinality() {
+		return cardinality;
+	}
+
+	@Override
+	public FetchType getFetchType() {
+		return fetchType;
+	}
+
+	@Override
+	public Optional getOptional() {
+		return optional;
+	}
+
+	@Override
+	public BooleanValue getInsertable() {
+		return insertable;
+	}
+
+	@Override
+	public BooleanValue getUpdatable() {
+		return updatable;
+	}
+
+	@Override
+	public boolean isEmbedded() {
+		return embedded;
+	}
+
+	@Override
+	public boolean isOrphanRemoval() {
+		return orphanRemoval;
+	}
+
+	@Override
+	public boolean isSelected() {
+		return selected;
+	}
+
+	@Override
+	public boolean isTransient() {
+		return transientLink;
+	}
+
+	@Override
+	public CascadeOptions getCascadeOptions() {
+		return cascadeOptions;
+	}
+
+	@Override
+	public TagContainer getTagContainer() {
+		return tagContainer;
+	}
+
+	@Override
+	public List<LinkAttribute> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotLink(" + fieldName + ")" ;
+	}
+}
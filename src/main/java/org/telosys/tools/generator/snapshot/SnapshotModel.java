@@ -0,0 +1,134 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Model;
+import org.telosys.tools.generic.model.enums.ModelType;
+
+/**
+ * Model loaded from a snapshot ( v 4.2.0 ) <br>
+ * Plain values read from the snapshot file. Immutable after loading.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotModel implements Model {
+
+	String    name ;
+	String    folderName ;
+	String    title ;
+	String    description ;
+	String    version ;
+	ModelType type ;
+	String    databaseId ;
+	String    databaseName ;
+	String    databaseType ;
+
+	private final List<Entity> entities ;
+	private final Map<String, Entity> entitiesByClassName = new HashMap<>();
+
+	/**
+	 * Constructor
+	 * @param entities the entities in the model order
+	 */
+	SnapshotModel(List<SnapshotEntity> entities) {
+		super();
+		this.entities = Collections.<Entity>unmodifiableList(entities);
+		for ( SnapshotEntity entity : entities ) {
+			entitiesByClassName.put(entity.getClassName(), entity);
+		}
+	}
+
+	/**
+	 * Returns the number of entities already decoded 
+	 * @return
+	 */
+	int getNumberOfDecodedEntities() {
+		int n = 0 ;
+		for ( Entity entity : entities ) {
+			if ( ((SnapshotEntity) entity).isDecoded() ) {
+				n++ ;
+			}
+		}
+		return n ;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getFolderName() {
+		return folderName;
+	}
+
+	@Override
+	public String getTitle() {
+		return title;
+	}
+
+	@Override
+	public String getDescription() {
+		return description;
+	}
+
+	@Override
+	public String getVersion() {
+		return version;
+	}
+
+	@Override
+	public ModelType getType() {
+		return type;
+	}
+
+	@Override
+	public String getDatabaseId() {
+		return databaseId;
+	}
+
+	@Override
+	public String getDatabaseName() {
+		return databaseName;
+	}
+
+	@Override
+	public String getDatabaseType() {
+		return databaseType;
+	}
+
+	@Override
+	public List<Entity> getEntities() {
+		return entities;
+	}
+
+	@Override
+	public Entity getEntityByClassName(String entityClassName) {
+		return entitiesByClassName.get(entityClassName);
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotModel(" + name + ")" ;
+	}
+}
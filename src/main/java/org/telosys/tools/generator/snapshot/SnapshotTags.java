@@ -0,0 +1,90 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.snapshot;
+
+import java.util.Map;
+
+import org.telosys.tools.generic.model.TagContainer;
+
+/**
+ * Tags loaded from a snapshot ( v 4.2.0 ) <br>
+ * Tag name and tag value ( void string if the tag has no value ). Immutable.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+class SnapshotTags implements TagContainer {
+
+	private final Map<String, String> tags ;
+
+	/**
+	 * Constructor
+	 * @param tags tags values by name (not modified after this call)
+	 */
+	SnapshotTags(Map<String, String> tags) {
+		super();
+		this.tags = tags ;
+	}
+
+	@Override
+	public boolean containsTag(String tagName) {
+		return tags.containsKey(tagName);
+	}
+
+	@Override
+	public String getTagValue(String tagName) {
+		return getTagValue(tagName, "");
+	}
+
+	@Override
+	public String getTagValue(String tagName, String defaultValue) {
+		String value = tags.get(tagName);
+		return value != null ? value : defaultValue ;
+	}
+
+	@Override
+	public boolean getTagValueAsBoolean(String tagName, boolean defaultValue) {
+		String value = tags.get(tagName);
+		if ( value != null ) {
+			String s = value.trim();
+			if ( "true".equalsIgnoreCase(s) ) {
+				return true ;
+			}
+			if ( "false".equalsIgnoreCase(s) ) {
+				return false ;
+			}
+		}
+		return defaultValue ;
+	}
+
+	@Override
+	public int getTagValueAsInt(String tagName, int defaultValue) {
+		String value = tags.get(tagName);
+		if ( value != null ) {
+			try {
+				return Integer.parseInt(value.trim());
+			} catch (NumberFormatException e) {
+				return defaultValue ;
+			}
+		}
+		return defaultValue ;
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotTags" + tags ;
+	}
+}
@@ -15,21 +15,43 @@
  */
 package org.telosys.tools.generator.task;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.commons.bundles.TargetDefinition;
 import org.telosys.tools.commons.cfg.TelosysToolsCfg;
 import org.telosys.tools.commons.io.CopyHandler;
 import org.telosys.tools.commons.io.OverwriteChooser;
+import org.telosys.tools.generator.BundleArchive;
+import org.telosys.tools.generator.BundleCache;
 import org.telosys.tools.generator.BundleResourcesManager;
 import org.telosys.tools.generator.Generator;
 import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.GeneratorLogger;
+import org.telosys.tools.generator.RenderAbortedException;
+import org.telosys.tools.generator.RenderWatchdog;
 import org.telosys.tools.generator.TargetBuilder;
 import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+import org.telosys.tools.generator.context.tools.FileContentCache;
+import org.telosys.tools.generator.output.DestinationSnapshot;
+import org.telosys.tools.generator.output.FileSystemOutputSink;
+import org.telosys.tools.generator.output.OutputSink;
 import org.telosys.tools.generic.model.Entity;
 import org.telosys.tools.generic.model.Model;
 
@@ -54,8 +76,22 @@ public abstract class AbstractGenerationTask
 	private final String                  bundleName ;
 	private final TelosysToolsLogger      logger ;
 	private final GenerationTaskResult    genTaskResult  ;
+	private final FileContentCache        fileContentCache ; // files read by the templates ( v 4.2.0 )
+	private final OutputSink              outputSink ; // destination of the files ( v 4.2.0 - null for default )
+	private final BundleCache             bundleCache ; // shared by several tasks ( v 4.2.0 - null if none )
 	
-	private Target                currentTarget = null ;
+	private final Object                  lock = new Object(); // results and callbacks updated by one thread at a time ( v 4.2.0 )
+	private final GenerationEventPublisher eventPublisher = new GenerationEventPublisher(); // v 4.2.0
+	
+	private final ThreadLocal<Target> currentTarget = new ThreadLocal<>(); // target under generation in each thread ( v 4.2.0 )
+	private volatile GeneratorLogger genLogger ; // v 4.2.0 (level checks, lazy messages, optional async mode)
+	private int                   numberOfThreads = 1 ; // v 4.2.0
+	private File                  timingsFile = null ; // v 4.2.0
+	private File                  dependenciesFile = null ; // v 4.2.0 (null : no incremental generation)
+	private long                  templateTimeBudget = 0 ; // v 4.2.0 (max render duration in ms, 0 : no limit)
+	private boolean               useDestinationSnapshot = false ; // v 4.2.0
+	private volatile DestinationSnapshot destinationSnapshot = null ; // v 4.2.0 (taken before the generation)
+	private volatile OutputSink   snapshotOutputSink = null ; // v 4.2.0 (sink updating the snapshot)
 
 	//--------------------------------------------------------------------------------------------------
 	/**
@@ -78,6 +114,62 @@ public abstract class AbstractGenerationTask
 			TelosysToolsCfg           telosysToolsCfg, // v 3.0.0
 			TelosysToolsLogger        logger
 			) throws TelosysToolsException
+	{
+		this(model, selectedEntities, bundleName, selectedTargets, resourcesTargets, telosysToolsCfg, logger, null);
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Constructor
+	 * @param model
+	 * @param selectedEntities list of entities names to be used for code generation
+	 * @param bundleName
+	 * @param selectedTargets templates targets to be used for code generation
+	 * @param resourcesTargets resources targets to be copied (or null if none)
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param outputSink destination of the generated files and resources (or null for the project destination folder)
+	 * @throws TelosysToolsException
+	 */
+	protected AbstractGenerationTask(
+			Model                     model,
+			List<String>              selectedEntities, 
+			String                    bundleName,
+			List<TargetDefinition>    selectedTargets,
+			List<TargetDefinition>    resourcesTargets,
+			TelosysToolsCfg           telosysToolsCfg,
+			TelosysToolsLogger        logger,
+			OutputSink                outputSink // v 4.2.0
+			) throws TelosysToolsException
+	{
+		this(model, selectedEntities, bundleName, selectedTargets, resourcesTargets, telosysToolsCfg, logger, outputSink, null);
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Constructor
+	 * @param model
+	 * @param selectedEntities list of entities names to be used for code generation
+	 * @param bundleName
+	 * @param selectedTargets templates targets to be used for code generation
+	 * @param resourcesTargets resources targets to be copied (or null if none)
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param outputSink destination of the generated files and resources (or null for the project destination folder)
+	 * @param bundleCache bundle cache shared by several tasks (or null to use only task caches)
+	 * @throws TelosysToolsException
+	 */
+	protected AbstractGenerationTask(
+			Model                     model,
+			List<String>              selectedEntities, 
+			String                    bundleName,
+			List<TargetDefinition>    selectedTargets,
+			List<TargetDefinition>    resourcesTargets,
+			TelosysToolsCfg           telosysToolsCfg,
+			TelosysToolsLogger        logger,
+			OutputSink                outputSink, // v 4.2.0
+			BundleCache               bundleCache // v 4.2.0
+			) throws TelosysToolsException
 	{
 		super();
 		
@@ -96,9 +188,111 @@ public abstract class AbstractGenerationTask
 		this.telosysToolsCfg  = telosysToolsCfg ; // v 3.0.0
 		this.bundleName       = bundleName ;  // v 3.0.0
 		this.logger           = logger ;
+		this.genLogger        = new GeneratorLogger(logger) ; // v 4.2.0 (all levels by default)
 		
-		this.logger.log(this, "Task created");
+		this.genLogger.log(this, "Task created");
 		this.genTaskResult = new GenerationTaskResult();
+		this.fileContentCache = bundleCache != null ? bundleCache.getFileContentCache() : new FileContentCache();
+		this.outputSink = outputSink ;
+		this.bundleCache = bundleCache ;
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Set the number of threads used to generate the targets (1 by default) <br>
+	 * With more than 1 thread the targets are scheduled by decreasing estimated cost (longest first) <br>
+	 * and the following methods are called by the generation threads (one at a time) instead of the thread running the task : <br>
+	 *  - afterFileGeneration(..) <br>
+	 *  - onError(..) for a target generation error <br>
+	 *  - the task monitor methods ( worked, subTask, isCanceled ) <br>
+	 * The resources copy (OverwriteChooser and CopyHandler) is always done by the thread running the task
+	 * @param numberOfThreads
+	 */
+	public void setNumberOfThreads(int numberOfThreads) { // v 4.2.0
+		this.numberOfThreads = numberOfThreads > 1 ? numberOfThreads : 1 ;
+	}
+	
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+	
+	/**
+	 * Set the file used to keep the render durations history (used to schedule the longest targets first) <br>
+	 * If not set, the durations are not kept from one generation to another
+	 * (the file must not be located in the destination folder to keep the generated files unchanged)
+	 * @param timingsFile the timings file (or null for no history)
+	 */
+	public void setTimingsFile(File timingsFile) { // v 4.2.0
+		this.timingsFile = timingsFile;
+	}
+	
+	/**
+	 * Set the file used to record the dependencies of each generated file (incremental generation) <br>
+	 * If set, the entities, entities list and files used by each template are recorded
+	 * and a target is not generated again if its output file exists and its dependencies are unchanged
+	 * @param dependenciesFile the dependencies file (or null for no incremental generation)
+	 */
+	public void setDependenciesFile(File dependenciesFile) { // v 4.2.0
+		this.dependenciesFile = dependenciesFile;
+	}
+	
+	/**
+	 * Set the logging level and mode used during the generation ( all levels and synchronous mode by default ) <br>
+	 * For a quiet generation use 'ERROR' : the other messages are neither formatted nor printed <br>
+	 * In async mode the messages are printed by a background thread ( all printed at the end of the task )
+	 * @param level the highest level to be logged 
+	 * @param async true to print the messages in a background thread
+	 */
+	public void setLogging(GeneratorLogger.Level level, boolean async) { // v 4.2.0
+		GeneratorLogger previous = this.genLogger ;
+		this.genLogger = new GeneratorLogger(logger, level, async);
+		previous.close();
+	}
+	
+	public GeneratorLogger getGeneratorLogger() {
+		return genLogger;
+	}
+	
+	/**
+	 * Returns the publisher of the events of this task (files generated, errors, etc) <br>
+	 * The subscribers must subscribe before launching the task 
+	 * @return
+	 */
+	public GenerationEventPublisher getEventPublisher() { // v 4.2.0
+		return eventPublisher;
+	}
+	
+	/**
+	 * Set the time budget for the rendering of each template (no limit by default) <br>
+	 * If a template exceeds its budget, its rendering is aborted and reported as an error 
+	 * (the task continues or stops depending on 'onError') 
+	 * @param templateTimeBudget the max duration in milliseconds (0 for no limit)
+	 */
+	public void setTemplateTimeBudget(long templateTimeBudget) { // v 4.2.0
+		this.templateTimeBudget = templateTimeBudget > 0 ? templateTimeBudget : 0 ;
+	}
+	
+	public long getTemplateTimeBudget() {
+		return templateTimeBudget;
+	}
+	
+	/**
+	 * Set the use of a destination folder snapshot (not used by default) <br>
+	 * If used, the destination folder tree is read once before the generation 
+	 * and the existence checks for the generated files are done in memory 
+	 * (useful if the file system accesses are slow, e.g. network file system) 
+	 * @param useDestinationSnapshot
+	 */
+	public void setDestinationSnapshot(boolean useDestinationSnapshot) { // v 4.2.0
+		this.useDestinationSnapshot = useDestinationSnapshot;
+	}
+	
+	/**
+	 * Returns the destination folder snapshot taken for the generation (or null if none)
+	 * @return
+	 */
+	public DestinationSnapshot getDestinationSnapshot() {
+		return destinationSnapshot;
 	}
 	
 	//--------------------------------------------------------------------------------------------------
@@ -106,7 +300,8 @@ public abstract class AbstractGenerationTask
 	//--------------------------------------------------------------------------------------------------
 	/**
 	 * Method called after each file generation <br>
-	 * Typically used for refreshing generated files in Eclipse 
+	 * Typically used for refreshing generated files in Eclipse <br>
+	 * Can be called by a generation thread (see 'setNumberOfThreads') 
 	 * @param target
 	 * @param fullFileName
 	 */
@@ -114,6 +309,7 @@ public abstract class AbstractGenerationTask
 
 	/**
 	 * Method called after each error during the task <br>
+	 * Can be called by a generation thread (see 'setNumberOfThreads') 
 	 * @param errorReport
 	 * @return true to continue the current task, or false to interrupt the task
 	 */
@@ -121,9 +317,7 @@ public abstract class AbstractGenerationTask
 	
 	//--------------------------------------------------------------------------------------------------
 	protected void log(String msg) {
-		if ( logger != null ) {
-			logger.log(this, msg);
-		}
+		genLogger.log(this, msg);
 	}
 	
 	/**
@@ -137,29 +331,107 @@ public abstract class AbstractGenerationTask
 	 */
 	protected void runTask(ITaskMonitor taskMonitor, OverwriteChooser overwriteChooser, CopyHandler copyHandler) 
 			throws InterruptedException {
+		runTask(null, taskMonitor, overwriteChooser, copyHandler);
+	}
+	
+	/**
+	 * Run the task with the given plan : <br>
+	 *  1) copy the resources if any<br>
+	 *  2) launch the generation for all the targets of the plan<br>
+	 * @param plan the plan built by this task (or null to build a new plan)
+	 * @param taskMonitor
+	 * @param overwriteChooser
+	 * @param copyHandler
+	 * @throws InterruptedException
+	 */
+	protected void runTask(GenerationPlan plan, ITaskMonitor taskMonitor, OverwriteChooser overwriteChooser, CopyHandler copyHandler) 
+			throws InterruptedException { // v 4.2.0
+		
+		GenerationPlan generationPlan = plan != null ? plan : buildPlan() ;
+		RuntimeException failure = null ;
+		try {
+			//--- 1) Copy the static resources of the bundle if any (if cancelled : 'InterruptedException' is thrown )
+			copyResourcesIfAny(generationPlan.getResourcesTargets(), overwriteChooser, copyHandler);
+			
+			//--- Destination snapshot if any (after the resources copy) ( v 4.2.0 )
+			takeDestinationSnapshot(generationPlan);
+			
+			//--- 2) Launch the generation (if cancelled : 'InterruptedException' is thrown )
+			generatePlanTargets(generationPlan, taskMonitor);
+		}
+		catch (RuntimeException e) {
+			failure = e ;
+			throw e ;
+		}
+		finally {
+			genLogger.close(); // v 4.2.0 (async mode : all the messages printed at the end of the task)
+			//--- End of the events stream ( v 4.2.0 )
+			eventPublisher.publish(GenerationEvent.taskFinished(getResult()));
+			eventPublisher.close(failure);
+		}
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Builds the generation plan without rendering anything : <br>
+	 * all the targets ( once or for each entity depending on the target's type ) with their output file, 
+	 * the resources to be copied, the entities not found and the output files collisions 
+	 * @return
+	 */
+	public GenerationPlan buildPlan() { // v 4.2.0
+		log("buildPlan");
+		//--- Separate targets in 2 list : "ONCE" and "ENTITY"
+		List<TargetDefinition> onceTargets   = new LinkedList<>() ; 
+		List<TargetDefinition> entityTargets = new LinkedList<>() ; 
+		for ( TargetDefinition targetDefinition : selectedTargets ) {
+			if ( targetDefinition.isOnce() ) {
+				onceTargets.add(targetDefinition); 
+			}
+			else {
+				entityTargets.add(targetDefinition);
+			}
+		}
 		
-		//--- 1) Copy the static resources of the bundle if any (if cancelled : 'InterruptedException' is thrown )
-		copyResourcesIfAny(overwriteChooser, copyHandler);
+		List<Target> targets = new ArrayList<>( ( selectedEntities.size() * entityTargets.size() ) + onceTargets.size() );
+		List<String> missingEntities = new LinkedList<>();
+		//--- For each entity : a specialized target for each "entity target"
+		for ( String entityName : selectedEntities ) {
+			Entity entity = model.getEntityByClassName(entityName);
+			if ( entity != null ) {
+				for ( TargetDefinition targetDefinition : entityTargets ) {
+					targets.add(TargetBuilder.buildTarget(telosysToolsCfg, targetDefinition, bundleName, model, entity));
+				}
+			}
+			else {
+				missingEntities.add(entityName);
+			}
+		}
+		//--- Finally, the "ONCE" targets (target without current entity)
+		for ( TargetDefinition targetDefinition : onceTargets ) {
+			targets.add(TargetBuilder.buildTarget(telosysToolsCfg, targetDefinition, bundleName, model));
+		}
 		
-		//--- 2) Launch the generation (if cancelled : 'InterruptedException' is thrown )
-		generateSelectedTargets(taskMonitor);
+		GenerationPlan plan = new GenerationPlan(targets, this.resourcesTargets, missingEntities);
+		genLogger.log(this, "buildPlan : {} target(s), {} collision(s)", plan.getNumberOfTargets(), plan.getCollisions().size());
+		return plan ;
 	}
 	
 	//--------------------------------------------------------------------------------------------------
 	/**
 	 * Copy the static resources if any 
+	 * @param resourcesTargetsDefinitions (or null if none)
 	 * @param overwriteChooser
 	 * @param copyHandler
 	 * @throws InterruptedException
 	 */
-	private void copyResourcesIfAny(OverwriteChooser overwriteChooser, CopyHandler copyHandler) 
-			throws InterruptedException { 
-		logger.info("----- Copy static resources if any " );
-		List<TargetDefinition> resourcesTargetsDefinitions = this.resourcesTargets ;
+	private void copyResourcesIfAny(List<TargetDefinition> resourcesTargetsDefinitions, 
+			OverwriteChooser overwriteChooser, CopyHandler copyHandler) throws InterruptedException { 
+		genLogger.info("----- Copy static resources if any " );
 		if ( resourcesTargetsDefinitions != null ) {
-			logger.log(this, "run : copy resources " );
+			genLogger.log(this, "run : copy resources " );
 			
-			BundleResourcesManager resourcesManager = new BundleResourcesManager( telosysToolsCfg, bundleName, logger);
+			BundleResourcesManager resourcesManager = new BundleResourcesManager( telosysToolsCfg, bundleName, genLogger, outputSink, 
+					bundleCache != null ? bundleCache.getBundleArchive() : null ); // v 4.2.0
 			int numberOfResourcesCopied = 0 ;
 			try {
 				numberOfResourcesCopied = resourcesManager.copyTargetsResourcesInProject(
@@ -170,73 +442,123 @@ public abstract class AbstractGenerationTask
 				manageError(errorReport); // throws InterruptedException if 'canceled'
 			}
 			genTaskResult.setNumberOfResourcesCopied(numberOfResourcesCopied);
-			logger.info(numberOfResourcesCopied + " resource(s) copied" );
+			eventPublisher.publish(GenerationEvent.resourcesCopied(numberOfResourcesCopied)); // v 4.2.0
+			genLogger.info("{} resource(s) copied", numberOfResourcesCopied );
 		}
 		else {
-			logger.log(this, "run : no resources to copy" );
-			logger.info("No resources to copy" );
+			genLogger.log(this, "run : no resources to copy" );
+			genLogger.info("No resources to copy" );
 		}
 	}
 	
 	//--------------------------------------------------------------------------------------------------
 	/**
-	 * Generates all the "selected targets" ( once or for each entity depending on the target's type ) 
+	 * Takes the destination folder snapshot if required (only for a file system destination)
+	 * @param plan
+	 */
+	private void takeDestinationSnapshot(GenerationPlan plan) { // v 4.2.0
+		destinationSnapshot = null ;
+		snapshotOutputSink = null ;
+		if ( ! useDestinationSnapshot ) {
+			return ;
+		}
+		String destinationFolder = null ;
+		if ( outputSink == null ) {
+			destinationFolder = telosysToolsCfg.getDestinationFolderAbsolutePath() ;
+		}
+		else if ( outputSink instanceof FileSystemOutputSink ) {
+			destinationFolder = ((FileSystemOutputSink) outputSink).getDestinationFolder() ;
+		}
+		if ( destinationFolder != null ) {
+			long start = System.currentTimeMillis();
+			try {
+				DestinationSnapshot snapshot = DestinationSnapshot.take(destinationFolder);
+				snapshotOutputSink = new FileSystemOutputSink(destinationFolder, snapshot);
+				for ( Target target : plan.getTargets() ) {
+					target.setDestinationSnapshot(snapshot);
+				}
+				destinationSnapshot = snapshot ;
+				genLogger.info("Destination snapshot : {} files and folders ({} ms)", snapshot.size(), System.currentTimeMillis() - start);
+			} catch (IOException e) {
+				genLogger.error("Cannot take destination snapshot : {}", e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Returns the output sink to be used for the generation (or null for the project destination folder)
+	 * @return
+	 */
+	private OutputSink getGenerationOutputSink() { // v 4.2.0
+		OutputSink sink = snapshotOutputSink ;
+		return sink != null ? sink : outputSink ;
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Generates all the targets of the given plan ( once or for each entity depending on the target's type ) 
+	 * @param plan
 	 * @param progressMonitor
 	 * @throws InterruptedException
 	 */
-	private void generateSelectedTargets( ITaskMonitor progressMonitor ) throws InterruptedException
+	private void generatePlanTargets( GenerationPlan plan, ITaskMonitor progressMonitor ) throws InterruptedException
 	{
-		//--- Separate targets in 2 list : "ONCE" and "ENTITY"
-		List<TargetDefinition> onceTargets   = new LinkedList<>() ; 
-		List<TargetDefinition> entityTargets = new LinkedList<>() ; 
-		for ( TargetDefinition targetDefinition : selectedTargets ) {
-			if ( targetDefinition.isOnce() ) {
-				onceTargets.add(targetDefinition); 
+		//--- Entities not found 
+		for ( String entityName : plan.getMissingEntities() ) {
+			String msg = "Generation error : entity '" + entityName + "' not found in the repository";
+			ErrorReport errorReport = new ErrorReport(msg);
+			genLogger.error("Entity '{}' not found in the repository", entityName) ;
+			manageError(errorReport); // throws InterruptedException if 'canceled'
+		}
+		//--- Several targets with the same output file ( the last one would overwrite the others )
+		for ( Map.Entry<String, List<Target>> collision : plan.getCollisions().entrySet() ) {
+			StringBuilder sb = new StringBuilder();
+			for ( Target target : collision.getValue() ) {
+				sb.append(sb.length() > 0 ? ", " : "").append(target.getTemplate());
 			}
-			else {
-				entityTargets.add(targetDefinition);
+			String msg = "Output file collision : '" + collision.getKey() + "' generated by " 
+					+ collision.getValue().size() + " targets (" + sb.toString() + ")";
+			genLogger.error(msg) ;
+			manageError(new ErrorReport(msg)); // throws InterruptedException if 'canceled'
+		}
+		
+		//--- Targets planned ( v 4.2.0 )
+		if ( eventPublisher.hasSubscribers() ) {
+			for ( Target target : plan.getTargets() ) {
+				eventPublisher.publish(GenerationEvent.targetPlanned(target));
 			}
 		}
 		
 		//--- Number of generations expected
-		int totalWorkTasks = ( selectedEntities.size() * entityTargets.size() ) + onceTargets.size() ;
-
-		progressMonitor.beginTask("Generation in progress", totalWorkTasks ); 
-				
-		//--- For each entity
-		for ( String entityName : selectedEntities ) {
-			
-			logger.info("----- Generation for entity " + entityName );
-			Entity entity = model.getEntityByClassName(entityName);
-			if ( entity != null ) {
-				//--- For each "entity target" 
-				for ( TargetDefinition targetDefinition : entityTargets ) {
-					
-					//--- Get a specialized target for the current entity
-					//Target target = new Target( telosysToolsCfg, targetDefinition, entity ); // v 3.3.0
-					Target target = TargetBuilder.buildTarget(telosysToolsCfg, targetDefinition, bundleName, model, entity); // v 4.2.0
-					
-					generateTarget(progressMonitor, target, selectedEntities); // throws InterruptedException if error + 'cancel'
+		progressMonitor.beginTask("Generation in progress", plan.getNumberOfTargets() ); 
+		
+		GenerationTimings timings = loadTimings(timingsFile);
+		GenerationDependencies dependencies = loadDependencies(); // null if no incremental generation
+		if ( numberOfThreads > 1 ) {
+			//--- Longest targets first 
+			generateTargetsInParallel(timings.sortByDecreasingCost(plan.getTargets(), model), progressMonitor, timings, dependencies);
+		}
+		else {
+			String currentEntityName = null ;
+			for ( Target target : plan.getTargets() ) {
+				String entityName = StrUtil.nullOrVoid(target.getEntityName()) ? ENTITY_NONE : target.getEntityName() ;
+				if ( ! entityName.equals(currentEntityName) ) {
+					if ( ENTITY_NONE.equals(entityName) ) {
+						genLogger.info("----- Generation without entity");
+					}
+					else {
+						genLogger.info("----- Generation for entity {}", entityName);
+					}
+					currentEntityName = entityName ;
 				}
-				//--- One TARGET done 
-			}
-			else {
-				String msg = "Generation error : entity '" + entityName + "' not found in the repository";
-				ErrorReport errorReport = new ErrorReport(msg);
-				logger.error("Entity '" + entityName + "' not found in the repository") ;
-				manageError(errorReport); // throws InterruptedException if 'canceled'
+				if ( progressMonitor.isCanceled() ) {
+					break ; // v 4.2.0 (remaining targets not generated)
+				}
+				generateTarget(progressMonitor, target, selectedEntities, timings, dependencies); // throws InterruptedException if error + 'cancel'
 			}
-			//--- One ENTITY done
-		} // end of "For each entity"
-		
-		//--- Finally, generate the "ONCE" targets ( NEW in version 2.0.3 / Feb 2013 )
-		logger.info("----- Generation without entity" );
-		for ( TargetDefinition targetDefinition : onceTargets ) {
-			//--- Target without current entity
-			//Target target = new Target( telosysToolsCfg, targetDefinition ); // v 3.3.0
-			Target target = TargetBuilder.buildTarget(telosysToolsCfg, targetDefinition, bundleName, model); // v 4.2.0
-			generateTarget(progressMonitor, target, selectedEntities);  // throws InterruptedException if error + 'cancel'
 		}
+		saveTimings(timingsFile, timings, plan.getTargets());
+		saveDependencies(dependencies);
 		
 		//--- Notifies that the work is done; that is, either the main task is completed or the user canceled it.
 		progressMonitor.done();
@@ -246,6 +568,161 @@ public abstract class AbstractGenerationTask
 		}
 	}
 	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Generates the given targets with a pool of threads (the targets are started in the given order) 
+	 * @param targets
+	 * @param progressMonitor
+	 * @param timings
+	 * @param dependencies (or null if no incremental generation)
+	 * @throws InterruptedException
+	 */
+	private void generateTargetsInParallel(List<Target> targets, final ITaskMonitor progressMonitor, 
+			final GenerationTimings timings, final GenerationDependencies dependencies) throws InterruptedException {
+		genLogger.info("----- Generation with {} threads", numberOfThreads );
+		final AtomicBoolean canceled = new AtomicBoolean(false);
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			List<Future<Void>> futures = new LinkedList<>(); // in the same order as the targets
+			for ( final Target target : targets ) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						if ( ! canceled.get() && ! progressMonitor.isCanceled() ) {
+							try {
+								generateTarget(progressMonitor, target, selectedEntities, timings, dependencies);
+							} catch (InterruptedException e) {
+								canceled.set(true); // the remaining targets are not generated
+							}
+						}
+						return null ;
+					}
+				}));
+			}
+			Iterator<Target> targetsIterator = targets.iterator();
+			for ( Future<Void> future : futures ) {
+				Target target = targetsIterator.next();
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// failed target kept for the thread running the task (see 'buildErrorReport')
+					currentTarget.set(target);
+					Throwable cause = e.getCause();
+					if ( cause instanceof RuntimeException ) {
+						throw (RuntimeException) cause ;
+					}
+					throw new IllegalStateException("Unexpected error in generation thread", cause);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		if ( canceled.get() ) {
+			throw new InterruptedException("Generation task cancelled");
+		}
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	private GenerationDependencies loadDependencies() {
+		if ( dependenciesFile != null ) {
+			BundleArchive bundleArchive = bundleCache != null ? bundleCache.getBundleArchive() : null ;
+			ModelFingerprints fingerprints = new ModelFingerprints(model, telosysToolsCfg, bundleName, 
+					bundleArchive != null ? bundleArchive.getArchiveFile() : null, selectedEntities ); // v 4.2.0
+			try {
+				return GenerationDependencies.load(dependenciesFile, fingerprints);
+			} catch (GeneratorException e) {
+				genLogger.error(e.getMessage());
+				return new GenerationDependencies(fingerprints);
+			}
+		}
+		return null ;
+	}
+	
+	private void saveDependencies(GenerationDependencies dependencies) {
+		if ( dependencies != null ) {
+			try {
+				dependencies.save(dependenciesFile);
+			} catch (GeneratorException e) {
+				genLogger.error(e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the output file of the given target exists in the file system destination
+	 * @param target
+	 * @return
+	 */
+	private boolean outputFileExists(Target target) {
+		File file = getOutputFile(target);
+		if ( file == null ) {
+			return false ; // not a file system : cannot check
+		}
+		DestinationSnapshot snapshot = destinationSnapshot ;
+		if ( snapshot != null && snapshot.covers(file) ) {
+			return snapshot.exists(file); // v 4.2.0
+		}
+		return file.exists() ; 
+	}
+	
+	/**
+	 * Returns the output file of the given target in the file system destination (or null if not a file system)
+	 * @param target
+	 * @return
+	 */
+	private File getOutputFile(Target target) { // v 4.2.0
+		if ( outputSink == null ) {
+			return new File(target.getOutputFileNameInFileSystem(telosysToolsCfg.getDestinationFolderAbsolutePath()));
+		}
+		else if ( outputSink instanceof FileSystemOutputSink ) {
+			return ((FileSystemOutputSink) outputSink).getFile(target.getOutputFileNameInProject());
+		}
+		else {
+			return null ; 
+		}
+	}
+	
+	/**
+	 * Builds the 'file generated' event for the given target (file path and size if in the file system)
+	 * @param target
+	 * @return
+	 */
+	private GenerationEvent buildFileGeneratedEvent(Target target) { // v 4.2.0
+		File file = getOutputFile(target);
+		if ( file != null ) {
+			DestinationSnapshot snapshot = destinationSnapshot ;
+			DestinationSnapshot.Entry entry = snapshot != null ? snapshot.getEntry(file) : null ;
+			long size = entry != null ? entry.getSize() : file.length() ;
+			return GenerationEvent.fileGenerated(target, file.getAbsolutePath(), size);
+		}
+		else {
+			return GenerationEvent.fileGenerated(target, target.getOutputFileNameInProject(), -1);
+		}
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	private GenerationTimings loadTimings(File file) {
+		if ( file != null ) {
+			try {
+				return GenerationTimings.load(file);
+			} catch (GeneratorException e) {
+				genLogger.error(e.getMessage());
+			}
+		}
+		return new GenerationTimings();
+	}
+	
+	private void saveTimings(File file, GenerationTimings timings, List<Target> targets) {
+		if ( file != null && file.getParentFile() != null && file.getParentFile().isDirectory() ) {
+			timings.updateCostUnit(targets, model);
+			try {
+				timings.save(file);
+			} catch (GeneratorException e) {
+				genLogger.error(e.getMessage());
+			}
+		}
+	}
+	
 	//--------------------------------------------------------------------------------------------------
 	/**
 	 * Generates the given target. <br>
@@ -253,57 +730,127 @@ public abstract class AbstractGenerationTask
 	 * @param progressMonitor
 	 * @param target
 	 * @param selectedEntitiesNames
+	 * @param timings render durations to be updated
+	 * @param dependencies dependencies to be checked and updated (or null if no incremental generation)
 	 * @throws InterruptedException
 	 */
-	private void generateTarget(ITaskMonitor progressMonitor, Target target, List<String> selectedEntitiesNames) 
-			throws InterruptedException
+	private void generateTarget(final ITaskMonitor progressMonitor, Target target, List<String> selectedEntitiesNames, 
+			GenerationTimings timings, GenerationDependencies dependencies) throws InterruptedException
 	{
-		logger.log(this, "Generate TARGET : entity name '" + target.getEntityName() + "' - target file '" + target.getFile() + "' ");
+		//--- Incremental generation : nothing to do if the dependencies are unchanged ( v 4.2.0 )
+		if ( dependencies != null && dependencies.isUpToDate(target) && outputFileExists(target) ) {
+			genLogger.log(this, "Up to date : {}", target.getOutputFileNameInProject() );
+			synchronized (lock) {
+				genTaskResult.incrementNumberOfTargetsSkipped();
+				progressMonitor.worked(1);
+			}
+			eventPublisher.publish(GenerationEvent.fileUnchanged(target, target.getOutputFileNameInProject())); // v 4.2.0
+			return ;
+		}
+		DependencyRecorder dependencyRecorder = dependencies != null ? new DependencyRecorder() : null ;
 		
-		currentTarget = target ;
+
+		genLogger.log(this, "Generate TARGET : entity name '{}' - target file '{}' ", target.getEntityName(), target.getFile());
+		
+		currentTarget.set(target); // kept after the generation (see 'buildErrorReport')
 		
-		progressMonitor.subTask("Entity '" + target.getEntityName() + "' : target file '" + target.getFile() + "' ");
+		synchronized (lock) {
+			progressMonitor.subTask("Entity '" + target.getEntityName() + "' : target file '" + target.getFile() + "' ");
+		}
 		
 		//--- Possible multiple generated targets for one main target (with embedded generator)
 		LinkedList<Target> generatedTargets = new LinkedList<>();
 		
-		Generator generator = new Generator( telosysToolsCfg, bundleName, logger); // v 3.0.0
+		Generator generator = new Generator( telosysToolsCfg, bundleName, genLogger, fileContentCache, getGenerationOutputSink(), bundleCache); // v 4.2.0
+		generator.setRenderLimits(templateTimeBudget, new RenderWatchdog.CancelSignal() { // v 4.2.0
+			@Override
+			public boolean isCanceled() {
+				return progressMonitor.isCanceled();
+			}
+		});
+		long start = System.nanoTime();
 		try {
-			generator.generateTarget(target, model, selectedEntitiesNames, generatedTargets);
+			generator.generateTarget(target, model, selectedEntitiesNames, generatedTargets, dependencyRecorder);
 		} catch (GeneratorException e) {
-			genTaskResult.addGenerationError(target);
-			ErrorReport errorReport = buildErrorReportForGeneratorException(e);
-			manageError(errorReport); // throws InterruptedException if 'canceled'
+			if ( dependencies != null ) {
+				dependencies.remove(target);
+			}
+			RenderAbortedException renderAbortedException = findRenderAbortedException(e);
+			if ( renderAbortedException != null && renderAbortedException.isCanceled() ) {
+				//--- Canceled during the rendering : not an error ( v 4.2.0 )
+				genLogger.info("CANCELED : {}", renderAbortedException.getMessage());
+				throw new InterruptedException("The generation task was cancelled");
+			}
+			synchronized (lock) {
+				genTaskResult.addGenerationError(target);
+				ErrorReport errorReport = buildErrorReportForGeneratorException(e, target);
+				manageError(errorReport, target); // throws InterruptedException if 'canceled'
+			}
+		}
+		timings.record(target, ( System.nanoTime() - start ) / 1000 ); // v 4.2.0
+		if ( dependencies != null ) {
+			if ( generatedTargets.size() == 1 && generatedTargets.get(0) == target ) {
+				dependencies.record(target, dependencyRecorder);
+			}
+			else {
+				// canceled or other files generated with the embedded generator : always regenerated
+				dependencies.remove(target);
+			}
 		}
 
-		//--- After normal end of generation : refresh the generated files and update count
-		for ( Target generatedTarget : generatedTargets ) {
-			logger.log(this, "generated target : " + generatedTarget.getFile() );
-
-			String generatedFileAbsolutePath = generatedTarget.getOutputFileNameInFileSystem(telosysToolsCfg.getDestinationFolderAbsolutePath());
+		synchronized (lock) {
+			//--- After normal end of generation : refresh the generated files and update count
+			for ( Target generatedTarget : generatedTargets ) {
+				genLogger.log(this, "generated target : {}", generatedTarget.getFile() );
+	
+				String generatedFileAbsolutePath = generatedTarget.getOutputFileNameInFileSystem(telosysToolsCfg.getDestinationFolderAbsolutePath());
+				
+				//--- One more file : increment result count
+				genTaskResult.incrementNumberOfFilesGenerated();
+	
+				genLogger.log(this, "Call afterFileGeneration({})...", generatedFileAbsolutePath);
+				afterFileGeneration(generatedTarget, generatedFileAbsolutePath); // Abstract method
+			}
 			
-			//--- One more file : increment result count
-			genTaskResult.incrementNumberOfFilesGenerated();
-
-			logger.log(this, "Call afterFileGeneration(" + generatedFileAbsolutePath + ")...");
-			afterFileGeneration(generatedTarget, generatedFileAbsolutePath); // Abstract method
+			//--- One TARGET done
+			// Notifies that a given number of work unit of the main task has been completed. 
+			// Note that this amount represents an installment, as opposed to a cumulative amount of work done to date.
+			progressMonitor.worked(1); // One unit done (not cumulative)
+		}
+		//--- Events published outside the lock (the publication can wait for the subscribers)
+		if ( eventPublisher.hasSubscribers() ) {
+			for ( Target generatedTarget : generatedTargets ) {
+				eventPublisher.publish(buildFileGeneratedEvent(generatedTarget)); // v 4.2.0
+			}
 		}
-		
-		//--- One TARGET done
-		// Notifies that a given number of work unit of the main task has been completed. 
-		// Note that this amount represents an installment, as opposed to a cumulative amount of work done to date.
-		progressMonitor.worked(1); // One unit done (not cumulative)
-		
 	}
 	
 	//--------------------------------------------------------------------------------------------------
 	/**
-	 * Returns the name of the entity currently under generation 
+	 * Returns the 'RenderAbortedException' at the origin of the given exception (or null if none)
+	 * @param exception
+	 * @return
+	 */
+	private RenderAbortedException findRenderAbortedException(Throwable exception) { // v 4.2.0
+		Throwable e = exception ;
+		while ( e != null ) {
+			if ( e instanceof RenderAbortedException ) {
+				return (RenderAbortedException) e ;
+			}
+			e = e.getCause();
+		}
+		return null ;
+	}
+	
+	//--------------------------------------------------------------------------------------------------
+	/**
+	 * Returns the name of the entity currently under generation by the current thread 
 	 * @return
 	 */
 	private String getCurrentEntityName() {
-		if ( currentTarget == null ) return ENTITY_NONE ;
-		String entityName = currentTarget.getEntityName() ;
+		Target target = currentTarget.get();
+		if ( target == null ) return ENTITY_NONE ;
+		String entityName = target.getEntityName() ;
 		if ( entityName == null ) {
 			return ENTITY_NONE ;
 		}
@@ -317,12 +864,13 @@ public abstract class AbstractGenerationTask
 	
 	//--------------------------------------------------------------------------------------------------
 	/**
-	 * Returns the name of the template currently in use for generation 
+	 * Returns the name of the template currently in use for generation by the current thread 
 	 * @return
 	 */
 	private String getCurrentTemplateName() {
-		if ( currentTarget == null ) return NO_TEMPLATE ;
-		return currentTarget.getTemplate() ;
+		Target target = currentTarget.get();
+		if ( target == null ) return NO_TEMPLATE ;
+		return target.getTemplate() ;
 	}
 	
 	//--------------------------------------------------------------------------------------------------
@@ -343,7 +891,11 @@ public abstract class AbstractGenerationTask
 	 * @throws InterruptedException 
 	 */
 	private void manageError( ErrorReport errorReport ) throws InterruptedException {
+		manageError(errorReport, null);
+	}
+	private void manageError( ErrorReport errorReport, Target target ) throws InterruptedException {
 		genTaskResult.addError(errorReport);
+		eventPublisher.publish(GenerationEvent.error(errorReport, target)); // v 4.2.0
 		//--- Open the dialog box (the user can choose to continue or to cancel)
 		boolean continueTask = onError(errorReport);
 		//--- If 'cancel' : throw InterruptedException
@@ -354,6 +906,8 @@ public abstract class AbstractGenerationTask
 	//--------------------------------------------------------------------------------------------------
 	/**
 	 * Build a new ErrorReport from the given exception and add it in the TaskResult <br>
+	 * The target is the last one generated by the current thread, or the failed target 
+	 * if the exception comes from a generation thread (to be called by the thread running the task) <br>
 	 * NB : used by Eclipse Plugin in 'GenerationTaskWithProgress' 
 	 * TODO : move in Eclipse Plugin ??
 	 * @param exception
@@ -368,9 +922,9 @@ public abstract class AbstractGenerationTask
 		return errorReport ;
 	}
 	//--------------------------------------------------------------------------------------------------
-	private ErrorReport buildErrorReportForGeneratorException(GeneratorException generatorException ) {
-		String entityName = this.getCurrentEntityName();
-		String templateName = this.getCurrentTemplateName();	
+	private ErrorReport buildErrorReportForGeneratorException(GeneratorException generatorException, Target target ) {
+		String entityName = StrUtil.nullOrVoid(target.getEntityName()) ? ENTITY_NONE : target.getEntityName() ;
+		String templateName = target.getTemplate() ;	
 		Throwable generatorExceptionCause = generatorException.getCause() ;
 		if ( generatorExceptionCause != null ) {
 			//return ErrorProcessor.buildErrorReport(generatorExceptionCause, entityName, templateName); // v 3.0.0
@@ -18,6 +18,7 @@ package org.telosys.tools.generator.task;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.apache.velocity.exception.ExtendedParseException;
 import org.apache.velocity.exception.MacroOverflowException;
 import org.apache.velocity.exception.MathException;
 import org.apache.velocity.exception.MethodInvocationException;
@@ -29,6 +30,7 @@ import org.apache.velocity.runtime.directive.MacroParseException;
 import org.apache.velocity.runtime.parser.ParseException;
 import org.apache.velocity.runtime.parser.TemplateParseException;
 import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.RenderAbortedException;
 import org.telosys.tools.generator.context.GeneratorContextException;
 import org.telosys.tools.generator.engine.directive.DirectiveException;
 import org.telosys.tools.generator.engine.events.InvalidReferenceException;
@@ -131,13 +133,17 @@ public class ErrorReport {
 	private void addAllExceptionsDetails(List<String> list, Throwable exception) {
 		// Dive in exceptions stack ...
 		Throwable e = exception;
+		int lastLine = -1 ; // last line known in the template ( v 4.2.0 )
 		while ( e != null ) {
 			// Exception name 
 			list.add("-> " +  e.getClass().getCanonicalName() + " : " ) ;
 			// Exception message
 			addExceptionMessage(list, e);
 			// Exception details if any
-			addExceptionDetails(list, e);
+			addExceptionDetails(list, e, lastLine);
+			if ( e instanceof ExtendedParseException ) {
+				lastLine = ((ExtendedParseException) e).getLineNumber();
+			}
 			e = e.getCause() ;
 		}
 	}
@@ -158,8 +164,9 @@ public class ErrorReport {
 	 * Add specific exception details if any
 	 * @param list
 	 * @param exception
+	 * @param lastLine the last line known in the template (from an enclosing Velocity exception) or -1
 	 */
-	private void addExceptionDetails(List<String> list, Throwable exception) {
+	private void addExceptionDetails(List<String> list, Throwable exception, int lastLine) {
 		//--- Telosys exceptions
 		if ( exception instanceof DirectiveException ) {
 			addTelosysDirectiveException(list, (DirectiveException)exception);
@@ -173,6 +180,9 @@ public class ErrorReport {
 		else if ( exception instanceof InvalidReferenceException ) {
 			// no more information (message is explicit enough)
 		}
+		else if ( exception instanceof RenderAbortedException ) { // v 4.2.0
+			addRenderAbortedException(list, (RenderAbortedException) exception, lastLine);
+		}
 		//--- Velocity exceptions
 		else if ( exception instanceof ParseException ) { // Velocity Checked Exceptions
 			addVelocityParseException(list, (ParseException) exception);
@@ -198,6 +208,19 @@ public class ErrorReport {
 		list.add(inTemplate(e.getTemplateName(), e.getLineNumber(), -1 ));
 	}
 	
+	/**
+	 * Rendering aborted by the watchdog (time budget exceeded or generation canceled) <br>
+	 * When aborted by a context object the line is not known by the watchdog : 
+	 * the line of the Velocity method invocation is used
+	 * @param list
+	 * @param e
+	 * @param lastLine
+	 */
+	private void addRenderAbortedException(List<String> list, RenderAbortedException e, int lastLine) { // v 4.2.0
+		list.add( e.isCanceled() ? "Rendering canceled " : "Rendering time budget exceeded " );
+		list.add(inTemplate(e.getTemplateName(), e.getLineNumber() > 0 ? e.getLineNumber() : lastLine, -1 ));
+	}
+	
 	/**
 	 * Telosys directive error, eg : #using("varNotDefined")
 	 * @param list
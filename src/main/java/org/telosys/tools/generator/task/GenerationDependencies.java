@@ -0,0 +1,228 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+
+/**
+ * Dependencies recorded for each generated file (incremental generation) <br>
+ * For each output file : the template, the global fingerprint, 
+ * the entities, the list of entities, the entities selection and the files used by the template 
+ * with their fingerprint at generation time. <br>
+ * A file is "up to date" if all its recorded dependencies are unchanged. <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class GenerationDependencies {
+
+	public static final String DEFAULT_FILE_NAME = ".telosys-dependencies.properties" ;
+
+	private static final String TEMPLATE = "template" ;
+	private static final String GLOBAL   = "global" ;
+	private static final String LIST     = "list" ;
+	private static final String SELECTION = "selection" ; // v 4.2.0
+	private static final String ENTITY   = "entity" ;
+	private static final String FILE     = "file" ;
+	private static final String SEPARATOR = "|" ;
+
+	private final ModelFingerprints fingerprints ;
+
+	private final ConcurrentMap<String, String> records = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor (no dependencies recorded)
+	 * @param fingerprints the current fingerprints 
+	 */
+	public GenerationDependencies(ModelFingerprints fingerprints) {
+		super();
+		this.fingerprints = fingerprints;
+	}
+
+	/**
+	 * Returns the default dependencies file for the given destination folder 
+	 * @param destinationFolder
+	 * @return
+	 */
+	public static File getDefaultFile(String destinationFolder) {
+		return new File(destinationFolder, DEFAULT_FILE_NAME);
+	}
+
+	private static String getKey(Target target) {
+		return target.getOutputFileNameInProject().replace('\\', '/');
+	}
+
+	/**
+	 * Records the dependencies of the given target (after a successful generation)
+	 * @param target
+	 * @param recorder
+	 */
+	public void record(Target target, DependencyRecorder recorder) {
+		StringBuilder sb = new StringBuilder();
+		appendLine(sb, TEMPLATE, target.getTemplate());
+		appendLine(sb, GLOBAL, fingerprints.getGlobalFingerprint());
+		if ( recorder.isEntitiesListRecorded() ) {
+			appendLine(sb, LIST, fingerprints.getEntitiesListFingerprint());
+		}
+		if ( recorder.isSelectionRecorded() ) {
+			appendLine(sb, SELECTION, fingerprints.getSelectionFingerprint());
+		}
+		if ( ! StrUtil.nullOrVoid(target.getEntityName()) ) {
+			// current entity ( '$entity' )
+			appendLine(sb, ENTITY, target.getEntityName(), fingerprints.getEntityFingerprint(target.getEntityName()));
+		}
+		for ( String entityName : recorder.getEntities() ) {
+			appendLine(sb, ENTITY, entityName, fingerprints.getEntityFingerprint(entityName));
+		}
+		for ( String file : recorder.getFiles() ) {
+			appendLine(sb, FILE, file, ModelFingerprints.getFileFingerprint(file));
+		}
+		records.put(getKey(target), sb.toString());
+	}
+
+	private void appendLine(StringBuilder sb, String kind, String value) {
+		sb.append(kind).append(SEPARATOR).append(value).append('\n');
+	}
+
+	private void appendLine(StringBuilder sb, String kind, String name, String value) {
+		sb.append(kind).append(SEPARATOR).append(name).append(SEPARATOR).append(value).append('\n');
+	}
+
+	/**
+	 * Removes the dependencies of the given target (always generated next time)
+	 * @param target
+	 */
+	public void remove(Target target) {
+		records.remove(getKey(target));
+	}
+
+	/**
+	 * Returns true if dependencies are recorded for the given target
+	 * @param target
+	 * @return
+	 */
+	public boolean hasRecord(Target target) {
+		return records.containsKey(getKey(target));
+	}
+
+	/**
+	 * Returns the number of output files with recorded dependencies 
+	 * @return
+	 */
+	public int size() {
+		return records.size();
+	}
+
+	/**
+	 * Returns true if all the dependencies recorded for the given target are unchanged 
+	 * @param target
+	 * @return
+	 */
+	public boolean isUpToDate(Target target) {
+		String record = records.get(getKey(target));
+		if ( record == null ) {
+			return false ;
+		}
+		for ( String line : record.split("\n") ) {
+			if ( ! isUpToDate(target, line) ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	private boolean isUpToDate(Target target, String line) {
+		int first = line.indexOf(SEPARATOR);
+		int last = line.lastIndexOf(SEPARATOR);
+		if ( first < 0 ) {
+			return false ;
+		}
+		String kind = line.substring(0, first);
+		String value = line.substring(last + 1);
+		String name = first < last ? line.substring(first + 1, last) : null ;
+		switch ( kind ) {
+		case TEMPLATE :
+			return value.equals(target.getTemplate());
+		case GLOBAL :
+			return value.equals(fingerprints.getGlobalFingerprint());
+		case LIST :
+			return value.equals(fingerprints.getEntitiesListFingerprint());
+		case SELECTION :
+			return ! ModelFingerprints.NONE.equals(value) && value.equals(fingerprints.getSelectionFingerprint());
+		case ENTITY :
+			return name != null && value.equals(fingerprints.getEntityFingerprint(name));
+		case FILE :
+			return name != null && value.equals(ModelFingerprints.getFileFingerprint(name));
+		default :
+			return false ;
+		}
+	}
+
+	/**
+	 * Loads the dependencies from the given file (no dependencies if the file doesn't exist)
+	 * @param file
+	 * @param fingerprints the current fingerprints 
+	 * @return
+	 * @throws GeneratorException
+	 */
+	public static GenerationDependencies load(File file, ModelFingerprints fingerprints) throws GeneratorException {
+		GenerationDependencies dependencies = new GenerationDependencies(fingerprints);
+		if ( file.exists() ) {
+			Properties properties = new Properties();
+			try ( InputStream inputStream = new FileInputStream(file) ) {
+				properties.load(inputStream);
+			} catch (IOException e) {
+				throw new GeneratorException("Cannot load dependencies file '" + file.getAbsolutePath() + "'", e);
+			}
+			for ( String key : properties.stringPropertyNames() ) {
+				dependencies.records.put(key, properties.getProperty(key));
+			}
+		}
+		return dependencies ;
+	}
+
+	/**
+	 * Saves the dependencies in the given file 
+	 * @param file
+	 * @throws GeneratorException
+	 */
+	public void save(File file) throws GeneratorException {
+		Properties properties = new Properties();
+		for ( Map.Entry<String, String> entry : records.entrySet() ) {
+			properties.setProperty(entry.getKey(), entry.getValue());
+		}
+		try ( OutputStream outputStream = new FileOutputStream(file) ) {
+			properties.store(outputStream, "Telosys generation dependencies");
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot save dependencies file '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+}
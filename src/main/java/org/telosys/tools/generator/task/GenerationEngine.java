@@ -0,0 +1,149 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import java.util.List;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.generator.BundleCache;
+import org.telosys.tools.generator.output.OutputSink;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Long-lived generation engine for a given project configuration and a given bundle <br>
+ * Designed to be created once and used for many generation requests (e.g. in a server) <br>
+ * The bundle elements (checked templates, class loader, files read by the templates) 
+ * are kept in a cache shared by all the generations. <br>
+ * Thread-safe : each request is executed in its own generation task 
+ * and several requests can be launched concurrently.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class GenerationEngine {
+
+	private final TelosysToolsCfg    telosysToolsCfg ;
+	private final String             bundleName ;
+	private final TelosysToolsLogger logger ;
+	private final BundleCache        bundleCache ;
+
+	/**
+	 * Constructor with default cache size
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	public GenerationEngine(TelosysToolsCfg telosysToolsCfg, String bundleName, TelosysToolsLogger logger) 
+			throws TelosysToolsException {
+		this(telosysToolsCfg, bundleName, logger, BundleCache.DEFAULT_MAX_CACHED_FILES_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param logger
+	 * @param maxCachedFilesSize maximum total size (in bytes) of the files kept in the cache
+	 * @throws TelosysToolsException
+	 */
+	public GenerationEngine(TelosysToolsCfg telosysToolsCfg, String bundleName, TelosysToolsLogger logger, 
+			long maxCachedFilesSize) throws TelosysToolsException {
+		super();
+		if ( telosysToolsCfg  == null ) throw new TelosysToolsException("TelosysToolsCfg param is null ");
+		if ( bundleName  == null ) throw new TelosysToolsException("bundle name param is null ");
+		if ( logger  == null )  throw new TelosysToolsException("logger param is null ");
+		this.telosysToolsCfg = telosysToolsCfg;
+		this.bundleName = bundleName;
+		this.logger = logger;
+		this.bundleCache = new BundleCache(maxCachedFilesSize);
+	}
+
+	public TelosysToolsCfg getTelosysToolsCfg() {
+		return telosysToolsCfg;
+	}
+
+	public String getBundleName() {
+		return bundleName;
+	}
+
+	/**
+	 * Returns the cache shared by all the generations launched with this engine
+	 * @return
+	 */
+	public BundleCache getBundleCache() {
+		return bundleCache;
+	}
+
+	/**
+	 * Enables or disables the compilation of the templates frequently used ( disabled by default ) 
+	 * @param enabled
+	 */
+	public void setTemplatesCompilation(boolean enabled) {
+		bundleCache.setTemplatesCompilation(enabled);
+	}
+
+	/**
+	 * Generates the given targets in the project destination folder
+	 * @param model
+	 * @param selectedEntities
+	 * @param selectedTargets
+	 * @param resourcesTargets resources targets to be copied (or null if none)
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public GenerationTaskResult generate(Model model, List<String> selectedEntities, 
+			List<TargetDefinition> selectedTargets, List<TargetDefinition> resourcesTargets) throws TelosysToolsException {
+		return generate(model, selectedEntities, selectedTargets, resourcesTargets, null);
+	}
+
+	/**
+	 * Generates the given targets in the given output
+	 * @param model
+	 * @param selectedEntities
+	 * @param selectedTargets
+	 * @param resourcesTargets resources targets to be copied (or null if none)
+	 * @param outputSink destination of the generated files and resources (or null for the project destination folder)
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public GenerationTaskResult generate(Model model, List<String> selectedEntities, 
+			List<TargetDefinition> selectedTargets, List<TargetDefinition> resourcesTargets, 
+			OutputSink outputSink) throws TelosysToolsException {
+		StandardGenerationTask task = new StandardGenerationTask(model, selectedEntities, bundleName, 
+				selectedTargets, resourcesTargets, telosysToolsCfg, logger, outputSink, bundleCache);
+		return task.launch();
+	}
+
+	/**
+	 * Invalidates the templates (to be called after a change in the bundle templates)
+	 */
+	public void invalidateTemplates() {
+		logger.log(this, "invalidate templates");
+		bundleCache.invalidateTemplates();
+	}
+
+	/**
+	 * Invalidates all the cached elements (templates, class loader, files)
+	 */
+	public void invalidateCache() {
+		logger.log(this, "invalidate cache");
+		bundleCache.invalidate();
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import org.telosys.tools.generator.context.Target;
+
+/**
+ * Event published by a generation task ( v 4.2.0 ) <br>
+ * See 'GenerationEventPublisher' 
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public final class GenerationEvent {
+
+	public enum Type {
+		TARGET_PLANNED,   // target to be generated (once for each target of the plan)
+		FILE_GENERATED,   // file generated (path and size)
+		FILE_UNCHANGED,   // file not generated (incremental generation : dependencies unchanged)
+		ERROR,            // generation error (error report)
+		RESOURCES_COPIED, // static resources copied (number of files)
+		TASK_FINISHED     // end of task (task result) : always the last event
+	}
+
+	private final Type                 type ;
+	private final Target               target ;
+	private final String               filePath ;
+	private final long                 fileSize ;
+	private final ErrorReport          errorReport ;
+	private final int                  count ;
+	private final GenerationTaskResult taskResult ;
+
+	private GenerationEvent(Type type, Target target, String filePath, long fileSize, 
+			ErrorReport errorReport, int count, GenerationTaskResult taskResult) {
+		super();
+		this.type = type;
+		this.target = target;
+		this.filePath = filePath;
+		this.fileSize = fileSize;
+		this.errorReport = errorReport;
+		this.count = count;
+		this.taskResult = taskResult;
+	}
+
+	protected static GenerationEvent targetPlanned(Target target) {
+		return new GenerationEvent(Type.TARGET_PLANNED, target, null, -1, null, 0, null);
+	}
+
+	protected static GenerationEvent fileGenerated(Target target, String filePath, long fileSize) {
+		return new GenerationEvent(Type.FILE_GENERATED, target, filePath, fileSize, null, 1, null);
+	}
+
+	protected static GenerationEvent fileUnchanged(Target target, String filePath) {
+		return new GenerationEvent(Type.FILE_UNCHANGED, target, filePath, -1, null, 0, null);
+	}
+
+	protected static GenerationEvent error(ErrorReport errorReport, Target target) {
+		return new GenerationEvent(Type.ERROR, target, null, -1, errorReport, 0, null);
+	}
+
+	protected static GenerationEvent resourcesCopied(int count) {
+		return new GenerationEvent(Type.RESOURCES_COPIED, null, null, -1, null, count, null);
+	}
+
+	protected static GenerationEvent taskFinished(GenerationTaskResult taskResult) {
+		return new GenerationEvent(Type.TASK_FINISHED, null, null, -1, null, 0, taskResult);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the target (or null if none : resources copied, task finished, error without target)
+	 * @return
+	 */
+	public Target getTarget() {
+		return target;
+	}
+
+	/**
+	 * Returns the file absolute path (or the file name in the project if not in the file system) <br>
+	 * Null if the event is not about a file
+	 * @return
+	 */
+	public String getFilePath() {
+		return filePath;
+	}
+
+	/**
+	 * Returns the size of the generated file in bytes (or -1 if unknown)
+	 * @return
+	 */
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * Returns the error report for an 'ERROR' event (else null)
+	 * @return
+	 */
+	public ErrorReport getErrorReport() {
+		return errorReport;
+	}
+
+	/**
+	 * Returns the number of resources files copied for a 'RESOURCES_COPIED' event
+	 * @return
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the task result for a 'TASK_FINISHED' event (else null)
+	 * @return
+	 */
+	public GenerationTaskResult getTaskResult() {
+		return taskResult;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(type);
+		if ( target != null ) {
+			sb.append(" : ").append(target.getTemplate());
+		}
+		if ( filePath != null ) {
+			sb.append(" : ").append(filePath);
+		}
+		if ( fileSize >= 0 ) {
+			sb.append(" (").append(fileSize).append(" bytes)");
+		}
+		if ( errorReport != null ) {
+			sb.append(" : ").append(errorReport.getErrorMessage());
+		}
+		if ( type == Type.RESOURCES_COPIED ) {
+			sb.append(" : ").append(count);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,265 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publisher of the events of a generation task ( v 4.2.0 ) <br>
+ * Same contract as a Reactive Streams 'Publisher' ( 'java.util.concurrent.Flow.Publisher' in Java 9 ) <br>
+ * Each subscriber has its own delivery thread and its own bounded buffer : <br>
+ * . the events are delivered while the generation continues (not in the rendering thread) <br>
+ * . backpressure : an event is delivered only if requested, and when the buffer of a subscriber is full 
+ *   the generation waits until the subscriber requests more events (or cancels its subscription) <br>
+ * The subscribers must subscribe before the task is launched to receive all the events 
+ * (after the end of the task a new subscriber gets only 'onComplete')
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class GenerationEventPublisher {
+
+	public static final int DEFAULT_BUFFER_CAPACITY = 256 ;
+
+	private final int bufferCapacity ;
+	private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private boolean closed = false ;
+	private Throwable closingError = null ;
+
+	/**
+	 * Constructor with the default buffer capacity for each subscriber
+	 */
+	public GenerationEventPublisher() {
+		this(DEFAULT_BUFFER_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 * @param bufferCapacity the max number of events waiting for each subscriber
+	 */
+	public GenerationEventPublisher(int bufferCapacity) {
+		super();
+		this.bufferCapacity = bufferCapacity > 0 ? bufferCapacity : 1 ;
+	}
+
+	/**
+	 * Adds the given subscriber ( 'onSubscribe' is called by the delivery thread of the subscriber )
+	 * @param subscriber
+	 */
+	public void subscribe(GenerationEventSubscriber subscriber) {
+		if ( subscriber == null ) {
+			throw new NullPointerException("subscriber is null");
+		}
+		EventSubscription subscription = new EventSubscription(subscriber);
+		synchronized (this) {
+			if ( closed ) {
+				subscription.complete(closingError);
+			}
+			else {
+				subscriptions.add(subscription);
+			}
+		}
+		subscription.start();
+	}
+
+	/**
+	 * Returns true if at least one subscriber is still active
+	 * @return
+	 */
+	public boolean hasSubscribers() {
+		for ( EventSubscription subscription : subscriptions ) {
+			if ( ! subscription.isCanceled() ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	/**
+	 * Publishes the given event to all the subscribers <br>
+	 * Waits if the buffer of a subscriber is full (backpressure)
+	 * @param event
+	 */
+	protected void publish(GenerationEvent event) {
+		for ( EventSubscription subscription : subscriptions ) {
+			subscription.offer(event);
+		}
+	}
+
+	/**
+	 * Ends the stream : 'onComplete' (or 'onError' if an error is given) after the last buffered event
+	 * @param error the error at the origin of the end (or null for a normal end)
+	 */
+	protected synchronized void close(Throwable error) {
+		if ( ! closed ) {
+			closed = true ;
+			closingError = error ;
+			for ( EventSubscription subscription : subscriptions ) {
+				subscription.complete(error);
+			}
+		}
+	}
+
+	/**
+	 * Waits until all the events have been delivered to all the subscribers (stream closed)
+	 * @param timeout
+	 * @param unit
+	 * @return true if all delivered, false if the timeout elapsed before
+	 * @throws InterruptedException
+	 */
+	public boolean awaitDelivery(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for ( EventSubscription subscription : subscriptions ) {
+			long remaining = deadline - System.nanoTime() ;
+			if ( ! subscription.terminated.await(remaining, TimeUnit.NANOSECONDS) ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	//-----------------------------------------------------------------------------------------
+	/**
+	 * Subscription with its buffer and its delivery thread
+	 */
+	private class EventSubscription implements GenerationEventSubscription, Runnable {
+
+		private final GenerationEventSubscriber subscriber ;
+		private final ArrayDeque<GenerationEvent> buffer = new ArrayDeque<>();
+		private final CountDownLatch terminated = new CountDownLatch(1);
+		private long      demand = 0 ;
+		private boolean   canceled = false ;
+		private boolean   completed = false ;
+		private Throwable error = null ;
+
+		private EventSubscription(GenerationEventSubscriber subscriber) {
+			super();
+			this.subscriber = subscriber ;
+		}
+
+		private void start() {
+			Thread thread = new Thread(this, "telosys-generation-events");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		private synchronized boolean isCanceled() {
+			return canceled ;
+		}
+
+		private synchronized void offer(GenerationEvent event) {
+			while ( buffer.size() >= bufferCapacity && ! canceled ) {
+				try {
+					wait(); // backpressure : wait for the subscriber
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return ; // event not delivered 
+				}
+			}
+			if ( ! canceled && ! completed ) {
+				buffer.addLast(event);
+				notifyAll();
+			}
+		}
+
+		private synchronized void complete(Throwable completionError) {
+			if ( ! completed ) {
+				completed = true ;
+				error = completionError ;
+				notifyAll();
+			}
+		}
+
+		@Override
+		public synchronized void request(long n) {
+			if ( n <= 0 ) {
+				// Reactive Streams rule 3.9 
+				complete(new IllegalArgumentException("non-positive request : " + n));
+				buffer.clear();
+				notifyAll();
+				return ;
+			}
+			demand = demand + n ;
+			if ( demand < 0 ) {
+				demand = Long.MAX_VALUE ; // overflow : no limit
+			}
+			notifyAll();
+		}
+
+		@Override
+		public synchronized void cancel() {
+			canceled = true ;
+			buffer.clear();
+			notifyAll();
+		}
+
+		/**
+		 * Returns the next event to deliver, or null if the stream is terminated or canceled 
+		 * @return
+		 * @throws InterruptedException
+		 */
+		private synchronized GenerationEvent next() throws InterruptedException {
+			while ( ! canceled && ( buffer.isEmpty() || demand == 0 ) && ! ( completed && buffer.isEmpty() ) ) {
+				wait();
+			}
+			if ( canceled || buffer.isEmpty() ) {
+				return null ;
+			}
+			if ( demand != Long.MAX_VALUE ) {
+				demand-- ;
+			}
+			GenerationEvent event = buffer.pollFirst();
+			notifyAll(); // space available in the buffer
+			return event ;
+		}
+
+		@Override
+		public void run() {
+			try {
+				subscriber.onSubscribe(this);
+				GenerationEvent event = next();
+				while ( event != null ) {
+					subscriber.onNext(event);
+					event = next();
+				}
+				Throwable terminalError ;
+				synchronized (this) {
+					if ( canceled ) {
+						return ;
+					}
+					terminalError = error ;
+				}
+				if ( terminalError != null ) {
+					subscriber.onError(terminalError);
+				}
+				else {
+					subscriber.onComplete();
+				}
+			} catch (InterruptedException e) {
+				cancel();
+			} catch (RuntimeException e) {
+				// subscriber error : no more events for this subscriber (the generation continues)
+				cancel();
+			} finally {
+				terminated.countDown();
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+/**
+ * Receiver of the generation events ( v 4.2.0 ) <br>
+ * Same contract as a Reactive Streams 'Subscriber' ( 'java.util.concurrent.Flow.Subscriber' in Java 9 ) : <br>
+ * . 'onSubscribe' first <br>
+ * . 'onNext' for each event, never more than the number of events requested with 'subscription.request(n)' <br>
+ * . 'onComplete' or 'onError' at the end <br>
+ * All the methods are called by the same thread (one delivery thread for each subscriber)
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public interface GenerationEventSubscriber {
+
+	void onSubscribe(GenerationEventSubscription subscription) ;
+
+	void onNext(GenerationEvent event) ;
+
+	void onError(Throwable throwable) ;
+
+	void onComplete() ;
+}
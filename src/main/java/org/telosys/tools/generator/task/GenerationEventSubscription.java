@@ -0,0 +1,37 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+/**
+ * Link between the generation events publisher and a subscriber ( v 4.2.0 ) <br>
+ * Same contract as a Reactive Streams 'Subscription' ( 'java.util.concurrent.Flow.Subscription' in Java 9 )
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public interface GenerationEventSubscription {
+
+	/**
+	 * Requests the given number of additional events ( Long.MAX_VALUE for no limit )
+	 * @param n
+	 */
+	void request(long n) ;
+
+	/**
+	 * Stops the delivery of events (the generation continues)
+	 */
+	void cancel() ;
+}
@@ -0,0 +1,136 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.generator.context.Target;
+
+/**
+ * Generation plan : all the targets to be generated by a task (built without rendering) <br>
+ * . the targets for each selected entity followed by the "once" targets (in the generation order) <br>
+ * . the resources to be copied <br>
+ * . the selected entities not found in the model <br>
+ * . the output files collisions (several targets with the same output file) <br>
+ * A plan can be used as the input of the task execution (the targets are not rebuilt).
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class GenerationPlan {
+
+	private final List<Target>            targets ;
+	private final List<TargetDefinition>  resourcesTargets ;
+	private final List<String>            missingEntities ;
+	private final Map<String, List<Target>> collisions ;
+
+	/**
+	 * Constructor
+	 * @param targets
+	 * @param resourcesTargets (or null if none)
+	 * @param missingEntities
+	 */
+	protected GenerationPlan(List<Target> targets, List<TargetDefinition> resourcesTargets, List<String> missingEntities) {
+		super();
+		this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+		if ( resourcesTargets != null ) {
+			this.resourcesTargets = Collections.unmodifiableList(new ArrayList<>(resourcesTargets));
+		}
+		else {
+			this.resourcesTargets = null ;
+		}
+		this.missingEntities = Collections.unmodifiableList(new ArrayList<>(missingEntities));
+		this.collisions = Collections.unmodifiableMap(buildCollisions(this.targets));
+	}
+
+	private static String getOutputFileKey(Target target) {
+		return target.getOutputFileNameInProject().replace('\\', '/');
+	}
+
+	private static Map<String, List<Target>> buildCollisions(List<Target> targets) {
+		Map<String, List<Target>> targetsByFile = new LinkedHashMap<>();
+		for ( Target target : targets ) {
+			String key = getOutputFileKey(target);
+			List<Target> list = targetsByFile.get(key);
+			if ( list == null ) {
+				list = new LinkedList<>();
+				targetsByFile.put(key, list);
+			}
+			list.add(target);
+		}
+		Map<String, List<Target>> collisionsMap = new LinkedHashMap<>();
+		for ( Map.Entry<String, List<Target>> entry : targetsByFile.entrySet() ) {
+			if ( entry.getValue().size() > 1 ) {
+				collisionsMap.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+			}
+		}
+		return collisionsMap ;
+	}
+
+	/**
+	 * Returns all the targets to be generated (in the generation order)
+	 * @return
+	 */
+	public List<Target> getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Returns the number of targets to be generated
+	 * @return
+	 */
+	public int getNumberOfTargets() {
+		return targets.size();
+	}
+
+	/**
+	 * Returns the resources targets to be copied (or null if none)
+	 * @return
+	 */
+	public List<TargetDefinition> getResourcesTargets() {
+		return resourcesTargets;
+	}
+
+	/**
+	 * Returns the names of the selected entities not found in the model
+	 * @return
+	 */
+	public List<String> getMissingEntities() {
+		return missingEntities;
+	}
+
+	/**
+	 * Returns true if at least 2 targets have the same output file
+	 * @return
+	 */
+	public boolean hasCollisions() {
+		return ! collisions.isEmpty();
+	}
+
+	/**
+	 * Returns the output files collisions : output file name in project --> targets with this file 
+	 * @return
+	 */
+	public Map<String, List<Target>> getCollisions() {
+		return collisions;
+	}
+}
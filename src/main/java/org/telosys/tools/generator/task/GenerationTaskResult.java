@@ -31,6 +31,7 @@ public class GenerationTaskResult {
 	private int numberOfResourcesCopied ;
 	private int numberOfFilesGenerated ;
 	private int numberOfGenerationErrors ;
+	private int numberOfTargetsSkipped ; // v 4.2.0
 
 	private List<ErrorReport> errors = new ArrayList<>();
 
@@ -60,6 +61,18 @@ public class GenerationTaskResult {
 		return numberOfFilesGenerated;
 	}
 	
+	//--------------------------------------------------------------------------------------
+	protected void incrementNumberOfTargetsSkipped() { // v 4.2.0
+		numberOfTargetsSkipped++;
+	}
+	/**
+	 * Returns the number of targets not generated because their dependencies are unchanged (incremental generation)
+	 * @return
+	 */
+	public int getNumberOfTargetsSkipped() {
+		return numberOfTargetsSkipped;
+	}
+	
 	//--------------------------------------------------------------------------------------
 	protected void addGenerationError(Target target) {
 		numberOfGenerationErrors++;
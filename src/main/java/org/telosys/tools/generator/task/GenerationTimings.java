@@ -0,0 +1,279 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Render durations (in microseconds) of the previous generations <br>
+ * . average duration for each template (all the entities) <br>
+ * . last duration for each template and entity <br>
+ * Used to estimate the cost of each target and to schedule the longest targets first. <br>
+ * Without history the cost is estimated from the number of attributes 
+ * (entity attributes for an entity target, all the model attributes for a "once" target). <br>
+ * Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class GenerationTimings {
+
+	public static final String DEFAULT_FILE_NAME = ".telosys-timings.properties" ;
+
+	private static final String TEMPLATE_PREFIX = "template:" ;
+	private static final String ENTITY_PREFIX   = "entity:" ;
+	private static final String MICROS_PER_ATTRIBUTE = "micros-per-attribute" ;
+
+	private final ConcurrentMap<String, Long> durations = new ConcurrentHashMap<>();
+
+	private final Map<String, Long> templateSamples = new HashMap<>(); // number of durations in each template average (guarded by itself)
+
+	private volatile long microsPerAttribute = 1 ; // cost unit when no history
+
+	/**
+	 * Constructor (no history)
+	 */
+	public GenerationTimings() {
+		super();
+	}
+
+	/**
+	 * Returns the default timings file in the given folder <br>
+	 * (a project folder, not the destination folder where the file would be mixed with the generated files)
+	 * @param folder
+	 * @return
+	 */
+	public static File getDefaultFile(String folder) {
+		return new File(folder, DEFAULT_FILE_NAME);
+	}
+
+	private static String templateKey(String template) {
+		return TEMPLATE_PREFIX + template ;
+	}
+
+	private static String entityKey(String template, String entityName) {
+		return ENTITY_PREFIX + template + ":" + entityName ;
+	}
+
+	private static boolean hasEntity(Target target) {
+		return ! StrUtil.nullOrVoid(target.getEntityName());
+	}
+
+	/**
+	 * Records the render duration of the given target <br>
+	 * The template duration is the average of all the durations recorded for this template 
+	 * (a duration loaded from the history counts as one)
+	 * @param target
+	 * @param micros duration in microseconds
+	 */
+	public void record(Target target, long micros) {
+		if ( hasEntity(target) ) {
+			durations.put(entityKey(target.getTemplate(), target.getEntityName()), micros);
+		}
+		String key = templateKey(target.getTemplate());
+		synchronized (templateSamples) {
+			Long average = durations.get(key);
+			Long samples = templateSamples.get(key);
+			long count = samples != null ? samples : ( average != null ? 1 : 0 ) ;
+			long newAverage = count > 0 ? ( average * count + micros ) / ( count + 1 ) : micros ;
+			durations.put(key, newAverage);
+			templateSamples.put(key, count + 1);
+		}
+	}
+
+	/**
+	 * Returns the recorded duration for the given target (or -1 if no history)
+	 * @param target
+	 * @return
+	 */
+	public long getDuration(Target target) {
+		Long duration = null ;
+		if ( hasEntity(target) ) {
+			duration = durations.get(entityKey(target.getTemplate(), target.getEntityName()));
+		}
+		if ( duration == null ) {
+			duration = durations.get(templateKey(target.getTemplate()));
+		}
+		return duration != null ? duration : -1 ;
+	}
+
+	/**
+	 * Returns the number of durations recorded
+	 * @return
+	 */
+	public int size() {
+		return durations.size();
+	}
+
+	private static int getNumberOfAttributes(Entity entity) {
+		return entity != null && entity.getAttributes() != null ? entity.getAttributes().size() : 0 ;
+	}
+
+	/**
+	 * Returns the number of attributes concerned by the given target <br>
+	 * (entity attributes or all the model attributes for a "once" target)
+	 * @param target
+	 * @param model
+	 * @return
+	 */
+	protected static int getNumberOfAttributes(Target target, Model model) {
+		if ( hasEntity(target) ) {
+			return getNumberOfAttributes(model.getEntityByClassName(target.getEntityName()));
+		}
+		else {
+			int n = 0 ;
+			for ( Entity entity : model.getEntities() ) {
+				n = n + getNumberOfAttributes(entity);
+			}
+			return n ;
+		}
+	}
+
+	/**
+	 * Returns the estimated cost (in microseconds) of the given target
+	 * @param target
+	 * @param model
+	 * @return
+	 */
+	public long getEstimatedCost(Target target, Model model) {
+		long duration = getDuration(target);
+		if ( duration >= 0 ) {
+			return duration ;
+		}
+		else {
+			return ( getNumberOfAttributes(target, model) + 1 ) * microsPerAttribute ;
+		}
+	}
+
+	/**
+	 * Updates the cost unit used without history (average duration per attribute) 
+	 * @param targets the targets generated 
+	 * @param model
+	 */
+	public void updateCostUnit(List<Target> targets, Model model) {
+		long totalMicros = 0 ;
+		long totalAttributes = 0 ;
+		for ( Target target : targets ) {
+			long duration = getDuration(target);
+			if ( duration >= 0 ) {
+				totalMicros = totalMicros + duration ;
+				totalAttributes = totalAttributes + getNumberOfAttributes(target, model) + 1 ;
+			}
+		}
+		if ( totalAttributes > 0 ) {
+			microsPerAttribute = Math.max(1, totalMicros / totalAttributes) ;
+		}
+	}
+
+	/**
+	 * Returns a new list with the given targets sorted by decreasing estimated cost (longest first)
+	 * @param targets
+	 * @param model
+	 * @return
+	 */
+	public List<Target> sortByDecreasingCost(List<Target> targets, final Model model) {
+		final Map<Target, Long> costs = new IdentityHashMap<>();
+		for ( Target target : targets ) {
+			costs.put(target, getEstimatedCost(target, model));
+		}
+		List<Target> list = new ArrayList<>(targets);
+		// stable sort : original order kept for the same cost
+		Collections.sort(list, new Comparator<Target>() {
+			@Override
+			public int compare(Target t1, Target t2) {
+				return Long.compare(costs.get(t2), costs.get(t1));
+			}
+		});
+		return list ;
+	}
+
+	/**
+	 * Loads the timings from the given file (no history if the file doesn't exist)
+	 * @param file
+	 * @return
+	 * @throws GeneratorException
+	 */
+	public static GenerationTimings load(File file) throws GeneratorException {
+		GenerationTimings timings = new GenerationTimings();
+		if ( file.exists() ) {
+			Properties properties = new Properties();
+			try ( InputStream inputStream = new FileInputStream(file) ) {
+				properties.load(inputStream);
+			} catch (IOException e) {
+				throw new GeneratorException("Cannot load timings file '" + file.getAbsolutePath() + "'", e);
+			}
+			for ( String key : properties.stringPropertyNames() ) {
+				long value = parseLong(properties.getProperty(key));
+				if ( value >= 0 ) {
+					if ( MICROS_PER_ATTRIBUTE.equals(key) ) {
+						timings.microsPerAttribute = Math.max(1, value);
+					}
+					else {
+						timings.durations.put(key, value);
+					}
+				}
+			}
+		}
+		return timings ;
+	}
+
+	private static long parseLong(String s) {
+		try {
+			return Long.parseLong(s.trim());
+		} catch (NumberFormatException e) {
+			return -1 ;
+		}
+	}
+
+	/**
+	 * Saves the timings in the given file 
+	 * @param file
+	 * @throws GeneratorException
+	 */
+	public void save(File file) throws GeneratorException {
+		Properties properties = new Properties();
+		for ( Map.Entry<String, Long> entry : durations.entrySet() ) {
+			properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+		}
+		properties.setProperty(MICROS_PER_ATTRIBUTE, String.valueOf(microsPerAttribute));
+		try ( OutputStream outputStream = new FileOutputStream(file) ) {
+			properties.store(outputStream, "Telosys render durations (microseconds)");
+		} catch (IOException e) {
+			throw new GeneratorException("Cannot save timings file '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+}
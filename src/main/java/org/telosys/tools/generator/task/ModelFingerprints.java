@@ -0,0 +1,389 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.generator.task;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Fingerprints (hash) of the elements that can be used by a template : <br>
+ * . each entity of the model (all the values exposed by the generic model interfaces) <br>
+ * . the list of entities (entities names) <br>
+ * . the entities selected for the generation (selected entities names) <br>
+ * . the global elements : model properties, project variables, bundle files <br>
+ * . the files <br>
+ * Each fingerprint is computed once (on first use). Thread-safe.
+ * 
+ * @author Laurent Guerin
+ *
+ */
+public class ModelFingerprints {
+
+	public static final String NONE = "-" ;
+
+	static final String GENERIC_MODEL_PACKAGE = "org.telosys.tools.generic.model" ;
+	private static final int    MAX_DEPTH = 6 ;
+
+	private static final ConcurrentMap<Class<?>, List<Method>> gettersByClass = new ConcurrentHashMap<>();
+
+	private final Model            model ;
+	private final TelosysToolsCfg  telosysToolsCfg ;
+	private final String           bundleName ;
+	private final File             bundleArchiveFile ; // v 4.2.0 (null if bundle folder)
+	private final List<String>     selectedEntitiesNames ; // v 4.2.0 (null if unknown)
+
+	private final ConcurrentMap<String, String> entitiesFingerprints = new ConcurrentHashMap<>();
+	private volatile String entitiesListFingerprint = null ;
+	private volatile String selectionFingerprint = null ;
+	private volatile String globalFingerprint = null ;
+
+	/**
+	 * Constructor
+	 * @param model
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 */
+	public ModelFingerprints(Model model, TelosysToolsCfg telosysToolsCfg, String bundleName) {
+		this(model, telosysToolsCfg, bundleName, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param model
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param bundleArchiveFile the bundle archive file used instead of the bundle folder (or null if none)
+	 */
+	public ModelFingerprints(Model model, TelosysToolsCfg telosysToolsCfg, String bundleName, File bundleArchiveFile) { // v 4.2.0
+		this(model, telosysToolsCfg, bundleName, bundleArchiveFile, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param model
+	 * @param telosysToolsCfg
+	 * @param bundleName
+	 * @param bundleArchiveFile the bundle archive file used instead of the bundle folder (or null if none)
+	 * @param selectedEntitiesNames the entities selected for the generation (or null if unknown)
+	 */
+	public ModelFingerprints(Model model, TelosysToolsCfg telosysToolsCfg, String bundleName, File bundleArchiveFile,
+			List<String> selectedEntitiesNames) { // v 4.2.0
+		super();
+		this.model = model;
+		this.telosysToolsCfg = telosysToolsCfg;
+		this.bundleName = bundleName;
+		this.bundleArchiveFile = bundleArchiveFile;
+		this.selectedEntitiesNames = selectedEntitiesNames != null ? new ArrayList<>(selectedEntitiesNames) : null ;
+	}
+
+	/**
+	 * Returns the fingerprint of the given entity (or NONE if the entity doesn't exist)
+	 * @param entityClassName
+	 * @return
+	 */
+	public String getEntityFingerprint(String entityClassName) {
+		String fingerprint = entitiesFingerprints.get(entityClassName);
+		if ( fingerprint == null ) {
+			Entity entity = model.getEntityByClassName(entityClassName);
+			fingerprint = entity != null ? hash(valueOf(entity)) : NONE ;
+			entitiesFingerprints.put(entityClassName, fingerprint);
+		}
+		return fingerprint ;
+	}
+
+	/**
+	 * Returns the fingerprint of the list of entities (names in the model order)
+	 * @return
+	 */
+	public String getEntitiesListFingerprint() {
+		String fingerprint = entitiesListFingerprint ;
+		if ( fingerprint == null ) {
+			StringBuilder sb = new StringBuilder();
+			for ( Entity entity : model.getEntities() ) {
+				sb.append(entity.getClassName()).append('\n');
+			}
+			fingerprint = hash(sb.toString());
+			entitiesListFingerprint = fingerprint ;
+		}
+		return fingerprint ;
+	}
+
+	/**
+	 * Returns the fingerprint of the entities selected for the generation (names in the selection order) <br>
+	 * or NONE if the selection is unknown
+	 * @return
+	 */
+	public String getSelectionFingerprint() { // v 4.2.0
+		if ( selectedEntitiesNames == null ) {
+			return NONE ;
+		}
+		String fingerprint = selectionFingerprint ;
+		if ( fingerprint == null ) {
+			StringBuilder sb = new StringBuilder();
+			for ( String entityName : selectedEntitiesNames ) {
+				sb.append(entityName).append('\n');
+			}
+			fingerprint = hash(sb.toString());
+			selectionFingerprint = fingerprint ;
+		}
+		return fingerprint ;
+	}
+
+	/**
+	 * Returns the fingerprint of the elements used by all the templates <br>
+	 * (model properties, project variables and all the files of the bundle)
+	 * @return
+	 */
+	public String getGlobalFingerprint() {
+		String fingerprint = globalFingerprint ;
+		if ( fingerprint == null ) {
+			StringBuilder sb = new StringBuilder();
+			//--- Model properties (except entities)
+			sb.append("model:").append(valueOf(model)).append('\n');
+			//--- Project variables (sorted)
+			Map<String, String> variables = telosysToolsCfg.getAllVariablesMap();
+			if ( variables != null ) {
+				sb.append("variables:").append(new TreeMap<>(variables)).append('\n');
+			}
+			sb.append("entityPackage:").append(telosysToolsCfg.getEntityPackage()).append('\n');
+			//--- Bundle files (templates, macros, resources)
+			if ( bundleArchiveFile != null ) {
+				sb.append(bundleArchiveFile.getAbsolutePath()).append('=').append(getFileFingerprint(bundleArchiveFile.getAbsolutePath())).append('\n');
+			}
+			else {
+				File bundleFolder = new File(telosysToolsCfg.getTemplatesFolderAbsolutePath(bundleName));
+				appendFiles(sb, bundleFolder);
+			}
+			fingerprint = hash(sb.toString());
+			globalFingerprint = fingerprint ;
+		}
+		return fingerprint ;
+	}
+
+	private void appendFiles(StringBuilder sb, File folder) {
+		File[] files = folder.listFiles();
+		if ( files != null ) {
+			Arrays.sort(files);
+			for ( File file : files ) {
+				if ( file.isDirectory() ) {
+					appendFiles(sb, file);
+				}
+				else {
+					sb.append(file.getAbsolutePath()).append('=').append(getFileFingerprint(file.getAbsolutePath())).append('\n');
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the fingerprint of the given file (or NONE if the file doesn't exist)
+	 * @param fileAbsolutePath
+	 * @return
+	 */
+	public static String getFileFingerprint(String fileAbsolutePath) {
+		File file = new File(fileAbsolutePath);
+		if ( file.exists() ) {
+			return file.lastModified() + ":" + file.length() ;
+		}
+		else {
+			return NONE ;
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Values of the generic model objects (via the interfaces getters)
+	//-------------------------------------------------------------------------------------------------
+	private String valueOf(Object object) {
+		StringBuilder sb = new StringBuilder();
+		appendValue(sb, object, 0, new IdentityHashMap<Object, Boolean>());
+		return sb.toString();
+	}
+
+	private void appendValue(StringBuilder sb, Object value, int depth, Map<Object, Boolean> inProgress) {
+		if ( value == null ) {
+			sb.append("null");
+		}
+		else if ( value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum ) {
+			sb.append(value.toString());
+		}
+		else if ( value instanceof Collection ) {
+			sb.append('[');
+			for ( Object element : (Collection<?>) value ) {
+				appendValue(sb, element, depth + 1, inProgress);
+				sb.append(',');
+			}
+			sb.append(']');
+		}
+		else if ( value instanceof Map ) {
+			//--- Entries sorted by key (no dependency on the map implementation order)
+			Map<String, Object> sortedMap = new TreeMap<>();
+			for ( Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet() ) {
+				sortedMap.put(String.valueOf(entry.getKey()), entry.getValue());
+			}
+			sb.append('{');
+			for ( Map.Entry<String, Object> entry : sortedMap.entrySet() ) {
+				sb.append(entry.getKey()).append('=');
+				appendValue(sb, entry.getValue(), depth + 1, inProgress);
+				sb.append(',');
+			}
+			sb.append('}');
+		}
+		else if ( depth > MAX_DEPTH || inProgress.containsKey(value) ) {
+			// reference to an object already in progress (or too deep) : class name only (no identity hash code)
+			sb.append('@').append(value.getClass().getSimpleName());
+		}
+		else {
+			List<Method> getters = getModelGetters(value.getClass());
+			if ( getters.isEmpty() ) {
+				if ( hasSpecificToString(value.getClass()) ) {
+					sb.append(value.toString());
+				}
+				else {
+					// no getter and no specific 'toString' (eg tags container) : use the fields values 
+					inProgress.put(value, Boolean.TRUE);
+					appendFields(sb, value, depth, inProgress);
+					inProgress.remove(value);
+				}
+			}
+			else {
+				inProgress.put(value, Boolean.TRUE);
+				sb.append('(');
+				for ( Method getter : getters ) {
+					if ( ! ( value instanceof Model && "getEntities".equals(getter.getName()) ) ) {
+						sb.append(getter.getName()).append('=');
+						appendValue(sb, invoke(getter, value), depth + 1, inProgress);
+						sb.append(';');
+					}
+				}
+				sb.append(')');
+				inProgress.remove(value);
+			}
+		}
+	}
+
+	private void appendFields(StringBuilder sb, Object value, int depth, Map<Object, Boolean> inProgress) {
+		sb.append(value.getClass().getSimpleName()).append('(');
+		for ( Class<?> clazz = value.getClass() ; clazz != null && clazz != Object.class ; clazz = clazz.getSuperclass() ) {
+			for ( Field field : clazz.getDeclaredFields() ) {
+				if ( ! Modifier.isStatic(field.getModifiers()) && ! field.isSynthetic() ) {
+					sb.append(field.getName()).append('=');
+					appendValue(sb, getFieldValue(field, value), depth + 1, inProgress);
+					sb.append(';');
+				}
+			}
+		}
+		sb.append(')');
+	}
+
+	private Object getFieldValue(Field field, Object object) {
+		try {
+			field.setAccessible(true);
+			return field.get(object);
+		} catch (Exception e) {
+			return "error:" + e.getClass().getSimpleName() ;
+		}
+	}
+
+	private static boolean hasSpecificToString(Class<?> clazz) {
+		try {
+			return clazz.getMethod("toString").getDeclaringClass() != Object.class ;
+		} catch (NoSuchMethodException e) {
+			return false ;
+		}
+	}
+
+	private Object invoke(Method getter, Object object) {
+		try {
+			return getter.invoke(object);
+		} catch (Exception e) {
+			return "error:" + e.getClass().getSimpleName() ;
+		}
+	}
+
+	/**
+	 * Returns the getters of the generic model interfaces implemented by the given class (sorted by name)
+	 * @param clazz
+	 * @return
+	 */
+	static List<Method> getModelGetters(Class<?> clazz) {
+		List<Method> list = gettersByClass.get(clazz);
+		if ( list == null ) {
+			Map<String, Method> getters = new TreeMap<>();
+			collectModelGetters(clazz, getters);
+			list = new ArrayList<>(getters.values());
+			gettersByClass.put(clazz, list);
+		}
+		return list ;
+	}
+
+	private static void collectModelGetters(Class<?> clazz, Map<String, Method> getters) {
+		if ( clazz == null ) {
+			return ;
+		}
+		for ( Class<?> i : clazz.getInterfaces() ) {
+			if ( i.getName().startsWith(GENERIC_MODEL_PACKAGE) ) {
+				for ( Method method : i.getMethods() ) {
+					String name = method.getName();
+					if ( method.getParameterTypes().length == 0 && Modifier.isPublic(method.getModifiers())
+							&& ( name.startsWith("get") || name.startsWith("is") ) ) {
+						getters.put(name, method);
+					}
+				}
+			}
+			collectModelGetters(i, getters);
+		}
+		collectModelGetters(clazz.getSuperclass(), getters);
+	}
+
+	/**
+	 * Returns the hash (SHA-1 in hexadecimal) of the given string
+	 * @param s
+	 * @return
+	 */
+	public static String hash(String s) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+			byte[] digest = messageDigest.digest(s.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for ( byte b : digest ) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-1 is always available 
+			return Integer.toHexString(s.hashCode());
+		}
+	}
+}
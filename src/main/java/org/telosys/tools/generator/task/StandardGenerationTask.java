@@ -15,6 +15,7 @@
  */
 package org.telosys.tools.generator.task;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,7 +23,11 @@ import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.commons.bundles.TargetDefinition;
 import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.generator.BundleCache;
+import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.output.OutputSink;
+import org.telosys.tools.generator.snapshot.ModelSnapshot;
 import org.telosys.tools.generic.model.Model;
 
 
@@ -63,6 +68,97 @@ public class StandardGenerationTask extends AbstractGenerationTask implements Ge
 		super(model, selectedEntities, bundleName, selectedTargets, resourcesTargets, telosysToolsCfg, logger); // v 3.0.0
 	}
 	
+	/**
+	 * Constructor with a specific output (archive, memory, etc)
+	 * @param model
+	 * @param selectedEntities
+	 * @param bundleName
+	 * @param selectedTargets
+	 * @param resourcesTargets
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param outputSink destination of the generated files and resources (or null for the project destination folder)
+	 * @throws TelosysToolsException
+	 */
+	public StandardGenerationTask(
+			Model                  model,
+			List<String>           selectedEntities,
+			String                 bundleName,
+			List<TargetDefinition> selectedTargets,
+			List<TargetDefinition> resourcesTargets,
+			TelosysToolsCfg        telosysToolsCfg,
+			TelosysToolsLogger     logger,
+			OutputSink             outputSink) // v 4.2.0
+			throws TelosysToolsException 
+	{
+		super(model, selectedEntities, bundleName, selectedTargets, resourcesTargets, telosysToolsCfg, logger, outputSink);
+	}
+	
+	/**
+	 * Constructor with a specific output and a bundle cache shared by several tasks
+	 * @param model
+	 * @param selectedEntities
+	 * @param bundleName
+	 * @param selectedTargets
+	 * @param resourcesTargets
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @param outputSink destination of the generated files and resources (or null for the project destination folder)
+	 * @param bundleCache bundle cache shared by several tasks (or null if none)
+	 * @throws TelosysToolsException
+	 */
+	public StandardGenerationTask(
+			Model                  model,
+			List<String>           selectedEntities,
+			String                 bundleName,
+			List<TargetDefinition> selectedTargets,
+			List<TargetDefinition> resourcesTargets,
+			TelosysToolsCfg        telosysToolsCfg,
+			TelosysToolsLogger     logger,
+			OutputSink             outputSink,
+			BundleCache            bundleCache) // v 4.2.0
+			throws TelosysToolsException 
+	{
+		super(model, selectedEntities, bundleName, selectedTargets, resourcesTargets, telosysToolsCfg, logger, outputSink, bundleCache);
+	}
+	
+	/**
+	 * Constructor with a model loaded from its snapshot if the model files are unchanged <br>
+	 * (else the model is parsed and a new snapshot is written for the next generations)
+	 * @param modelFolder the folder containing the model files
+	 * @param modelParser the parser used if the snapshot cannot be used
+	 * @param selectedEntities
+	 * @param bundleName
+	 * @param selectedTargets
+	 * @param resourcesTargets
+	 * @param telosysToolsCfg
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	public StandardGenerationTask(
+			File                      modelFolder,
+			ModelSnapshot.ModelParser modelParser,
+			List<String>           selectedEntities,
+			String                 bundleName,
+			List<TargetDefinition> selectedTargets,
+			List<TargetDefinition> resourcesTargets,
+			TelosysToolsCfg        telosysToolsCfg,
+			TelosysToolsLogger     logger) // v 4.2.0
+			throws TelosysToolsException 
+	{
+		super(loadModel(modelFolder, modelParser), selectedEntities, bundleName, selectedTargets, resourcesTargets, telosysToolsCfg, logger);
+	}
+	
+	private static Model loadModel(File modelFolder, ModelSnapshot.ModelParser modelParser) throws TelosysToolsException { // v 4.2.0
+		if ( modelFolder == null ) throw new TelosysToolsException("model folder param is null ");
+		if ( modelParser == null ) throw new TelosysToolsException("model parser param is null ");
+		try {
+			return ModelSnapshot.loadOrParse(modelFolder, modelParser);
+		} catch (GeneratorException e) {
+			throw new TelosysToolsException("Cannot load model '" + modelFolder.getName() + "'", e);
+		}
+	}
+	
 	/**
 	 * @param continueIfError
 	 */
@@ -87,6 +183,15 @@ public class StandardGenerationTask extends AbstractGenerationTask implements Ge
 	
 	@Override  // Implementation for GenerationTask
 	public GenerationTaskResult launch() { 
+		return launch(null);
+	}
+	
+	/**
+	 * Launches the task with the given plan (the targets of the plan are not rebuilt)
+	 * @param plan the plan built by this task with 'buildPlan()' (or null to build a new plan)
+	 * @return
+	 */
+	public GenerationTaskResult launch(GenerationPlan plan) { // v 4.2.0
 		log("launch");
 		
 		//-----------------------------------------------------------------------------------
@@ -100,7 +205,7 @@ public class StandardGenerationTask extends AbstractGenerationTask implements Ge
 			log("Run generation task ..."  );
 			//--- RUN THE TASK ( 'this' task ) 
 			// the 'run' method must be conformed to Eclipse 'IRunnableWithProgress' implementation			
-			run();
+			run(plan);
 			// NB :
 			// All the exceptions are wrapped in a 'InvocationTargetException'
 			log("End of generation task."  );
@@ -124,7 +229,7 @@ public class StandardGenerationTask extends AbstractGenerationTask implements Ge
 	// Methods for Eclipse like behavior (like Eclipse interface 'IRunnableWithProgress')
 	//--------------------------------------------------------------------------------------
 	// throws InvocationTargetException : removed in v 3.3.0 
-	private void run() throws // InvocationTargetException, 
+	private void run(GenerationPlan plan) throws // InvocationTargetException, 
 							InterruptedException {
 		log("run");
 
@@ -135,6 +240,6 @@ public class StandardGenerationTask extends AbstractGenerationTask implements Ge
 		//---------------------------------------------------------------------------
 
 		ITaskMonitor defaultTaskMonitor = new DefaultTaskMonitor();
-		super.runTask(defaultTaskMonitor, null, null);
+		super.runTask(plan, defaultTaskMonitor, null, null);
 	}
 }
@@ -0,0 +1,125 @@
+package junit.env.telosys.tools.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.output.OutputSink;
+import org.telosys.tools.generator.task.StandardGenerationTask;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Project 'proj-stress' with the bundle 'bundle-stress' and a model with several entities <br>
+ * (each template gives a language specific file for each entity)
+ */
+public class StressProject {
+
+	public static final String BUNDLE = "bundle-stress";
+	public static final String[] TEMPLATES = {
+			"java_class.vm", "csharp_nullable.vm", "csharp_not_nullable.vm",
+			"kotlin_class.vm", "sql_postgresql.vm", "sql_oracle.vm" } ;
+	public static final int ENTITIES_COUNT = 8 ;
+
+	private static final String[] NEUTRAL_TYPES = {
+			NeutralType.STRING, NeutralType.INTEGER, NeutralType.LONG, NeutralType.SHORT, NeutralType.BOOLEAN,
+			NeutralType.DECIMAL, NeutralType.DATE, NeutralType.TIMESTAMP, NeutralType.DOUBLE, NeutralType.BYTE } ;
+
+	private final FakeProject fakeProject = new FakeProject("proj-stress");
+	private final TelosysToolsCfg telosysToolsCfg = fakeProject.getTelosysToolsCfg();
+	private final DslModel model = buildModel();
+
+	private DslModel buildModel() {
+		DslModel dslModel = new DslModel("StressModel");
+		for ( int e = 0 ; e < ENTITIES_COUNT ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			for ( int a = 0 ; a < NEUTRAL_TYPES.length ; a++ ) {
+				DslModelAttribute attribute = new DslModelAttribute("attr" + a, NEUTRAL_TYPES[(a + e) % NEUTRAL_TYPES.length]);
+				attribute.setKeyElement(a == 0);
+				attribute.setNotNull(a % 3 == 0);
+				entity.addAttribute(attribute);
+			}
+			dslModel.addEntity(entity);
+		}
+		return dslModel ;
+	}
+
+	public TelosysToolsCfg getTelosysToolsCfg() {
+		return telosysToolsCfg;
+	}
+
+	public List<String> getEntitiesNames() {
+		List<String> list = new LinkedList<>();
+		for ( int e = 0 ; e < ENTITIES_COUNT ; e++ ) {
+			list.add("Entity" + e);
+		}
+		return list;
+	}
+
+	public String getFolder(String runName, int templateIndex) {
+		return "generated-files/stress/" + runName + "/" + TEMPLATES[templateIndex].replace(".vm", "");
+	}
+
+	public TargetDefinition getTargetDefinition(String runName, int templateIndex) {
+		return new TargetDefinition("Stress target", "${BEANNAME}.txt", getFolder(runName, templateIndex),
+				TEMPLATES[templateIndex], "*");
+	}
+
+	/**
+	 * Returns the target definitions for all the templates
+	 * @param runName
+	 * @return
+	 */
+	public List<TargetDefinition> getTargetDefinitions(String runName) {
+		List<TargetDefinition> targets = new LinkedList<>();
+		for ( int t = 0 ; t < TEMPLATES.length ; t++ ) {
+			targets.add(getTargetDefinition(runName, t));
+		}
+		return targets;
+	}
+
+	/**
+	 * Creates a task for all the entities (stopped on first error)
+	 * @param targets
+	 * @param outputSink the output sink (or null for the file system)
+	 * @return
+	 */
+	public StandardGenerationTask createTask(List<TargetDefinition> targets, OutputSink outputSink) throws TelosysToolsException {
+		StandardGenerationTask task = new StandardGenerationTask(model, getEntitiesNames(), BUNDLE, targets, null,
+				telosysToolsCfg, LoggerProvider.getLogger(), outputSink);
+		task.setContinueIfError(false);
+		return task ;
+	}
+
+	public File getGeneratedFile(String runName, int templateIndex, int entityIndex) {
+		return new File(telosysToolsCfg.getDestinationFolderAbsolutePath(),
+				getFolder(runName, templateIndex) + "/Entity" + entityIndex + ".txt");
+	}
+
+	/**
+	 * Checks the files generated by the 2 runs for the given template are identical
+	 * @param referenceRunName
+	 * @param runName
+	 * @param templateIndex
+	 * @throws IOException
+	 */
+	public void checkSameFiles(String referenceRunName, String runName, int templateIndex) throws IOException {
+		for ( int e = 0 ; e < ENTITIES_COUNT ; e++ ) {
+			File reference = getGeneratedFile(referenceRunName, templateIndex, e);
+			File file = getGeneratedFile(runName, templateIndex, e);
+			assertTrue(file.exists());
+			assertArrayEquals("Different content : " + file,
+					Files.readAllBytes(reference.toPath()), Files.readAllBytes(file.toPath()));
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package org.telosys.tools.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.telosys.tools.commons.io.OverwriteChooser;
+import org.telosys.tools.generator.context.Loader;
+import org.telosys.tools.generator.output.InMemoryOutputSink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BundleArchiveTest {
+
+	private static void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content);
+		zip.closeEntry();
+	}
+
+	private static void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+		addEntry(zip, name, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] buildJar() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try ( JarOutputStream jar = new JarOutputStream(out) ) {
+			jar.putNextEntry(new JarEntry("conf/tool.properties"));
+			jar.write("name=tool".getBytes(StandardCharsets.UTF_8));
+			jar.closeEntry();
+		}
+		return out.toByteArray();
+	}
+
+	private File buildArchive(Path folder, String rootFolder) throws IOException {
+		File file = folder.resolve("bundle.zip").toFile();
+		try ( OutputStream out = Files.newOutputStream(file.toPath()) ; ZipOutputStream zip = new ZipOutputStream(out) ) {
+			addEntry(zip, rootFolder + "templates.cfg", "; targets");
+			addEntry(zip, rootFolder + "foo.vm", "Foo $entity.name");
+			addEntry(zip, rootFolder + "sub/bar.vm", "Bar");
+			addEntry(zip, rootFolder + "resources/x.txt", "x");
+			addEntry(zip, rootFolder + "resources/css/a.css", "a");
+			addEntry(zip, rootFolder + "resources/css/b.css", "b");
+			addEntry(zip, rootFolder + "classes/tool.txt", "tool");
+			addEntry(zip, rootFolder + "lib/tool.jar", buildJar());
+		}
+		return file ;
+	}
+
+	private static String read(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[256];
+		int n ;
+		while ( ( n = inputStream.read(buffer) ) > 0 ) {
+			out.write(buffer, 0, n);
+		}
+		inputStream.close();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private BundleArchive openArchive(String rootFolder) throws Exception {
+		Path folder = Files.createTempDirectory("telosys-archive");
+		return new BundleArchive(buildArchive(folder, rootFolder), folder.resolve("templates").toFile());
+	}
+
+	@Test
+	public void testTemplates() throws Exception {
+		for ( String rootFolder : new String[] { "", "my-bundle/" } ) {
+			try ( BundleArchive archive = openArchive(rootFolder) ) {
+				assertTrue(archive.isFile("foo.vm"));
+				assertTrue(archive.isFile("/sub/bar.vm"));
+				assertFalse(archive.isFile("sub"));
+				assertFalse(archive.isFile("nope.vm"));
+				assertFalse(archive.isFile("../foo.vm"));
+
+				String templatesFolder = archive.getTemplatesFolder();
+				assertEquals("Foo $entity.name", new String(Files.readAllBytes(new File(templatesFolder, "foo.vm").toPath()), StandardCharsets.UTF_8));
+				assertTrue(new File(templatesFolder, "sub/bar.vm").isFile());
+				assertTrue(new File(templatesFolder, "templates.cfg").isFile());
+				// resources and libraries not copied
+				assertFalse(new File(templatesFolder, "resources").exists());
+				assertFalse(new File(templatesFolder, "classes").exists());
+				assertFalse(new File(templatesFolder, "lib").exists());
+				assertEquals(templatesFolder, archive.getTemplatesFolder());
+			}
+		}
+	}
+
+	@Test
+	public void testCopyResources() throws Exception {
+		try ( BundleArchive archive = openArchive("my-bundle/") ) {
+			File destination = Files.createTempDirectory("telosys-resources").toFile();
+			assertEquals(2, archive.copyResource("css", new File(destination, "static/css"), null, null));
+			assertTrue(new File(destination, "static/css/a.css").isFile());
+			assertTrue(new File(destination, "static/css/b.css").isFile());
+			assertEquals(1, archive.copyResource("x.txt", new File(destination, "y.txt"), null, null));
+			assertEquals("x", new String(Files.readAllBytes(new File(destination, "y.txt").toPath()), StandardCharsets.UTF_8));
+
+			InMemoryOutputSink outputSink = new InMemoryOutputSink();
+			assertEquals(2, archive.copyResource("css", outputSink, "static/css"));
+			assertEquals("a", outputSink.getFileContent("static/css/a.css"));
+			assertEquals("b", outputSink.getFileContent("static/css/b.css"));
+		}
+	}
+
+	private static OverwriteChooser chooser(final int choice, final List<String> asked) {
+		return new OverwriteChooser() {
+			@Override
+			public int choose(String fileName, String folderName) {
+				asked.add(fileName);
+				return choice ;
+			}
+		};
+	}
+
+	@Test
+	public void testExistingFilesKept() throws Exception {
+		try ( BundleArchive archive = openArchive("my-bundle/") ) {
+			File destination = Files.createTempDirectory("telosys-resources").toFile();
+			File css = new File(destination, "css");
+			assertTrue(css.mkdirs());
+			Files.write(new File(css, "a.css").toPath(), "edited".getBytes(StandardCharsets.UTF_8));
+			// 'NO' : existing file kept, other files copied
+			List<String> asked = new ArrayList<>();
+			assertEquals(1, archive.copyResource("css", css, chooser(OverwriteChooser.NO, asked), null));
+			assertEquals("[a.css]", asked.toString());
+			assertEquals("edited", new String(Files.readAllBytes(new File(css, "a.css").toPath()), StandardCharsets.UTF_8));
+			assertEquals("b", new String(Files.readAllBytes(new File(css, "b.css").toPath()), StandardCharsets.UTF_8));
+			// 'CANCEL' 
+			assertEquals(-1, archive.copyResource("css", css, chooser(OverwriteChooser.CANCEL, asked), null));
+			assertEquals("edited", new String(Files.readAllBytes(new File(css, "a.css").toPath()), StandardCharsets.UTF_8));
+			// 'YES_TO_ALL' : asked once 
+			asked.clear();
+			assertEquals(2, archive.copyResource("css", css, chooser(OverwriteChooser.YES_TO_ALL, asked), null));
+			assertEquals(1, asked.size());
+			assertEquals("a", new String(Files.readAllBytes(new File(css, "a.css").toPath()), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test(expected = GeneratorException.class)
+	public void testUnknownResource() throws Exception {
+		try ( BundleArchive archive = openArchive("") ) {
+			archive.copyResource("nope", Files.createTempDirectory("telosys-resources").toFile(), null, null);
+		}
+	}
+
+	@Test(expected = GeneratorException.class)
+	public void testUnknownArchive() throws Exception {
+		new BundleArchive(new File("/no/such/bundle.zip"), new File("/tmp"));
+	}
+
+	@Test
+	public void testClassLoader() throws Exception {
+		try ( BundleArchive archive = openArchive("my-bundle/") ) {
+			ClassLoader classLoader = archive.getClassLoader();
+			assertSame(classLoader, archive.getClassLoader());
+			// 'classes' folder
+			URL url = classLoader.getResource("tool.txt");
+			assertNotNull(url);
+			assertEquals("tool", read(classLoader.getResourceAsStream("tool.txt")));
+			// nested jar in 'lib' folder
+			assertEquals("name=tool", read(classLoader.getResourceAsStream("conf/tool.properties")));
+			assertNull(classLoader.getResourceAsStream("conf/nope.properties"));
+			// standard classes from the parent
+			assertSame(String.class, classLoader.loadClass("java.lang.String"));
+		}
+	}
+
+	@Test
+	public void testBundleCacheLoader() throws Exception {
+		try ( BundleArchive archive = openArchive("") ) {
+			BundleCache bundleCache = new BundleCache();
+			bundleCache.setBundleArchive(archive);
+			assertSame(archive, bundleCache.getBundleArchive());
+			Loader loader = bundleCache.getLoader(archive.getTemplatesFolder());
+			assertEquals(1, loader.getURLs().length);
+			assertEquals(archive.getArchiveFile().toURI().toURL(), loader.getURLs()[0]);
+			assertSame(String.class, loader.loadClass("java.lang.String"));
+		}
+	}
+}
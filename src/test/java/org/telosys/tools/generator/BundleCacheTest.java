@@ -0,0 +1,42 @@
+package org.telosys.tools.generator;
+
+import org.junit.Test;
+import org.telosys.tools.generator.context.Loader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BundleCacheTest {
+
+	@Test
+	public void testCheckedTemplates() {
+		BundleCache bundleCache = new BundleCache();
+		assertFalse(bundleCache.isCheckedTemplate("foo.vm"));
+		bundleCache.setCheckedTemplate("foo.vm");
+		bundleCache.setCheckedTemplate("foo.vm");
+		assertTrue(bundleCache.isCheckedTemplate("foo.vm"));
+		assertEquals(1, bundleCache.getNumberOfCheckedTemplates());
+		bundleCache.invalidateTemplates();
+		assertFalse(bundleCache.isCheckedTemplate("foo.vm"));
+	}
+
+	@Test
+	public void testLoader() {
+		BundleCache bundleCache = new BundleCache();
+		Loader loader = bundleCache.getLoader("/tmp/templates/bundle1");
+		assertSame(loader, bundleCache.getLoader("/tmp/templates/bundle1"));
+		assertEquals(1, bundleCache.getNumberOfLoaders());
+		bundleCache.invalidate();
+		assertEquals(0, bundleCache.getNumberOfLoaders());
+		assertNotSame(loader, bundleCache.getLoader("/tmp/templates/bundle1"));
+	}
+
+	@Test
+	public void testMaxCachedFilesSize() {
+		assertEquals(BundleCache.DEFAULT_MAX_CACHED_FILES_SIZE, new BundleCache().getFileContentCache().getMaxCachedSize());
+		assertEquals(1000, new BundleCache(1000).getFileContentCache().getMaxCachedSize());
+	}
+}
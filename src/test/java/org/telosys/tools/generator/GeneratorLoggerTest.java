@@ -0,0 +1,169 @@
+package org.telosys.tools.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.generator.task.GenerationTaskResult;
+import org.telosys.tools.generator.task.StandardGenerationTask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.StressProject;
+
+public class GeneratorLoggerTest {
+
+	/**
+	 * Logger keeping all the messages 
+	 */
+	private static class RecordingLogger extends ConsoleLogger {
+		private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+		@Override
+		public void error(String s) {
+			messages.add("ERROR:" + s);
+		}
+		@Override
+		public void info(String s) {
+			messages.add("INFO:" + s);
+		}
+		@Override
+		public void log(String s) {
+			messages.add("LOG:" + s);
+		}
+		@Override
+		public void log(Object o, String s) {
+			messages.add("LOG:" + o + ":" + s);
+		}
+	}
+
+	/**
+	 * Argument counting the calls to 'toString()'
+	 */
+	private static class Argument {
+		private int count = 0 ;
+		@Override
+		public String toString() {
+			count++ ;
+			return "arg" ;
+		}
+	}
+
+	@Test
+	public void testFormat() {
+		assertEquals("a 1 b 2", GeneratorLogger.format("a {} b {}", new Object[] { 1, 2 }));
+		assertEquals("a 1 b {}", GeneratorLogger.format("a {} b {}", new Object[] { 1 }));
+		assertEquals("a 1 b", GeneratorLogger.format("a {} b", new Object[] { 1, 2 }));
+		assertEquals("null", GeneratorLogger.format("{}", new Object[] { null }));
+		assertEquals("a {}", GeneratorLogger.format("a {}", null));
+	}
+
+	@Test
+	public void testAllLevels() {
+		RecordingLogger recordingLogger = new RecordingLogger();
+		GeneratorLogger logger = new GeneratorLogger(recordingLogger);
+		logger.error("e");
+		logger.info("i {}", 1);
+		logger.debug("d {} {}", 1, 2);
+		logger.log("X", "o {}", 3);
+		assertEquals(4, recordingLogger.messages.size());
+		assertEquals("ERROR:e", recordingLogger.messages.get(0));
+		assertEquals("INFO:i 1", recordingLogger.messages.get(1));
+		assertEquals("LOG:d 1 2", recordingLogger.messages.get(2));
+		assertEquals("LOG:X:o 3", recordingLogger.messages.get(3));
+	}
+
+	@Test
+	public void testErrorLevel() {
+		RecordingLogger recordingLogger = new RecordingLogger();
+		GeneratorLogger logger = new GeneratorLogger(recordingLogger, GeneratorLogger.Level.ERROR);
+		assertTrue(logger.isErrorEnabled());
+		assertFalse(logger.isInfoEnabled());
+		assertFalse(logger.isDebugEnabled());
+		Argument arg = new Argument();
+		logger.info("i {}", arg);
+		logger.debug("d {}", arg);
+		logger.log(this, "o {}", arg);
+		logger.error("e {}", arg);
+		// only 1 message formatted 
+		assertEquals(1, arg.count);
+		assertEquals(1, recordingLogger.messages.size());
+		assertEquals("ERROR:e arg", recordingLogger.messages.get(0));
+	}
+
+	@Test
+	public void testNoLogger() {
+		GeneratorLogger logger = new GeneratorLogger(null, GeneratorLogger.Level.DEBUG, true);
+		assertEquals(GeneratorLogger.Level.OFF, logger.getLevel());
+		assertFalse(logger.isErrorEnabled());
+		logger.error("e");
+		logger.close();
+	}
+
+	@Test
+	public void testAsync() {
+		RecordingLogger recordingLogger = new RecordingLogger();
+		GeneratorLogger logger = new GeneratorLogger(recordingLogger, GeneratorLogger.Level.INFO, true);
+		int n = 20000 ;
+		for ( int i = 0 ; i < n ; i++ ) {
+			logger.info("message {}", i);
+			logger.debug("not logged");
+		}
+		logger.flush();
+		assertEquals(n, recordingLogger.messages.size());
+		for ( int i = 0 ; i < n ; i++ ) {
+			// same order
+			assertEquals("INFO:message " + i, recordingLogger.messages.get(i));
+		}
+		logger.close();
+		// still usable after 'close'
+		logger.info("after close");
+		logger.close();
+		assertEquals(n + 1, recordingLogger.messages.size());
+	}
+
+	@Test(timeout = 30000)
+	public void testAsyncCloseWhileLogging() throws InterruptedException {
+		final RecordingLogger recordingLogger = new RecordingLogger();
+		final GeneratorLogger logger = new GeneratorLogger(recordingLogger, GeneratorLogger.Level.INFO, true);
+		final int n = 5000 ;
+		Thread[] threads = new Thread[4];
+		for ( int t = 0 ; t < threads.length ; t++ ) {
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for ( int i = 0 ; i < n ; i++ ) {
+						logger.info("message {}", i);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		// 'close' called while the other threads are logging
+		for ( int i = 0 ; i < 200 ; i++ ) {
+			logger.close();
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+		logger.close(); // must not block (no message lost)
+		assertEquals(threads.length * n, recordingLogger.messages.size());
+	}
+
+	@Test
+	public void testQuietAsyncLoggingInParallelTask() throws Exception {
+		StressProject project = new StressProject();
+		project.createTask(project.getTargetDefinitions("verbose"), null).launch();
+		StandardGenerationTask task = project.createTask(project.getTargetDefinitions("quiet"), null);
+		task.setNumberOfThreads(4);
+		task.setLogging(GeneratorLogger.Level.ERROR, true);
+		GenerationTaskResult result = task.launch();
+		assertEquals(0, result.getNumberOfGenerationErrors());
+		for ( int t = 0 ; t < StressProject.TEMPLATES.length ; t++ ) {
+			project.checkSameFiles("verbose", "quiet", t);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package org.telosys.tools.generator;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.MethodInvocationException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.junit.Test;
+import org.telosys.tools.generator.compiler.CompiledTemplate;
+import org.telosys.tools.generator.compiler.TemplateCompiler;
+import org.telosys.tools.generator.context.FnInContext;
+import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.task.ErrorReport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RenderWatchdogTest {
+
+	private static class Signal implements RenderWatchdog.CancelSignal {
+		private volatile boolean canceled = false ;
+		@Override
+		public boolean isCanceled() {
+			return canceled;
+		}
+	}
+
+	@Test
+	public void testNoWatchdog() {
+		assertNull(RenderWatchdog.start("foo.vm", 0, null));
+		RenderWatchdog.checkpoint(); // nothing to check
+		RenderWatchdog.checkpoint(12);
+	}
+
+	@Test
+	public void testTimeBudget() throws InterruptedException {
+		RenderWatchdog watchdog = RenderWatchdog.start("foo.vm", 50, null);
+		try {
+			RenderWatchdog.checkpoint(3);
+			Thread.sleep(200);
+			RenderWatchdog.checkpoint();
+			fail("RenderAbortedException expected");
+		} catch (RenderAbortedException e) {
+			assertFalse(e.isCanceled());
+			assertEquals("foo.vm", e.getTemplateName());
+			assertEquals(3, e.getLineNumber());
+			assertTrue(e.getElapsedMillis() >= 50);
+			assertTrue(e.getMessage().contains("line 3"));
+		} finally {
+			watchdog.stop();
+		}
+		RenderWatchdog.checkpoint(); // stopped : nothing to check
+	}
+
+	@Test
+	public void testCancel() {
+		Signal signal = new Signal();
+		RenderWatchdog watchdog = RenderWatchdog.start("foo.vm", 0, signal);
+		try {
+			for ( int i = 0 ; i < 1000 ; i++ ) {
+				RenderWatchdog.checkpoint();
+			}
+			signal.canceled = true ;
+			for ( int i = 0 ; i < 1000 ; i++ ) {
+				RenderWatchdog.checkpoint();
+			}
+			fail("RenderAbortedException expected");
+		} catch (RenderAbortedException e) {
+			assertTrue(e.isCanceled());
+			assertEquals(-1, e.getLineNumber());
+		} finally {
+			watchdog.stop();
+		}
+	}
+
+	@Test
+	public void testNestedWatchdogs() throws InterruptedException {
+		RenderWatchdog watchdog1 = RenderWatchdog.start("foo.vm", 50, null);
+		RenderWatchdog watchdog2 = RenderWatchdog.start("bar.vm", 10000, null);
+		Thread.sleep(200);
+		RenderWatchdog.checkpoint(); // 'bar.vm' budget not exceeded
+		watchdog2.stop();
+		try {
+			RenderWatchdog.checkpoint();
+			fail("RenderAbortedException expected");
+		} catch (RenderAbortedException e) {
+			assertEquals("foo.vm", e.getTemplateName());
+		} finally {
+			watchdog1.stop();
+		}
+	}
+
+	@Test
+	public void testRunawayForeachInCompiledTemplate() throws Exception {
+		CompiledTemplate compiledTemplate = new TemplateCompiler().compileText("runaway.vm", 
+				"Start\n#foreach( $i in $items )\n#set( $x = $i )\n#end\nEnd", null);
+		Map<String, Object> variables = new HashMap<>();
+		// endless loop
+		variables.put("items", new Iterator<Integer>() {
+			private int i = 0 ;
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+			@Override
+			public Integer next() {
+				return i++ ;
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		});
+		long start = System.currentTimeMillis();
+		RenderWatchdog watchdog = RenderWatchdog.start("runaway.vm", 100, null);
+		try {
+			compiledTemplate.render(variables);
+			fail("RenderAbortedException expected");
+		} catch (RenderAbortedException e) {
+			assertFalse(e.isCanceled());
+			assertEquals(2, e.getLineNumber());
+			assertTrue(System.currentTimeMillis() - start < 5000);
+		} finally {
+			watchdog.stop();
+		}
+	}
+
+	@Test
+	public void testRunawayRangeForeachInInterpretedTemplate() {
+		VelocityEngine velocityEngine = new VelocityEngine();
+		velocityEngine.setProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS, NullLogChute.class.getName());
+		velocityEngine.init();
+		VelocityContext velocityContext = new VelocityContext();
+		velocityContext.put(ContextName.FN, new FnInContext(null, null));
+		// 10 billion iterations
+		String template = "Start\n#foreach( $i in [1..100000] )\n#foreach( $v in $fn.buildIntValues(100000) )\n#set( $x = $v )\n#end\n#end\nEnd" ;
+		long start = System.currentTimeMillis();
+		RenderWatchdog watchdog = RenderWatchdog.start("runaway.vm", 100, null);
+		try {
+			velocityEngine.evaluate(velocityContext, new StringWriter(), "runaway.vm", template);
+			fail("Exception expected");
+		} catch (MethodInvocationException e) {
+			// aborted by '$fn' (no line known by the watchdog) : line of the method invocation 
+			assertTrue(e.getCause() instanceof RenderAbortedException);
+			assertFalse(((RenderAbortedException) e.getCause()).isCanceled());
+			assertEquals(3, e.getLineNumber());
+			assertTrue(System.currentTimeMillis() - start < 5000);
+			ErrorReport errorReport = new ErrorReport(e, "runaway.vm", null);
+			assertTrue(errorReport.getErrorDetails().contains("in template 'runaway.vm' [ line 3 ]"));
+		} finally {
+			watchdog.stop();
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package org.telosys.tools.generator.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.BeanValidation;
+import org.telosys.tools.generator.context.Const;
+import org.telosys.tools.generator.context.EntityInContext;
+import org.telosys.tools.generator.context.EnvInContext;
+import org.telosys.tools.generator.context.FnInContext;
+import org.telosys.tools.generator.context.HtmlInContext;
+import org.telosys.tools.generator.context.Java;
+import org.telosys.tools.generator.context.JpaInContext;
+import org.telosys.tools.generator.context.ModelInContext;
+import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.context.names.ContextName;
+import org.telosys.tools.generator.engine.GeneratorContext;
+import org.telosys.tools.generator.engine.GeneratorEngine;
+import org.telosys.tools.generator.engine.GeneratorTemplate;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.env.telosys.tools.generator.TestsEnv;
+import junit.env.telosys.tools.generator.context.Builder;
+
+/**
+ * Differential tests : a compiled template must give exactly the same result as the generator engine (interpreter) 
+ * with the same generator context 
+ */
+public class TemplateCompilerTest {
+
+	private static final String TEMPLATES_FOLDER = "src/test/resources/templates" ;
+
+	private final TemplateCompiler templateCompiler = new TemplateCompiler();
+
+	// templates compiled by 'TemplateCompiler' and rendered by the interpreter (generator engine)
+	private static final String[] INTERPRETED_TEMPLATES = {
+			"basic-templates-TT210/doc_entity_html.vm", // unsupported '#B3AFDE' (color in html)
+			"basic-templates-TT210/doc_index_html.vm"   // unsupported '#B3AFDE' (color in html)
+	};
+
+	private String interpret(File file, GeneratorContext generatorContext) {
+		GeneratorTemplate generatorTemplate = new GeneratorTemplate(file.getParentFile().getAbsolutePath(), file.getName());
+		try {
+			return new GeneratorEngine().generate(generatorTemplate, generatorContext);
+		} catch (Exception e) {
+			return "EXCEPTION " + e.getClass().getSimpleName() + " : " + e.getMessage();
+		}
+	}
+
+	private String render(CompiledTemplate compiledTemplate, GeneratorContext generatorContext) {
+		try {
+			return compiledTemplate.render(generatorContext);
+		} catch (Exception e) {
+			return "EXCEPTION " + e.getClass().getSimpleName() + " : " + e.getMessage();
+		}
+	}
+
+	private GeneratorContext buildGeneratorContext(Map<String, Object> variables) {
+		GeneratorContext generatorContext = new GeneratorContext();
+		for ( Map.Entry<String, Object> entry : variables.entrySet() ) {
+			generatorContext.put(entry.getKey(), entry.getValue());
+		}
+		return generatorContext;
+	}
+
+	public static class Bean {
+		private String name = "bean" ;
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		public boolean isActive() {
+			return true;
+		}
+		public String hello(String s) {
+			return "hello " + s ;
+		}
+		public String hello(int i) {
+			return "hello int " + i ;
+		}
+		public void doNothing() {
+			// void method
+		}
+		public String nothing() {
+			return null;
+		}
+		public String fail() {
+			throw new IllegalStateException("failure");
+		}
+		@Override
+		public String toString() {
+			return "Bean:" + name ;
+		}
+	}
+
+	private Map<String, Object> buildSnippetVariables() {
+		Map<String, Object> map = new HashMap<>();
+		map.put("x", "hello");
+		map.put("n", Integer.valueOf(3));
+		map.put("d", Double.valueOf(2.5));
+		map.put("t", Boolean.TRUE);
+		map.put("f", Boolean.FALSE);
+		map.put("empty", "");
+		map.put("list", Arrays.asList(1, 2, 3));
+		map.put("l2", Arrays.asList("a", null, "c"));
+		map.put("arr", new String[] { "a", "b" });
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("k", "v");
+		m.put("b", Integer.valueOf(2));
+		map.put("map", m);
+		map.put("bean", new Bean());
+		map.put("sb", new StringBuilder("sb"));
+		return map;
+	}
+
+	private File writeSnippet(String text) {
+		File file = new File(TestsEnv.getTmpExistingFolder("compiler"), "snippet.vm");
+		try {
+			Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write snippet file", e);
+		}
+		return file;
+	}
+
+	private void checkSnippet(String text) throws TemplateCompilationException {
+		File file = writeSnippet(text);
+		CompiledTemplate compiledTemplate = templateCompiler.compile(file.getParentFile().getAbsolutePath(), file.getName());
+		assertEquals("Snippet : " + text, 
+				interpret(file, buildGeneratorContext(buildSnippetVariables())), 
+				render(compiledTemplate, buildGeneratorContext(buildSnippetVariables())) );
+	}
+
+	@Test
+	public void testReferences() throws TemplateCompilationException {
+		checkSnippet("Text only");
+		checkSnippet("$x ${x} $!x $!{x} $nope $!nope ${nope} $!{nope} #$x $$x $x.length() $x.foo $x.foo()");
+		checkSnippet("\\$x \\$nope \\\\$x \\\\$nope \\${x} \\$!x $ $1 $.x");
+		checkSnippet("$bean.name $bean.getName() $bean.active $bean.hello('a') $bean.hello(2) $bean.hello($n)");
+		checkSnippet("[$bean.doNothing()] [$bean.nothing()] [$!bean.nothing()] [$bean.nothing().length()]");
+		checkSnippet("$map.k $map.b $map.get('k') $map.nope $map.size() $arr.size() $list.get(1) $sb.append('x')$sb");
+		checkSnippet("$bean $bean.name.toUpperCase().length() $list $map $n.toString() $d");
+		checkSnippet("$bean.fail()");
+		checkSnippet("$x.substring(10)");
+	}
+
+	@Test
+	public void testSet() throws TemplateCompilationException {
+		checkSnippet("#set($a = 1)$a #set($a = 'str')$a #set($a = \"interpolated $x\")$a");
+		checkSnippet("#set($a = $x)$a #set($a = $nope)$a #set($a = $bean.nothing())$a");
+		checkSnippet("#set($bean.name = 'foo')$bean.name #set($nope.name = 'foo')$nope.name");
+		checkSnippet("#set($a = [1, 'b', $x])$a #set($m = {'a':1, 'b':$x})$m $m.a #set($r = [1..4])$r #set($r = [3..-1])$r");
+		checkSnippet("#set($r = [1..$x])[$r] #set($r = [$n..1])$r");
+		checkSnippet("  #set($a = 1)\n  text\n#set($b = 2)\n$a$b\n");
+	}
+
+	@Test
+	public void testOperators() throws TemplateCompilationException {
+		checkSnippet("#set($a = $n + 1)$a #set($a = $n - 1)$a #set($a = $n * $d)$a #set($a = $n / 2)$a #set($a = 7 % $n)$a");
+		checkSnippet("#set($a = $n / 0)[$a] #set($a = $n % 0)[$a] #set($a = $x - 1)[$a] #set($a = $nope + 1)[$a]");
+		checkSnippet("#set($a = $x + $n)$a #set($a = $nope + $x)$a #set($a = $x + $nope)$a #set($a = 'a' + 'b')$a");
+		checkSnippet("#set($a = 2147483647 + 1)$a #set($a = 10.0 / 4)$a #set($a = 10 / 4)$a");
+		checkSnippet("#set($c = $n == 3)$c #set($c = $n == '3')$c #set($c = $n != 3)$c #set($c = $nope == $nope2)$c");
+		checkSnippet("#set($c = $n < 4)$c #set($c = $n >= 3)$c #set($c = 'a' < 'b')$c #set($c = $n > $nope)$c");
+		checkSnippet("#set($c = $t && $f)$c #set($c = $t || $f)$c #set($c = !$f)$c #set($c = $x == 'hello')$c");
+	}
+
+	@Test
+	public void testConditions() throws TemplateCompilationException {
+		checkSnippet("#if($x)1#end #if($nope)2#end #if($t)3#end #if($f)4#end #if($empty)5#end");
+		checkSnippet("#if(1)1#end #if('a')2#end #if(1 + 1)3#end #if([1])4#end #if(true)5#end #if(false)6#end");
+		checkSnippet("#if($n > 5)a#elseif($n > 2)b#{else}c#end #if($n > 5)a#elseif($n > 4)b#{else}c#end");
+		checkSnippet("#if($n == 3 && $x)y#end #if(!$nope || $f)z#end #if($bean.active)act#end");
+		checkSnippet("#if( $x )\n  yes\n#else\n  no\n#end\nend\n");
+		checkSnippet("  #if( $x )\n    #if( $nope ) a #else b #end\n  #end\n");
+	}
+
+	@Test
+	public void testForeach() throws TemplateCompilationException {
+		checkSnippet("#foreach($i in $list)$i,#end #foreach($i in $l2)[$i]#end #foreach($i in $arr)$i#end");
+		checkSnippet("#foreach($i in $map)$i,#end #foreach($i in $nope)x#end #foreach($i in $x)x#end");
+		checkSnippet("#foreach($i in [1..3])$velocityCount $velocityHasNext $foreach.index $foreach.count $foreach.hasNext "
+				+ "$foreach.first $foreach.last#end");
+		checkSnippet("#foreach($i in $list)#foreach($j in $arr)$foreach.parent.count-$foreach.count:$foreach.depth #end#end");
+		checkSnippet("#foreach($i in $list)#foreach($j in $arr)[$foreach.parent.count $foreach.topmost.index $foreach.depth $foreach]#end#end");
+		checkSnippet("#foreach($i in $list)#set($foreach.k = 1)[$foreach.k $foreach $foreach.info $foreach.stop()]#end");
+		checkSnippet("#set($foreach = 'r')#foreach($i in $list)[$foreach.replaced]#end $foreach");
+		checkSnippet("#set($i = 'before')#foreach($i in $list)$i#end $i $velocityCount $foreach");
+		checkSnippet("#foreach( $i in $list )\n  #if( $foreach.hasNext )\n    $i,\n  #else\n    $i\n  #end\n#end\n");
+	}
+
+	@Test
+	public void testTextAndComments() throws TemplateCompilationException {
+		checkSnippet("a ## line comment\nb #* block\n comment *# c #[[ raw $x #if ]]# \\#if \\#end d");
+		checkSnippet("#set($s = \"a ## comment\")$s #set($s = \"$x ## comment\")$s");
+		checkSnippet("#set($s = \"#if($t)yes#end $x\")$s #set($s = 'single $x')$s");
+		checkSnippet("é à ü € \t\r\n end");
+	}
+
+	private void checkUnsupported(String text) {
+		try {
+			templateCompiler.compileText("snippet", text, null);
+			fail("TemplateCompilationException expected for " + text);
+		} catch (TemplateCompilationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testUnsupportedConstructs() {
+		checkUnsupported("#macro(m $p)q#end #m(1)");
+		checkUnsupported("#foreach($i in $list)#break#end");
+		checkUnsupported("#stop");
+		checkUnsupported("#include('foo.txt')");
+		checkUnsupported("#evaluate('$x')");
+		checkUnsupported("#define($b)x#end");
+		checkUnsupported("#cancel('x')");
+		checkUnsupported("$list[0]");
+		checkUnsupported("\\$x.length()");
+		checkUnsupported("#parse($x)");
+		checkUnsupported("#parse('foo.vm')"); // no bundle folder
+		checkUnsupported("#if($x");
+	}
+
+	@Test
+	public void testCompiledTemplates() throws Exception {
+		File folder = new File(TEMPLATES_FOLDER);
+		CompiledTemplates compiledTemplates = new CompiledTemplates(3);
+		assertNull(compiledTemplates.get(folder.getAbsolutePath(), "test1.vm"));
+		assertNull(compiledTemplates.get(folder.getAbsolutePath(), "test1.vm"));
+		CompiledTemplate compiledTemplate = compiledTemplates.get(folder.getAbsolutePath(), "test1.vm");
+		assertNotNull(compiledTemplate);
+		assertEquals("test1.vm", compiledTemplate.getTemplateName());
+		assertSame(compiledTemplate, compiledTemplates.get(folder.getAbsolutePath(), "test1.vm"));
+		assertEquals(1, compiledTemplates.getNumberOfCompiledTemplates());
+		// unknown template => never compiled
+		for ( int i = 0 ; i < 5 ; i++ ) {
+			assertNull(compiledTemplates.get(folder.getAbsolutePath(), "nope.vm"));
+		}
+		assertTrue(compiledTemplates.getCompilationErrors().size() == 1);
+		compiledTemplates.invalidate();
+		assertEquals(0, compiledTemplates.getNumberOfCompiledTemplates());
+		assertNull(compiledTemplates.get(folder.getAbsolutePath(), "test1.vm"));
+	}
+
+	//------------------------------------------------------------------------------------
+	// Templates files : compiled template vs Velocity interpreter
+	//------------------------------------------------------------------------------------
+	private DslModel buildModel() {
+		DslModel model = new DslModel("CompilerModel");
+		DslModelEntity entity = new DslModelEntity("Employee");
+		entity.setDatabaseTable("EMPLOYEE");
+		String[] types = { NeutralType.INTEGER, NeutralType.STRING, NeutralType.DATE, NeutralType.DECIMAL, NeutralType.BOOLEAN };
+		for ( int i = 0 ; i < types.length ; i++ ) {
+			DslModelAttribute attribute = new DslModelAttribute("attr" + i, types[i]);
+			attribute.setKeyElement(i == 0);
+			attribute.setNotNull(i < 2);
+			attribute.setDatabaseName("ATTR_" + i);
+			entity.addAttribute(attribute);
+		}
+		model.addEntity(entity);
+		model.addEntity(new DslModelEntity("Country"));
+		return model;
+	}
+
+	private GeneratorContext buildTemplateContext() {
+		DslModel model = buildModel();
+		ModelInContext modelInContext = Builder.buildModelInContext(model);
+		EntityInContext entity = modelInContext.getEntityByClassName("Employee");
+		EnvInContext env = new EnvInContext();
+		GeneratorContext generatorContext = new GeneratorContext();
+		Map<String, Object> map = new HashMap<>();
+		map.put(ContextName.DOLLAR, "$");
+		map.put(ContextName.SHARP, "#");
+		map.put(ContextName.ENV, env);
+		map.put(ContextName.CONST, new Const());
+		map.put(ContextName.FN, new FnInContext(generatorContext, env));
+		map.put(ContextName.JAVA, new Java());
+		map.put(ContextName.JPA, new JpaInContext());
+		map.put(ContextName.BEAN_VALIDATION, new BeanValidation());
+		map.put(ContextName.HTML, new HtmlInContext());
+		map.put(ContextName.MODEL, modelInContext);
+		map.put(ContextName.ENTITY, entity);
+		map.put(ContextName.TARGET, new Target("/tmp/dest",
+				new TargetDefinition("Bean", "${BEANNAME}.java", "src/${BEANNAME}", "bean.vm", "*"),
+				new HashMap<String, String>(), model.getEntityByClassName("Employee")));
+		Map<String, String> today = new HashMap<>(); // fixed date
+		today.put("date", "2020-01-01");
+		today.put("time", "12:00:00");
+		map.put(ContextName.TODAY, today);
+		for ( Map.Entry<String, Object> entry : map.entrySet() ) {
+			generatorContext.put(entry.getKey(), entry.getValue());
+		}
+		return generatorContext;
+	}
+
+	private void findTemplates(File folder, List<File> files) {
+		File[] children = folder.listFiles();
+		if ( children != null ) {
+			Arrays.sort(children);
+			for ( File child : children ) {
+				if ( child.isDirectory() ) {
+					findTemplates(child, files);
+				}
+				else if ( child.getName().endsWith(".vm") ) {
+					files.add(child);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTemplatesFiles() {
+		List<File> files = new ArrayList<>();
+		findTemplates(new File(TEMPLATES_FOLDER), files);
+		assertTrue(files.size() > 10);
+		String root = new File(TEMPLATES_FOLDER).getAbsolutePath() + File.separator ;
+		Set<String> interpreted = new TreeSet<>();
+		for ( File file : files ) {
+			CompiledTemplate compiledTemplate ;
+			try {
+				compiledTemplate = templateCompiler.compile(file.getParentFile().getAbsolutePath(), file.getName());
+			} catch (TemplateCompilationException e) {
+				interpreted.add(file.getAbsolutePath().substring(root.length()).replace(File.separatorChar, '/'));
+				continue;
+			}
+			// same generator context content for the interpreter and the compiled template
+			assertEquals("Template " + file, interpret(file, buildTemplateContext()), render(compiledTemplate, buildTemplateContext()));
+		}
+		assertEquals(new TreeSet<>(Arrays.asList(INTERPRETED_TEMPLATES)), interpreted);
+	}
+}
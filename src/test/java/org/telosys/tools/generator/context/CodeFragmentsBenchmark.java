@@ -0,0 +1,194 @@
+package org.telosys.tools.generator.context;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import junit.env.telosys.tools.generator.fakemodel.FakeEntityBuilder;
+
+/**
+ * Code fragments benchmark (not a unit test, not run by the build) <br>
+ * 'String' methods versus 'write' methods for an entity with 200 attributes : <br>
+ * $java.equalsMethod, $java.hashCodeMethod, $java.toStringMethod, $csharp.toStringMethod and $php.toStringMethod <br>
+ * The code is written in a writer discarding the characters (as the render writer, without copy) <br>
+ * For each variant : average time and allocated bytes (if supported by the JVM) for one call. <br>
+ * Usage : CodeFragmentsBenchmark [iterations]
+ */
+public class CodeFragmentsBenchmark {
+
+	private static final int ATTRIBUTES_COUNT = 200 ;
+	private static final int ROUNDS = 5 ;
+
+	private final Java            java = new Java();
+	private final CsharpInContext csharp = new CsharpInContext();
+	private final PhpInContext    php = new PhpInContext();
+	private final EntityInContext entity = FakeEntityBuilder.buildEntityInContext("Foo");
+	private final List<AttributeInContext> attributes = buildAttributes(ATTRIBUTES_COUNT);
+
+	/**
+	 * Writer discarding the characters (only counted)
+	 */
+	private static class CountingWriter extends Writer {
+		private long count = 0 ;
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			count += len ;
+		}
+		@Override
+		public void write(String str, int off, int len) {
+			count += len ;
+		}
+		@Override
+		public void flush() {
+			// nothing to flush
+		}
+		@Override
+		public void close() {
+			// nothing to close
+		}
+	}
+
+	/**
+	 * Code fragment generated by one of the 2 variants
+	 */
+	private abstract static class Fragment {
+		private final String name ;
+		Fragment(String name) {
+			this.name = name ;
+		}
+		abstract void withString(Writer writer) throws IOException ;
+		abstract void withWrite(Writer writer) throws IOException ;
+	}
+
+	private static List<AttributeInContext> buildAttributes(int count) {
+		String[] types = { NeutralType.STRING, NeutralType.INTEGER, NeutralType.LONG, NeutralType.DATE, NeutralType.DECIMAL } ;
+		EnvInContext env = new EnvInContext();
+		List<AttributeInContext> list = new ArrayList<>();
+		for ( int i = 0 ; i < count ; i++ ) {
+			DslModelAttribute attribute = new DslModelAttribute("attr" + i, types[i % types.length]);
+			attribute.setNotNull(i % 2 == 0);
+			list.add(new AttributeInContext(null, attribute, null, env));
+		}
+		return list ;
+	}
+
+	private List<Fragment> buildFragments() {
+		List<Fragment> fragments = new ArrayList<>();
+		fragments.add(new Fragment("$java.equalsMethod") {
+			@Override
+			void withString(Writer writer) throws IOException {
+				writer.write(java.equalsMethod("Foo", attributes, 4));
+			}
+			@Override
+			void withWrite(Writer writer) throws IOException {
+				java.writeEqualsMethod("Foo", attributes, 4).write(writer);
+			}
+		});
+		fragments.add(new Fragment("$java.hashCodeMethod") {
+			@Override
+			void withString(Writer writer) throws IOException {
+				writer.write(java.hashCodeMethod("Foo", attributes, 4));
+			}
+			@Override
+			void withWrite(Writer writer) throws IOException {
+				java.writeHashCodeMethod("Foo", attributes, 4).write(writer);
+			}
+		});
+		fragments.add(new Fragment("$java.toStringMethod") {
+			@Override
+			void withString(Writer writer) throws IOException {
+				writer.write(java.toStringMethod(entity, attributes, 1, "    "));
+			}
+			@Override
+			void withWrite(Writer writer) throws IOException {
+				java.writeToStringMethod(entity, attributes, 1, "    ").write(writer);
+			}
+		});
+		fragments.add(new Fragment("$csharp.toStringMethod") {
+			@Override
+			void withString(Writer writer) throws IOException {
+				writer.write(csharp.toStringMethod(entity, attributes, 1, "    "));
+			}
+			@Override
+			void withWrite(Writer writer) throws IOException {
+				csharp.writeToStringMethod(entity, attributes, 1, "    ").write(writer);
+			}
+		});
+		fragments.add(new Fragment("$php.toStringMethod") {
+			@Override
+			void withString(Writer writer) throws IOException {
+				writer.write(php.toStringMethod(entity, attributes, 1, "    "));
+			}
+			@Override
+			void withWrite(Writer writer) throws IOException {
+				php.writeToStringMethod(entity, attributes, 1, "    ").write(writer);
+			}
+		});
+		return fragments ;
+	}
+
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( bean instanceof com.sun.management.ThreadMXBean ) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1 ;
+	}
+
+	/**
+	 * Runs the given variant and returns { nanoseconds per call, allocated bytes per call (or -1) } for the best round
+	 */
+	private long[] measure(Fragment fragment, boolean write, int iterations) throws IOException {
+		long bestTime = Long.MAX_VALUE ;
+		long bestAllocated = Long.MAX_VALUE ;
+		for ( int round = 0 ; round < ROUNDS ; round++ ) {
+			CountingWriter writer = new CountingWriter();
+			long allocated = getAllocatedBytes();
+			long start = System.nanoTime();
+			for ( int i = 0 ; i < iterations ; i++ ) {
+				if ( write ) {
+					fragment.withWrite(writer);
+				}
+				else {
+					fragment.withString(writer);
+				}
+			}
+			long time = ( System.nanoTime() - start ) / iterations ;
+			allocated = allocated >= 0 ? ( getAllocatedBytes() - allocated ) / iterations : -1 ;
+			if ( writer.count == 0 ) {
+				throw new IllegalStateException("No code generated by " + fragment.name);
+			}
+			bestTime = Math.min(bestTime, time);
+			bestAllocated = Math.min(bestAllocated, allocated);
+		}
+		return new long[] { bestTime, bestAllocated } ;
+	}
+
+	private void run(int iterations) throws IOException {
+		System.out.println("Code fragments benchmark : " + ATTRIBUTES_COUNT + " attributes, "
+				+ iterations + " calls x " + ROUNDS + " rounds (best round)");
+		List<Fragment> fragments = buildFragments();
+		//--- Warmup
+		for ( Fragment fragment : fragments ) {
+			measure(fragment, false, iterations);
+			measure(fragment, true, iterations);
+		}
+		System.out.println(String.format("%-24s %14s %14s %16s %16s", "", "String (ns)", "write (ns)", "String (bytes)", "write (bytes)"));
+		for ( Fragment fragment : fragments ) {
+			long[] withString = measure(fragment, false, iterations);
+			long[] withWrite = measure(fragment, true, iterations);
+			System.out.println(String.format("%-24s %14d %14d %16d %16d", fragment.name,
+					withString[0], withWrite[0], withString[1], withWrite[1]));
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000 ;
+		new CodeFragmentsBenchmark().run(Math.max(1, iterations));
+	}
+}
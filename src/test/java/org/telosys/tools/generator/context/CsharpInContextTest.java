@@ -123,4 +123,16 @@ public class CsharpInContextTest {
 		assertTrue(s.endsWith(  TABS_CLOSING_BRACE));
 	}
 
+	@Test 
+	public void testWriteToString() throws Exception {
+		List<AttributeInContext> attributes = new LinkedList<>();
+		attributes.add(buildAttributeNotNull("id", "int") );
+		attributes.add(buildAttributeNullable("name", "string") );
+		EntityInContext entity = FakeEntityBuilder.buildEntityInContext("Foo");
+		CsharpInContext csharp = getCsharpObject();
+		// same code as 'toStringMethod'
+		assertEquals(csharp.toStringMethod(entity, attributes, 2, "  "), 
+				csharp.writeToStringMethod(entity, attributes, 2, "  ").toString());
+	}
+
 }
@@ -1,13 +1,20 @@
 package org.telosys.tools.generator.context;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
+import org.telosys.tools.generator.context.exceptions.GeneratorFileException;
+
+import junit.env.telosys.tools.generator.TestsEnv;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class FileInContextTest {
 	
@@ -109,4 +116,99 @@ public class FileInContextTest {
 		FileInContext file = getFile("foo-csv.txt") ;
 		file.loadValues(null);
 	}
+
+	@Test
+	public void testCsvWithHeader() throws Exception {
+		FileInContext file = getFile("foo-header-csv.txt") ;
+		CsvInContext csv = file.csv(";", true);
+		assertEquals(3, csv.getHeader().size());
+		assertEquals("name", csv.getHeader().get(1));
+
+		List<CsvRowInContext> rows = new ArrayList<>();
+		for ( CsvRowInContext row : csv ) {
+			rows.add(row);
+		}
+		assertEquals(3, rows.size());
+		assertEquals("1", rows.get(0).get("code"));
+		assertEquals("Foo", rows.get(0).get("name"));
+		assertEquals("a \"quoted\" value", rows.get(0).get("comment"));
+		assertEquals("multi\nline; with separator", rows.get(1).get(2));
+		assertEquals(3, rows.get(2).size());
+		assertEquals("", rows.get(2).get("comment"));
+		assertEquals("", rows.get(2).get(5));
+		assertTrue(rows.get(2).hasColumn("code"));
+		assertFalse(rows.get(2).hasColumn("foo"));
+
+		// second iteration : same rows 
+		int n = 0 ;
+		for ( CsvRowInContext row : csv ) {
+			assertEquals(rows.get(n).getValues(), row.getValues());
+			n++;
+		}
+		assertEquals(3, n);
+		assertEquals(3, csv.getCount());
+	}
+
+	@Test
+	public void testCsvWithIndex() throws Exception {
+		FileInContext file = getFile("foo-header-csv.txt") ;
+		CsvInContext csv = file.csv(";", true).withIndex();
+		assertTrue(csv.isIndexed());
+		assertEquals(3, csv.getCount());
+		assertEquals("Bar", csv.getRow(1).get("name"));
+		assertEquals("3", csv.getRow(2).get("code"));
+		assertNull(csv.getRow(3));
+	}
+
+	@Test
+	public void testCsvWithoutHeader() throws Exception {
+		FileInContext file = getFile("foo-csv.txt") ;
+		CsvInContext csv = file.csv(";");
+		assertEquals(0, csv.getHeader().size());
+		assertEquals(5, csv.getCount());
+		assertEquals("b4", csv.getRow(1).get(3));
+		assertEquals("e2", csv.getRow(4).get(1));
+		assertNull(csv.getRow(5));
+	}
+
+	@Test(expected = GeneratorFileException.class)
+	public void testCsvUnknownColumn() throws Exception {
+		FileInContext file = getFile("foo-header-csv.txt") ;
+		file.csv(";", true).getRow(0).get("foo");
+	}
+
+	@Test(expected = GeneratorFileException.class)
+	public void testCsvInvalidSeparator() throws Exception {
+		FileInContext file = getFile("foo-csv.txt") ;
+		file.csv("");
+	}
+
+	@Test
+	public void testCsvReadByBlocks() throws Exception {
+		StringBuilder sb = new StringBuilder("code;name\n");
+		for ( int i = 0 ; i < 1000 ; i++ ) {
+			sb.append(i).append(";\"name\n").append(i).append("\"\n"); // quoted value with a line break
+		}
+		File csvFile = new File(TestsEnv.getTmpExistingFolder("csv"), "csv-blocks.txt");
+		Files.write(csvFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		CsvInContext csv = new FileInContext(csvFile).csv(";", true).withIndex();
+		// iteration stopped before the end (like '#break') : nothing to close
+		int n = 0 ;
+		for ( CsvRowInContext row : csv ) {
+			assertEquals(String.valueOf(n), row.get("code"));
+			if ( ++n == 300 ) {
+				break ;
+			}
+		}
+		// full iteration (several blocks) building the index
+		n = 0 ;
+		for ( CsvRowInContext row : csv ) {
+			assertEquals("name\n" + n, row.get("name"));
+			n++ ;
+		}
+		assertEquals(1000, n);
+		assertEquals(1000, csv.getCount());
+		assertEquals("700", csv.getRow(700).get("code"));
+		assertTrue(csvFile.delete());
+	}
 }
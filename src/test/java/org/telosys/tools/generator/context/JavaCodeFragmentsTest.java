@@ -0,0 +1,55 @@
+package org.telosys.tools.generator.context;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.generator.context.tools.RenderableText;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+
+import junit.env.telosys.tools.generator.fakemodel.FakeEntityBuilder;
+
+/**
+ * Java code fragments : 'String' methods versus 'write' methods (same code expected) <br>
+ * (see 'CodeFragmentsBenchmark' for the elapsed time and allocations)
+ */
+public class JavaCodeFragmentsTest {
+
+	private static final int ATTRIBUTES_COUNT = 200 ;
+
+	private List<AttributeInContext> buildAttributes(int count) {
+		String[] types = { NeutralType.STRING, NeutralType.INTEGER, NeutralType.LONG, NeutralType.DATE, NeutralType.DECIMAL } ;
+		EnvInContext env = new EnvInContext();
+		List<AttributeInContext> attributes = new ArrayList<>();
+		for ( int i = 0 ; i < count ; i++ ) {
+			DslModelAttribute attribute = new DslModelAttribute("attr" + i, types[i % types.length]);
+			attribute.setNotNull(i % 2 == 0);
+			attributes.add(new AttributeInContext(null, attribute, null, env));
+		}
+		return attributes ;
+	}
+
+	private String write(RenderableText renderable) throws IOException {
+		StringWriter writer = new StringWriter();
+		renderable.write(writer);
+		return writer.toString();
+	}
+
+	@Test
+	public void testSameCode() throws IOException {
+		Java java = new Java();
+		List<AttributeInContext> attributes = buildAttributes(ATTRIBUTES_COUNT);
+		EntityInContext entity = FakeEntityBuilder.buildEntityInContext("Foo");
+		assertEquals(java.equalsMethod("Foo", attributes, 4), write(java.writeEqualsMethod("Foo", attributes, 4)));
+		assertEquals(java.hashCodeMethod("Foo", attributes, 4), write(java.writeHashCodeMethod("Foo", attributes, 4)));
+		assertEquals(java.toStringMethod(entity, attributes, 1, "    "), write(java.writeToStringMethod(entity, attributes, 1, "    ")));
+		// no attribute
+		List<AttributeInContext> noAttribute = new ArrayList<>();
+		assertEquals(java.toStringMethod(entity, noAttribute, 1, "    "), write(java.writeToStringMethod(entity, noAttribute, 1, "    ")));
+	}
+}
@@ -0,0 +1,82 @@
+package org.telosys.tools.generator.context;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelLink;
+import org.telosys.tools.generic.model.enums.Cardinality;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class JavaImportsListTest {
+
+	@Test
+	public void testDeclareType() {
+		JavaImportsList imports = new JavaImportsList();
+		imports.declareType("java.math.BigDecimal");
+		imports.declareType("java.lang.String"); // no import
+		imports.declareType("int"); // no import
+		imports.declareType("java.time.LocalDate");
+		imports.declareType("java.math.BigDecimal"); // already declared
+		assertEquals(Arrays.asList("java.math.BigDecimal", "java.time.LocalDate"), imports.getFinalImportsList());
+	}
+
+	@Test
+	public void testCollidedTypes() {
+		JavaImportsList imports = new JavaImportsList();
+		imports.declareType("java.util.Date");
+		imports.declareType("java.sql.Date");
+		imports.declareType("java.math.BigInteger");
+		assertEquals(Arrays.asList("java.math.BigInteger"), imports.getFinalImportsList());
+	}
+
+	@Test
+	public void testBuildImports() {
+		JavaImportsList imports = new JavaImportsList();
+		imports.buildImports(Arrays.asList("java.math.BigDecimal"), 
+				Arrays.asList("List<Book>", " Set<Car> ", "LinkedList<Foo>", "Book", "SortedMap<String,Book>"));
+		assertEquals(Arrays.asList("java.math.BigDecimal", "java.util.LinkedList", "java.util.List", 
+				"java.util.Set", "java.util.SortedMap"), imports.getFinalImportsList());
+	}
+
+	private EntityInContext buildEntity(EnvInContext env) {
+		DslModel model = new DslModel("mymodel");
+		DslModelEntity country = new DslModelEntity("Country");
+		country.addAttribute(new DslModelAttribute("code", NeutralType.STRING));
+		country.addAttribute(new DslModelAttribute("area", NeutralType.DECIMAL));
+		DslModelLink link = new DslModelLink("towns");
+		link.setReferencedEntityName("Town");
+		link.setCardinality(Cardinality.ONE_TO_MANY);
+		country.addLink(link);
+		model.addEntity(country);
+		model.addEntity(new DslModelEntity("Town"));
+		return new ModelInContext(model, "org.demo", env).getEntityByClassName("Country");
+	}
+
+	@Test
+	public void testEntityImports() {
+		EnvInContext env = new EnvInContext();
+		EntityInContext entity = buildEntity(env);
+		Java java = new Java();
+		List<String> imports = java.imports(entity);
+		assertEquals(Arrays.asList("java.math.BigDecimal", "java.util.List"), imports);
+		// same result (a copy that can be modified)
+		List<String> imports2 = java.imports(entity);
+		assertNotSame(imports, imports2);
+		assertEquals(imports, imports2);
+		imports2.add("foo.Bar");
+		assertEquals(2, java.imports(entity).size());
+		// other collection type => other imports
+		env.setCollectionType("Set");
+		assertEquals(Arrays.asList("java.math.BigDecimal", "java.util.Set"), java.imports(entity));
+		env.setCollectionType("List");
+		assertTrue(java.imports(entity).contains("java.util.List"));
+	}
+}
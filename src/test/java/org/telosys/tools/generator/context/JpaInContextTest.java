@@ -13,6 +13,8 @@ import org.telosys.tools.generic.model.enums.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class JpaInContextTest {
@@ -368,6 +370,47 @@ public class JpaInContextTest {
 		assertEquals("@ManyToOne(fetch=FetchType.LAZY, optional=true)", jpa.linkCardinalityAnnotation(0, link) );
 	}
 
+	//---------------------------------------------------------------------------------------------
+	// SHARED ANNOTATIONS ( v 4.2.0 )
+	//---------------------------------------------------------------------------------------------
+	@Test 
+	public void testFieldAnnotationsShared() {
+		DslModelAttribute attribute = new DslModelAttribute("firstName", "string");
+		attribute.setNotNull(true);
+		// same model attribute in 2 generations (2 contexts)
+		AttributeInContext attribute1 = buildAttributeInContext(buildEntityInContext("City"), attribute);
+		AttributeInContext attribute2 = buildAttributeInContext(buildEntityInContext("City"), attribute);
+		String annotations = new JpaInContext().fieldAnnotations(4, attribute1);
+		assertEquals("    @Column(name=\"first_name\", nullable=false)", annotations);
+		assertSame(annotations, new JpaInContext().fieldAnnotations(4, attribute2));
+		// other margin
+		assertEquals("@Column(name=\"first_name\", nullable=false)", new JpaInContext().fieldAnnotations(0, attribute2));
+		// setting changed => not the same annotations
+		JpaInContext jpa = new JpaInContext();
+		assertSame(annotations, jpa.fieldAnnotations(4, attribute2));
+		jpa.setGenColumnDefinition(true);
+		String annotations2 = jpa.fieldAnnotations(4, attribute2);
+		assertNotSame(annotations, annotations2);
+		assertTrue(annotations2.contains("columnDefinition="));
+		jpa.setGenColumnDefinition(false);
+		assertSame(annotations, jpa.fieldAnnotations(4, attribute2));
+	}
+
+	@Test 
+	public void testLinkAnnotationsShared() {
+		DslModelLink fakeLink = buildDslModelLink("country", "Country", Cardinality.MANY_TO_ONE);
+		LinkInContext link1 = buildLinkInContext("Town", fakeLink);
+		LinkInContext link2 = buildLinkInContext("Town", fakeLink);
+		JpaInContext jpa = new JpaInContext();
+		String annotations = jpa.linkCardinalityAnnotation(0, link1);
+		assertEquals("@ManyToOne", annotations);
+		assertSame(annotations, new JpaInContext().linkCardinalityAnnotation(0, link2));
+		jpa.setManyToOneFetchType("LAZY");
+		assertEquals("@ManyToOne(fetch=FetchType.LAZY)", jpa.linkCardinalityAnnotation(0, link2) );
+		jpa.setManyToOneFetchType("");
+		assertSame(annotations, jpa.linkCardinalityAnnotation(0, link2));
+	}
+
 	private DslModelLink buildDslModelLink(String fielName, String referencedEntityName, Cardinality cardinality) {
 		DslModelLink fakeLink = new DslModelLink(fielName);
 		fakeLink.setReferencedEntityName(referencedEntityName);
@@ -0,0 +1,172 @@
+package org.telosys.tools.generator.context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.tools.CompactList;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import junit.env.telosys.tools.generator.context.Builder;
+
+/**
+ * Memory footprint of the model in the generator context (not a unit test, not run by the build) <br>
+ * Compares the previous structures with the current ones for a model of N entities x M attributes : <br>
+ * . lists of M elements : 'LinkedList' (before) versus 'CompactList' (after) <br>
+ * . attributes in context : strings not shared (before) versus shared by the model 'StringPool' (after) <br>
+ * . whole 'ModelInContext' with its source model (current structures only) <br>
+ * Retained heap measured with 'Runtime' after GC (median of several runs),
+ * run with a fixed heap size (eg -Xms1g -Xmx1g) for stable figures. <br>
+ * Usage : ModelInContextFootprintBenchmark [entities-count] [attributes-count]
+ */
+public class ModelInContextFootprintBenchmark {
+
+	private static final int RUNS = 5 ;
+
+	private final int entitiesCount ;
+	private final int attributesCount ;
+
+	/**
+	 * Builds the objects to be measured (kept reachable during the measurement)
+	 */
+	private abstract static class Allocation {
+		abstract Object build();
+	}
+
+	public ModelInContextFootprintBenchmark(int entitiesCount, int attributesCount) {
+		this.entitiesCount = entitiesCount ;
+		this.attributesCount = attributesCount ;
+	}
+
+	private DslModel buildModel() {
+		DslModel model = new DslModel("FootprintModel");
+		for ( int e = 0 ; e < entitiesCount ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			entity.setDatabaseTable("ENTITY_" + e);
+			for ( int a = 0 ; a < attributesCount ; a++ ) {
+				entity.addAttribute(buildAttribute(a));
+			}
+			model.addEntity(entity);
+		}
+		return model ;
+	}
+
+	private DslModelAttribute buildAttribute(int a) {
+		DslModelAttribute attribute = new DslModelAttribute("attr" + a, a == 0 ? NeutralType.INTEGER : NeutralType.STRING);
+		attribute.setKeyElement(a == 0);
+		attribute.setNotNull(a % 2 == 0);
+		attribute.setDatabaseName("ATTR_" + a);
+		// new String instance for each attribute (as after a database reverse-engineering)
+		attribute.setDatabaseType(new StringBuilder("VARCHAR(").append(20).append(")").toString());
+		attribute.setMaxLength(20);
+		return attribute ;
+	}
+
+	private List<AttributeInContext> buildAttributesInContext(ModelInContext modelInContext) {
+		EnvInContext env = new EnvInContext();
+		List<AttributeInContext> list = new ArrayList<>();
+		for ( int e = 0 ; e < entitiesCount ; e++ ) {
+			for ( int a = 0 ; a < attributesCount ; a++ ) {
+				list.add(new AttributeInContext(null, buildAttribute(a), modelInContext, env));
+			}
+		}
+		return list ;
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for ( int i = 0 ; i < 4 ; i++ ) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Returns the median retained heap (in bytes) of the objects built by the given allocation
+	 */
+	private static long measure(Allocation allocation) {
+		long[] retained = new long[RUNS];
+		for ( int i = 0 ; i < RUNS ; i++ ) {
+			long before = usedMemory();
+			Object objects = allocation.build();
+			retained[i] = usedMemory() - before ;
+			if ( objects.hashCode() == 0 ) { // keeps the objects reachable until the measurement
+				System.out.print("");
+			}
+		}
+		Arrays.sort(retained);
+		return retained[RUNS / 2] ;
+	}
+
+	private static void print(String label, long before, long after) {
+		System.out.println(String.format("%-36s %12d %12d %8.1f %%", label, before, after,
+				before != 0 ? ( after - before ) * 100.0 / before : 0.0));
+	}
+
+	private void run() {
+		System.out.println("Model in context footprint benchmark : " + entitiesCount + " entities x "
+				+ attributesCount + " attributes (retained bytes, median of " + RUNS + " runs)");
+		System.out.println(String.format("%-36s %12s %12s %10s", "", "before", "after", "delta"));
+		final Object[] elements = new Object[attributesCount];
+		Arrays.fill(elements, "element");
+
+		long linkedLists = measure(new Allocation() {
+			@Override
+			Object build() {
+				List<List<Object>> lists = new ArrayList<>();
+				for ( int e = 0 ; e < entitiesCount ; e++ ) {
+					lists.add(new LinkedList<>(Arrays.asList(elements)));
+				}
+				return lists ;
+			}
+		});
+		long compactLists = measure(new Allocation() {
+			@Override
+			Object build() {
+				List<List<Object>> lists = new ArrayList<>();
+				for ( int e = 0 ; e < entitiesCount ; e++ ) {
+					lists.add(CompactList.copyOf(Arrays.asList(elements)));
+				}
+				return lists ;
+			}
+		});
+		print("Lists (LinkedList / CompactList)", linkedLists, compactLists);
+
+		long notShared = measure(new Allocation() {
+			@Override
+			Object build() {
+				return buildAttributesInContext(null);
+			}
+		});
+		long shared = measure(new Allocation() {
+			@Override
+			Object build() {
+				return buildAttributesInContext(Builder.buildVoidModelInContext());
+			}
+		});
+		print("Attributes (strings / StringPool)", notShared, shared);
+
+		long modelInContext = measure(new Allocation() {
+			@Override
+			Object build() {
+				return Builder.buildModelInContext(buildModel());
+			}
+		});
+		System.out.println(String.format("%-36s %12s %12d", "ModelInContext (with source model)", "-", modelInContext));
+	}
+
+	public static void main(String[] args) {
+		int entitiesCount = args.length > 0 ? Integer.parseInt(args[0]) : 500 ;
+		int attributesCount = args.length > 1 ? Integer.parseInt(args[1]) : 20 ;
+		new ModelInContextFootprintBenchmark(Math.max(1, entitiesCount), Math.max(1, attributesCount)).run();
+	}
+}
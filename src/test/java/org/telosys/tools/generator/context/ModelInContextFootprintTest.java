@@ -0,0 +1,134 @@
+package org.telosys.tools.generator.context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.tools.CompactList;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.context.Builder;
+
+public class ModelInContextFootprintTest {
+
+	private DslModel buildLargeModel(int entitiesCount, int attributesCount) {
+		DslModel model = new DslModel("LargeModel");
+		for ( int e = 0 ; e < entitiesCount ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			entity.setDatabaseTable("ENTITY_" + e);
+			for ( int a = 0 ; a < attributesCount ; a++ ) {
+				DslModelAttribute attribute = new DslModelAttribute("attr" + a, a == 0 ? NeutralType.INTEGER : NeutralType.STRING);
+				attribute.setKeyElement(a == 0);
+				attribute.setNotNull(a % 2 == 0);
+				attribute.setDatabaseName("ATTR_" + a);
+				// new String instance for each attribute (as after a database reverse-engineering)
+				attribute.setDatabaseType(new StringBuilder("VARCHAR(").append(20).append(")").toString());
+				attribute.setMaxLength(20);
+				entity.addAttribute(attribute);
+			}
+			model.addEntity(entity);
+		}
+		return model ;
+	}
+
+	@Test
+	public void testCompactRepresentation() {
+		ModelInContext modelInContext = Builder.buildModelInContext(buildLargeModel(3, 5));
+		List<EntityInContext> entities = modelInContext.getAllEntities();
+		assertEquals(3, entities.size());
+		assertTrue(entities instanceof RandomAccess);
+
+		EntityInContext entity1 = entities.get(1);
+		EntityInContext entity2 = entities.get(2);
+		assertTrue(entity1.getAttributes() instanceof RandomAccess);
+		assertEquals(5, entity1.getAttributes().size());
+		assertEquals(1, entity1.getKeyAttributes().size());
+		assertEquals(4, entity1.getNonKeyAttributes().size());
+
+		// Boolean flags
+		AttributeInContext attr0 = entity1.getAttributes().get(0);
+		AttributeInContext attr1 = entity1.getAttributes().get(1);
+		assertTrue(attr0.isKeyElement());
+		assertTrue(attr0.isNotNull());
+		assertFalse(attr1.isKeyElement());
+		assertFalse(attr1.isNotNull());
+
+		// Equal strings share the same instance in the model
+		AttributeInContext other = entity2.getAttributes().get(1);
+		assertEquals("VARCHAR(20)", attr1.getDatabaseType());
+		assertSame(attr1.getDatabaseType(), other.getDatabaseType());
+		assertSame(attr1.getMaxLength(), other.getMaxLength());
+		assertSame(attr1.getDatabaseName(), other.getDatabaseName());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testAttributesListIsImmutable() {
+		ModelInContext modelInContext = Builder.buildModelInContext(buildLargeModel(1, 2));
+		EntityInContext entity = modelInContext.getAllEntities().get(0);
+		entity.getAttributes().remove(0);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testVoidListIsImmutable() {
+		ModelInContext modelInContext = Builder.buildModelInContext(buildLargeModel(1, 2));
+		EntityInContext entity = modelInContext.getAllEntities().get(0);
+		entity.getLinks().add(null);
+	}
+
+	//------------------------------------------------------------------------------------
+	// Memory footprint : structural checks (no heap measurement)
+	//------------------------------------------------------------------------------------
+	@Test
+	public void testCompactLists() {
+		List<Object> elements = new LinkedList<>();
+		for ( int i = 0 ; i < 1000 ; i++ ) {
+			elements.add(Integer.valueOf(i));
+		}
+		List<Object> compactList = CompactList.copyOf(elements);
+		assertTrue(compactList instanceof CompactList);
+		assertTrue(compactList instanceof RandomAccess);
+		assertEquals(elements, compactList);
+		// void lists : same shared instance
+		assertSame(CompactList.copyOf(new ArrayList<Object>()), CompactList.copyOf(null));
+	}
+
+	@Test
+	public void testLargeModelStructure() {
+		final int entitiesCount = 500 ;
+		final int attributesCount = 20 ;
+		ModelInContext modelInContext = Builder.buildModelInContext(buildLargeModel(entitiesCount, attributesCount));
+		List<EntityInContext> entities = modelInContext.getAllEntities();
+		assertTrue(entities instanceof CompactList);
+		assertEquals(entitiesCount, entities.size());
+		// a single instance for each distinct string in the whole model
+		Set<Object> databaseTypes = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		Set<Object> databaseNames = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		Set<Object> names = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		for ( EntityInContext entity : entities ) {
+			assertTrue(entity.getAttributes() instanceof CompactList);
+			assertEquals(attributesCount, entity.getAttributes().size());
+			assertSame(entity.getLinks(), entities.get(0).getLinks()); // void list shared
+			for ( AttributeInContext attribute : entity.getAttributes() ) {
+				databaseTypes.add(attribute.getDatabaseType());
+				databaseNames.add(attribute.getDatabaseName());
+				names.add(attribute.getName());
+			}
+		}
+		assertEquals(1, databaseTypes.size());
+		assertEquals(attributesCount, databaseNames.size());
+		assertEquals(attributesCount, names.size());
+	}
+}
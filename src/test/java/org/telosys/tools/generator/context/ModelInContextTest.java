@@ -0,0 +1,127 @@
+package org.telosys.tools.generator.context;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelInContextTest {
+
+	private DslModel buildModel(int entitiesCount) {
+		DslModel model = new DslModel("MyModel");
+		for ( int e = 0 ; e < entitiesCount ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			if ( e % 2 == 0 ) {
+				entity.setDatabaseTable("table_" + e);
+			}
+			entity.addAttribute(new DslModelAttribute("id", NeutralType.INTEGER));
+			model.addEntity(entity);
+		}
+		return model ;
+	}
+
+	private ModelInContext buildModelInContext(int entitiesCount, boolean lazy) {
+		return new ModelInContext(buildModel(entitiesCount), "org.demo", new EnvInContext(), lazy);
+	}
+
+	@Test
+	public void testEagerModel() {
+		ModelInContext model = buildModelInContext(10, false);
+		assertFalse(model.isLazy());
+		assertEquals(10, model.getNumberOfMaterializedEntities());
+		assertEquals(10, model.getNumberOfEntities());
+	}
+
+	@Test
+	public void testLazyModel() throws GeneratorException {
+		ModelInContext model = buildModelInContext(10, true);
+		assertTrue(model.isLazy());
+		assertEquals(10, model.getNumberOfEntities());
+		assertEquals(0, model.getNumberOfMaterializedEntities());
+
+		// search without build
+		assertTrue(model.hasEntityWithClassName("Entity3"));
+		assertFalse(model.hasEntityWithClassName("Foo"));
+		assertTrue(model.hasEntityWithTableName("TABLE_2"));
+		assertTrue(model.hasEntityWithTableName("entity3")); // default table name
+		assertFalse(model.hasEntityWithTableName("table_3"));
+		assertEquals(0, model.getNumberOfMaterializedEntities());
+
+		// build on first access only
+		EntityInContext entity = model.getEntityByClassName("Entity3");
+		assertEquals("Entity3", entity.getName());
+		assertEquals(1, model.getNumberOfMaterializedEntities());
+		assertSame(entity, model.getEntityByClassName("Entity3"));
+		assertSame(entity, model.getEntityByTableName("ENTITY3"));
+		List<String> names = new LinkedList<>();
+		names.add("Entity3");
+		names.add("Entity4");
+		assertSame(entity, model.getEntities(names).get(0));
+		assertEquals(2, model.getNumberOfMaterializedEntities());
+
+		// all entities (original order kept)
+		List<EntityInContext> all = model.getAllEntities();
+		assertEquals(10, all.size());
+		assertEquals(2, model.getNumberOfMaterializedEntities());
+		assertSame(entity, all.get(3));
+		int i = 0 ;
+		for ( EntityInContext e : all ) {
+			assertEquals("Entity" + i, e.getName());
+			i++ ;
+		}
+		assertEquals(10, model.getNumberOfMaterializedEntities());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testLazyModelEntitiesAreImmutable() {
+		ModelInContext model = buildModelInContext(2, true);
+		model.getAllEntities().remove(0);
+	}
+
+	@Test
+	public void testLazyModelConcurrentAccess() throws Exception {
+		final ModelInContext model = buildModelInContext(50, true);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<EntityInContext>>> futures = new ArrayList<>();
+			for ( int t = 0 ; t < 8 ; t++ ) {
+				futures.add(executor.submit(new Callable<List<EntityInContext>>() {
+					@Override
+					public List<EntityInContext> call() {
+						List<EntityInContext> entities = new ArrayList<>();
+						for ( int e = 0 ; e < 50 ; e++ ) {
+							entities.add(model.getEntityByClassName("Entity" + e));
+						}
+						return entities ;
+					}
+				}));
+			}
+			List<EntityInContext> first = futures.get(0).get();
+			for ( Future<List<EntityInContext>> future : futures ) {
+				List<EntityInContext> entities = future.get();
+				for ( int e = 0 ; e < 50 ; e++ ) {
+					// a single instance for each entity
+					assertSame(first.get(e), entities.get(e));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(50, model.getNumberOfMaterializedEntities());
+	}
+}
@@ -1,10 +1,17 @@
 package org.telosys.tools.generator.context;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
 import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelForeignKey;
+import org.telosys.tools.dsl.model.DslModelForeignKeyAttribute;
 import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.context.exceptions.GeneratorSqlException;
 import org.telosys.tools.generic.model.types.NeutralType;
@@ -210,6 +217,106 @@ public class SqlInContextTest {
 		assertEquals("employeeJob", sql.convertToPkName("EMPLOYEE_JOB") ) ;	  // camelCase	
 	}
 	
+	//---- Whole model DDL ( v 4.2.0 )
+	@Test
+	public void testSortByForeignKeys() {
+		ModelInContext model = Builder.buildModelInContext(buildModelWithForeignKeys());
+		List<EntityInContext> entities = getSql().sortByForeignKeys(model.getAllEntities());
+		assertEquals(5, entities.size());
+		assertEquals("Country",  entities.get(0).getName());
+		assertEquals("Employee", entities.get(1).getName()); // after Country
+		assertEquals("Person",   entities.get(2).getName()); // self reference ignored
+		assertEquals("Author",   entities.get(3).getName()); // cycle : first in original order
+		assertEquals("Book",     entities.get(4).getName());
+	}
+
+	@Test
+	public void testDdlCreateTables() throws IOException {
+		ModelInContext model = Builder.buildModelInContext(buildModelWithForeignKeys());
+		StringWriter writer = new StringWriter();
+		getSql().ddlCreateTables(model).write(writer);
+		String ddl = writer.toString();
+		print(ddl);
+		assertTrue(ddl.startsWith("CREATE TABLE country (\n  code varchar(2) NOT NULL,\n  name varchar(40),\n  PRIMARY KEY (code)\n);\n"));
+		assertTrue(ddl.indexOf("CREATE TABLE country") < ddl.indexOf("CREATE TABLE employee"));
+		assertTrue(ddl.contains("ALTER TABLE employee ADD CONSTRAINT fk_employee_country FOREIGN KEY (country_code) REFERENCES country (code);"));
+		assertTrue(ddl.contains("ALTER TABLE person ADD CONSTRAINT fk_person_person FOREIGN KEY (parent_id) REFERENCES person (id);"));
+		// cycle : FK to 'book' after 'CREATE TABLE book'
+		String fkAuthorBook = "ALTER TABLE author ADD CONSTRAINT fk_author_book FOREIGN KEY (book_id) REFERENCES book (id);" ;
+		assertTrue(ddl.contains(fkAuthorBook));
+		assertTrue(ddl.indexOf("CREATE TABLE book") < ddl.indexOf(fkAuthorBook));
+		assertTrue(ddl.indexOf("ALTER TABLE book ADD CONSTRAINT fk_book_author") < ddl.indexOf(fkAuthorBook));
+	}
+
+	@Test
+	public void testDdlCreateTablesLargeModel() throws IOException {
+		int n = 3000 ;
+		DslModel dslModel = new DslModel("LargeModel");
+		for ( int e = n - 1 ; e >= 0 ; e-- ) { // each entity references the next one 
+			DslModelEntity entity = buildEntity("Entity" + e, "id", "label", "nextId");
+			if ( e < n - 1 ) {
+				addForeignKey(entity, "fk_entity_" + e, "Entity" + (e + 1), "nextId", "id");
+			}
+			dslModel.addEntity(entity);
+		}
+		ModelInContext model = Builder.buildModelInContext(dslModel);
+		long start = System.currentTimeMillis();
+		StringWriter writer = new StringWriter();
+		getSql().ddlCreateTables(model).write(writer);
+		print("DDL for " + n + " tables : " + writer.getBuffer().length() + " chars in " + (System.currentTimeMillis() - start) + " ms");
+		String ddl = writer.toString();
+		assertTrue(ddl.startsWith("CREATE TABLE entity2999 ("));
+		assertTrue(ddl.indexOf("CREATE TABLE entity0 (") > ddl.indexOf("CREATE TABLE entity1 ("));
+	}
+
+	private DslModelEntity buildEntity(String name, String idName, String... otherAttributes) {
+		DslModelEntity entity = new DslModelEntity(name);
+		DslModelAttribute id = new DslModelAttribute(idName, NeutralType.INTEGER);
+		id.setKeyElement(true);
+		entity.addAttribute(id);
+		for ( String attributeName : otherAttributes ) {
+			entity.addAttribute(new DslModelAttribute(attributeName, NeutralType.INTEGER));
+		}
+		return entity ;
+	}
+
+	private void addForeignKey(DslModelEntity entity, String fkName, String referencedEntity, String originAttribute, String referencedAttribute) {
+		DslModelForeignKey fk = new DslModelForeignKey(fkName, entity.getClassName(), referencedEntity);
+		fk.addAttribute(new DslModelForeignKeyAttribute(1, originAttribute, referencedAttribute));
+		entity.addForeignKey(fk);
+	}
+
+	private DslModel buildModelWithForeignKeys() {
+		DslModel dslModel = new DslModel("FkModel");
+		// Employee --> Country
+		DslModelEntity employee = buildEntity("Employee", "id", "countryCode");
+		addForeignKey(employee, "fk_employee_country", "Country", "countryCode", "code");
+		dslModel.addEntity(employee);
+		// Country (key = 'code' varchar(2) )
+		DslModelEntity country = new DslModelEntity("Country");
+		DslModelAttribute code = new DslModelAttribute("code", NeutralType.STRING);
+		code.setKeyElement(true);
+		code.setNotNull(true);
+		code.setMaxLength(2);
+		country.addAttribute(code);
+		DslModelAttribute name = new DslModelAttribute("name", NeutralType.STRING);
+		name.setMaxLength(40);
+		country.addAttribute(name);
+		dslModel.addEntity(country);
+		// Person --> Person
+		DslModelEntity person = buildEntity("Person", "id", "parentId");
+		addForeignKey(person, "fk_person_person", "Person", "parentId", "id");
+		dslModel.addEntity(person);
+		// Author <--> Book
+		DslModelEntity author = buildEntity("Author", "id", "bookId");
+		addForeignKey(author, "fk_author_book", "Book", "bookId", "id");
+		dslModel.addEntity(author);
+		DslModelEntity book = buildEntity("Book", "id", "authorId");
+		addForeignKey(book, "fk_book_author", "Author", "authorId", "id");
+		dslModel.addEntity(book);
+		return dslModel ;
+	}
+
 	//------------------------------------------------------------------------------------
 	//------------------------------------------------------------------------------------
 	private void print(String s) {
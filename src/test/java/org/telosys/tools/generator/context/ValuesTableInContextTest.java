@@ -0,0 +1,93 @@
+package org.telosys.tools.generator.context;
+
+import java.io.StringWriter;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.generator.context.exceptions.GeneratorFunctionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ValuesTableInContextTest {
+
+	private EnvInContext getEnvInContext() {
+		EnvInContext env = new EnvInContext() ;
+		try {
+			env.setLanguage("Java");
+		} catch (Exception e) {
+			throw new RuntimeException("Cannot set language in $env", e);
+		}
+		return env ;
+	}
+
+	private AttributeInContext buildAttributeInContext(EnvInContext env, String attributeName, String neutralType, int maxLength, boolean notNull)  {
+		DslModelAttribute attribute = new DslModelAttribute(attributeName, neutralType );
+		attribute.setMaxLength(maxLength);
+		attribute.setNotNull(notNull);
+		return new AttributeInContext(null, attribute, null, env);
+	}
+
+	private List<AttributeInContext> buildAttributes(EnvInContext env) {
+		List<AttributeInContext> attributes = new LinkedList<>() ;
+		attributes.add( buildAttributeInContext(env, "id",   "int",     0, true) );
+		attributes.add( buildAttributeInContext(env, "name", "string",  3, false) );
+		attributes.add( buildAttributeInContext(env, "flag", "boolean", 0, true) );
+		return attributes ;
+	}
+
+	@Test
+	public void testSameValuesAsBuildValues() {
+		EnvInContext env = getEnvInContext() ;
+		List<AttributeInContext> attributes = buildAttributes(env);
+		ValuesTableInContext table = new ValuesTableInContext(attributes, 50, 1, null, env);
+		assertEquals(50, table.getRowCount());
+		assertEquals(3, table.getAttributeNames().size());
+		for ( int i = 0 ; i < 50 ; i++ ) {
+			ValuesInContext values = new ValuesInContext(attributes, i + 1, env);
+			assertEquals(values.getAllValues(), table.getRow(i).getAllValues());
+			assertEquals(values.getValue("name"), table.getValue(i, "name"));
+		}
+		assertEquals("100", table.getValue(0, "id"));
+		assertEquals("\"BBB\"", table.getValue(1, "name"));
+	}
+
+	@Test
+	public void testSqlInsert() throws Exception {
+		EnvInContext env = getEnvInContext() ;
+		ValuesTableInContext table = new ValuesTableInContext(buildAttributes(env), 3, 1, "car", env);
+		StringWriter writer = new StringWriter();
+		table.toSqlInsert(2).write(writer);
+		String sql = writer.toString();
+		String[] lines = sql.split("\n");
+		assertEquals(5, lines.length);
+		assertTrue(lines[0].startsWith("INSERT INTO car ("));
+		assertEquals("  (100, 'AAA', TRUE),", lines[1]);
+		assertEquals("  (200, 'BBB', FALSE);", lines[2]);
+		assertEquals(lines[0], lines[3]);
+		assertEquals("  (300, 'CCC', TRUE);", lines[4]);
+		// toString gives the same text
+		assertEquals(sql, table.toSqlInsert(2).toString());
+	}
+
+	@Test
+	public void testJsonArray() {
+		EnvInContext env = getEnvInContext() ;
+		ValuesTableInContext table = new ValuesTableInContext(buildAttributes(env), 2, 1, null, env);
+		assertEquals("[{\"id\":100, \"name\":\"AAA\", \"flag\":true}, {\"id\":200, \"name\":\"BBB\", \"flag\":false}]",
+				table.toJsonArray().toString());
+		assertEquals("[\n  {\"id\":100, \"name\":\"AAA\", \"flag\":true}, \n  {\"id\":200, \"name\":\"BBB\", \"flag\":false}\n]",
+				table.toFormattedJsonArray().toString());
+		ValuesTableInContext empty = new ValuesTableInContext(buildAttributes(env), 0, 1, null, env);
+		assertEquals("[]", empty.toFormattedJsonArray().toString());
+	}
+
+	@Test(expected = GeneratorFunctionException.class)
+	public void testSqlInsertWithoutTableName() {
+		EnvInContext env = getEnvInContext() ;
+		ValuesTableInContext table = new ValuesTableInContext(buildAttributes(env), 2, 1, null, env);
+		table.toSqlInsert();
+	}
+}
@@ -0,0 +1,109 @@
+package org.telosys.tools.generator.context.tools;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CsvReaderTest {
+
+	private File createTempFile(byte[] content) throws Exception {
+		File file = File.createTempFile("telosys-csv-test", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content);
+		return file;
+	}
+
+	private File createTempFile(String content) throws Exception {
+		return createTempFile(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testSimpleRecords() throws Exception {
+		File file = createTempFile("a;b;c\r\n;é;\rx\n");
+		try ( CsvReader reader = new CsvReader(file, ';') ) {
+			List<String> values = reader.readRecord();
+			assertEquals(3, values.size());
+			assertEquals("a", values.get(0));
+			assertEquals("c", values.get(2));
+			values = reader.readRecord();
+			assertEquals(3, values.size());
+			assertEquals("", values.get(0));
+			assertEquals("é", values.get(1));
+			assertEquals("", values.get(2));
+			values = reader.readRecord();
+			assertEquals(1, values.size());
+			assertEquals("x", values.get(0));
+			assertNull(reader.readRecord());
+		}
+	}
+
+	@Test
+	public void testQuotedValues() throws Exception {
+		File file = createTempFile("\"a,1\",\"b \"\"x\"\"\",\"c\nd\"\n1,ab\"c,\"\"\n\n\nlast");
+		try ( CsvReader reader = new CsvReader(file, ',') ) {
+			List<String> values = reader.readRecord();
+			assertEquals(3, values.size());
+			assertEquals("a,1", values.get(0));
+			assertEquals("b \"x\"", values.get(1));
+			assertEquals("c\nd", values.get(2));
+			values = reader.readRecord();
+			assertEquals(3, values.size());
+			assertEquals("ab\"c", values.get(1)); // quote not at field start => literal
+			assertEquals("", values.get(2));
+			values = reader.readRecord(); // blank lines ignored
+			assertEquals(1, values.size());
+			assertEquals("last", values.get(0));
+			assertNull(reader.readRecord());
+		}
+	}
+
+	@Test
+	public void testByteOrderMark() throws Exception {
+		byte[] bom = new byte[] { (byte)0xEF, (byte)0xBB, (byte)0xBF };
+		byte[] data = "a;b".getBytes(StandardCharsets.UTF_8);
+		byte[] content = new byte[bom.length + data.length];
+		System.arraycopy(bom, 0, content, 0, bom.length);
+		System.arraycopy(data, 0, content, bom.length, data.length);
+		try ( CsvReader reader = new CsvReader(createTempFile(content), ';') ) {
+			assertEquals("a", reader.readRecord().get(0));
+		}
+	}
+
+	@Test
+	public void testSkipAndSeek() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0 ; i < 5000 ; i++ ) { // more than one buffer
+			sb.append(i).append(";\"v\n").append(i).append("\"\n");
+		}
+		File file = createTempFile(sb.toString());
+		long[] positions = new long[5000];
+		try ( CsvReader reader = new CsvReader(file, ';') ) {
+			for ( int i = 0 ; i < 5000 ; i++ ) {
+				positions[i] = reader.getPosition();
+				assertTrue(reader.skipRecord());
+			}
+			assertFalse(reader.skipRecord());
+
+			reader.seek(positions[4321]);
+			List<String> values = reader.readRecord();
+			assertEquals("4321", values.get(0));
+			assertEquals("v\n4321", values.get(1));
+			reader.seek(positions[12]);
+			assertEquals("12", reader.readRecord().get(0));
+			assertEquals("13", reader.readRecord().get(0));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSeparator() throws Exception {
+		new CsvReader(createTempFile("a"), '"');
+	}
+}
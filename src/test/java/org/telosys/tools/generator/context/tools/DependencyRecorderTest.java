@@ -0,0 +1,126 @@
+package org.telosys.tools.generator.context.tools;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.context.EntityInContext;
+import org.telosys.tools.generator.context.EnvInContext;
+import org.telosys.tools.generator.context.ModelInContext;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyRecorderTest {
+
+	private ModelInContext buildModelInContext(DependencyRecorder recorder) {
+		DslModel model = new DslModel("MyModel");
+		for ( int e = 0 ; e < 5 ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			entity.addAttribute(new DslModelAttribute("id", NeutralType.INTEGER));
+			model.addEntity(entity);
+		}
+		return new ModelInContext(model, "org.demo", new EnvInContext(), true, recorder);
+	}
+
+	@Test
+	public void testInactiveRecorder() {
+		DependencyRecorder recorder = new DependencyRecorder();
+		ModelInContext model = buildModelInContext(recorder);
+		assertFalse(recorder.isActive());
+		model.getEntityByClassName("Entity1");
+		model.getNumberOfEntities();
+		recorder.recordFile("/tmp/foo.txt");
+		assertTrue(recorder.getEntities().isEmpty());
+		assertTrue(recorder.getFiles().isEmpty());
+		assertFalse(recorder.isEntitiesListRecorded());
+	}
+
+	@Test
+	public void testEntityAccess() {
+		DependencyRecorder recorder = new DependencyRecorder();
+		ModelInContext model = buildModelInContext(recorder);
+		recorder.start();
+		assertTrue(recorder.isActive());
+		model.getEntityByClassName("Entity1");
+		assertTrue(model.hasEntityWithClassName("Entity3"));
+		recorder.stop();
+		model.getEntityByClassName("Entity4"); // not recorded
+		assertEquals(2, recorder.getEntities().size());
+		assertTrue(recorder.getEntities().contains("Entity1"));
+		assertTrue(recorder.getEntities().contains("Entity3"));
+		assertFalse(recorder.isEntitiesListRecorded());
+	}
+
+	@Test
+	public void testEntityNotFound() {
+		DependencyRecorder recorder = new DependencyRecorder();
+		ModelInContext model = buildModelInContext(recorder);
+		recorder.start();
+		assertFalse(model.hasEntityWithClassName("Foo"));
+		// result depends on the entities list 
+		assertTrue(recorder.isEntitiesListRecorded());
+	}
+
+	@Test
+	public void testEntitiesListAccess() {
+		DependencyRecorder recorder = new DependencyRecorder();
+		ModelInContext model = buildModelInContext(recorder);
+		recorder.start();
+		List<EntityInContext> all = model.getAllEntities();
+		assertFalse(recorder.isEntitiesListRecorded()); // not yet used 
+		assertEquals(5, all.size());
+		assertTrue(recorder.isEntitiesListRecorded());
+		assertTrue(recorder.getEntities().isEmpty());
+		for ( EntityInContext entity : all ) {
+			assertTrue(entity.getName().startsWith("Entity"));
+		}
+		assertEquals(5, recorder.getEntities().size());
+	}
+
+	@Test
+	public void testEntitiesSubList() throws GeneratorException {
+		DependencyRecorder recorder = new DependencyRecorder();
+		ModelInContext model = buildModelInContext(recorder);
+		recorder.start();
+		List<String> names = new LinkedList<>();
+		names.add("Entity2");
+		names.add("Entity4");
+		List<EntityInContext> selectedEntities = model.getEntities(names);
+		assertFalse(recorder.isSelectionRecorded()); // not yet used 
+		assertEquals("Entity4", selectedEntities.get(1).getName());
+		assertTrue(recorder.getEntities().contains("Entity4"));
+		assertFalse(recorder.getEntities().contains("Entity0"));
+		// result depends on the selection 
+		assertTrue(recorder.isSelectionRecorded());
+		assertFalse(recorder.isEntitiesListRecorded());
+	}
+
+	@Test
+	public void testEntitiesSelectionSize() throws GeneratorException {
+		DependencyRecorder recorder = new DependencyRecorder();
+		ModelInContext model = buildModelInContext(recorder);
+		recorder.start();
+		List<String> names = new LinkedList<>();
+		names.add("Entity1");
+		assertEquals(1, model.getEntities(names).size());
+		assertTrue(recorder.isSelectionRecorded());
+		assertTrue(recorder.getEntities().isEmpty());
+	}
+
+	@Test
+	public void testFiles() {
+		DependencyRecorder recorder = new DependencyRecorder();
+		recorder.start();
+		recorder.recordFile("/tmp/foo.txt");
+		recorder.recordFile("/tmp/foo.txt");
+		recorder.recordFile("/tmp/bar.txt");
+		assertEquals(2, recorder.getFiles().size());
+	}
+}
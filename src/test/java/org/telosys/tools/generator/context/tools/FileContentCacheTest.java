@@ -0,0 +1,98 @@
+package org.telosys.tools.generator.context.tools;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class FileContentCacheTest {
+
+	private File createTempFile(String content) throws Exception {
+		File file = File.createTempFile("telosys-cache-test", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void testSplitLines() {
+		assertEquals(0, FileContentCache.splitLines("").size());
+		assertEquals(1, FileContentCache.splitLines("aa").size());
+		assertEquals(1, FileContentCache.splitLines("aa\n").size());
+		List<String> lines = FileContentCache.splitLines("aa\r\nbb\rcc\n\ndd");
+		assertEquals(5, lines.size());
+		assertEquals("aa", lines.get(0));
+		assertEquals("bb", lines.get(1));
+		assertEquals("cc", lines.get(2));
+		assertEquals("", lines.get(3));
+		assertEquals("dd", lines.get(4));
+	}
+
+	@Test
+	public void testLinesFromCache() throws Exception {
+		File file = createTempFile("aa\nbb\ncc\n");
+		FileContentCache cache = new FileContentCache();
+		List<String> lines1 = cache.getLines(file);
+		assertEquals(3, lines1.size());
+		assertEquals("bb", lines1.get(1));
+		List<String> lines2 = cache.getLines(file);
+		assertSame(lines1, lines2); // same instance => from cache
+		assertEquals(1, cache.size());
+		assertEquals("aa\nbb\ncc\n", cache.getContent(file));
+	}
+
+	@Test
+	public void testReloadWhenFileChanged() throws Exception {
+		File file = createTempFile("aa\nbb\n");
+		FileContentCache cache = new FileContentCache();
+		List<String> lines1 = cache.getLines(file);
+		assertEquals(2, lines1.size());
+		Files.write(file.toPath(), "aa\nbb\ncc\ndd\n".getBytes(StandardCharsets.UTF_8));
+		file.setLastModified(file.lastModified() + 2000);
+		List<String> lines2 = cache.getLines(file);
+		assertNotSame(lines1, lines2);
+		assertEquals(4, lines2.size());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testMappedRead() throws Exception {
+		File file = createTempFile("aa;éè\nbb\r\ncc");
+		FileContentCache cache = new FileContentCache(0); // always use memory-mapped read
+		List<String> lines = cache.getLines(file);
+		assertEquals(Files.readAllLines(file.toPath()), lines);
+		assertEquals("aa;éè", lines.get(0));
+	}
+
+	@Test
+	public void testMaxCachedSize() throws Exception {
+		File file1 = createTempFile("aaaa\n"); // 5 bytes
+		File file2 = createTempFile("bbbb\n"); // 5 bytes
+		File file3 = createTempFile("cccccccccccc\n"); // 13 bytes
+		FileContentCache cache = new FileContentCache(FileContentCache.DEFAULT_MAPPED_READ_THRESHOLD, 10);
+		assertEquals(10, cache.getMaxCachedSize());
+		cache.getLines(file1);
+		cache.getLines(file2);
+		assertEquals(2, cache.size());
+		assertEquals(10, cache.getCachedSize());
+		// too large => never cached
+		assertEquals("cccccccccccc", cache.getLines(file3).get(0));
+		assertEquals(2, cache.size());
+		// new file => eviction
+		File file4 = createTempFile("dd\n"); // 3 bytes
+		List<String> lines4 = cache.getLines(file4);
+		assertSame(lines4, cache.getLines(file4));
+		assertTrue(cache.getCachedSize() <= 10);
+		assertEquals(2, cache.size());
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getCachedSize());
+	}
+}
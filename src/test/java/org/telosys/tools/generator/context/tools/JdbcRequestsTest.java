@@ -0,0 +1,81 @@
+package org.telosys.tools.generator.context.tools;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.EntityInContext;
+import org.telosys.tools.generator.context.EnvInContext;
+import org.telosys.tools.generator.context.ModelInContext;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JdbcRequestsTest {
+
+	private DslModel buildModel() {
+		DslModel model = new DslModel("JdbcModel");
+		DslModelEntity entity = new DslModelEntity("Car");
+		DslModelAttribute id = new DslModelAttribute("id", NeutralType.INTEGER);
+		id.setKeyElement(true);
+		id.setGeneratedValueStrategy(GeneratedValueStrategy.IDENTITY); // auto-incremented
+		entity.addAttribute(id);
+		entity.addAttribute(new DslModelAttribute("name", NeutralType.STRING));
+		entity.addAttribute(new DslModelAttribute("brand", NeutralType.STRING));
+		model.addEntity(entity);
+		return model ;
+	}
+
+	private EntityInContext getEntity(DslModel model, EnvInContext env) {
+		// a new 'ModelInContext' for each generation (as for each target)
+		return new ModelInContext(model, "org.demo", env).getEntityByClassName("Car");
+	}
+
+	@Test
+	public void testRequests() {
+		JdbcRequests requests = new JdbcRequests(getEntity(buildModel(), new EnvInContext()), false);
+		assertEquals("car", requests.getTable());
+		assertEquals("select id, name, brand from car", requests.getSqlSelect());
+		assertEquals("select id, name, brand from car where id = ?", requests.getSqlSelectWherePK());
+		assertEquals("select count(*) from car", requests.getSqlSelectCount());
+		assertEquals("select count(*) from car where id = ?", requests.getSqlSelectCountWherePK());
+		assertEquals("insert into car ( name, brand ) values ( ?, ? )", requests.getSqlInsert());
+		assertEquals("update car set name = ?, brand = ? where id = ?", requests.getSqlUpdate());
+		assertEquals("delete from car where id = ?", requests.getSqlDelete());
+		assertEquals(1, requests.getAttributesForPrimaryKey().size());
+		assertEquals(3, requests.getAttributesForSelect().size());
+		assertEquals(2, requests.getAttributesForInsert().size());
+		assertEquals(2, requests.getAttributesForUpdate().size());
+		assertSame(requests.getAttributesForInsert(), requests.getAttributesForInsert());
+	}
+
+	@Test
+	public void testRequestsSharedByGenerations() {
+		DslModel model = buildModel();
+		EntityInContext entity1 = getEntity(model, new EnvInContext());
+		EntityInContext entity2 = getEntity(model, new EnvInContext());
+		assertNotSame(entity1, entity2);
+		String sql = new JdbcRequests(entity1, false).getSqlSelect();
+		// same model entity and same naming rules => same SQL instance
+		assertSame(sql, new JdbcRequests(entity2, false).getSqlSelect());
+		assertSame(sql, new JdbcRequests(entity1, false).getSqlSelect());
+		assertTrue(ModelFragmentsCache.size() > 0);
+		// another model => statements built again
+		assertNotSame(sql, new JdbcRequests(getEntity(buildModel(), new EnvInContext()), false).getSqlSelect());
+	}
+
+	@Test
+	public void testRequestsWithOtherNamingRules() {
+		DslModel model = buildModel();
+		String sql = new JdbcRequests(getEntity(model, new EnvInContext()), false).getSqlSelect();
+		EnvInContext env = new EnvInContext();
+		env.setDatabase("oracle"); // ANACONDA_CASE
+		String sqlOracle = new JdbcRequests(getEntity(model, env), false).getSqlSelect();
+		assertEquals("select id, name, brand from car", sql);
+		assertEquals("select ID, NAME, BRAND from CAR", sqlOracle);
+	}
+}
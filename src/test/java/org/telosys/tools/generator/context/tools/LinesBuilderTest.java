@@ -1,8 +1,13 @@
 package org.telosys.tools.generator.context.tools;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class LinesBuilderTest {
 
@@ -38,4 +43,49 @@ public class LinesBuilderTest {
 
 		assertEquals("aaa\nbbb\nccc", s); 
 	}	
+
+	@Test
+	public void testAppendAfterToString() {
+		LinesBuilder lb = new LinesBuilder("  ");
+		lb.append(1, "aaa");
+		String s = lb.toString();
+		assertEquals("  aaa", s);
+		assertSame(s, lb.toString());
+		// append after 'toString()' : the last '\n' has been removed
+		lb.append(2, "bbb");
+		assertEquals("  aaa    bbb", lb.toString());
+	}
+
+	@Test
+	public void testWriter() throws IOException {
+		StringWriter writer = new StringWriter();
+		LinesBuilder lb = new LinesBuilder(writer, "  ");
+		lb.append(1, "aaa");
+		lb.append(2, "bbb");
+		lb.append(1, "ccc");
+		lb.checkWriteError();
+		// same result as with the internal buffer (no '\n' after the last line)
+		assertEquals("  aaa\n    bbb\n  ccc", writer.toString());
+		assertEquals("", lb.toString());
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriterError() throws IOException {
+		Writer writer = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				throw new IOException("write error");
+			}
+			@Override
+			public void flush() {
+			}
+			@Override
+			public void close() {
+			}
+		};
+		LinesBuilder lb = new LinesBuilder(writer, "  ");
+		lb.append(1, "aaa");
+		lb.append(1, "bbb");
+		lb.checkWriteError();
+	}
 }
@@ -0,0 +1,19 @@
+package org.telosys.tools.generator.languages;
+
+/**
+ * Specific language declared in 'META-INF/services' for the tests (Java with another name)
+ */
+public class TargetLanguageFactoryForTest implements TargetLanguageFactory {
+
+	public static final String LANGUAGE_NAME = "JavaForTest" ;
+
+	@Override
+	public String getLanguageName() {
+		return LANGUAGE_NAME ;
+	}
+
+	@Override
+	public TargetLanguage createTargetLanguage() {
+		return new TargetLanguageForJava();
+	}
+}
@@ -10,7 +10,10 @@ import org.telosys.tools.generator.GeneratorException;
 import org.telosys.tools.generator.context.AttributeInContext;
 import org.telosys.tools.generator.context.EnvInContext;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import junit.env.telosys.tools.generator.fakemodel.FakeAttributeBuilder;
@@ -224,4 +227,53 @@ public class TargetLanguageProviderTest  {
 		check(" typescript");
 		check("TYPESCRIPT  ");
 	}
+
+	@Test
+	public void testTargetLanguageInstancePerEnv() throws GeneratorException {
+		EnvInContext env1 = new EnvInContext();
+		env1.setLanguage("C#");
+		env1.setTypeWithNullableMark(true);
+		EnvInContext env2 = new EnvInContext();
+		env2.setLanguage("C#");
+		env2.setTypeWithNullableMark(false);
+		TargetLanguage tl1 = env1.getTargetLanguage();
+		TargetLanguage tl2 = env2.getTargetLanguage();
+		// no shared instance between 2 '$env'
+		assertNotSame(tl1, tl2);
+		assertNotSame(tl1.getTypeConverter(), tl2.getTypeConverter());
+		// same instance for the same '$env' 
+		assertSame(tl1, env1.getTargetLanguage());
+		// each type converter keeps its own '$env' 
+		List<AttributeInContext> attributes1 = FakeAttributeBuilder.buildAttributes(env1);
+		List<AttributeInContext> attributes2 = FakeAttributeBuilder.buildAttributes(env2);
+		String args1 = tl1.argumentsListWithType(attributes1);
+		Assert.assertEquals(args1, env1.getTargetLanguage().argumentsListWithType(attributes1));
+		Assert.assertNotEquals(args1, tl2.argumentsListWithType(attributes2));
+		// new instance when the language changes
+		env1.setLanguage("Java");
+		Assert.assertEquals(TargetLanguageForJava.class, env1.getTargetLanguage().getClass());
+	}
+
+	@Test
+	public void testLanguagesRegistry() throws GeneratorException {
+		List<String> names = TargetLanguageProvider.getLanguageNames();
+		assertTrue(names.contains("JAVA"));
+		assertTrue(names.contains("C#"));
+		assertTrue(names.contains("TYPESCRIPT"));
+		assertFalse(TargetLanguageProvider.isDefinedLanguage("NoSuchLanguage"));
+		// specific language declared in 'META-INF/services' (invalid declaration ignored)
+		assertTrue(names.contains("JAVAFORTEST"));
+		assertTrue(TargetLanguageProvider.isDefinedLanguage(" javaForTest "));
+		EnvInContext env = new EnvInContext();
+		env.setLanguage(TargetLanguageFactoryForTest.LANGUAGE_NAME);
+		TargetLanguage tl = env.getTargetLanguage();
+		Assert.assertEquals(TargetLanguageForJava.class, tl.getClass());
+		assertNotNull(tl.getTypeConverter());
+		assertNotSame(tl, TargetLanguageProvider.getTargetLanguage(env));
+	}
+
+	@Test(expected=GeneratorException.class)
+	public void testUnknownLanguage() throws GeneratorException {
+		new EnvInContext().setLanguage("NoSuchLanguage");
+	}
 }
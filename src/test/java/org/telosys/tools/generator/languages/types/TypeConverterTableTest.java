@@ -0,0 +1,99 @@
+package org.telosys.tools.generator.languages.types;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.generator.context.EnvInContext;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cross-check : the precomputed types table must give the same result
+ * as the original types conversion rules for all the combinations
+ */
+public class TypeConverterTableTest {
+
+	private List<TypeConverter> getAllTypeConverters() {
+		List<TypeConverter> list = new LinkedList<>();
+		list.add(new TypeConverterForCPlusPlus());
+		list.add(new TypeConverterForCSharp());
+		list.add(new TypeConverterForGo());
+		list.add(new TypeConverterForJava());
+		list.add(new TypeConverterForJavaScript());
+		list.add(new TypeConverterForKotlin());
+		list.add(new TypeConverterForPHP());
+		list.add(new TypeConverterForPython());
+		list.add(new TypeConverterForScala());
+		list.add(new TypeConverterForTypeScript());
+		return list;
+	}
+
+	private String result(TypeConverter typeConverter, AttributeTypeInfo typeInfo, boolean table) {
+		try {
+			LanguageType lt = table ? typeConverter.getType(typeInfo) : typeConverter.computeType(typeInfo);
+			if ( lt == null ) {
+				return "null";
+			}
+			return lt.getNeutralType() + "|" + lt.getSimpleType() + "|" + lt.getFullType() + "|"
+					+ lt.getWrapperType() + "|" + lt.isPrimitiveType() ;
+		} catch (TelosysTypeNotFoundException e) {
+			return "ERROR:" + e.getMessage() ;
+		}
+	}
+
+	@Test
+	public void testAllCombinations() {
+		int count = 0 ;
+		for ( TypeConverter typeConverter : getAllTypeConverters() ) {
+			for ( int nullableMark = 0 ; nullableMark < 2 ; nullableMark++ ) {
+				EnvInContext env = new EnvInContext();
+				env.setTypeWithNullableMark(nullableMark == 1);
+				typeConverter.setEnv(env);
+				for ( String neutralType : TypeConverter.getNeutralTypes() ) {
+					for ( int flags = 0 ; flags < 16 ; flags++ ) {
+						AttributeTypeInfo typeInfo = new AttributeTypeInfoForTest(neutralType, flags);
+						assertEquals(typeConverter.getLanguageName() + " : " + typeInfo + " nullableMark=" + nullableMark,
+								result(typeConverter, typeInfo, false), result(typeConverter, typeInfo, true));
+						count++ ;
+					}
+				}
+			}
+		}
+		assertEquals(10 * 2 * 14 * 16, count);
+	}
+
+	@Test
+	public void testSameInstance() {
+		TypeConverter typeConverter = new TypeConverterForJava();
+		typeConverter.setEnv(new EnvInContext());
+		AttributeTypeInfo typeInfo = new AttributeTypeInfoForTest(NeutralType.INTEGER, AttributeTypeConst.NOT_NULL);
+		LanguageType lt = typeConverter.getType(typeInfo);
+		assertEquals("int", lt.getSimpleType());
+		assertSame(lt, typeConverter.getType(new AttributeTypeInfoForTest(NeutralType.INTEGER, AttributeTypeConst.NOT_NULL)));
+	}
+
+	@Test(expected = TelosysTypeNotFoundException.class)
+	public void testUnknownNeutralType() {
+		TypeConverter typeConverter = new TypeConverterForJava();
+		typeConverter.getType(new AttributeTypeInfoForTest("foo", AttributeTypeConst.NONE));
+	}
+
+	@Test
+	public void testNeutralTypeIndex() {
+		String[] neutralTypes = TypeConverter.getNeutralTypes();
+		for ( int i = 0 ; i < neutralTypes.length ; i++ ) {
+			assertEquals(i, TypeConverter.getNeutralTypeIndex(new String(neutralTypes[i])));
+		}
+		assertEquals(-1, TypeConverter.getNeutralTypeIndex("foo"));
+		assertEquals(-1, TypeConverter.getNeutralTypeIndex(null));
+		assertTrue(neutralTypes.length > 10);
+		// Python : no type (void type) for all neutral types
+		TypeConverter python = new TypeConverterForPython();
+		assertNull(python.getType(new AttributeTypeInfoForTest("foo", AttributeTypeConst.NONE)));
+	}
+}
@@ -0,0 +1,88 @@
+package org.telosys.tools.generator.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+import org.telosys.tools.generator.GeneratorException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DestinationSnapshotTest {
+
+	private Path createDestination() throws IOException {
+		Path root = Files.createTempDirectory("telosys-snapshot");
+		Files.createDirectories(root.resolve("src/main"));
+		Files.write(root.resolve("src/main/Foo.java"), "class Foo {}".getBytes(StandardCharsets.UTF_8));
+		Files.write(root.resolve("README.md"), "readme".getBytes(StandardCharsets.UTF_8));
+		return root ;
+	}
+
+	@Test
+	public void testTake() throws IOException {
+		Path root = createDestination();
+		DestinationSnapshot snapshot = DestinationSnapshot.take(root.toString());
+		assertEquals(5, snapshot.size()); // root, 'src', 'src/main', 2 files
+		File foo = root.resolve("src/main/Foo.java").toFile();
+		assertTrue(snapshot.exists(foo));
+		assertFalse(snapshot.isDirectory(foo));
+		DestinationSnapshot.Entry entry = snapshot.getEntry(foo);
+		assertNotNull(entry);
+		assertEquals(12, entry.getSize());
+		assertEquals(foo.lastModified() / 1000, entry.getLastModified() / 1000);
+		assertTrue(snapshot.isDirectory(root.resolve("src").toFile()));
+		assertTrue(snapshot.exists(new File(root.toFile(), "src/../README.md")));
+		assertFalse(snapshot.exists(root.resolve("src/Bar.java").toFile()));
+		assertNull(snapshot.getEntry(root.resolve("src/Bar.java").toFile()));
+		// out of the destination folder 
+		assertTrue(snapshot.covers(foo));
+		assertFalse(snapshot.covers(root.getParent().toFile()));
+	}
+
+	@Test
+	public void testTakeVoidDestination() throws IOException {
+		Path root = Files.createTempDirectory("telosys-snapshot").resolve("not-yet-created");
+		DestinationSnapshot snapshot = DestinationSnapshot.take(root.toString());
+		assertEquals(0, snapshot.size());
+		assertFalse(snapshot.exists(root.toFile()));
+	}
+
+	@Test
+	public void testFileSystemOutputSinkWithSnapshot() throws IOException, GeneratorException {
+		Path root = createDestination();
+		DestinationSnapshot snapshot = DestinationSnapshot.take(root.toString());
+		FileSystemOutputSink sink = new FileSystemOutputSink(root.toString(), snapshot);
+		// new folders and files
+		sink.writeFile("src/test/java/FooTest.java", "class FooTest { String s = \"é\"; }");
+		sink.writeFile("img/foo.png", new byte[] { 1, 2, 3 });
+		// existing file
+		sink.writeFile("src/main/Foo.java", "class Foo { int x; }");
+		File fooTest = root.resolve("src/test/java/FooTest.java").toFile();
+		assertTrue(fooTest.exists());
+		assertTrue(snapshot.exists(fooTest));
+		assertEquals(fooTest.length(), snapshot.getEntry(fooTest).getSize());
+		assertTrue(snapshot.isDirectory(root.resolve("src/test").toFile()));
+		assertTrue(snapshot.isDirectory(root.resolve("src/test/java").toFile()));
+		assertEquals(3, snapshot.getEntry(root.resolve("img/foo.png").toFile()).getSize());
+		assertEquals(20, snapshot.getEntry(root.resolve("src/main/Foo.java").toFile()).getSize());
+		assertEquals("class Foo { int x; }", new String(Files.readAllBytes(root.resolve("src/main/Foo.java")), StandardCharsets.UTF_8));
+		// same result as a new snapshot
+		DestinationSnapshot newSnapshot = DestinationSnapshot.take(root.toString());
+		assertEquals(newSnapshot.size(), snapshot.size());
+	}
+
+	@Test
+	public void testUtf8Length() {
+		String[] strings = { "", "abc", "été", "€ 10", "😀 smile" } ;
+		for ( String s : strings ) {
+			assertEquals(s.getBytes(StandardCharsets.UTF_8).length, DestinationSnapshot.utf8Length(s));
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package org.telosys.tools.generator.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generator.task.GenerationTaskResult;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.StressProject;
+
+public class OutputSinkTest {
+
+	private String readEntry(ZipInputStream zis) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int n ;
+		while ( ( n = zis.read(buffer) ) > 0 ) {
+			out.write(buffer, 0, n);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testInMemory() throws GeneratorException {
+		InMemoryOutputSink sink = new InMemoryOutputSink();
+		sink.writeFile("src/Foo.java", "class Foo {}");
+		sink.writeFile("src/Bar.java", "class Bar {}");
+		sink.writeFile("res/img.png", new byte[] { 1, 2, 3 });
+		sink.writeFile("src/Foo.java", "class Foo { int x; }"); // replaced
+		assertEquals(3, sink.getNumberOfFiles());
+		assertEquals("src/Foo.java", sink.getFileNames().get(0));
+		assertEquals("class Foo { int x; }", sink.getFileContent("src/Foo.java"));
+		assertEquals(3, sink.getFileBytes("res/img.png").length);
+		assertTrue(sink.hasFile("src/Bar.java"));
+		assertFalse(sink.hasFile("src/Baz.java"));
+		assertNull(sink.getFileContent("src/Baz.java"));
+	}
+
+	@Test
+	public void testZip() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ZipOutputSink sink = new ZipOutputSink(out);
+		sink.writeFile("src/Foo.java", "class Foo { String s = \"é\"; }");
+		sink.writeFile("src\\Bar.java", "class Bar {}");
+		assertEquals(2, sink.getNumberOfFiles());
+		sink.close();
+		sink.close(); // no effect
+
+		ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+		List<String> names = new LinkedList<>();
+		ZipEntry entry ;
+		while ( ( entry = zis.getNextEntry() ) != null ) {
+			names.add(entry.getName());
+			if ( entry.getName().equals("src/Foo.java") ) {
+				assertEquals("class Foo { String s = \"é\"; }", readEntry(zis));
+			}
+		}
+		zis.close();
+		assertEquals(2, names.size());
+		assertEquals("src/Bar.java", names.get(1));
+	}
+
+	@Test(expected = GeneratorException.class)
+	public void testZipSameFileTwice() throws Exception {
+		ZipOutputSink sink = new ZipOutputSink(new ByteArrayOutputStream());
+		sink.writeFile("src/Foo.java", "class Foo {}");
+		sink.writeFile("src/Foo.java", "class Foo {}");
+	}
+
+	@Test(expected = GeneratorException.class)
+	public void testZipClosed() throws Exception {
+		ZipOutputSink sink = new ZipOutputSink(new ByteArrayOutputStream());
+		sink.close();
+		sink.writeFile("src/Foo.java", "class Foo {}");
+	}
+
+	@Test
+	public void testJar() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ZipOutputSink sink = new ZipOutputSink(out, true);
+		sink.writeFile("org/demo/Foo.txt", "foo");
+		sink.close();
+		JarInputStream jis = new JarInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertNotNull(jis.getManifest());
+		assertEquals("org/demo/Foo.txt", jis.getNextJarEntry().getName());
+		jis.close();
+	}
+
+	@Test
+	public void testFileSystem() throws Exception {
+		File folder = Files.createTempDirectory("telosys-sink").toFile();
+		FileSystemOutputSink sink = new FileSystemOutputSink(folder.getAbsolutePath());
+		sink.writeFile("a/b/Foo.java", "class Foo {}");
+		sink.writeFile("a/img.bin", new byte[] { 1, 2 });
+		File file = new File(folder, "a/b/Foo.java");
+		assertTrue(file.exists());
+		assertEquals(file.getAbsolutePath(), sink.getFile("a/b/Foo.java").getAbsolutePath());
+		assertEquals("class Foo {}", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		assertEquals(2, new File(folder, "a/img.bin").length());
+	}
+
+	@Test
+	public void testGenerationInMemory() throws Exception {
+		StressProject project = new StressProject();
+		InMemoryOutputSink outputSink = new InMemoryOutputSink();
+		GenerationTaskResult result = project.createTask(project.getTargetDefinitions("memory"), outputSink).launch();
+		assertEquals(0, result.getNumberOfGenerationErrors());
+		assertEquals(StressProject.TEMPLATES.length * StressProject.ENTITIES_COUNT, outputSink.getNumberOfFiles());
+		// same content as in the file system 
+		project.createTask(Collections.singletonList(project.getTargetDefinition("file", 0)), null).launch();
+		String fileName = project.getFolder("memory", 0) + "/Entity1.txt" ;
+		assertArrayEquals(Files.readAllBytes(project.getGeneratedFile("file", 0, 1).toPath()), outputSink.getFileBytes(fileName));
+		assertFalse(project.getGeneratedFile("memory", 0, 1).exists());
+	}
+}
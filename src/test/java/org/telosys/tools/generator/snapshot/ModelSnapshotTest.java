@@ -0,0 +1,258 @@
+package org.telosys.tools.generator.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelForeignKey;
+import org.telosys.tools.dsl.model.DslModelForeignKeyAttribute;
+import org.telosys.tools.dsl.model.DslModelLink;
+import org.telosys.tools.dsl.tags.Tag;
+import org.telosys.tools.dsl.tags.Tags;
+import org.telosys.tools.generator.GeneratorException;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Model;
+import org.telosys.tools.generic.model.enums.BooleanValue;
+import org.telosys.tools.generic.model.enums.Cardinality;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelSnapshotTest {
+
+	private DslModel buildModel(int entitiesCount) throws Exception {
+		DslModel model = new DslModel("MyModel");
+		model.setDescription("My model");
+		for ( int e = 0 ; e < entitiesCount ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			entity.setDatabaseTable("TABLE_" + e);
+			Tags tags = new Tags();
+			tags.addTag(new Tag("Foo", "abc" + e));
+			tags.addTag(new Tag("Bar"));
+			entity.setTagContainer(tags);
+			DslModelAttribute id = new DslModelAttribute("id", NeutralType.INTEGER);
+			id.setKeyElement(true);
+			id.setUnique(true);
+			id.setDatabaseName("ID");
+			entity.addAttribute(id);
+			DslModelAttribute amount = new DslModelAttribute("amount", NeutralType.DECIMAL);
+			amount.setPrecision(10);
+			amount.setScale(2);
+			amount.setInsertable(BooleanValue.FALSE);
+			amount.setNotNull(true);
+			entity.addAttribute(amount);
+			if ( e > 0 ) {
+				DslModelLink link = new DslModelLink("previous");
+				link.setReferencedEntityName("Entity" + (e - 1));
+				link.setCardinality(Cardinality.MANY_TO_ONE);
+				entity.addLink(link);
+				DslModelForeignKey fk = new DslModelForeignKey("FK_" + e, "Entity" + e, "Entity" + (e - 1));
+				fk.addAttribute(new DslModelForeignKeyAttribute(1, "id", "id"));
+				entity.addForeignKey(fk);
+			}
+			model.addEntity(entity);
+		}
+		return model ;
+	}
+
+	private Path createModelFolder() throws IOException {
+		Path folder = Files.createTempDirectory("telosys-model");
+		Files.write(folder.resolve("Entity0.entity"), "Entity0 { id : int {@Id} ; }".getBytes(StandardCharsets.UTF_8));
+		return folder ;
+	}
+
+	/**
+	 * Checks that all the values exposed by the given generic model interface are the same
+	 */
+	private void assertSameValues(Class<?> type, Object expected, Object actual) throws Exception {
+		if ( expected == null || actual == null ) {
+			assertSame(expected, actual);
+			return ;
+		}
+		for ( Method getter : type.getMethods() ) {
+			if ( getter.getParameterTypes().length == 0 && getter.getDeclaringClass() != Object.class ) {
+				String name = type.getSimpleName() + "." + getter.getName();
+				Object expectedValue = getter.invoke(expected);
+				Object actualValue = getter.invoke(actual);
+				if ( expectedValue instanceof List ) {
+					Class<?> elementType = (Class<?>) ((ParameterizedType) getter.getGenericReturnType()).getActualTypeArguments()[0];
+					List<?> expectedList = (List<?>) expectedValue ;
+					List<?> actualList = (List<?>) actualValue ;
+					assertEquals(name, expectedList.size(), actualList.size());
+					for ( int i = 0 ; i < expectedList.size() ; i++ ) {
+						assertSameValues(elementType, expectedList.get(i), actualList.get(i));
+					}
+				}
+				else if ( getter.getReturnType().getName().startsWith("org.telosys.tools.generic.model.") 
+						&& ! getter.getReturnType().isEnum() ) {
+					assertSameValues(getter.getReturnType(), expectedValue, actualValue);
+				}
+				else {
+					assertEquals(name, expectedValue, actualValue);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		Path folder = createModelFolder();
+		File snapshotFile = folder.resolve("snapshot/model.snapshot").toFile();
+		DslModel model = buildModel(20);
+		ModelSnapshot.save(model, folder.toFile(), snapshotFile);
+		assertTrue(snapshotFile.isFile());
+
+		Model loaded = ModelSnapshot.load(snapshotFile, folder.toFile());
+		assertNotNull(loaded);
+		assertEquals("MyModel", loaded.getName());
+		assertEquals("My model", loaded.getDescription());
+		assertEquals(20, loaded.getEntities().size());
+		assertEquals(-1, ModelSnapshot.getNumberOfDecodedEntities(model));
+
+		// class name and table name available without decoding 
+		assertEquals("Entity3", loaded.getEntities().get(3).getClassName());
+		assertEquals("TABLE_3", loaded.getEntities().get(3).getDatabaseTable());
+		assertSame(loaded.getEntities().get(3), loaded.getEntityByClassName("Entity3"));
+		assertEquals(0, ModelSnapshot.getNumberOfDecodedEntities(loaded));
+
+		// entity decoded on first use
+		Entity entity = loaded.getEntityByClassName("Entity3");
+		assertEquals(2, entity.getAttributes().size());
+		assertEquals(1, ModelSnapshot.getNumberOfDecodedEntities(loaded));
+		Attribute amount = entity.getAttributes().get(1);
+		assertEquals("amount", amount.getName());
+		assertEquals(Integer.valueOf(10), amount.getPrecision());
+		assertEquals(BooleanValue.FALSE, amount.getInsertable());
+		assertNull(amount.getMaxValue());
+		assertTrue(entity.getAttributes().get(0).isUnique());
+		assertFalse(entity.isAbstract());
+		assertEquals("previous", entity.getLinks().get(0).getFieldName());
+		assertEquals(Cardinality.MANY_TO_ONE, entity.getLinks().get(0).getCardinality());
+		assertEquals("Entity2", entity.getForeignKeys().get(0).getReferencedEntityName());
+		assertEquals("id", entity.getForeignKeys().get(0).getAttributes().get(0).getOriginAttributeName());
+		assertTrue(entity.getTagContainer().containsTag("Foo"));
+		assertEquals("abc3", entity.getTagContainer().getTagValue("Foo"));
+		assertTrue(entity.getTagContainer().containsTag("Bar"));
+		assertFalse(entity.getTagContainer().containsTag("Baz"));
+		assertNull(loaded.getEntityByClassName("Foo"));
+
+		// same values for all the getters of the generic model 
+		assertSameValues(Model.class, model, loaded);
+		assertEquals(20, ModelSnapshot.getNumberOfDecodedEntities(loaded));
+	}
+
+	@Test
+	public void testBigDecimalAndSnapshotOfSnapshot() throws Exception {
+		Path folder = createModelFolder();
+		File snapshotFile = folder.resolve("model.snapshot").toFile();
+		DslModel model = buildModel(2);
+		((DslModelAttribute) model.getEntities().get(0).getAttributes().get(1)).setMaxValue(new BigDecimal("123.45"));
+		ModelSnapshot.save(model, folder.toFile(), snapshotFile);
+		Model loaded = ModelSnapshot.load(snapshotFile, folder.toFile());
+		assertEquals(new BigDecimal("123.45"), loaded.getEntities().get(0).getAttributes().get(1).getMaxValue());
+		// a loaded model can be saved again 
+		File snapshotFile2 = folder.resolve("model2.snapshot").toFile();
+		ModelSnapshot.save(loaded, folder.toFile(), snapshotFile2);
+		Model loaded2 = ModelSnapshot.load(snapshotFile2, folder.toFile());
+		assertEquals(new BigDecimal("123.45"), loaded2.getEntities().get(0).getAttributes().get(1).getMaxValue());
+		assertSameValues(Model.class, model, loaded2);
+	}
+
+	@Test
+	public void testInvalidation() throws Exception {
+		Path folder = createModelFolder();
+		File snapshotFile = ModelSnapshot.getDefaultFile(folder.toFile());
+		assertEquals(folder.toFile().getParentFile(), snapshotFile.getParentFile());
+		snapshotFile.deleteOnExit();
+		ModelSnapshot.save(buildModel(3), folder.toFile(), snapshotFile);
+		assertNotNull(ModelSnapshot.load(snapshotFile, folder.toFile()));
+		// new model file => obsolete snapshot
+		Files.write(folder.resolve("Entity1.entity"), "Entity1 { id : int {@Id} ; }".getBytes(StandardCharsets.UTF_8));
+		assertNull(ModelSnapshot.load(snapshotFile, folder.toFile()));
+		// no snapshot file
+		assertNull(ModelSnapshot.load(folder.resolve("nope").toFile(), folder.toFile()));
+	}
+
+	@Test(expected = GeneratorException.class)
+	public void testInvalidFile() throws Exception {
+		Path folder = createModelFolder();
+		File snapshotFile = folder.resolve("model.snapshot").toFile();
+		Files.write(snapshotFile.toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+		ModelSnapshot.load(snapshotFile, folder.toFile());
+	}
+
+	@Test
+	public void testCorruptedEntityBlock() throws Exception {
+		Path folder = createModelFolder();
+		File snapshotFile = folder.resolve("model.snapshot").toFile();
+		ModelSnapshot.save(buildModel(3), folder.toFile(), snapshotFile);
+		// one byte changed in the last entity block => rejected when loaded (not when the entity is used)
+		byte[] bytes = Files.readAllBytes(snapshotFile.toPath());
+		bytes[bytes.length - 5] = (byte) ( bytes[bytes.length - 5] + 1 ) ;
+		Files.write(snapshotFile.toPath(), bytes);
+		try {
+			ModelSnapshot.load(snapshotFile, folder.toFile());
+			throw new AssertionError("GeneratorException expected");
+		} catch (GeneratorException e) {
+			assertTrue(e.getMessage().contains("checksum"));
+		}
+		// truncated file 
+		Files.write(snapshotFile.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+		try {
+			ModelSnapshot.load(snapshotFile, folder.toFile());
+			throw new AssertionError("GeneratorException expected");
+		} catch (GeneratorException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testLoadOrParse() throws Exception {
+		Path folder = createModelFolder();
+		File snapshotFile = folder.resolve("model.snapshot").toFile();
+		final AtomicInteger parsing = new AtomicInteger();
+		ModelSnapshot.ModelParser parser = new ModelSnapshot.ModelParser() {
+			@Override
+			public Model parseModel() throws GeneratorException {
+				parsing.incrementAndGet();
+				try {
+					return buildModel(5);
+				} catch (Exception e) {
+					throw new GeneratorException("error", e);
+				}
+			}
+		};
+		Model model1 = ModelSnapshot.loadOrParse(snapshotFile, folder.toFile(), parser);
+		assertEquals(1, parsing.get());
+		// parsed model returned as loaded from the new snapshot
+		assertEquals(0, ModelSnapshot.getNumberOfDecodedEntities(model1));
+		assertSameValues(Model.class, buildModel(5), model1);
+		Model model2 = ModelSnapshot.loadOrParse(snapshotFile, folder.toFile(), parser);
+		assertEquals(1, parsing.get()); // no parsing
+		assertEquals(5, model2.getEntities().size());
+		assertEquals(0, ModelSnapshot.getNumberOfDecodedEntities(model2));
+		// corrupted snapshot => parsing 
+		Files.write(snapshotFile.toPath(), new byte[] { 1, 2, 3 });
+		ModelSnapshot.loadOrParse(snapshotFile, folder.toFile(), parser);
+		assertEquals(2, parsing.get());
+		assertNotNull(ModelSnapshot.load(snapshotFile, folder.toFile()));
+	}
+}
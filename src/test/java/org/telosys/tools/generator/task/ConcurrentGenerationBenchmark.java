@@ -0,0 +1,91 @@
+package org.telosys.tools.generator.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.env.telosys.tools.generator.StressProject;
+
+/**
+ * Throughput scaling of concurrent generation tasks (not a unit test, not run by the build) <br>
+ * Launches the same set of 'StandardGenerationTask' (one template for all the entities in each task)
+ * with 1, 2, 4, 8 and 16 threads and prints the elapsed time, the throughput and the speedup. <br>
+ * Usage : ConcurrentGenerationBenchmark [tasks-count] [iterations]
+ */
+public class ConcurrentGenerationBenchmark {
+
+	private static final int[] THREADS_COUNTS = { 1, 2, 4, 8, 16 } ;
+
+	private final StressProject project = new StressProject();
+
+	/**
+	 * Launches the given number of tasks with the given number of threads and returns the elapsed time
+	 * @param runName
+	 * @param threads
+	 * @param tasksCount
+	 * @return elapsed time in ms
+	 */
+	private long launchTasks(String runName, int threads, int tasksCount) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			long start = System.nanoTime();
+			List<Future<GenerationTaskResult>> futures = new ArrayList<>();
+			for ( int i = 0 ; i < tasksCount ; i++ ) {
+				final String taskRunName = runName + "/task" + i ;
+				final int templateIndex = i % StressProject.TEMPLATES.length ;
+				futures.add(executor.submit(new Callable<GenerationTaskResult>() {
+					@Override
+					public GenerationTaskResult call() throws Exception {
+						return project.createTask(Collections.singletonList(project.getTargetDefinition(taskRunName, templateIndex)), null).launch();
+					}
+				}));
+			}
+			for ( Future<GenerationTaskResult> future : futures ) {
+				GenerationTaskResult result = future.get();
+				if ( result.getNumberOfGenerationErrors() > 0 ) {
+					throw new IllegalStateException("Generation error in run '" + runName + "'");
+				}
+			}
+			return ( System.nanoTime() - start ) / 1000000 ;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void run(int tasksCount, int iterations) throws Exception {
+		System.out.println("Concurrent generation benchmark : " + tasksCount + " tasks of " + StressProject.ENTITIES_COUNT
+				+ " files, " + iterations + " iteration(s), " + Runtime.getRuntime().availableProcessors() + " processor(s)");
+		//--- Warmup (templates loading, JIT)
+		for ( int i = 0 ; i < iterations ; i++ ) {
+			launchTasks("bench-warmup", 4, tasksCount);
+		}
+		//--- Median elapsed time for each number of threads
+		long reference = 0 ;
+		for ( int threads : THREADS_COUNTS ) {
+			long[] elapsed = new long[iterations];
+			for ( int i = 0 ; i < iterations ; i++ ) {
+				elapsed[i] = launchTasks("bench-" + threads, threads, tasksCount);
+			}
+			Arrays.sort(elapsed);
+			long median = Math.max(1, elapsed[iterations / 2]);
+			if ( threads == 1 ) {
+				reference = median ;
+			}
+			System.out.println(String.format("%2d thread(s) : %6d ms (min %6d ms) %8.1f files/s   speedup x%.2f",
+					threads, median, elapsed[0],
+					tasksCount * StressProject.ENTITIES_COUNT * 1000.0 / median,
+					(double) reference / median));
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int tasksCount = args.length > 0 ? Integer.parseInt(args[0]) : StressProject.TEMPLATES.length * 8 ;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5 ;
+		new ConcurrentGenerationBenchmark().run(tasksCount, Math.max(1, iterations));
+	}
+}
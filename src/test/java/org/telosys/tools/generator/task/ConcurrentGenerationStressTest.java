@@ -0,0 +1,88 @@
+package org.telosys.tools.generator.task;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.StressProject;
+
+/**
+ * Stress test : several generation tasks launched concurrently in the same JVM
+ * with different '$env' settings (language, database, nullable mark, collection type) <br>
+ * The generated files must be identical to the files generated by a single thread
+ */
+public class ConcurrentGenerationStressTest {
+
+	private final StressProject project = new StressProject();
+
+	/**
+	 * Launches a generation task for the given template
+	 * @param runName
+	 * @param templateIndex
+	 * @return the task result
+	 */
+	private GenerationTaskResult launchTask(String runName, int templateIndex) throws Exception {
+		return project.createTask(Collections.singletonList(project.getTargetDefinition(runName, templateIndex)), null).launch();
+	}
+
+	/**
+	 * Launches the given number of tasks with the given number of threads
+	 * @param runName
+	 * @param threads
+	 * @param tasksCount
+	 */
+	private void launchTasks(final String runName, int threads, int tasksCount) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<GenerationTaskResult>> futures = new ArrayList<>();
+			for ( int i = 0 ; i < tasksCount ; i++ ) {
+				final String taskRunName = runName + "/task" + i ;
+				final int templateIndex = i % StressProject.TEMPLATES.length ;
+				futures.add(executor.submit(new Callable<GenerationTaskResult>() {
+					@Override
+					public GenerationTaskResult call() throws Exception {
+						return launchTask(taskRunName, templateIndex);
+					}
+				}));
+			}
+			for ( Future<GenerationTaskResult> future : futures ) {
+				GenerationTaskResult result = future.get();
+				assertEquals(0, result.getNumberOfGenerationErrors());
+				assertEquals(StressProject.ENTITIES_COUNT, result.getNumberOfFilesGenerated());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testConcurrentGenerationGivesSameFiles() throws Exception {
+		//--- Reference : single thread
+		for ( int t = 0 ; t < StressProject.TEMPLATES.length ; t++ ) {
+			GenerationTaskResult result = launchTask("single", t);
+			assertEquals(0, result.getNumberOfGenerationErrors());
+		}
+		// check a few language specific types
+		String csharpNullable = new String(Files.readAllBytes(project.getGeneratedFile("single", 1, 0).toPath()), "UTF-8");
+		String csharpNotNullable = new String(Files.readAllBytes(project.getGeneratedFile("single", 2, 0).toPath()), "UTF-8");
+		assertTrue(csharpNullable.contains("int? attr1"));
+		assertTrue(csharpNotNullable.contains("int attr1"));
+
+		//--- Many tasks with 8 threads
+		int tasksCount = StressProject.TEMPLATES.length * 8 ;
+		launchTasks("multi", 8, tasksCount);
+		for ( int i = 0 ; i < tasksCount ; i++ ) {
+			project.checkSameFiles("single", "multi/task" + i, i % StressProject.TEMPLATES.length);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package org.telosys.tools.generator.task;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.context.tools.DependencyRecorder;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.FakeProject;
+import junit.env.telosys.tools.generator.LoggerProvider;
+
+public class GenerationDependenciesTest {
+
+	private static final String BUNDLE = "bundle-stress";
+	private static final int ENTITIES_COUNT = 4 ;
+
+	private final FakeProject fakeProject = new FakeProject("proj-stress");
+	private final TelosysToolsCfg telosysToolsCfg = fakeProject.getTelosysToolsCfg();
+
+	private DslModel buildModel() {
+		DslModel model = new DslModel("DependenciesModel");
+		for ( int e = 0 ; e < ENTITIES_COUNT ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			entity.addAttribute(new DslModelAttribute("id", NeutralType.INTEGER));
+			entity.addAttribute(new DslModelAttribute("name", NeutralType.STRING));
+			model.addEntity(entity);
+		}
+		return model ;
+	}
+
+	private List<String> getEntitiesNames() {
+		List<String> list = new LinkedList<>();
+		for ( int e = 0 ; e < ENTITIES_COUNT ; e++ ) {
+			list.add("Entity" + e);
+		}
+		return list;
+	}
+
+	private Target buildTarget(DslModel model, String entityName) {
+		TargetDefinition targetDefinition = new TargetDefinition("Target", "${BEANNAME}.java", "out", "java_class.vm", "*");
+		return new Target(telosysToolsCfg.getDestinationFolderAbsolutePath(), targetDefinition,
+				new HashMap<String, String>(), model.getEntityByClassName(entityName));
+	}
+
+	@Test
+	public void testEntityFingerprint() {
+		DslModel model = buildModel();
+		ModelFingerprints fingerprints = new ModelFingerprints(model, null, BUNDLE);
+		String fp1 = fingerprints.getEntityFingerprint("Entity1");
+		assertEquals(fp1, new ModelFingerprints(buildModel(), null, BUNDLE).getEntityFingerprint("Entity1"));
+		assertNotEquals(fp1, fingerprints.getEntityFingerprint("Entity2"));
+		assertEquals(ModelFingerprints.NONE, fingerprints.getEntityFingerprint("Foo"));
+
+		// attribute added => new fingerprint
+		DslModel model2 = buildModel();
+		((DslModelEntity) model2.getEntityByClassName("Entity1")).addAttribute(new DslModelAttribute("foo", NeutralType.STRING));
+		ModelFingerprints fingerprints2 = new ModelFingerprints(model2, null, BUNDLE);
+		assertNotEquals(fp1, fingerprints2.getEntityFingerprint("Entity1"));
+		assertEquals(fingerprints.getEntityFingerprint("Entity2"), fingerprints2.getEntityFingerprint("Entity2"));
+		assertEquals(fingerprints.getEntitiesListFingerprint(), fingerprints2.getEntitiesListFingerprint());
+
+		// entity added => new entities list
+		DslModel model3 = buildModel();
+		model3.addEntity(new DslModelEntity("Entity9"));
+		assertNotEquals(fingerprints.getEntitiesListFingerprint(), new ModelFingerprints(model3, null, BUNDLE).getEntitiesListFingerprint());
+	}
+
+	@Test
+	public void testRecordAndSave() throws Exception {
+		DslModel model = buildModel();
+		GenerationDependencies dependencies = new GenerationDependencies(new ModelFingerprints(model, telosysToolsCfg, BUNDLE));
+		Target target0 = buildTarget(model, "Entity0");
+		Target target1 = buildTarget(model, "Entity1");
+		DependencyRecorder recorder = new DependencyRecorder();
+		recorder.start();
+		recorder.recordEntity("Entity2");
+		recorder.stop();
+		dependencies.record(target0, recorder);
+		assertTrue(dependencies.isUpToDate(target0));
+		assertFalse(dependencies.isUpToDate(target1)); // no record
+		assertEquals(1, dependencies.size());
+
+		File file = File.createTempFile("telosys-dependencies", ".properties");
+		file.deleteOnExit();
+		dependencies.save(file);
+
+		// same model => up to date
+		GenerationDependencies loaded = GenerationDependencies.load(file, new ModelFingerprints(buildModel(), telosysToolsCfg, BUNDLE));
+		assertTrue(loaded.hasRecord(target0));
+		assertTrue(loaded.isUpToDate(target0));
+
+		// entity used by the template changed => not up to date
+		DslModel model2 = buildModel();
+		((DslModelEntity) model2.getEntityByClassName("Entity2")).addAttribute(new DslModelAttribute("foo", NeutralType.STRING));
+		loaded = GenerationDependencies.load(file, new ModelFingerprints(model2, telosysToolsCfg, BUNDLE));
+		assertFalse(loaded.isUpToDate(target0));
+
+		// other entity changed => still up to date
+		DslModel model3 = buildModel();
+		((DslModelEntity) model3.getEntityByClassName("Entity3")).addAttribute(new DslModelAttribute("foo", NeutralType.STRING));
+		loaded = GenerationDependencies.load(file, new ModelFingerprints(model3, telosysToolsCfg, BUNDLE));
+		assertTrue(loaded.isUpToDate(target0));
+
+		loaded.remove(target0);
+		assertFalse(loaded.hasRecord(target0));
+	}
+
+	@Test
+	public void testSelectionChanged() throws Exception {
+		DslModel model = buildModel();
+		List<String> selection1 = Arrays.asList("Entity0", "Entity1");
+		List<String> selection2 = Arrays.asList("Entity0", "Entity1", "Entity2");
+		GenerationDependencies dependencies = new GenerationDependencies(
+				new ModelFingerprints(model, telosysToolsCfg, BUNDLE, null, selection1));
+		Target target = buildTarget(model, "Entity0");
+		DependencyRecorder recorder = new DependencyRecorder();
+		recorder.start();
+		recorder.recordSelection();
+		recorder.recordEntity("Entity1");
+		recorder.stop();
+		assertTrue(recorder.isSelectionRecorded());
+		dependencies.record(target, recorder);
+		assertTrue(dependencies.isUpToDate(target));
+
+		File file = File.createTempFile("telosys-dependencies", ".properties");
+		file.deleteOnExit();
+		dependencies.save(file);
+
+		// same model and same selection => up to date
+		GenerationDependencies loaded = GenerationDependencies.load(file, 
+				new ModelFingerprints(buildModel(), telosysToolsCfg, BUNDLE, null, selection1));
+		assertTrue(loaded.isUpToDate(target));
+
+		// same model, only the selection changed => not up to date
+		loaded = GenerationDependencies.load(file, new ModelFingerprints(buildModel(), telosysToolsCfg, BUNDLE, null, selection2));
+		assertFalse(loaded.isUpToDate(target));
+
+		// same entities in another order => not up to date
+		loaded = GenerationDependencies.load(file, 
+				new ModelFingerprints(buildModel(), telosysToolsCfg, BUNDLE, null, Arrays.asList("Entity1", "Entity0")));
+		assertFalse(loaded.isUpToDate(target));
+
+		// selection not used by the template => up to date whatever the selection
+		DependencyRecorder recorder2 = new DependencyRecorder();
+		recorder2.start();
+		recorder2.recordEntity("Entity1");
+		recorder2.stop();
+		assertFalse(recorder2.isSelectionRecorded());
+		dependencies.record(target, recorder2);
+		dependencies.save(file);
+		loaded = GenerationDependencies.load(file, new ModelFingerprints(buildModel(), telosysToolsCfg, BUNDLE, null, selection2));
+		assertTrue(loaded.isUpToDate(target));
+	}
+
+	private GenerationTaskResult launchTask(DslModel model, File dependenciesFile) throws Exception {
+		List<TargetDefinition> targets = new LinkedList<>();
+		targets.add(new TargetDefinition("Java class", "${BEANNAME}.java", "generated-files/incremental",
+				"java_class.vm", "*"));
+		StandardGenerationTask task = new StandardGenerationTask(model, getEntitiesNames(), BUNDLE, targets, null,
+				telosysToolsCfg, LoggerProvider.getLogger());
+		task.setContinueIfError(false);
+		task.setDependenciesFile(dependenciesFile);
+		return task.launch();
+	}
+
+	@Test
+	public void testIncrementalGeneration() throws Exception {
+		File dependenciesFile = File.createTempFile("telosys-dependencies", ".properties");
+		dependenciesFile.delete();
+		dependenciesFile.deleteOnExit();
+
+		//--- First generation : all the files
+		GenerationTaskResult result = launchTask(buildModel(), dependenciesFile);
+		assertEquals(ENTITIES_COUNT, result.getNumberOfFilesGenerated());
+		assertEquals(0, result.getNumberOfTargetsSkipped());
+		assertTrue(dependenciesFile.exists());
+
+		//--- Nothing changed : no file generated
+		result = launchTask(buildModel(), dependenciesFile);
+		assertEquals(0, result.getNumberOfFilesGenerated());
+		assertEquals(ENTITIES_COUNT, result.getNumberOfTargetsSkipped());
+
+		//--- One entity changed : only one file generated
+		DslModel model = buildModel();
+		((DslModelEntity) model.getEntityByClassName("Entity1")).addAttribute(new DslModelAttribute("foo", NeutralType.STRING));
+		result = launchTask(model, dependenciesFile);
+		assertEquals(1, result.getNumberOfFilesGenerated());
+		assertEquals(ENTITIES_COUNT - 1, result.getNumberOfTargetsSkipped());
+
+		//--- Output file removed : generated again
+		File file = new File(telosysToolsCfg.getDestinationFolderAbsolutePath(), "generated-files/incremental/Entity2.java");
+		assertTrue(file.delete());
+		result = launchTask(model, dependenciesFile);
+		assertEquals(1, result.getNumberOfFilesGenerated());
+		assertTrue(file.exists());
+	}
+}
@@ -0,0 +1,140 @@
+package org.telosys.tools.generator.task;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.output.InMemoryOutputSink;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import junit.env.telosys.tools.generator.FakeProject;
+import junit.env.telosys.tools.generator.LoggerProvider;
+
+public class GenerationEngineTest {
+
+	private static final String BUNDLE = "bundle-stress";
+
+	private final FakeProject fakeProject = new FakeProject("proj-stress");
+
+	private DslModel buildModel() {
+		DslModel dslModel = new DslModel("EngineModel");
+		for ( int e = 0 ; e < 3 ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			DslModelAttribute attribute = new DslModelAttribute("id", NeutralType.INTEGER);
+			attribute.setKeyElement(true);
+			entity.addAttribute(attribute);
+			entity.addAttribute(new DslModelAttribute("name", NeutralType.STRING));
+			dslModel.addEntity(entity);
+		}
+		return dslModel ;
+	}
+
+	private List<String> getEntitiesNames() {
+		List<String> list = new LinkedList<>();
+		list.add("Entity0");
+		list.add("Entity1");
+		list.add("Entity2");
+		return list;
+	}
+
+	private List<TargetDefinition> getTargets() {
+		List<TargetDefinition> targets = new LinkedList<>();
+		targets.add(new TargetDefinition("Java", "${BEANNAME}.java", "engine/java", "java_class.vm", "*"));
+		targets.add(new TargetDefinition("SQL", "${BEANNAME}.sql", "engine/sql", "sql_postgresql.vm", "*"));
+		return targets;
+	}
+
+	@Test
+	public void testSeveralRequests() throws Exception {
+		GenerationEngine engine = new GenerationEngine(fakeProject.getTelosysToolsCfg(), BUNDLE, LoggerProvider.getLogger());
+		DslModel model = buildModel();
+		InMemoryOutputSink outputSink1 = new InMemoryOutputSink();
+		GenerationTaskResult result = engine.generate(model, getEntitiesNames(), getTargets(), null, outputSink1);
+		assertEquals(0, result.getNumberOfGenerationErrors());
+		assertEquals(6, result.getNumberOfFilesGenerated());
+		assertEquals(2, engine.getBundleCache().getNumberOfCheckedTemplates());
+		assertEquals(1, engine.getBundleCache().getNumberOfLoaders());
+
+		// second request with warm cache => same result
+		InMemoryOutputSink outputSink2 = new InMemoryOutputSink();
+		engine.generate(model, getEntitiesNames(), getTargets(), null, outputSink2);
+		for ( String fileName : outputSink1.getFileNames() ) {
+			assertArrayEquals(outputSink1.getFileBytes(fileName), outputSink2.getFileBytes(fileName));
+		}
+		assertEquals(1, engine.getBundleCache().getNumberOfLoaders());
+
+		// invalidation
+		engine.invalidateCache();
+		assertEquals(0, engine.getBundleCache().getNumberOfCheckedTemplates());
+		assertEquals(0, engine.getBundleCache().getNumberOfLoaders());
+		InMemoryOutputSink outputSink3 = new InMemoryOutputSink();
+		engine.generate(model, getEntitiesNames(), getTargets(), null, outputSink3);
+		assertEquals(6, outputSink3.getNumberOfFiles());
+	}
+
+	@Test
+	public void testConcurrentRequests() throws Exception {
+		final GenerationEngine engine = new GenerationEngine(fakeProject.getTelosysToolsCfg(), BUNDLE, LoggerProvider.getLogger());
+		final DslModel model = buildModel();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<InMemoryOutputSink>> futures = new ArrayList<>();
+			for ( int i = 0 ; i < 16 ; i++ ) {
+				futures.add(executor.submit(new Callable<InMemoryOutputSink>() {
+					@Override
+					public InMemoryOutputSink call() throws Exception {
+						InMemoryOutputSink outputSink = new InMemoryOutputSink();
+						GenerationTaskResult result = engine.generate(model, getEntitiesNames(), getTargets(), null, outputSink);
+						assertEquals(0, result.getNumberOfGenerationErrors());
+						return outputSink ;
+					}
+				}));
+			}
+			InMemoryOutputSink first = futures.get(0).get();
+			for ( Future<InMemoryOutputSink> future : futures ) {
+				InMemoryOutputSink outputSink = future.get();
+				assertEquals(6, outputSink.getNumberOfFiles());
+				for ( String fileName : first.getFileNames() ) {
+					assertArrayEquals(first.getFileBytes(fileName), outputSink.getFileBytes(fileName));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, engine.getBundleCache().getNumberOfLoaders());
+	}
+
+	@Test
+	public void testTemplatesCompilation() throws Exception {
+		GenerationEngine engine = new GenerationEngine(fakeProject.getTelosysToolsCfg(), BUNDLE, LoggerProvider.getLogger());
+		DslModel model = buildModel();
+		InMemoryOutputSink reference = new InMemoryOutputSink();
+		engine.generate(model, getEntitiesNames(), getTargets(), null, reference);
+
+		engine.setTemplatesCompilation(true);
+		// several requests : templates compiled after a few usages => same result
+		for ( int i = 0 ; i < 5 ; i++ ) {
+			InMemoryOutputSink outputSink = new InMemoryOutputSink();
+			GenerationTaskResult result = engine.generate(model, getEntitiesNames(), getTargets(), null, outputSink);
+			assertEquals(0, result.getNumberOfGenerationErrors());
+			for ( String fileName : reference.getFileNames() ) {
+				assertArrayEquals(reference.getFileBytes(fileName), outputSink.getFileBytes(fileName));
+			}
+		}
+		assertEquals(2, engine.getBundleCache().getCompiledTemplates().getNumberOfCompiledTemplates());
+		engine.invalidateTemplates();
+		assertEquals(0, engine.getBundleCache().getCompiledTemplates().getNumberOfCompiledTemplates());
+	}
+}
@@ -0,0 +1,192 @@
+package org.telosys.tools.generator.task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.StressProject;
+
+public class GenerationEventPublisherTest {
+
+	/**
+	 * Subscriber keeping all the events ( requests 'batch' events each time the previous batch is received )
+	 */
+	private static class RecordingSubscriber implements GenerationEventSubscriber {
+		private final int batch ;
+		private final List<GenerationEvent> events = Collections.synchronizedList(new ArrayList<GenerationEvent>());
+		private volatile GenerationEventSubscription subscription ;
+		private volatile boolean completed = false ;
+		private volatile Throwable error = null ;
+		private int received = 0 ;
+
+		RecordingSubscriber(int batch) {
+			this.batch = batch ;
+		}
+		@Override
+		public void onSubscribe(GenerationEventSubscription subscription) {
+			this.subscription = subscription ;
+			if ( batch > 0 ) {
+				subscription.request(batch);
+			}
+		}
+		@Override
+		public void onNext(GenerationEvent event) {
+			events.add(event);
+			received++ ;
+			if ( batch > 0 && received % batch == 0 ) {
+				subscription.request(batch);
+			}
+		}
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable ;
+		}
+		@Override
+		public void onComplete() {
+			completed = true ;
+		}
+	}
+
+	@Test
+	public void testAllEventsInOrder() throws InterruptedException {
+		GenerationEventPublisher publisher = new GenerationEventPublisher(4);
+		RecordingSubscriber subscriber1 = new RecordingSubscriber(3);
+		RecordingSubscriber subscriber2 = new RecordingSubscriber(1000);
+		publisher.subscribe(subscriber1);
+		publisher.subscribe(subscriber2);
+		assertTrue(publisher.hasSubscribers());
+		for ( int i = 0 ; i < 100 ; i++ ) {
+			publisher.publish(GenerationEvent.resourcesCopied(i));
+		}
+		publisher.publish(GenerationEvent.taskFinished(new GenerationTaskResult()));
+		publisher.close(null);
+		assertTrue(publisher.awaitDelivery(10, TimeUnit.SECONDS));
+		for ( RecordingSubscriber subscriber : new RecordingSubscriber[] { subscriber1, subscriber2 } ) {
+			assertTrue(subscriber.completed);
+			assertNull(subscriber.error);
+			assertEquals(101, subscriber.events.size());
+			for ( int i = 0 ; i < 100 ; i++ ) {
+				assertEquals(i, subscriber.events.get(i).getCount());
+			}
+			assertEquals(GenerationEvent.Type.TASK_FINISHED, subscriber.events.get(100).getType());
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws InterruptedException {
+		final GenerationEventPublisher publisher = new GenerationEventPublisher(2);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0); // no request 
+		publisher.subscribe(subscriber);
+		final AtomicBoolean allPublished = new AtomicBoolean(false);
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for ( int i = 0 ; i < 10 ; i++ ) {
+					publisher.publish(GenerationEvent.resourcesCopied(i));
+				}
+				allPublished.set(true);
+			}
+		});
+		producer.start();
+		Thread.sleep(200);
+		// buffer full : the producer is waiting
+		assertFalse(allPublished.get());
+		assertEquals(0, subscriber.events.size());
+		// request all
+		while ( subscriber.subscription == null ) {
+			Thread.sleep(10);
+		}
+		subscriber.subscription.request(Long.MAX_VALUE);
+		producer.join(10000);
+		assertTrue(allPublished.get());
+		publisher.close(null);
+		assertTrue(publisher.awaitDelivery(10, TimeUnit.SECONDS));
+		assertEquals(10, subscriber.events.size());
+		assertTrue(subscriber.completed);
+	}
+
+	@Test
+	public void testCancel() throws InterruptedException {
+		GenerationEventPublisher publisher = new GenerationEventPublisher(1);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+		while ( subscriber.subscription == null ) {
+			Thread.sleep(10);
+		}
+		subscriber.subscription.cancel();
+		assertFalse(publisher.hasSubscribers());
+		// never blocked after cancel
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			publisher.publish(GenerationEvent.resourcesCopied(i));
+		}
+		publisher.close(null);
+		assertTrue(publisher.awaitDelivery(10, TimeUnit.SECONDS));
+		assertEquals(0, subscriber.events.size());
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void testErrorAndLateSubscriber() throws InterruptedException {
+		GenerationEventPublisher publisher = new GenerationEventPublisher();
+		RecordingSubscriber subscriber = new RecordingSubscriber(10);
+		publisher.subscribe(subscriber);
+		publisher.close(new IllegalStateException("foo"));
+		assertTrue(publisher.awaitDelivery(10, TimeUnit.SECONDS));
+		assertTrue(subscriber.error instanceof IllegalStateException);
+		// subscription after the end 
+		RecordingSubscriber lateSubscriber = new RecordingSubscriber(10);
+		publisher.subscribe(lateSubscriber);
+		Thread.sleep(100);
+		assertTrue(lateSubscriber.error instanceof IllegalStateException);
+		assertEquals(0, lateSubscriber.events.size());
+	}
+
+	@Test
+	public void testInvalidRequest() throws InterruptedException {
+		GenerationEventPublisher publisher = new GenerationEventPublisher();
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+		while ( subscriber.subscription == null ) {
+			Thread.sleep(10);
+		}
+		subscriber.subscription.request(0);
+		assertTrue(publisher.awaitDelivery(10, TimeUnit.SECONDS));
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void testEventsStreamOfParallelTask() throws Exception {
+		StressProject project = new StressProject();
+		StandardGenerationTask task = project.createTask(Collections.singletonList(project.getTargetDefinition("events", 0)), null);
+		task.setNumberOfThreads(2);
+		RecordingSubscriber subscriber = new RecordingSubscriber(Integer.MAX_VALUE);
+		task.getEventPublisher().subscribe(subscriber);
+		task.launch();
+		assertTrue(task.getEventPublisher().awaitDelivery(10, TimeUnit.SECONDS));
+		List<GenerationEvent> events = new ArrayList<>(subscriber.events);
+		int planned = 0 ;
+		int generated = 0 ;
+		for ( GenerationEvent event : events ) {
+			if ( event.getType() == GenerationEvent.Type.TARGET_PLANNED ) {
+				planned++ ;
+			}
+			else if ( event.getType() == GenerationEvent.Type.FILE_GENERATED ) {
+				generated++ ;
+				assertEquals(new File(event.getFilePath()).length(), event.getFileSize());
+			}
+		}
+		assertEquals(StressProject.ENTITIES_COUNT, planned);
+		assertEquals(StressProject.ENTITIES_COUNT, generated);
+		assertEquals(GenerationEvent.Type.TASK_FINISHED, events.get(events.size() - 1).getType());
+	}
+}
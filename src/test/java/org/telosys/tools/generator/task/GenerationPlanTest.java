@@ -0,0 +1,104 @@
+package org.telosys.tools.generator.task;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generator.output.InMemoryOutputSink;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.FakeProject;
+import junit.env.telosys.tools.generator.LoggerProvider;
+
+public class GenerationPlanTest {
+
+	private static final String BUNDLE = "bundle-stress";
+
+	private final FakeProject fakeProject = new FakeProject("proj-stress");
+
+	private DslModel buildModel() {
+		DslModel dslModel = new DslModel("PlanModel");
+		for ( int e = 0 ; e < 3 ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			DslModelAttribute attribute = new DslModelAttribute("id", NeutralType.INTEGER);
+			attribute.setKeyElement(true);
+			entity.addAttribute(attribute);
+			dslModel.addEntity(entity);
+		}
+		return dslModel ;
+	}
+
+	private List<String> getEntitiesNames(String... names) {
+		List<String> list = new LinkedList<>();
+		for ( String name : names ) {
+			list.add(name);
+		}
+		return list;
+	}
+
+	private StandardGenerationTask buildTask(List<String> entities, List<TargetDefinition> targets, InMemoryOutputSink outputSink) throws Exception {
+		StandardGenerationTask task = new StandardGenerationTask(buildModel(), entities, BUNDLE, targets, null,
+				fakeProject.getTelosysToolsCfg(), LoggerProvider.getLogger(), outputSink);
+		task.setContinueIfError(true);
+		return task ;
+	}
+
+	@Test
+	public void testPlanWithoutCollision() throws Exception {
+		List<TargetDefinition> targets = new LinkedList<>();
+		targets.add(new TargetDefinition("Java", "${BEANNAME}.java", "plan/java", "java_class.vm", "*"));
+		targets.add(new TargetDefinition("Kotlin", "${BEANNAME}.kt", "plan/kotlin", "kotlin_class.vm", "*"));
+		targets.add(new TargetDefinition("Once", "once.txt", "plan", "java_class.vm", "1"));
+		StandardGenerationTask task = buildTask(getEntitiesNames("Entity0", "Entity2", "Foo"), targets, null);
+		GenerationPlan plan = task.buildPlan();
+		assertEquals(5, plan.getNumberOfTargets());
+		assertEquals("plan/java/Entity0.java", plan.getTargets().get(0).getOutputFileNameInProject());
+		assertEquals("plan/kotlin/Entity0.kt", plan.getTargets().get(1).getOutputFileNameInProject());
+		assertEquals("plan/java/Entity2.java", plan.getTargets().get(2).getOutputFileNameInProject());
+		assertEquals("plan/once.txt", plan.getTargets().get(4).getOutputFileNameInProject());
+		assertEquals(1, plan.getMissingEntities().size());
+		assertEquals("Foo", plan.getMissingEntities().get(0));
+		assertFalse(plan.hasCollisions());
+	}
+
+	@Test
+	public void testPlanWithCollisions() throws Exception {
+		List<TargetDefinition> targets = new LinkedList<>();
+		targets.add(new TargetDefinition("Java", "${BEANNAME}.txt", "plan/collision", "java_class.vm", "*"));
+		targets.add(new TargetDefinition("Kotlin", "${BEANNAME}.txt", "plan/collision", "kotlin_class.vm", "*"));
+		StandardGenerationTask task = buildTask(getEntitiesNames("Entity0", "Entity1"), targets, null);
+		GenerationPlan plan = task.buildPlan();
+		assertEquals(4, plan.getNumberOfTargets());
+		assertTrue(plan.hasCollisions());
+		assertEquals(2, plan.getCollisions().size());
+		List<Target> collision = plan.getCollisions().get("plan/collision/Entity0.txt");
+		assertEquals(2, collision.size());
+		assertEquals("java_class.vm", collision.get(0).getTemplate());
+		assertEquals("kotlin_class.vm", collision.get(1).getTemplate());
+	}
+
+	@Test
+	public void testLaunchWithPlan() throws Exception {
+		List<TargetDefinition> targets = new LinkedList<>();
+		targets.add(new TargetDefinition("Java", "${BEANNAME}.txt", "plan/run", "java_class.vm", "*"));
+		targets.add(new TargetDefinition("Kotlin", "${BEANNAME}.txt", "plan/run", "kotlin_class.vm", "*"));
+		InMemoryOutputSink outputSink = new InMemoryOutputSink();
+		StandardGenerationTask task = buildTask(getEntitiesNames("Entity0", "Entity1", "Entity2"), targets, outputSink);
+		GenerationPlan plan = task.buildPlan();
+		GenerationTaskResult result = task.launch(plan);
+		assertEquals(6, result.getNumberOfFilesGenerated());
+		assertEquals(3, outputSink.getNumberOfFiles());
+		// collisions reported as errors
+		assertEquals(3, result.getErrors().size());
+		assertTrue(result.getErrors().get(0).getErrorMessage().contains("plan/run/Entity0.txt"));
+	}
+}
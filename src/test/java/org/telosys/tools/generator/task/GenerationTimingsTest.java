@@ -0,0 +1,162 @@
+package org.telosys.tools.generator.task;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generator.context.Target;
+import org.telosys.tools.generic.model.types.NeutralType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import junit.env.telosys.tools.generator.StressProject;
+
+public class GenerationTimingsTest {
+
+	private static final String DEST_DIR = "/tmp/dest" ;
+
+	private DslModel buildModel() {
+		DslModel model = new DslModel("TimingsModel");
+		// Entity0 : 1 attribute, Entity1 : 5 attributes, Entity2 : 3 attributes
+		int[] attributesCount = { 1, 5, 3 } ;
+		for ( int e = 0 ; e < attributesCount.length ; e++ ) {
+			DslModelEntity entity = new DslModelEntity("Entity" + e);
+			for ( int a = 0 ; a < attributesCount[e] ; a++ ) {
+				entity.addAttribute(new DslModelAttribute("attr" + a, NeutralType.STRING));
+			}
+			model.addEntity(entity);
+		}
+		return model ;
+	}
+
+	private Target buildTarget(DslModel model, String template, String entityName) {
+		if ( entityName != null ) {
+			TargetDefinition targetDefinition = new TargetDefinition("Target", "${BEANNAME}.txt", "out", template, "*");
+			return new Target(DEST_DIR, targetDefinition, new HashMap<String, String>(), model.getEntityByClassName(entityName));
+		}
+		else {
+			TargetDefinition targetDefinition = new TargetDefinition("Target", "once.txt", "out", template, "1");
+			return new Target(DEST_DIR, targetDefinition, new HashMap<String, String>());
+		}
+	}
+
+	@Test
+	public void testCostWithoutHistory() {
+		DslModel model = buildModel();
+		GenerationTimings timings = new GenerationTimings();
+		Target t0 = buildTarget(model, "a.vm", "Entity0");
+		Target t1 = buildTarget(model, "a.vm", "Entity1");
+		Target t2 = buildTarget(model, "a.vm", "Entity2");
+		Target once = buildTarget(model, "once.vm", null);
+		assertEquals(2, timings.getEstimatedCost(t0, model));
+		assertEquals(6, timings.getEstimatedCost(t1, model));
+		assertEquals(10, timings.getEstimatedCost(once, model)); // all the model attributes
+		List<Target> targets = new LinkedList<>();
+		targets.add(t0);
+		targets.add(t1);
+		targets.add(t2);
+		targets.add(once);
+		List<Target> sorted = timings.sortByDecreasingCost(targets, model);
+		assertSame(once, sorted.get(0));
+		assertSame(t1, sorted.get(1));
+		assertSame(t2, sorted.get(2));
+		assertSame(t0, sorted.get(3));
+	}
+
+	@Test
+	public void testCostWithHistory() throws Exception {
+		DslModel model = buildModel();
+		GenerationTimings timings = new GenerationTimings();
+		Target t0 = buildTarget(model, "a.vm", "Entity0");
+		Target t1 = buildTarget(model, "a.vm", "Entity1");
+		Target b0 = buildTarget(model, "b.vm", "Entity0");
+		timings.record(t0, 5000);
+		assertEquals(5000, timings.getDuration(t0));
+		assertEquals(5000, timings.getDuration(t1)); // template duration
+		assertEquals(-1, timings.getDuration(b0));
+		List<Target> targets = new LinkedList<>();
+		targets.add(t0);
+		timings.updateCostUnit(targets, model);
+		assertEquals(2 * 2500, timings.getEstimatedCost(b0, model)); // 2500 micros per attribute
+
+		// save and load
+		File file = File.createTempFile("telosys-timings", ".properties");
+		file.deleteOnExit();
+		timings.save(file);
+		GenerationTimings loaded = GenerationTimings.load(file);
+		assertEquals(2, loaded.size());
+		assertEquals(5000, loaded.getDuration(t0));
+		assertEquals(2 * 2500, loaded.getEstimatedCost(b0, model));
+	}
+
+	@Test
+	public void testTemplateAverage() throws Exception {
+		DslModel model = buildModel();
+		GenerationTimings timings = new GenerationTimings();
+		Target t0 = buildTarget(model, "a.vm", "Entity0");
+		Target t1 = buildTarget(model, "a.vm", "Entity1");
+		Target t2 = buildTarget(model, "a.vm", "Entity2");
+		timings.record(t0, 6000);
+		timings.record(t1, 1000);
+		timings.record(t1, 2000);
+		assertEquals(6000, timings.getDuration(t0));
+		assertEquals(2000, timings.getDuration(t1)); // last duration for the entity
+		assertEquals(3000, timings.getDuration(t2)); // average for the template 
+
+		// the loaded template duration counts as one 
+		File file = File.createTempFile("telosys-timings", ".properties");
+		file.deleteOnExit();
+		timings.save(file);
+		GenerationTimings loaded = GenerationTimings.load(file);
+		loaded.record(t0, 1000);
+		assertEquals(2000, loaded.getDuration(t2));
+	}
+
+	@Test
+	public void testLoadWithoutFile() throws Exception {
+		GenerationTimings timings = GenerationTimings.load(new File("/tmp/no-such-dir/no-file.properties"));
+		assertEquals(0, timings.size());
+		assertEquals(new File(DEST_DIR, GenerationTimings.DEFAULT_FILE_NAME), GenerationTimings.getDefaultFile(DEST_DIR));
+	}
+
+	@Test
+	public void testParallelTaskSavesTimings() throws Exception {
+		StressProject project = new StressProject();
+		project.createTask(project.getTargetDefinitions("sequential"), null).launch();
+		StandardGenerationTask task = project.createTask(project.getTargetDefinitions("parallel"), null);
+		task.setNumberOfThreads(4);
+		File timingsFile = File.createTempFile("telosys-timings", ".properties");
+		timingsFile.deleteOnExit();
+		task.setTimingsFile(timingsFile);
+		GenerationTaskResult result = task.launch();
+		assertEquals(0, result.getNumberOfGenerationErrors());
+		assertEquals(StressProject.TEMPLATES.length * StressProject.ENTITIES_COUNT, result.getNumberOfFilesGenerated());
+		for ( int t = 0 ; t < StressProject.TEMPLATES.length ; t++ ) {
+			project.checkSameFiles("sequential", "parallel", t);
+		}
+		// durations history saved (targets scheduled by decreasing cost on next run)
+		assertTrue(GenerationTimings.load(timingsFile).size() > StressProject.TEMPLATES.length * StressProject.ENTITIES_COUNT);
+	}
+
+	@Test
+	public void testParallelTaskWithoutTimingsFile() throws Exception {
+		StressProject project = new StressProject();
+		File defaultFile = GenerationTimings.getDefaultFile(project.getTelosysToolsCfg().getDestinationFolderAbsolutePath());
+		defaultFile.delete(); // file created by a previous version
+		StandardGenerationTask task = project.createTask(project.getTargetDefinitions("no-timings"), null);
+		task.setNumberOfThreads(4);
+		GenerationTaskResult result = task.launch();
+		assertEquals(0, result.getNumberOfGenerationErrors());
+		// nothing written in the destination folder except the generated files
+		assertFalse(defaultFile.exists());
+	}
+}